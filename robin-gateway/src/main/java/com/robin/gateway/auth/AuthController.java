@@ -1,5 +1,7 @@
 package com.robin.gateway.auth;
 
+import com.robin.gateway.datasource.DatabaseCalls;
+import com.robin.gateway.datasource.WorkloadClass;
 import com.robin.gateway.model.dto.AuthResponse;
 import com.robin.gateway.model.dto.LoginRequest;
 import com.robin.gateway.model.dto.TokenResponse;
@@ -36,6 +38,7 @@ import java.time.Duration;
 public class AuthController {
 
     private final AuthService authService;
+    private final DatabaseCalls databaseCalls;
 
     /**
      * Login endpoint.
@@ -51,7 +54,7 @@ public class AuthController {
             ServerHttpRequest request,
             ServerHttpResponse response) {
 
-        return Mono.fromCallable(() -> {
+        return databaseCalls.call(WorkloadClass.AUTH, () -> {
                     String ipAddress = extractIpAddress(request);
                     String userAgent = extractUserAgent(request);
 
@@ -84,16 +87,15 @@ public class AuthController {
      */
     @PostMapping("/refresh")
     public Mono<ResponseEntity<TokenResponse>> refresh(ServerHttpRequest request) {
-        return Mono.fromCallable(() -> {
-                    String refreshToken = extractRefreshTokenFromCookie(request);
-
-                    if (refreshToken == null) {
-                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                                .<TokenResponse>body(null);
-                    }
+        String refreshToken = extractRefreshTokenFromCookie(request);
 
-                    TokenResponse tokenResponse = authService.refreshToken(refreshToken);
+        if (refreshToken == null) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .<TokenResponse>body(null));
+        }
 
+        return authService.refreshToken(refreshToken)
+                .map(tokenResponse -> {
                     // Don't send refresh token in response
                     tokenResponse.setRefreshToken(null);
 
@@ -114,7 +116,7 @@ public class AuthController {
             ServerHttpRequest request,
             ServerHttpResponse response) {
 
-        return Mono.fromCallable(() -> {
+        return databaseCalls.call(WorkloadClass.AUTH, () -> {
                     String refreshToken = extractRefreshTokenFromCookie(request);
                     authService.logout(refreshToken);
 
@@ -141,12 +143,11 @@ public class AuthController {
      */
     @GetMapping("/me")
     public Mono<ResponseEntity<AuthResponse>> getCurrentUser(Principal principal) {
-        return Mono.fromCallable(() -> {
-            if (principal == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-            }
-            return ResponseEntity.ok(authService.getCurrentUser(principal.getName()));
-        });
+        if (principal == null) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        return authService.getCurrentUser(principal.getName())
+                .map(ResponseEntity::ok);
     }
 
     /**
@@ -5,6 +5,7 @@ import com.robin.gateway.model.User;
 import com.robin.gateway.model.dto.AuthResponse;
 import com.robin.gateway.model.dto.LoginRequest;
 import com.robin.gateway.model.dto.TokenResponse;
+import com.robin.gateway.repository.ReadPathRepository;
 import com.robin.gateway.repository.SessionRepository;
 import com.robin.gateway.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +15,7 @@ import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 
@@ -29,6 +31,7 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final SessionRepository sessionRepository;
+    private final ReadPathRepository readPathRepository;
     private final JwtTokenProvider jwtTokenProvider;
     private final PasswordEncoder passwordEncoder;
 
@@ -104,56 +107,57 @@ public class AuthService {
     /**
      * Refresh access token using refresh token.
      *
+     * Session and user lookups go through the configured read path, so with the R2DBC
+     * read mode a refresh never occupies a JDBC connection.
+     *
      * @param refreshToken the refresh token
-     * @return new token response
-     * @throws BadCredentialsException if refresh token is invalid
+     * @return new token response, or BadCredentialsException if refresh token is invalid
      */
-    @Transactional
-    public TokenResponse refreshToken(String refreshToken) {
+    public Mono<TokenResponse> refreshToken(String refreshToken) {
         log.debug("Token refresh attempt");
 
         // Validate refresh token
         if (!jwtTokenProvider.validateToken(refreshToken)) {
-            throw new BadCredentialsException("Invalid refresh token");
+            return Mono.error(new BadCredentialsException("Invalid refresh token"));
         }
 
         // Check token type
         String tokenType = jwtTokenProvider.getTokenType(refreshToken);
         if (!"refresh".equals(tokenType)) {
-            throw new BadCredentialsException("Invalid token type");
-        }
-
-        // Find session
-        Session session = sessionRepository.findByRefreshToken(refreshToken)
-                .orElseThrow(() -> new BadCredentialsException("Refresh token not found"));
-
-        // Validate session
-        if (!session.isValid()) {
-            log.warn("Attempt to use expired or revoked refresh token");
-            throw new BadCredentialsException("Refresh token is expired or revoked");
+            return Mono.error(new BadCredentialsException("Invalid token type"));
         }
 
-        // Get user
         Long userId = jwtTokenProvider.getUserIdFromToken(refreshToken);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new BadCredentialsException("User not found"));
-
-        // Check if user is enabled
-        if (!user.getEnabled()) {
-            throw new DisabledException("User account is disabled");
-        }
-
-        // Generate new access token
-        String newAccessToken = jwtTokenProvider.generateAccessToken(user);
-
-        log.info("Token refreshed for user: {}", user.getUsername());
 
-        return TokenResponse.builder()
-                .accessToken(newAccessToken)
-                .refreshToken(refreshToken) // Keep same refresh token
-                .tokenType("Bearer")
-                .expiresIn(1800L)
-                .build();
+        return readPathRepository.findSessionByRefreshToken(refreshToken)
+                .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Refresh token not found")))
+                .flatMap(session -> {
+                    // Validate session
+                    if (!session.isValid()) {
+                        log.warn("Attempt to use expired or revoked refresh token");
+                        return Mono.error(new BadCredentialsException("Refresh token is expired or revoked"));
+                    }
+                    return readPathRepository.findUserById(userId)
+                            .switchIfEmpty(Mono.error(() -> new BadCredentialsException("User not found")));
+                })
+                .flatMap(user -> {
+                    // Check if user is enabled
+                    if (!user.getEnabled()) {
+                        return Mono.error(new DisabledException("User account is disabled"));
+                    }
+
+                    // Generate new access token
+                    String newAccessToken = jwtTokenProvider.generateAccessToken(user);
+
+                    log.info("Token refreshed for user: {}", user.getUsername());
+
+                    return Mono.just(TokenResponse.builder()
+                            .accessToken(newAccessToken)
+                            .refreshToken(refreshToken) // Keep same refresh token
+                            .tokenType("Bearer")
+                            .expiresIn(1800L)
+                            .build());
+                });
     }
 
     /**
@@ -192,20 +196,18 @@ public class AuthService {
      * @param username the username
      * @return auth response with user details (no tokens)
      */
-    @Transactional(readOnly = true)
-    public AuthResponse getCurrentUser(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new BadCredentialsException("User not found"));
-
-        return AuthResponse.builder()
-                .user(AuthResponse.UserDTO.builder()
-                        .id(user.getId())
-                        .username(user.getUsername())
-                        .email(user.getEmail())
-                        .roles(user.getRoles())
-                        .build())
-                .permissions(user.getPermissions())
-                .build();
+    public Mono<AuthResponse> getCurrentUser(String username) {
+        return readPathRepository.findUserByUsername(username)
+                .switchIfEmpty(Mono.error(() -> new BadCredentialsException("User not found")))
+                .map(user -> AuthResponse.builder()
+                        .user(AuthResponse.UserDTO.builder()
+                                .id(user.getId())
+                                .username(user.getUsername())
+                                .email(user.getEmail())
+                                .roles(user.getRoles())
+                                .build())
+                        .permissions(user.getPermissions())
+                        .build());
     }
 
     /**
@@ -0,0 +1,16 @@
+package com.robin.gateway.config;
+
+import com.robin.gateway.service.ConfigReloadProperties;
+import com.robin.gateway.service.RobinNodesProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings for Robin configuration management.
+ *
+ * @author Robin Gateway Team
+ */
+@Configuration
+@EnableConfigurationProperties({ConfigReloadProperties.class, RobinNodesProperties.class})
+public class ConfigManagementConfig {
+}
@@ -0,0 +1,98 @@
+package com.robin.gateway.config;
+
+import com.robin.gateway.datasource.ReplicaRoutingDataSource;
+import com.robin.gateway.datasource.RoutingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read replica routing for the JDBC data source.
+ *
+ * Only active when {@code robin.datasource.routing.enabled=true}; otherwise Boot's default
+ * single data source is used. Flyway, JPA writes and read-write transactions always use the
+ * primary, read-only work from {@code DatabaseCalls.read} may be served by a replica.
+ *
+ * @author Robin Gateway Team
+ */
+@Configuration
+@EnableConfigurationProperties(RoutingProperties.class)
+@ConditionalOnProperty(name = "robin.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    /**
+     * Primary pool, configured from {@code spring.datasource}.
+     *
+     * @return primary data source
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Create the router between the primary and the configured replicas.
+     *
+     * @return routing data source
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                             DataSourceProperties dataSourceProperties,
+                                                             RoutingProperties routingProperties,
+                                                             MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (RoutingProperties.Replica replica : routingProperties.getReplicas()) {
+            replicas.put(replica.getName(), replicaPool(replica, dataSourceProperties, meterRegistry));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                routingProperties.getFailureBackoff(), meterRegistry);
+    }
+
+    /**
+     * Data source used by JPA, JdbcTemplate and Flyway.
+     *
+     * The lazy proxy defers the routing decision to the first statement, once the
+     * transaction's read-only flag is known.
+     *
+     * @return lazily connecting routing data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private static HikariDataSource replicaPool(RoutingProperties.Replica replica,
+                                                DataSourceProperties primary,
+                                                MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("replica-" + replica.getName());
+        pool.setJdbcUrl(replica.getUrl());
+        pool.setUsername(replica.getUsername() != null ? replica.getUsername() : primary.determineUsername());
+        pool.setPassword(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword());
+        pool.setMaximumPoolSize(replica.getMaxPoolSize());
+        pool.setReadOnly(true);
+        // Don't fail startup if a replica is down; the router falls back to the primary
+        pool.setInitializationFailTimeout(-1);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
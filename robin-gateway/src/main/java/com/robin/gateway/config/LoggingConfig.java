@@ -0,0 +1,16 @@
+package com.robin.gateway.config;
+
+import com.robin.gateway.service.LogIndexProperties;
+import com.robin.gateway.service.LogSourcesProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings for access to the Robin MTA log.
+ *
+ * @author Robin Gateway Team
+ */
+@Configuration
+@EnableConfigurationProperties({LogIndexProperties.class, LogSourcesProperties.class})
+public class LoggingConfig {
+}
@@ -0,0 +1,55 @@
+package com.robin.gateway.config;
+
+import com.robin.gateway.datasource.CancellableDataSource;
+import com.robin.gateway.datasource.DeadlineProperties;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Cancellable database calls.
+ *
+ * The application {@code dataSource} bean is wrapped so statements created inside a
+ * {@link com.robin.gateway.datasource.DatabaseCalls} call can be cancelled when the request
+ * goes away and get a statement timeout derived from the request deadline.
+ *
+ * @author Robin Gateway Team
+ */
+@Configuration
+@EnableConfigurationProperties(DeadlineProperties.class)
+public class QueryCancellationConfig {
+
+    /**
+     * Wrap the application data source with statement tracking.
+     *
+     * @return bean post processor
+     */
+    @Bean
+    public static BeanPostProcessor cancellableDataSourcePostProcessor() {
+        return new CancellableDataSourcePostProcessor();
+    }
+
+    private static final class CancellableDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+        /**
+         * Outermost wrapper, after workload sub-pools and replica routing.
+         */
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)
+                    && !(bean instanceof CancellableDataSource)) {
+                return new CancellableDataSource(dataSource);
+            }
+            return bean;
+        }
+    }
+}
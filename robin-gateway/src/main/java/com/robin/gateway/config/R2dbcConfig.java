@@ -0,0 +1,89 @@
+package com.robin.gateway.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC connection pool for the reactive read path.
+ *
+ * Only active when {@code robin.persistence.read-mode=r2dbc}. The pool is separate from
+ * the Hikari pool used by JPA, Flyway and admin writes.
+ *
+ * Boot's {@code DataSourceAutoConfiguration} backs off as soon as any
+ * {@code io.r2dbc.spi.ConnectionFactory} bean exists, so in this mode the JDBC pool and its
+ * {@link DataSourceProperties} are declared here (or by {@link DataSourceRoutingConfig}
+ * when replica routing is enabled).
+ *
+ * @author Robin Gateway Team
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+@ConditionalOnProperty(name = "robin.persistence.read-mode", havingValue = "r2dbc")
+public class R2dbcConfig {
+
+    /**
+     * JDBC pool for JPA, JdbcTemplate and Flyway, configured from {@code spring.datasource}
+     * as Boot would.
+     *
+     * @return data source
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    @ConditionalOnProperty(name = "robin.datasource.routing.enabled", havingValue = "false", matchIfMissing = true)
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        if (dataSourceProperties.getName() != null) {
+            dataSource.setPoolName(dataSourceProperties.getName());
+        }
+        return dataSource;
+    }
+
+    /**
+     * Create pooled PostgreSQL connection factory.
+     *
+     * @return connection factory
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool r2dbcConnectionFactory(
+            @Value("${robin.persistence.r2dbc.url}") String url,
+            @Value("${robin.persistence.r2dbc.username}") String username,
+            @Value("${robin.persistence.r2dbc.password}") String password,
+            @Value("${robin.persistence.r2dbc.initial-size:5}") int initialSize,
+            @Value("${robin.persistence.r2dbc.max-size:20}") int maxSize) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(url)
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("robin-r2dbc")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .build());
+    }
+
+    /**
+     * Create database client for the reactive repositories.
+     *
+     * @return database client
+     */
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+}
@@ -0,0 +1,14 @@
+package com.robin.gateway.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs.
+ *
+ * @author Robin Gateway Team
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -148,6 +148,7 @@ public class SecurityConfig {
                 HttpMethod.GET.name(),
                 HttpMethod.POST.name(),
                 HttpMethod.PUT.name(),
+                HttpMethod.PATCH.name(),
                 HttpMethod.DELETE.name(),
                 HttpMethod.OPTIONS.name()
         ));
@@ -158,14 +159,19 @@ public class SecurityConfig {
                 "Content-Type",
                 "X-Requested-With",
                 "Accept",
-                "Origin"
+                "Origin",
+                "If-Match",
+                "If-None-Match",
+                "Last-Event-ID"
         ));
 
         // Expose headers
         configuration.setExposedHeaders(Arrays.asList(
                 "X-Total-Count",
                 "X-Page-Number",
-                "X-Page-Size"
+                "X-Page-Size",
+                "ETag",
+                "X-Config-Write-Id"
         ));
 
         // Allow credentials
@@ -0,0 +1,99 @@
+package com.robin.gateway.config;
+
+import com.robin.gateway.datasource.WorkloadClass;
+import com.robin.gateway.datasource.WorkloadPoolDataSource;
+import com.robin.gateway.datasource.WorkloadProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Workload bulkheads and optional per-workload Hikari sub-pools.
+ *
+ * When any class sets {@code robin.datasource.workloads.<class>.pool-size}, the main
+ * pool bean ({@code dataSource}, or {@code primaryDataSource} with replica routing) is
+ * wrapped so that class gets connections from its own pool against the same database.
+ *
+ * @author Robin Gateway Team
+ */
+@Configuration
+@EnableConfigurationProperties(WorkloadProperties.class)
+@Slf4j
+public class WorkloadPoolConfig {
+
+    private static final Set<String> MAIN_POOL_BEANS = Set.of("dataSource", "primaryDataSource");
+
+    /**
+     * Wrap the main pool with the workload sub-pools, if any are configured.
+     *
+     * @return bean post processor
+     */
+    @Bean
+    public static BeanPostProcessor workloadPoolPostProcessor(Environment environment) {
+        return new WorkloadPoolPostProcessor(environment);
+    }
+
+    private static final class WorkloadPoolPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment environment;
+
+        private WorkloadPoolPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        /**
+         * Runs before the statement tracking wrapper, which must see the Hikari pool first.
+         */
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource mainPool) || !MAIN_POOL_BEANS.contains(beanName)) {
+                return bean;
+            }
+            WorkloadProperties properties = Binder.get(environment)
+                    .bind("robin.datasource", WorkloadProperties.class)
+                    .orElseGet(WorkloadProperties::new);
+
+            Map<WorkloadClass, DataSource> pools = new EnumMap<>(WorkloadClass.class);
+            for (WorkloadClass workload : WorkloadClass.values()) {
+                int poolSize = properties.limitsFor(workload).getPoolSize();
+                if (poolSize > 0) {
+                    pools.put(workload, subPool(mainPool, workload, poolSize));
+                }
+            }
+            if (pools.isEmpty()) {
+                return bean;
+            }
+            log.info("Using dedicated connection pools for workloads: {}", pools.keySet());
+            return new WorkloadPoolDataSource(mainPool, pools);
+        }
+    }
+
+    private static HikariDataSource subPool(HikariDataSource mainPool, WorkloadClass workload, int poolSize) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(mainPool.getPoolName() + "-" + workload.tag());
+        pool.setJdbcUrl(mainPool.getJdbcUrl());
+        pool.setUsername(mainPool.getUsername());
+        pool.setPassword(mainPool.getPassword());
+        pool.setDriverClassName(mainPool.getDriverClassName());
+        pool.setMaximumPoolSize(poolSize);
+        pool.setMinimumIdle(Math.min(poolSize, 1));
+        pool.setInitializationFailTimeout(-1);
+        return pool;
+    }
+}
@@ -0,0 +1,52 @@
+package com.robin.gateway.controller;
+
+import com.robin.gateway.exception.GatewayException;
+import com.robin.gateway.model.dto.ChangeFeedResponse;
+import com.robin.gateway.service.ChangeFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/v1/changes")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Changes", description = "Incremental change feed for users, domains and aliases")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get changes since a revision",
+            description = "Returns upserts and deletes after the given revision in revision order. "
+                    + "With wait > 0 the request is held until a change arrives or the wait (seconds) expires.")
+    public Mono<ResponseEntity<ChangeFeedResponse>> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(defaultValue = "0") int wait) {
+        if (since < 0 || limit < 1 || wait < 0) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        log.debug("Fetching changes since {}, limit: {}, wait: {}s", since, limit, wait);
+        return changeFeedService.getChanges(since, limit, Duration.ofSeconds(wait))
+                .map(ResponseEntity::ok)
+                .onErrorResume(GatewayException::isUnexpected, e -> {
+                    log.error("Error fetching changes since {}", since, e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+                });
+    }
+}
@@ -1,32 +1,163 @@
 package com.robin.gateway.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.robin.gateway.model.dto.ConfigDistributionReport;
+import com.robin.gateway.model.dto.ConfigReloadReport;
+import com.robin.gateway.model.dto.ConfigVersion;
+import com.robin.gateway.service.ConfigEventService;
+import com.robin.gateway.service.ConfigWriteResult;
 import com.robin.gateway.service.ConfigurationService;
+import com.robin.gateway.util.ETags;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/config")
 @RequiredArgsConstructor
 public class ConfigurationController {
 
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+    private static final String JSON_PATCH_JSON = "application/json-patch+json";
+
+    /**
+     * Id of a write that changed a section; look up its Robin reload under /reloads/writes/{id}.
+     */
+    static final String WRITE_ID_HEADER = "X-Config-Write-Id";
+
     private final ConfigurationService configService;
+    private final ConfigEventService configEventService;
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Flux<ServerSentEvent<String>> streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Set<String> section,
+            @RequestParam(defaultValue = "false") boolean diff) {
+        return configEventService.stream(lastEventId, section, diff);
+    }
 
     @GetMapping("/{section}")
     @PreAuthorize("hasRole('ADMIN')")
-    public Mono<ResponseEntity<Map<String, Object>>> getConfig(@PathVariable String section) {
-        return configService.getConfig(section)
-                .map(ResponseEntity::ok);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getConfig(
+            @PathVariable String section,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            ServerHttpResponse response) {
+        return configService.readSection(section, response.bufferFactory())
+                .map(content -> {
+                    HttpStatus status = ETags.noneMatchFails(ifNoneMatch, content.etag())
+                            ? HttpStatus.NOT_MODIFIED
+                            : HttpStatus.OK;
+                    // Clients must revalidate, which costs a header exchange while unchanged
+                    ResponseEntity.BodyBuilder builder = ResponseEntity.status(status)
+                            .eTag(content.etag())
+                            .cacheControl(CacheControl.noCache());
+                    if (status == HttpStatus.NOT_MODIFIED) {
+                        return builder.<Flux<DataBuffer>>build();
+                    }
+                    return builder.contentType(MediaType.APPLICATION_JSON).body(content.body());
+                });
     }
 
     @PutMapping("/{section}")
     @PreAuthorize("hasRole('ADMIN')")
-    public Mono<ResponseEntity<Void>> updateConfig(@PathVariable String section, @RequestBody Map<String, Object> config) {
-        return configService.updateConfig(section, config)
-                .then(Mono.just(ResponseEntity.ok().<Void>build()));
+    public Mono<ResponseEntity<Void>> updateConfig(
+            @PathVariable String section,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Map<String, Object> config) {
+        return configService.updateConfig(section, config, ifMatch)
+                .map(ConfigurationController::written);
+    }
+
+    @PatchMapping(value = "/{section}", consumes = MERGE_PATCH_JSON)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Void>> mergePatchConfig(
+            @PathVariable String section,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        return configService.mergePatch(section, patch, ifMatch)
+                .map(ConfigurationController::written);
+    }
+
+    @PatchMapping(value = "/{section}", consumes = JSON_PATCH_JSON)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Void>> jsonPatchConfig(
+            @PathVariable String section,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode operations) {
+        return configService.jsonPatch(section, operations, ifMatch)
+                .map(ConfigurationController::written);
+    }
+
+    // Under /value so that pointers such as /versions do not collide with the routes below
+    @GetMapping("/{section}/value/{*pointer}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<JsonNode>> getConfigValue(@PathVariable String section, @PathVariable String pointer) {
+        return configService.getValue(section, pointer)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{section}/versions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<List<ConfigVersion>>> listVersions(@PathVariable String section) {
+        return configService.getVersions(section)
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/{section}/versions/{versionId}/restore")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Void>> restoreVersion(
+            @PathVariable String section,
+            @PathVariable String versionId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return configService.restoreVersion(section, versionId, ifMatch)
+                .map(ConfigurationController::written);
+    }
+
+    @PostMapping("/{section}/distribute")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<ConfigDistributionReport>> distribute(
+            @PathVariable String section,
+            @RequestParam(required = false) String mode) {
+        return configService.distribute(section, mode)
+                .map(report -> ResponseEntity
+                        .status(report.isSucceeded() ? HttpStatus.OK : HttpStatus.BAD_GATEWAY)
+                        .body(report));
+    }
+
+    @GetMapping("/reloads")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<List<ConfigReloadReport>>> listReloads() {
+        return configService.getReloads()
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/reloads/writes/{writeId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<ConfigReloadReport>> getReloadForWrite(@PathVariable long writeId) {
+        return configService.getReloadForWrite(writeId)
+                .map(ResponseEntity::ok);
+    }
+
+    private static ResponseEntity<Void> written(ConfigWriteResult result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(result.etag());
+        if (result.writeId() != null) {
+            response.header(WRITE_ID_HEADER, String.valueOf(result.writeId()));
+        }
+        return response.build();
     }
 }
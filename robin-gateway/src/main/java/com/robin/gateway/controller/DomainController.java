@@ -1,7 +1,9 @@
 package com.robin.gateway.controller;
 
+import com.robin.gateway.exception.GatewayException;
 import com.robin.gateway.model.Alias;
 import com.robin.gateway.model.Domain;
+import com.robin.gateway.model.dto.AliasBatchResponse;
 import com.robin.gateway.model.dto.AliasRequest;
 import com.robin.gateway.model.dto.DomainRequest;
 import com.robin.gateway.service.DomainService;
@@ -15,9 +17,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -42,7 +46,7 @@ public class DomainController {
         log.info("Listing domains - page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
         return domainService.getAllDomains(pageable)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .onErrorResume(GatewayException::isUnexpected, e -> {
                     log.error("Error listing domains", e);
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
                 });
@@ -55,11 +59,8 @@ public class DomainController {
         log.info("Getting domain with id: {}", id);
         return domainService.getDomainById(id)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .onErrorResume(GatewayException::isUnexpected, e -> {
                     log.error("Error getting domain with id: {}", id, e);
-                    if (e.getMessage().contains("not found")) {
-                        return Mono.just(ResponseEntity.notFound().build());
-                    }
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
                 });
     }
@@ -71,11 +72,8 @@ public class DomainController {
         log.info("Creating domain: {}", request.getDomain());
         return domainService.createDomain(request.getDomain())
                 .map(domain -> ResponseEntity.status(HttpStatus.CREATED).body(domain))
-                .onErrorResume(e -> {
+                .onErrorResume(GatewayException::isUnexpected, e -> {
                     log.error("Error creating domain: {}", request.getDomain(), e);
-                    if (e instanceof IllegalArgumentException) {
-                        return Mono.just(ResponseEntity.badRequest().build());
-                    }
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
                 });
     }
@@ -87,11 +85,8 @@ public class DomainController {
         log.info("Deleting domain with id: {}", id);
         return domainService.deleteDomain(id)
                 .then(Mono.just(ResponseEntity.ok(Map.of("message", "Domain deleted successfully"))))
-                .onErrorResume(e -> {
+                .onErrorResume(GatewayException::isUnexpected, e -> {
                     log.error("Error deleting domain with id: {}", id, e);
-                    if (e.getMessage().contains("not found")) {
-                        return Mono.just(ResponseEntity.notFound().build());
-                    }
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
                 });
     }
@@ -105,11 +100,8 @@ public class DomainController {
         log.info("Listing aliases for domain id: {}", domainId);
         return domainService.getAliasesByDomain(domainId)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .onErrorResume(GatewayException::isUnexpected, e -> {
                     log.error("Error listing aliases for domain id: {}", domainId, e);
-                    if (e.getMessage().contains("not found")) {
-                        return Mono.just(ResponseEntity.notFound().build());
-                    }
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
                 });
     }
@@ -121,7 +113,7 @@ public class DomainController {
         log.info("Listing all aliases - page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
         return domainService.getAllAliases(pageable)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .onErrorResume(GatewayException::isUnexpected, e -> {
                     log.error("Error listing aliases", e);
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
                 });
@@ -134,11 +126,8 @@ public class DomainController {
         log.info("Getting alias with id: {}", id);
         return domainService.getAliasById(id)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .onErrorResume(GatewayException::isUnexpected, e -> {
                     log.error("Error getting alias with id: {}", id, e);
-                    if (e.getMessage().contains("not found")) {
-                        return Mono.just(ResponseEntity.notFound().build());
-                    }
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
                 });
     }
@@ -150,11 +139,22 @@ public class DomainController {
         log.info("Creating alias: {} -> {}", request.getSource(), request.getDestination());
         return domainService.createAlias(request.getSource(), request.getDestination())
                 .map(alias -> ResponseEntity.status(HttpStatus.CREATED).body(alias))
-                .onErrorResume(e -> {
+                .onErrorResume(GatewayException::isUnexpected, e -> {
                     log.error("Error creating alias: {} -> {}", request.getSource(), request.getDestination(), e);
-                    if (e instanceof IllegalArgumentException) {
-                        return Mono.just(ResponseEntity.badRequest().build());
-                    }
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+                });
+    }
+
+    @PostMapping(value = "/aliases/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Batch upsert aliases",
+            description = "Create or update many aliases in one transaction from a JSON array or NDJSON stream")
+    public Mono<ResponseEntity<AliasBatchResponse>> upsertAliases(@RequestBody Flux<AliasRequest> requests) {
+        log.info("Upserting alias batch");
+        return domainService.upsertAliases(requests)
+                .map(ResponseEntity::ok)
+                .onErrorResume(GatewayException::isUnexpected, e -> {
+                    log.error("Error upserting alias batch", e);
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
                 });
     }
@@ -168,14 +168,8 @@ public class DomainController {
         log.info("Updating alias id: {} with new destination: {}", id, destination);
         return domainService.updateAlias(id, destination)
                 .map(ResponseEntity::ok)
-                .onErrorResume(e -> {
+                .onErrorResume(GatewayException::isUnexpected, e -> {
                     log.error("Error updating alias with id: {}", id, e);
-                    if (e.getMessage().contains("not found")) {
-                        return Mono.just(ResponseEntity.notFound().build());
-                    }
-                    if (e instanceof IllegalArgumentException) {
-                        return Mono.just(ResponseEntity.badRequest().build());
-                    }
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
                 });
     }
@@ -187,11 +181,8 @@ public class DomainController {
         log.info("Deleting alias with id: {}", id);
         return domainService.deleteAlias(id)
                 .then(Mono.just(ResponseEntity.ok(Map.of("message", "Alias deleted successfully"))))
-                .onErrorResume(e -> {
+                .onErrorResume(GatewayException::isUnexpected, e -> {
                     log.error("Error deleting alias with id: {}", id, e);
-                    if (e.getMessage().contains("not found")) {
-                        return Mono.just(ResponseEntity.notFound().build());
-                    }
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
                 });
     }
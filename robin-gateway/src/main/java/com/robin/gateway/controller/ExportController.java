@@ -0,0 +1,74 @@
+package com.robin.gateway.controller;
+
+import com.robin.gateway.service.EntityExportService;
+import com.robin.gateway.service.EntityExportService.Entity;
+import com.robin.gateway.service.EntityExportService.Format;
+import com.robin.gateway.util.GzipChunkEncoder;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/v1/export")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Export", description = "Streaming export of users, domains and aliases")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ExportController {
+
+    private final EntityExportService exportService;
+
+    @GetMapping("/{entity}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export entities",
+            description = "Stream users, domains or aliases as CSV or NDJSON, optionally gzip-compressed")
+    public ResponseEntity<Flux<DataBuffer>> export(
+            @PathVariable String entity,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            ServerHttpResponse response) {
+
+        Entity exportEntity;
+        Format exportFormat;
+        try {
+            exportEntity = Entity.from(entity);
+            exportFormat = Format.from(format);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected export request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        log.info("Exporting {} as {}{}", exportEntity.getFileName(), exportFormat.getExtension(), gzip ? " (gzip)" : "");
+
+        Flux<DataBuffer> body = exportService.export(exportEntity, exportFormat, response.bufferFactory());
+        String fileName = exportEntity.getFileName() + "." + exportFormat.getExtension();
+        MediaType contentType = MediaType.parseMediaType(exportFormat.getContentType());
+
+        if (gzip) {
+            body = GzipChunkEncoder.gzip(body, response.bufferFactory());
+            fileName += ".gz";
+            contentType = MediaType.parseMediaType("application/gzip");
+        }
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
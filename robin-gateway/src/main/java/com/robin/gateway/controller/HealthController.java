@@ -1,5 +1,7 @@
 package com.robin.gateway.controller;
 
+import com.robin.gateway.datasource.DatabaseCalls;
+import com.robin.gateway.datasource.WorkloadClass;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +31,7 @@ public class HealthController {
 
     private final WebClient.Builder webClientBuilder;
     private final DataSource dataSource;
+    private final DatabaseCalls databaseCalls;
     private final ReactiveRedisConnectionFactory redisConnectionFactory;
 
     @Value("${robin.service-url:http://localhost:8080}")
@@ -134,7 +137,7 @@ public class HealthController {
      * Check database connectivity
      */
     private Mono<Map<String, Object>> checkDatabaseHealth() {
-        return Mono.fromCallable(() -> {
+        return databaseCalls.call(WorkloadClass.PROBE, () -> {
             Map<String, Object> health = new HashMap<>();
             try (Connection connection = dataSource.getConnection()) {
                 boolean isValid = connection.isValid(2);
@@ -147,6 +150,12 @@ public class HealthController {
                 health.put("error", e.getMessage());
             }
             return health;
+        }).onErrorResume(e -> {
+            log.warn("Database health check rejected: {}", e.getMessage());
+            Map<String, Object> health = new HashMap<>();
+            health.put("status", "DOWN");
+            health.put("error", e.getMessage());
+            return Mono.just(health);
         });
     }
 
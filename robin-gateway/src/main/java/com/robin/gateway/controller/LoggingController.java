@@ -1,21 +1,36 @@
 package com.robin.gateway.controller;
 
+import com.robin.gateway.exception.GatewayException;
+import com.robin.gateway.model.dto.LogPage;
+import com.robin.gateway.service.LogExportService;
+import com.robin.gateway.service.LogFilter;
+import com.robin.gateway.service.LogMergeService;
+import com.robin.gateway.service.LogService;
+import com.robin.gateway.service.LogTailService;
+import com.robin.gateway.util.GzipChunkEncoder;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.security.Principal;
 import java.time.Instant;
-import java.util.*;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/logs")
@@ -24,60 +39,104 @@ import java.util.*;
 @Tag(name = "Monitoring", description = "Logging endpoints")
 public class LoggingController {
 
-    private final WebClient.Builder webClientBuilder;
-
-    @Value("${ROBIN_CLIENT_URL:http://localhost:8090}")
-    private String robinClientUrl;
+    private final LogService logService;
+    private final LogTailService logTailService;
+    private final LogMergeService logMergeService;
+    private final LogExportService logExportService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    @Operation(summary = "Get logs", description = "Returns log entries from the MTA")
-    public Mono<ResponseEntity<Map<String, Object>>> getLogs(
+    @Operation(summary = "Get logs",
+            description = "Returns log entries from the MTA, newest first by default; pass nextCursor as cursor for the next page")
+    public Mono<ResponseEntity<LogPage>> getLogs(
             @RequestParam(required = false) String level,
+            @RequestParam(required = false) String logger,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) Instant startTime,
+            @RequestParam(required = false) Instant endTime,
             @RequestParam(defaultValue = "100") int limit,
-            @RequestParam(defaultValue = "0") int offset) {
-        
-        String query = search != null ? search : (level != null ? level : ".");
-        log.debug("Fetching logs from MTA with query: {}, limit: {}, offset: {}", query, limit, offset);
-        
-        return webClientBuilder.build()
-                .get()
-                .uri(uriBuilder -> uriBuilder
-                        .scheme("http")
-                        .host(extractHost(robinClientUrl))
-                        .port(extractPort(robinClientUrl))
-                        .path("/logs")
-                        .queryParam("q", query)
-                        .build())
-                .retrieve()
-                .bodyToMono(String.class)
-                .defaultIfEmpty("")
-                .map(logData -> {
-                    List<Map<String, Object>> entries = parseLogs(logData, level);
-                    
-                    int total = entries.size();
-                    int startIdx = Math.min(offset, total);
-                    int endIdx = Math.min(startIdx + limit, total);
-                    List<Map<String, Object>> pagedEntries = new ArrayList<>(entries.subList(startIdx, endIdx));
-                    
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("entries", pagedEntries);
-                    response.put("total", total);
-                    response.put("hasMore", total > endIdx);
-                    
-                    return ResponseEntity.ok(response);
-                })
-                .onErrorResume(e -> {
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "newest") String order) {
+        LogFilter filter = new LogFilter(level, logger, search, startTime, endTime);
+        return Mono.defer(() -> logService.getLogs(filter, limit, offset, cursor, LogService.Order.from(order)))
+                .map(ResponseEntity::ok)
+                .onErrorResume(GatewayException::isUnexpected, e -> {
                     log.error("Error bridging logs from MTA: {}", e.getMessage());
-                    Map<String, Object> errorResponse = new HashMap<>();
-                    errorResponse.put("entries", List.of());
-                    errorResponse.put("total", 0);
-                    errorResponse.put("hasMore", false);
-                    return Mono.just(ResponseEntity.ok(errorResponse));
+                    return Mono.just(ResponseEntity.ok(LogPage.empty()));
                 });
     }
 
+    @GetMapping("/merged")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Operation(summary = "Get merged logs",
+            description = "Returns log entries of several sources merged in timestamp order, with the outcome of each source")
+    public Mono<ResponseEntity<LogPage>> getMergedLogs(
+            @RequestParam(required = false) List<String> source,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String logger,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Instant startTime,
+            @RequestParam(required = false) Instant endTime,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "newest") String order) {
+        LogFilter filter = new LogFilter(level, logger, search, startTime, endTime);
+        return Mono.defer(() -> logMergeService.getLogs(source, filter, limit, offset, LogService.Order.from(order)))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/sources")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Operation(summary = "Get log sources", description = "Returns the sources available to merged log queries")
+    public Mono<ResponseEntity<List<String>>> getSources() {
+        return Mono.just(ResponseEntity.ok(logMergeService.sourceNames()));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Operation(summary = "Export logs",
+            description = "Stream matching log entries oldest first as plain text or NDJSON, optionally gzip-compressed")
+    public ResponseEntity<Flux<DataBuffer>> exportLogs(
+            @RequestParam(defaultValue = "txt") String format,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String logger,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Instant startTime,
+            @RequestParam(required = false) Instant endTime,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            Principal principal,
+            ServerHttpResponse response) {
+        LogExportService.Format exportFormat = LogExportService.Format.from(format);
+        LogFilter filter = new LogFilter(level, logger, search, startTime, endTime);
+
+        Flux<DataBuffer> body = logExportService.export(principal.getName(), filter, exportFormat, response.bufferFactory());
+        String fileName = "robin-logs." + exportFormat.getExtension();
+        MediaType contentType = MediaType.parseMediaType(exportFormat.getContentType());
+
+        if (gzip) {
+            body = GzipChunkEncoder.gzip(body, response.bufferFactory());
+            fileName += ".gz";
+            contentType = MediaType.parseMediaType("application/gzip");
+        }
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    @GetMapping(value = "/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Operation(summary = "Tail logs", description = "Streams the latest and newly written log entries as server-sent events")
+    public Flux<ServerSentEvent<String>> tailLogs(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String search) {
+        return logTailService.stream(lastEventId, level, search);
+    }
+
     @GetMapping("/loggers")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
     @Operation(summary = "Get loggers", description = "Returns available log sources")
@@ -91,62 +150,4 @@ public class LoggingController {
                 "dovecot"
         )));
     }
-
-    private List<Map<String, Object>> parseLogs(String data, String filterLevel) {
-        if (data == null || data.isEmpty()) return new ArrayList<>();
-        
-        List<Map<String, Object>> entries = new ArrayList<>();
-        String[] lines = data.split("\n");
-        
-        for (String line : lines) {
-            if (line.trim().isEmpty() || line.startsWith("Usage:")) continue;
-            
-            Map<String, Object> entry = new HashMap<>();
-            entry.put("message", line);
-            entry.put("timestamp", Instant.now().toString());
-            entry.put("level", "INFO");
-            entry.put("logger", "robin");
-            
-            if (line.contains(" ERROR ")) entry.put("level", "ERROR");
-            else if (line.contains(" WARN ")) entry.put("level", "WARN");
-            else if (line.contains(" DEBUG ")) entry.put("level", "DEBUG");
-            else if (line.contains(" TRACE ")) entry.put("level", "TRACE");
-            
-            if (filterLevel == null || entry.get("level").equals(filterLevel)) {
-                entries.add(entry);
-            }
-        }
-        
-        Collections.reverse(entries);
-        return entries;
-    }
-
-    private String extractHost(String url) {
-        if (url == null) return "localhost";
-        String host = url.replace("http://", "").replace("https://", "");
-        if (host.contains(":")) {
-            host = host.substring(0, host.indexOf(":"));
-        }
-        if (host.contains("/")) {
-            host = host.substring(0, host.indexOf("/"));
-        }
-        return host;
-    }
-
-    private int extractPort(String url) {
-        if (url == null) return 8090;
-        String host = url.replace("http://", "").replace("https://", "");
-        if (host.contains(":")) {
-            String portStr = host.substring(host.indexOf(":") + 1);
-            if (portStr.contains("/")) {
-                portStr = portStr.substring(0, portStr.indexOf("/"));
-            }
-            try {
-                return Integer.parseInt(portStr);
-            } catch (NumberFormatException e) {
-                return 8090;
-            }
-        }
-        return 80;
-    }
 }
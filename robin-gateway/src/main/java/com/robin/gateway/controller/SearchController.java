@@ -0,0 +1,44 @@
+package com.robin.gateway.controller;
+
+import com.robin.gateway.exception.GatewayException;
+import com.robin.gateway.model.dto.SearchResponse;
+import com.robin.gateway.service.SearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v1/search")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Search", description = "Typeahead search across users, domains and aliases")
+@SecurityRequirement(name = "Bearer Authentication")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search entities", description = "Substring search over usernames, domains and alias addresses, grouped by type")
+    public Mono<ResponseEntity<SearchResponse>> search(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.debug("Searching for: {}, limit: {}", query, limit);
+        return searchService.search(query, limit)
+                .map(ResponseEntity::ok)
+                .onErrorResume(GatewayException::isUnexpected, e -> {
+                    log.error("Error searching for: {}", query, e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+                });
+    }
+}
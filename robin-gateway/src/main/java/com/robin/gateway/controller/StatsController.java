@@ -0,0 +1,41 @@
+package com.robin.gateway.controller;
+
+import com.robin.gateway.exception.GatewayException;
+import com.robin.gateway.model.dto.EntityStats;
+import com.robin.gateway.service.EntityStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v1/stats")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Statistics", description = "Dashboard statistics")
+@SecurityRequirement(name = "Bearer Authentication")
+public class StatsController {
+
+    private final EntityStatsService entityStatsService;
+
+    @GetMapping("/entities")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @Operation(summary = "Get entity totals",
+            description = "Returns user, domain, alias and active session totals from materialized counters")
+    public Mono<ResponseEntity<EntityStats>> getEntityStats() {
+        return entityStatsService.getEntityStats()
+                .map(ResponseEntity::ok)
+                .onErrorResume(GatewayException::isUnexpected, e -> {
+                    log.error("Error retrieving entity stats", e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+                });
+    }
+}
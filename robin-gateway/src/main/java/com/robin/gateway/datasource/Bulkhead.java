@@ -0,0 +1,175 @@
+package com.robin.gateway.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking concurrency limit for one workload class.
+ * <p>
+ * Callers beyond {@code maxConcurrent} wait in a FIFO queue without holding a thread.
+ * A waiter is either granted a slot or abandoned (timeout, cancellation), decided by a
+ * single compare-and-set, so slots are never lost to a race between the two.
+ */
+class Bulkhead {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int ABANDONED = 2;
+
+    private final WorkloadClass workload;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private final Timer waitTimer;
+    private final MeterRegistry meterRegistry;
+    private int active;
+
+    Bulkhead(WorkloadClass workload, WorkloadProperties.Limits limits, MeterRegistry meterRegistry) {
+        this.workload = workload;
+        this.maxConcurrent = limits.getMaxConcurrent();
+        this.maxQueue = limits.getMaxQueue();
+        this.maxWait = limits.getMaxWait();
+        this.meterRegistry = meterRegistry;
+        this.waitTimer = Timer.builder("robin.db.bulkhead.wait")
+                .description("Time spent waiting for a database slot")
+                .tag("workload", workload.tag())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("robin.db.bulkhead.active", this, Bulkhead::activeCount)
+                .tag("workload", workload.tag())
+                .register(meterRegistry);
+        Gauge.builder("robin.db.bulkhead.queued", this, Bulkhead::queuedCount)
+                .tag("workload", workload.tag())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Acquire a slot. The returned permit must be released exactly once; extra releases are ignored.
+     */
+    Mono<Permit> acquire() {
+        return Mono.<Permit>create(sink -> {
+            long start = System.nanoTime();
+            Waiter waiter;
+            synchronized (this) {
+                if (active < maxConcurrent && waiters.isEmpty()) {
+                    active++;
+                    waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    sink.success(new Permit());
+                    return;
+                }
+                if (waiters.size() >= maxQueue) {
+                    sink.error(reject("queue full"));
+                    return;
+                }
+                waiter = new Waiter(sink, start);
+                waiters.addLast(waiter);
+            }
+
+            Disposable timeout = Schedulers.parallel().schedule(() -> {
+                if (waiter.abandon()) {
+                    sink.error(reject("wait timeout"));
+                }
+            }, maxWait.toMillis(), TimeUnit.MILLISECONDS);
+
+            sink.onCancel(() -> {
+                timeout.dispose();
+                if (!waiter.abandon()) {
+                    // Granted but never delivered: give the slot to the next waiter
+                    waiter.permit.release();
+                }
+            });
+            sink.onDispose(timeout);
+        }).doOnDiscard(Permit.class, Permit::release);
+    }
+
+    private BulkheadFullException reject(String reason) {
+        meterRegistry.counter("robin.db.bulkhead.rejected", "workload", workload.tag(), "reason", reason.replace(' ', '_'))
+                .increment();
+        return new BulkheadFullException(workload, reason);
+    }
+
+    private void release() {
+        while (true) {
+            Waiter next;
+            synchronized (this) {
+                next = waiters.pollFirst();
+                if (next == null) {
+                    active--;
+                    return;
+                }
+            }
+            // The slot passes straight to the next waiter, so 'active' stays the same
+            if (next.grant()) {
+                return;
+            }
+        }
+    }
+
+    private synchronized int activeCount() {
+        return active;
+    }
+
+    private synchronized int queuedCount() {
+        return waiters.size();
+    }
+
+    private synchronized void remove(Waiter waiter) {
+        waiters.remove(waiter);
+    }
+
+    /**
+     * One bulkhead slot.
+     */
+    final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                Bulkhead.this.release();
+            }
+        }
+    }
+
+    private final class Waiter {
+
+        private final MonoSink<Permit> sink;
+        private final long start;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final Permit permit = new Permit();
+
+        Waiter(MonoSink<Permit> sink, long start) {
+            this.sink = sink;
+            this.start = start;
+        }
+
+        boolean grant() {
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            sink.success(permit);
+            return true;
+        }
+
+        boolean abandon() {
+            if (state.compareAndSet(WAITING, ABANDONED)) {
+                remove(this);
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.robin.gateway.datasource;
+
+import com.robin.gateway.exception.GatewayException;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Raised when a workload's bulkhead has no free slot within its wait budget (503).
+ * <p>
+ * Shedding load is expected under pressure, so like other {@link GatewayException}s it
+ * carries no stack trace and passes through the controllers' unexpected-error handlers.
+ */
+@Getter
+public class BulkheadFullException extends GatewayException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final WorkloadClass workload;
+
+    public BulkheadFullException(WorkloadClass workload, String reason) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent " + workload.tag() + " database calls (" + reason + ")");
+        this.workload = workload;
+    }
+}
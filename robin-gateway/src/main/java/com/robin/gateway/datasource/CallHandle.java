@@ -0,0 +1,138 @@
+package com.robin.gateway.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks one blocking database call so it can be cancelled from another thread.
+ * <p>
+ * Statements created on the worker thread while the call runs are registered here by
+ * {@link CancellableDataSource}. Cancelling sends {@link Statement#cancel()} to each of them
+ * (PostgreSQL aborts the running query server side) and interrupts the worker in case it
+ * is still waiting for a pooled connection. The interrupt is confined to the call: the
+ * worker clears it before the thread goes back to the scheduler.
+ */
+@Slf4j
+final class CallHandle {
+
+    private static final ThreadLocal<CallHandle> CURRENT = new ThreadLocal<>();
+
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int CANCELLING = 2;
+    private static final int CANCELLED = 3;
+    private static final int DONE = 4;
+
+    private final RequestDeadline deadline;
+    private final AtomicInteger state = new AtomicInteger(NEW);
+    private final List<Statement> statements = new ArrayList<>();
+    private volatile Thread worker;
+    private volatile long startNanos;
+
+    /**
+     * @param deadline deadline of the request the call serves, or null for background work
+     */
+    CallHandle(RequestDeadline deadline) {
+        this.deadline = deadline;
+    }
+
+    static CallHandle current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Statement timeout for a statement created now: the time left until the deadline,
+     * rounded up to whole seconds as JDBC requires.
+     *
+     * @return timeout in seconds, 0 for none
+     */
+    int queryTimeoutSeconds() {
+        if (deadline == null) {
+            return 0;
+        }
+        long millis = deadline.remaining().toMillis();
+        return (int) Math.max(1, (millis + 999) / 1000);
+    }
+
+    boolean isCancelled() {
+        int current = state.get();
+        return current == CANCELLING || current == CANCELLED;
+    }
+
+    /**
+     * Run the work on the calling thread as this call.
+     */
+    <T> T run(Callable<T> work) throws Exception {
+        worker = Thread.currentThread();
+        startNanos = System.nanoTime();
+        if (!state.compareAndSet(NEW, RUNNING)) {
+            throw new CancellationException("Database call cancelled before it started");
+        }
+        CURRENT.set(this);
+        try {
+            return work.call();
+        } catch (Exception e) {
+            if (isCancelled()) {
+                // Nobody is listening any more; the failure is just the cancel taking effect
+                log.debug("Cancelled database call ended with: {}", e.toString());
+                return null;
+            }
+            throw e;
+        } finally {
+            CURRENT.remove();
+            if (!state.compareAndSet(RUNNING, DONE)) {
+                // A canceller got in first; wait for its interrupt, then swallow it
+                while (state.get() == CANCELLING) {
+                    Thread.onSpinWait();
+                }
+                Thread.interrupted();
+            }
+        }
+    }
+
+    void register(Statement statement) {
+        synchronized (statements) {
+            statements.add(statement);
+        }
+    }
+
+    /**
+     * Cancel the call if it is still running.
+     *
+     * @return nanoseconds the call had been running, or -1 if it was not running
+     */
+    long cancel() {
+        if (state.compareAndSet(NEW, CANCELLED)) {
+            return -1;
+        }
+        if (!state.compareAndSet(RUNNING, CANCELLING)) {
+            return -1;
+        }
+        try {
+            List<Statement> active;
+            synchronized (statements) {
+                active = new ArrayList<>(statements);
+            }
+            for (Statement statement : active) {
+                try {
+                    if (!statement.isClosed()) {
+                        statement.cancel();
+                    }
+                } catch (SQLException e) {
+                    log.debug("Statement cancel failed: {}", e.getMessage());
+                }
+            }
+            worker.interrupt();
+        } finally {
+            state.set(CANCELLED);
+        }
+        return System.nanoTime() - startNanos;
+    }
+}
@@ -0,0 +1,187 @@
+package com.robin.gateway.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bridges blocking repository calls into the reactive pipeline.
+ * <p>
+ * Every call belongs to a {@link WorkloadClass} and first takes a slot in that class's
+ * bulkhead, so e.g. a bulk import cannot starve token refreshes of connections. Waiting for
+ * a slot does not hold a thread; the work itself runs on a bounded-elastic thread.
+ * <p>
+ * {@link #read} additionally runs the work in a read-only transaction and marks it as
+ * replica-eligible, unless the subscriber's context forces the primary (see
+ * {@link RoutingContext#forcePrimary}).
+ * <p>
+ * Calls are cancellable: when the subscriber goes away (client disconnect) or the request
+ * deadline from {@link RequestDeadlineFilter} passes, the running JDBC statements are
+ * cancelled and the worker interrupted, so the connection is returned instead of finishing
+ * work nobody will read. Statements also get the time left until the deadline as their
+ * query timeout, which covers the case where the cancel itself is lost. Either way an
+ * expired deadline is signalled as {@link DeadlineExceededException} (504).
+ */
+@Component
+@Slf4j
+public class DatabaseCalls {
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<WorkloadClass, Bulkhead> bulkheads = new EnumMap<>(WorkloadClass.class);
+    private final Map<WorkloadClass, Timer> executionTimers = new EnumMap<>(WorkloadClass.class);
+    private final Map<WorkloadClass, Counter> clientCancels = new EnumMap<>(WorkloadClass.class);
+    private final Map<WorkloadClass, Counter> deadlineCancels = new EnumMap<>(WorkloadClass.class);
+    private final Map<WorkloadClass, Timer> savedTimers = new EnumMap<>(WorkloadClass.class);
+
+    public DatabaseCalls(PlatformTransactionManager transactionManager,
+                         WorkloadProperties workloadProperties,
+                         MeterRegistry meterRegistry) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            bulkheads.put(workload, new Bulkhead(workload, workloadProperties.limitsFor(workload), meterRegistry));
+            executionTimers.put(workload, Timer.builder("robin.db.execution")
+                    .description("Time spent running blocking database work")
+                    .tag("workload", workload.tag())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            clientCancels.put(workload, cancelCounter(meterRegistry, workload, "client"));
+            deadlineCancels.put(workload, cancelCounter(meterRegistry, workload, "deadline"));
+            savedTimers.put(workload, Timer.builder("robin.db.cancelled.saved")
+                    .description("Database time released by cancelling calls early, "
+                            + "measured up to the statement timeout they would otherwise have run into")
+                    .tag("workload", workload.tag())
+                    .register(meterRegistry));
+        }
+    }
+
+    private static Counter cancelCounter(MeterRegistry meterRegistry, WorkloadClass workload, String reason) {
+        return Counter.builder("robin.db.cancelled")
+                .description("Database calls cancelled while running")
+                .tag("workload", workload.tag())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run an interactive read-only unit of work.
+     *
+     * @see #read(WorkloadClass, Supplier)
+     */
+    public <T> Mono<T> read(Supplier<T> work) {
+        return read(WorkloadClass.INTERACTIVE_READ, work);
+    }
+
+    /**
+     * Run a read-only unit of work.
+     *
+     * @param workload bulkhead and pool to use
+     * @param work     blocking work, executed once per subscription
+     * @return the result, or empty if the work returned null
+     */
+    public <T> Mono<T> read(WorkloadClass workload, Supplier<T> work) {
+        return Mono.deferContextual(context -> {
+            RoutingContext.Intent intent = RoutingContext.isPrimaryForced(context)
+                    ? RoutingContext.Intent.READ_PRIMARY
+                    : RoutingContext.Intent.READ;
+            return call(workload, () -> RoutingContext.with(intent,
+                    () -> readOnlyTransaction.execute(status -> work.get())));
+        });
+    }
+
+    /**
+     * Run blocking work that manages its own transactions (writes, batch jobs, probes).
+     *
+     * @param workload bulkhead and pool to use
+     * @param work     blocking work, executed once per subscription
+     * @return the result, or empty if the work returned null
+     */
+    public <T> Mono<T> call(WorkloadClass workload, Callable<T> work) {
+        return Mono.deferContextual(context -> {
+            RequestDeadline deadline = RequestDeadline.from(context).orElse(null);
+            if (deadline == null) {
+                return guarded(workload, work, null);
+            }
+            Duration remaining = deadline.remaining();
+            if (!remaining.isPositive()) {
+                return Mono.error(new DeadlineExceededException("Request deadline passed before database call"));
+            }
+            // Covers the bulkhead wait as well; expiry cancels the call below
+            return guarded(workload, work, deadline)
+                    // The statement timeout derived from the deadline fired first
+                    .onErrorMap(QueryTimeoutException.class, e ->
+                            new DeadlineExceededException("Database call exceeded the request deadline"))
+                    .timeout(remaining, Mono.error(() ->
+                            new DeadlineExceededException("Database call exceeded the request deadline")));
+        });
+    }
+
+    private <T> Mono<T> guarded(WorkloadClass workload, Callable<T> work, RequestDeadline deadline) {
+        Timer executionTimer = executionTimers.get(workload);
+        return Mono.usingWhen(
+                bulkheads.get(workload).acquire(),
+                permit -> Mono.defer(() -> {
+                    CallHandle handle = new CallHandle(deadline);
+                    return Mono.fromCallable(() -> {
+                                Timer.Sample sample = Timer.start();
+                                try {
+                                    return handle.run(() -> RoutingContext.withWorkload(workload, work));
+                                } finally {
+                                    sample.stop(executionTimer);
+                                }
+                            })
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .doOnCancel(() -> cancel(workload, handle, deadline));
+                }),
+                permit -> Mono.fromRunnable(permit::release));
+    }
+
+    private void cancel(WorkloadClass workload, CallHandle handle, RequestDeadline deadline) {
+        long elapsedNanos = handle.cancel();
+        if (elapsedNanos < 0) {
+            return;
+        }
+        Duration left = deadline == null ? Duration.ZERO : deadline.remaining();
+        if (left.isPositive()) {
+            clientCancels.get(workload).increment();
+            savedTimers.get(workload).record(left.toNanos(), TimeUnit.NANOSECONDS);
+        } else if (deadline != null) {
+            deadlineCancels.get(workload).increment();
+        } else {
+            clientCancels.get(workload).increment();
+        }
+        log.debug("Cancelled {} database call after {} ms", workload.tag(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    /**
+     * Hold one slot of the workload's bulkhead for the lifetime of a stream, e.g. a cursor
+     * based export. The stream is responsible for its own threading.
+     *
+     * @param workload bulkhead to use
+     * @param stream   stream to run once a slot is free
+     * @return the guarded stream
+     */
+    public <T> Flux<T> stream(WorkloadClass workload, Flux<T> stream) {
+        return Flux.usingWhen(
+                bulkheads.get(workload).acquire(),
+                permit -> stream,
+                permit -> Mono.fromRunnable(permit::release));
+    }
+}
@@ -0,0 +1,20 @@
+package com.robin.gateway.datasource;
+
+import com.robin.gateway.exception.GatewayException;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Raised when a database call does not finish within the request deadline (504).
+ * <p>
+ * The call has already been cancelled and its connection returned; like other
+ * {@link GatewayException}s it carries no stack trace and passes through the controllers'
+ * unexpected-error handlers.
+ */
+public class DeadlineExceededException extends GatewayException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String message) {
+        super(HttpStatus.GATEWAY_TIMEOUT, message);
+    }
+}
@@ -0,0 +1,39 @@
+package com.robin.gateway.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-endpoint request deadlines for database work ({@code robin.datasource.deadlines}).
+ *
+ * @author Robin Gateway Team
+ */
+@Data
+@ConfigurationProperties(prefix = "robin.datasource.deadlines")
+public class DeadlineProperties {
+
+    /**
+     * Deadline for requests not matched by any endpoint pattern.
+     */
+    private Duration defaultTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Endpoint overrides; the first matching pattern wins.
+     */
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    @Data
+    public static class Endpoint {
+
+        /**
+         * Path pattern, e.g. {@code /api/v1/auth/**}.
+         */
+        private String pattern;
+
+        private Duration timeout;
+    }
+}
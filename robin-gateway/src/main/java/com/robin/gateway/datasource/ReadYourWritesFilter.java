@@ -0,0 +1,51 @@
+package com.robin.gateway.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.util.Set;
+
+/**
+ * Keeps a user's reads on the primary for a short window after they write.
+ * <p>
+ * Any non-safe request by an authenticated user counts as a write; the window is restarted
+ * when the request completes so it covers replication of the committed change.
+ */
+@Component
+@ConditionalOnProperty(name = "robin.datasource.routing.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReadYourWritesFilter implements WebFilter {
+
+    private static final Set<HttpMethod> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final RecentWriteTracker tracker;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        boolean write = !SAFE_METHODS.contains(exchange.getRequest().getMethod());
+
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .defaultIfEmpty("")
+                .flatMap(username -> {
+                    if (username.isEmpty()) {
+                        return chain.filter(exchange);
+                    }
+                    if (write) {
+                        tracker.recordWrite(username);
+                        return chain.filter(exchange).doFinally(signal -> tracker.recordWrite(username));
+                    }
+                    if (tracker.hasRecentWrite(username)) {
+                        return chain.filter(exchange).contextWrite(RoutingContext::forcePrimary);
+                    }
+                    return chain.filter(exchange);
+                });
+    }
+}
@@ -0,0 +1,27 @@
+package com.robin.gateway.datasource;
+
+import com.robin.gateway.util.TtlCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which users wrote recently, so their reads can stay on the primary.
+ */
+@Component
+@ConditionalOnProperty(name = "robin.datasource.routing.enabled", havingValue = "true")
+public class RecentWriteTracker {
+
+    private final TtlCache<String, Boolean> recentWrites;
+
+    public RecentWriteTracker(RoutingProperties properties) {
+        this.recentWrites = new TtlCache<>(properties.getStickyMaxUsers(), properties.getStickyWindow());
+    }
+
+    public void recordWrite(String username) {
+        recentWrites.put(username, Boolean.TRUE);
+    }
+
+    public boolean hasRecentWrite(String username) {
+        return recentWrites.get(username) != null;
+    }
+}
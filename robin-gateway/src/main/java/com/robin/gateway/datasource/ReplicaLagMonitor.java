@@ -0,0 +1,60 @@
+package com.robin.gateway.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Periodically measures replication lag on every replica.
+ * <p>
+ * A replica with no outstanding WAL to replay reports zero lag, so an idle primary does not
+ * make its replicas look stale. Replicas over {@code max-lag} leave the rotation until they
+ * catch up; replicas that cannot be reached are put into failure backoff.
+ */
+@Component
+@ConditionalOnProperty(name = "robin.datasource.routing.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String LAG_SQL = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END
+            """;
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final RoutingProperties properties;
+
+    @Scheduled(fixedDelayString = "${robin.datasource.routing.lag-check-interval-ms:5000}")
+    public void checkLag() {
+        for (ReplicaTarget replica : routingDataSource.getReplicas()) {
+            boolean wasAvailable = replica.isAvailable();
+            try (Connection connection = replica.getDataSource().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                rs.next();
+                replica.recordLag(rs.getLong(1), properties.getMaxLag());
+                replica.markRecovered();
+            } catch (SQLException e) {
+                log.warn("Lag check failed for replica {}: {}", replica.getName(), e.getMessage());
+                replica.markFailed(properties.getFailureBackoff());
+                routingDataSource.failures(replica.getName()).increment();
+            }
+
+            if (wasAvailable != replica.isAvailable()) {
+                log.info("Replica {} {} rotation (lag {} ms)", replica.getName(),
+                        replica.isAvailable() ? "back in" : "removed from", replica.getLagMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.robin.gateway.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only units of work to a replica and everything else to the primary.
+ * <p>
+ * Only work marked by {@link DatabaseCalls#read} is eligible, and never inside a read-write
+ * transaction. Replicas are picked round-robin among those that are neither lagging nor
+ * in failure backoff; if none is usable, or the replica refuses a connection, the primary
+ * serves the read. Must be wrapped in a {@code LazyConnectionDataSourceProxy} so the
+ * decision is taken when the first statement runs, after the transaction is set up.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<ReplicaTarget> replicas;
+    private final Duration failureBackoff;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param primary        primary data source
+     * @param replicas       replica data sources by name, in rotation order
+     * @param failureBackoff how long a replica that refused a connection is skipped
+     * @param meterRegistry  registry for per-target metrics
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Duration failureBackoff, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new ReplicaTarget(entry.getKey(), entry.getValue()))
+                .toList();
+        this.failureBackoff = failureBackoff;
+        this.meterRegistry = meterRegistry;
+
+        for (ReplicaTarget replica : this.replicas) {
+            Gauge.builder("robin.datasource.replica.lag", replica, ReplicaTarget::getLagMillis)
+                    .description("Replication lag observed by the last lag check")
+                    .baseUnit("milliseconds")
+                    .tag("target", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("robin.datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .description("Whether the replica is currently in rotation")
+                    .tag("target", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    List<ReplicaTarget> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(username, password);
+    }
+
+    private Connection route(String username, String password) throws SQLException {
+        RoutingContext.Intent intent = RoutingContext.current();
+        boolean readWriteTransaction = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+
+        if (intent != RoutingContext.Intent.READ || readWriteTransaction) {
+            String reason = intent == RoutingContext.Intent.READ_PRIMARY ? "sticky" : "write";
+            return connect(PRIMARY, primary, reason, username, password);
+        }
+
+        ReplicaTarget replica = pickReplica();
+        if (replica == null) {
+            return connect(PRIMARY, primary, "fallback", username, password);
+        }
+
+        try {
+            return connect(replica.getName(), replica.getDataSource(), "read", username, password);
+        } catch (SQLException e) {
+            log.warn("Replica {} refused connection, falling back to primary for {}: {}",
+                    replica.getName(), failureBackoff, e.getMessage());
+            replica.markFailed(failureBackoff);
+            failures(replica.getName()).increment();
+            return connect(PRIMARY, primary, "fallback", username, password);
+        }
+    }
+
+    private ReplicaTarget pickReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            ReplicaTarget candidate = replicas.get((start + i) % size);
+            if (candidate.isAvailable()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private Connection connect(String target, DataSource dataSource, String reason,
+                               String username, String password) throws SQLException {
+        meterRegistry.counter("robin.datasource.routes", "target", target, "reason", reason).increment();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return username == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+        } finally {
+            sample.stop(Timer.builder("robin.datasource.acquire")
+                    .description("Time to obtain a connection from the routed pool")
+                    .tag("target", target)
+                    .register(meterRegistry));
+        }
+    }
+
+    Counter failures(String target) {
+        return meterRegistry.counter("robin.datasource.replica.failures", "target", target);
+    }
+
+    /**
+     * Close the replica pools; the primary is managed as its own bean.
+     */
+    public void close() {
+        for (ReplicaTarget replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Error closing replica {}: {}", replica.getName(), e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.robin.gateway.datasource;
+
+import lombok.Getter;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * A replica data source plus its current health as seen by the router.
+ */
+class ReplicaTarget {
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final DataSource dataSource;
+
+    private volatile boolean lagging;
+    private volatile long lagMillis;
+    private volatile long unavailableUntil;
+
+    ReplicaTarget(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    boolean isAvailable() {
+        return !lagging && System.currentTimeMillis() >= unavailableUntil;
+    }
+
+    boolean isLagging() {
+        return lagging;
+    }
+
+    long getLagMillis() {
+        return lagMillis;
+    }
+
+    void recordLag(long lagMillis, Duration maxLag) {
+        this.lagMillis = lagMillis;
+        this.lagging = lagMillis > maxLag.toMillis();
+    }
+
+    void markFailed(Duration backoff) {
+        this.unavailableUntil = System.currentTimeMillis() + backoff.toMillis();
+    }
+
+    void markRecovered() {
+        this.unavailableUntil = 0;
+    }
+}
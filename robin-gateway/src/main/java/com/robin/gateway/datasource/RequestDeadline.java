@@ -0,0 +1,39 @@
+package com.robin.gateway.datasource;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Absolute deadline of the HTTP request a database call serves, carried in the Reactor context.
+ */
+public final class RequestDeadline {
+
+    static final String KEY = RequestDeadline.class.getName();
+
+    private final long deadlineNanos;
+
+    private RequestDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Put a deadline {@code timeout} from now into the context.
+     */
+    public static Context with(Context context, Duration timeout) {
+        return context.put(KEY, new RequestDeadline(System.nanoTime() + timeout.toNanos()));
+    }
+
+    static Optional<RequestDeadline> from(ContextView context) {
+        return context.getOrEmpty(KEY);
+    }
+
+    /**
+     * @return time left, zero or negative once the deadline has passed
+     */
+    Duration remaining() {
+        return Duration.ofNanos(deadlineNanos - System.nanoTime());
+    }
+}
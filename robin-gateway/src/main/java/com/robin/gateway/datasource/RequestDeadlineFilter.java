@@ -0,0 +1,50 @@
+package com.robin.gateway.datasource;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the per-endpoint deadline clock for each request.
+ * <p>
+ * {@link DatabaseCalls} turns the time left into a statement timeout and cancels the
+ * call when the deadline passes.
+ */
+@Component
+public class RequestDeadlineFilter implements WebFilter {
+
+    private final Duration defaultTimeout;
+    private final List<Map.Entry<PathPattern, Duration>> endpoints;
+
+    public RequestDeadlineFilter(DeadlineProperties properties) {
+        this.defaultTimeout = properties.getDefaultTimeout();
+        this.endpoints = properties.getEndpoints().stream()
+                .map(endpoint -> Map.entry(PathPatternParser.defaultInstance.parse(endpoint.getPattern()),
+                        endpoint.getTimeout()))
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Duration timeout = timeoutFor(exchange.getRequest().getPath().pathWithinApplication());
+        return chain.filter(exchange).contextWrite(context -> RequestDeadline.with(context, timeout));
+    }
+
+    Duration timeoutFor(PathContainer path) {
+        for (Map.Entry<PathPattern, Duration> endpoint : endpoints) {
+            if (endpoint.getKey().matches(path)) {
+                return endpoint.getValue();
+            }
+        }
+        return defaultTimeout;
+    }
+}
@@ -0,0 +1,89 @@
+package com.robin.gateway.datasource;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Carries the routing decision (replica eligibility, workload class) for the current unit of work.
+ * <p>
+ * Reactive callers put {@link #PRIMARY_KEY} into the Reactor context; {@link DatabaseCalls}
+ * copies it into a thread-local on the worker thread that runs the JDBC call, which is where
+ * {@link ReplicaRoutingDataSource} reads it.
+ */
+public final class RoutingContext {
+
+    /**
+     * Reactor context key forcing the primary, e.g. for read-your-writes.
+     */
+    public static final String PRIMARY_KEY = RoutingContext.class.getName() + ".primary";
+
+    enum Intent {
+        /** Read-only work that may be served by a replica. */
+        READ,
+        /** Read-only work that must see the caller's own recent writes. */
+        READ_PRIMARY
+    }
+
+    private static final ThreadLocal<Intent> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<WorkloadClass> WORKLOAD = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    /**
+     * Force the primary for everything downstream of this context.
+     */
+    public static Context forcePrimary(Context context) {
+        return context.put(PRIMARY_KEY, Boolean.TRUE);
+    }
+
+    static boolean isPrimaryForced(ContextView context) {
+        return context.getOrDefault(PRIMARY_KEY, Boolean.FALSE);
+    }
+
+    static Intent current() {
+        return CURRENT.get();
+    }
+
+    static WorkloadClass currentWorkload() {
+        return WORKLOAD.get();
+    }
+
+    /**
+     * Run blocking work with the given workload class bound to the calling thread, so its
+     * connections come from that class's sub-pool if it has one.
+     */
+    public static <T> T withWorkload(WorkloadClass workload, Callable<T> work) throws Exception {
+        WorkloadClass previous = WORKLOAD.get();
+        WORKLOAD.set(workload);
+        try {
+            return work.call();
+        } finally {
+            if (previous == null) {
+                WORKLOAD.remove();
+            } else {
+                WORKLOAD.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Run blocking work with the given intent bound to the calling thread.
+     */
+    static <T> T with(Intent intent, Supplier<T> work) {
+        Intent previous = CURRENT.get();
+        CURRENT.set(intent);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.robin.gateway.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica routing settings ({@code robin.datasource.routing}).
+ *
+ * @author Robin Gateway Team
+ */
+@Data
+@ConfigurationProperties(prefix = "robin.datasource.routing")
+public class RoutingProperties {
+
+    /**
+     * Route read-only units of work to replicas. When false the primary serves everything.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Reads by a user within this window after one of their writes stay on the primary.
+     */
+    private Duration stickyWindow = Duration.ofSeconds(2);
+
+    /**
+     * Maximum number of users tracked for read-your-writes stickiness.
+     */
+    private int stickyMaxUsers = 10_000;
+
+    /**
+     * Replicas lagging further behind than this are taken out of rotation.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * Interval between replica lag checks, in milliseconds.
+     */
+    private long lagCheckIntervalMs = 5000;
+
+    /**
+     * How long a replica stays out of rotation after a connection failure.
+     */
+    private Duration failureBackoff = Duration.ofSeconds(30);
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+
+        private String name;
+
+        private String url;
+
+        /**
+         * Defaults to {@code spring.datasource.username}.
+         */
+        private String username;
+
+        /**
+         * Defaults to {@code spring.datasource.password}.
+         */
+        private String password;
+
+        private int maxPoolSize = 10;
+    }
+}
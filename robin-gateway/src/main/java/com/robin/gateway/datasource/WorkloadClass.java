@@ -0,0 +1,54 @@
+package com.robin.gateway.datasource;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Classes of blocking database work, each with its own bulkhead.
+ * <p>
+ * Defaults add up to the main Hikari pool size so no single class can take every
+ * connection; they can be overridden under {@code robin.datasource.workloads}.
+ */
+public enum WorkloadClass {
+
+    /** Login, token refresh, logout and current-user lookups. */
+    AUTH(6, 100, Duration.ofSeconds(2)),
+
+    /** Listings, lookups and searches behind the UI. */
+    INTERACTIVE_READ(8, 200, Duration.ofSeconds(5)),
+
+    /** Single-entity creates, updates and deletes. */
+    ADMIN_WRITE(4, 50, Duration.ofSeconds(10)),
+
+    /** Batch imports, exports and other background work. */
+    BULK(2, 20, Duration.ofSeconds(30)),
+
+    /** Health probes; kept apart so long bulk work never reports the database as down. */
+    PROBE(1, 4, Duration.ofSeconds(2));
+
+    private final int defaultMaxConcurrent;
+    private final int defaultMaxQueue;
+    private final Duration defaultMaxWait;
+
+    WorkloadClass(int defaultMaxConcurrent, int defaultMaxQueue, Duration defaultMaxWait) {
+        this.defaultMaxConcurrent = defaultMaxConcurrent;
+        this.defaultMaxQueue = defaultMaxQueue;
+        this.defaultMaxWait = defaultMaxWait;
+    }
+
+    /**
+     * @return metric tag value, e.g. {@code interactive_read}
+     */
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    WorkloadProperties.Limits defaultLimits() {
+        WorkloadProperties.Limits limits = new WorkloadProperties.Limits();
+        limits.setMaxConcurrent(defaultMaxConcurrent);
+        limits.setMaxQueue(defaultMaxQueue);
+        limits.setMaxWait(defaultMaxWait);
+        limits.setPoolSize(0);
+        return limits;
+    }
+}
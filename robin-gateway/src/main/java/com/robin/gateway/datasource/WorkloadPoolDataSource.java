@@ -0,0 +1,62 @@
+package com.robin.gateway.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Hands out connections from a workload's dedicated pool when it has one.
+ * <p>
+ * The workload is taken from the calling thread (set by {@link DatabaseCalls}); work
+ * without a workload, or whose class has no sub-pool, uses the main pool.
+ */
+@Slf4j
+public class WorkloadPoolDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Map<WorkloadClass, DataSource> pools;
+
+    public WorkloadPoolDataSource(DataSource mainPool, Map<WorkloadClass, DataSource> pools) {
+        super(mainPool);
+        this.pools = Map.copyOf(pools);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return select().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return select().getConnection(username, password);
+    }
+
+    private DataSource select() {
+        WorkloadClass workload = RoutingContext.currentWorkload();
+        DataSource pool = workload == null ? null : pools.get(workload);
+        return pool != null ? pool : obtainTargetDataSource();
+    }
+
+    @Override
+    public void close() {
+        for (DataSource pool : pools.values()) {
+            if (pool instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Error closing workload pool: {}", e.getMessage());
+                }
+            }
+        }
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Error closing main pool: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.robin.gateway.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-workload bulkhead and sub-pool settings ({@code robin.datasource.workloads}).
+ *
+ * @author Robin Gateway Team
+ */
+@Data
+@ConfigurationProperties(prefix = "robin.datasource")
+public class WorkloadProperties {
+
+    private Map<WorkloadClass, Limits> workloads = new EnumMap<>(WorkloadClass.class);
+
+    /**
+     * Effective limits for a class: the configured fields over the class defaults.
+     */
+    public Limits limitsFor(WorkloadClass workload) {
+        Limits limits = workload.defaultLimits();
+        Limits configured = workloads.get(workload);
+        if (configured == null) {
+            return limits;
+        }
+        if (configured.getMaxConcurrent() != null) {
+            limits.setMaxConcurrent(configured.getMaxConcurrent());
+        }
+        if (configured.getMaxQueue() != null) {
+            limits.setMaxQueue(configured.getMaxQueue());
+        }
+        if (configured.getMaxWait() != null) {
+            limits.setMaxWait(configured.getMaxWait());
+        }
+        if (configured.getPoolSize() != null) {
+            limits.setPoolSize(configured.getPoolSize());
+        }
+        return limits;
+    }
+
+    /**
+     * Limits of one class; fields left unset take the class default.
+     */
+    @Data
+    public static class Limits {
+
+        /**
+         * Calls of this class running at once.
+         */
+        private Integer maxConcurrent;
+
+        /**
+         * Calls allowed to wait for a slot; further calls are rejected immediately.
+         */
+        private Integer maxQueue;
+
+        /**
+         * Longest a call waits for a slot before it is rejected.
+         */
+        private Duration maxWait;
+
+        /**
+         * Size of a dedicated Hikari pool for this class; 0 shares the main pool.
+         */
+        private Integer poolSize;
+    }
+}
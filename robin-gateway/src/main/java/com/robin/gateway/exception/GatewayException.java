@@ -0,0 +1,39 @@
+package com.robin.gateway.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Base class for expected request outcomes such as "not found" or "invalid input".
+ * <p>
+ * These are part of normal traffic, so they do not capture a stack trace and are mapped
+ * to their HTTP status by {@link GlobalExceptionHandler} without error logging. Anything
+ * that is not a {@code GatewayException} is still treated as a server error.
+ */
+public abstract class GatewayException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final HttpStatus status;
+
+    protected GatewayException(HttpStatus status, String message) {
+        // No suppression and no stack trace: constructing one is a field assignment
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    /**
+     * @return HTTP status the exception maps to
+     */
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Filter for error logging and catch-all handlers.
+     *
+     * @return true unless the error is an expected {@code GatewayException}
+     */
+    public static boolean isUnexpected(Throwable error) {
+        return !(error instanceof GatewayException);
+    }
+}
@@ -1,6 +1,9 @@
 package com.robin.gateway.exception;
 
+import com.robin.gateway.datasource.BulkheadFullException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -14,7 +17,8 @@ import java.util.Map;
 
 /**
  * Global exception handler for REST controllers.
- * Handles authentication exceptions and validation errors.
+ * Handles authentication exceptions, validation errors and expected
+ * {@link GatewayException} outcomes such as not found.
  */
 @RestControllerAdvice
 @Slf4j
@@ -48,6 +52,29 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
     }
 
+    @ExceptionHandler(GatewayException.class)
+    public ResponseEntity<Map<String, String>> handleGatewayException(GatewayException ex) {
+        // Expected outcome, not a fault: keep it out of the error log
+        log.debug("Request rejected: {}", ex.getMessage());
+        return ResponseEntity.status(ex.getStatus())
+                .body(Map.of("error", ex.getStatus().getReasonPhrase(), "message", ex.getMessage()));
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<Map<String, String>> handleBulkheadFullException(BulkheadFullException ex) {
+        log.warn("Database bulkhead rejected call: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "Service Unavailable", "message", ex.getMessage()));
+    }
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<Map<String, String>> handleQueryTimeoutException(QueryTimeoutException ex) {
+        log.warn("Database call timed out: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(Map.of("error", "Gateway Timeout", "message", ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGenericException(Exception ex) {
         log.error("Unexpected error", ex);
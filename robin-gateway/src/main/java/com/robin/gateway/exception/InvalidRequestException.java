@@ -0,0 +1,15 @@
+package com.robin.gateway.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The request is well-formed but cannot be applied, e.g. a duplicate or malformed value (400).
+ */
+public class InvalidRequestException extends GatewayException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidRequestException(String message) {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.robin.gateway.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The requested entity does not exist (404).
+ */
+public class NotFoundException extends GatewayException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param entity human readable entity name, e.g. "Domain"
+     * @param id     the identifier that was looked up
+     */
+    public NotFoundException(String entity, Object id) {
+        super(HttpStatus.NOT_FOUND, entity + " not found: " + id);
+    }
+}
@@ -0,0 +1,15 @@
+package com.robin.gateway.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A conditional request's precondition, e.g. {@code If-Match}, does not hold (412).
+ */
+public class PreconditionFailedException extends GatewayException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PreconditionFailedException(String message) {
+        super(HttpStatus.PRECONDITION_FAILED, message);
+    }
+}
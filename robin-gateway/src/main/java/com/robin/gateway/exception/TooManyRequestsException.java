@@ -0,0 +1,16 @@
+package com.robin.gateway.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The caller already holds as many of a limited resource as allowed, e.g. concurrent
+ * exports (429).
+ */
+public class TooManyRequestsException extends GatewayException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManyRequestsException(String message) {
+        super(HttpStatus.TOO_MANY_REQUESTS, message);
+    }
+}
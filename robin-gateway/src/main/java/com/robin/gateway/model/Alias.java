@@ -20,7 +20,7 @@ public class Alias {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String source;
 
     @Column(nullable = false)
@@ -0,0 +1,46 @@
+package com.robin.gateway.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a batch alias upsert with per-item outcomes and throughput figures.
+ *
+ * @author Robin Gateway Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AliasBatchResponse {
+
+    private List<ItemResult> results;
+    private int total;
+    private int created;
+    private int updated;
+    private int rejected;
+    private long durationMs;
+    private double itemsPerSecond;
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        REJECTED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ItemResult {
+        private int index;
+        private String source;
+        private String destination;
+        private Status status;
+        private String error;
+    }
+}
@@ -0,0 +1,55 @@
+package com.robin.gateway.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of the user/domain/alias change feed.
+ *
+ * @author Robin Gateway Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeFeedResponse {
+
+    private long since;
+
+    /**
+     * Revision to pass as {@code since} for the next request.
+     */
+    private long nextRevision;
+
+    private boolean hasMore;
+
+    /**
+     * True when tombstones after {@code since} have been purged; the client must do a
+     * full reload and continue from {@code nextRevision}.
+     */
+    private boolean resyncRequired;
+
+    private List<Change> changes;
+
+    public enum Operation {
+        UPSERT,
+        DELETE
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Change {
+        private long revision;
+        private String entity;
+        private Operation operation;
+        private Long id;
+        private Map<String, Object> data;
+    }
+}
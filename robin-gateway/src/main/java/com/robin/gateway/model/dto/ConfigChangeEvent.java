@@ -0,0 +1,53 @@
+package com.robin.gateway.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A configuration section changed, through the gateway or on disk.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ConfigChangeEvent {
+
+    public enum Type {
+        UPDATED,
+        DELETED
+    }
+
+    /**
+     * Sequence number, also sent as the SSE event id.
+     */
+    private long id;
+
+    private String section;
+
+    private Type type;
+
+    /**
+     * Entity tag of the new content, as returned by {@code GET /api/v1/config/{section}};
+     * null once deleted.
+     */
+    private String version;
+
+    /**
+     * Entity tag of the content before the change, if known.
+     */
+    private String previousVersion;
+
+    private Instant changedAt;
+
+    /**
+     * RFC 6902 patch from the previous to the new content, if requested and known.
+     */
+    private JsonNode diff;
+}
@@ -0,0 +1,86 @@
+package com.robin.gateway.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of distributing configuration sections to the Robin nodes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ConfigDistributionReport {
+
+    public enum NodeStatus {
+        SUCCEEDED,
+        FAILED,
+        /**
+         * Not attempted because an earlier rolling wave failed.
+         */
+        SKIPPED
+    }
+
+    private String mode;
+
+    /**
+     * Version hash of each distributed section, as held by the gateway.
+     */
+    private Map<String, String> versions;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private List<Node> nodes;
+
+    /**
+     * @return true if every node is running the distributed versions
+     */
+    public boolean isSucceeded() {
+        return nodes.stream().allMatch(node -> node.getStatus() == NodeStatus.SUCCEEDED);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Node {
+
+        private String name;
+
+        private String url;
+
+        private NodeStatus status;
+
+        /**
+         * Rolling wave the node was reloaded in, starting at 1.
+         */
+        private Integer wave;
+
+        /**
+         * Version hash of each section as read back from the node after the reload.
+         */
+        private Map<String, String> versions;
+
+        private Long pushMillis;
+
+        private Long reloadMillis;
+
+        /**
+         * Whether the node reported healthy after the reload; rolling mode only.
+         */
+        private Boolean healthy;
+
+        private String error;
+    }
+}
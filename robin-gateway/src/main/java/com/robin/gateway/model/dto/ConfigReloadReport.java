@@ -0,0 +1,63 @@
+package com.robin.gateway.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A Robin reload and the configuration writes it covered.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ConfigReloadReport {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    /**
+     * Reload identifier, null while the writes are still waiting for a reload.
+     */
+    private Long reloadId;
+
+    private Status status;
+
+    private List<Write> writes;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private int attempts;
+
+    private String error;
+
+    /**
+     * Outcome per Robin node, when configuration is distributed to several nodes.
+     */
+    private List<ConfigDistributionReport.Node> nodes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Write {
+
+        private long writeId;
+
+        private String section;
+
+        private Instant writtenAt;
+    }
+}
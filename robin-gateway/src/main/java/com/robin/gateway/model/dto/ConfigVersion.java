@@ -0,0 +1,32 @@
+package com.robin.gateway.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A previous version of a configuration section kept for rollback.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConfigVersion {
+
+    /**
+     * Version identifier, used to restore it.
+     */
+    private String id;
+
+    /**
+     * When the version was replaced.
+     */
+    private Instant replacedAt;
+
+    private String etag;
+
+    private long sizeBytes;
+}
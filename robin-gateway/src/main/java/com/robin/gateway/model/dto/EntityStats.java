@@ -0,0 +1,30 @@
+package com.robin.gateway.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dashboard entity totals, read from the materialized counters.
+ *
+ * @author Robin Gateway Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EntityStats {
+
+    private long users;
+    private long domains;
+    private long aliases;
+    private long activeSessions;
+
+    /**
+     * Oldest reconciliation time across the counters; null if never reconciled.
+     */
+    private LocalDateTime reconciledAt;
+}
@@ -0,0 +1,36 @@
+package com.robin.gateway.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of the Robin MTA log: a line plus the continuation lines (stack frames) that
+ * followed it.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LogEntry {
+
+    private String timestamp;
+
+    private String level;
+
+    private String logger;
+
+    private String message;
+
+    private String thread;
+
+    private String stackTrace;
+
+    /**
+     * Log source the entry was read from; set by merged queries only.
+     */
+    private String source;
+}
@@ -0,0 +1,76 @@
+package com.robin.gateway.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of log entries.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LogPage {
+
+    public enum SourceStatus {
+        OK,
+        FAILED,
+        /**
+         * The source sent nothing for longer than {@code robin.logs.source-timeout}.
+         */
+        TIMED_OUT
+    }
+
+    private List<LogEntry> entries;
+
+    /**
+     * Number of matching entries. In oldest-first order the scan stops once the page is
+     * full, so this only counts up to the end of the page (plus one if {@code hasMore}).
+     */
+    private long total;
+
+    private boolean hasMore;
+
+    /**
+     * Opaque position to pass as {@code cursor} for the next page; absent on the last page.
+     */
+    private String nextCursor;
+
+    /**
+     * Outcome per source of a merged query; absent for single-source queries.
+     */
+    private List<Source> sources;
+
+    public LogPage(List<LogEntry> entries, long total, boolean hasMore) {
+        this(entries, total, hasMore, null, null);
+    }
+
+    public static LogPage empty() {
+        return new LogPage(List.of(), 0, false);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Source {
+
+        private String name;
+
+        private SourceStatus status;
+
+        /**
+         * Matching entries read from the source before the page was complete.
+         */
+        private long entries;
+
+        private String error;
+    }
+}
@@ -0,0 +1,35 @@
+package com.robin.gateway.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Typeahead search response grouped by entity type.
+ *
+ * @author Robin Gateway Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchResponse {
+
+    private String query;
+    private List<SearchHit> users;
+    private List<SearchHit> domains;
+    private List<SearchHit> aliases;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SearchHit {
+        private Long id;
+        private String value;
+        private String detail;
+    }
+}
@@ -0,0 +1,73 @@
+package com.robin.gateway.repository;
+
+import com.robin.gateway.datasource.DatabaseCalls;
+import com.robin.gateway.datasource.RoutingContext;
+import com.robin.gateway.datasource.WorkloadClass;
+import com.robin.gateway.model.Alias;
+import com.robin.gateway.model.Domain;
+import com.robin.gateway.model.Session;
+import com.robin.gateway.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Read path backed by the blocking JPA repositories.
+ *
+ * Each lookup runs as a read-only unit of work on a bounded-elastic thread (and may be
+ * served by a read replica), so concurrency is capped by the Hikari pool size.
+ *
+ * @author Robin Gateway Team
+ */
+@Repository
+@ConditionalOnProperty(name = "robin.persistence.read-mode", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaReadPathRepository implements ReadPathRepository {
+
+    private final DomainRepository domainRepository;
+    private final AliasRepository aliasRepository;
+    private final UserRepository userRepository;
+    private final SessionRepository sessionRepository;
+    private final DatabaseCalls databaseCalls;
+
+    @Override
+    public Mono<Domain> findDomainById(Long id) {
+        return lookup(WorkloadClass.INTERACTIVE_READ, () -> domainRepository.findById(id));
+    }
+
+    @Override
+    public Mono<Domain> findDomainByName(String domain) {
+        return lookup(WorkloadClass.INTERACTIVE_READ, () -> domainRepository.findByDomain(domain));
+    }
+
+    @Override
+    public Mono<Alias> findAliasById(Long id) {
+        return lookup(WorkloadClass.INTERACTIVE_READ, () -> aliasRepository.findById(id));
+    }
+
+    @Override
+    public Mono<User> findUserById(Long id) {
+        return lookup(WorkloadClass.AUTH, () -> userRepository.findById(id));
+    }
+
+    @Override
+    public Mono<User> findUserByUsername(String username) {
+        return lookup(WorkloadClass.AUTH, () -> userRepository.findByUsername(username));
+    }
+
+    @Override
+    public Mono<Session> findSessionByRefreshToken(String refreshToken) {
+        // Sessions are created right before the first refresh, so never read them from a replica
+        return lookup(WorkloadClass.AUTH, () -> sessionRepository.findByRefreshToken(refreshToken))
+                .contextWrite(RoutingContext::forcePrimary);
+    }
+
+    private <T> Mono<T> lookup(WorkloadClass workload, Supplier<Optional<T>> query) {
+        return databaseCalls.read(workload, query)
+                .flatMap(Mono::justOrEmpty);
+    }
+}
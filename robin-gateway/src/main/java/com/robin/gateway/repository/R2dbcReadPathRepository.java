@@ -0,0 +1,140 @@
+package com.robin.gateway.repository;
+
+import com.robin.gateway.model.Alias;
+import com.robin.gateway.model.Domain;
+import com.robin.gateway.model.Session;
+import com.robin.gateway.model.User;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Read path backed by the non-blocking R2DBC PostgreSQL driver.
+ *
+ * Roles and permissions are aggregated into arrays in the same statement so a user lookup
+ * is a single round trip, matching what the eager JPA collections load.
+ *
+ * @author Robin Gateway Team
+ */
+@Repository
+@ConditionalOnProperty(name = "robin.persistence.read-mode", havingValue = "r2dbc")
+@RequiredArgsConstructor
+public class R2dbcReadPathRepository implements ReadPathRepository {
+
+    private static final String USER_SELECT = """
+            SELECT u.id, u.username, u.password_bcrypt, u.password, u.quota_bytes,
+                   u.created_at, u.updated_at, u.last_login_at, u.is_active,
+                   u.account_non_expired, u.account_non_locked, u.credentials_non_expired,
+                   ARRAY(SELECT r.role FROM user_roles r WHERE r.user_id = u.id) AS roles,
+                   ARRAY(SELECT p.permission FROM user_permissions p WHERE p.user_id = u.id) AS permissions
+            FROM users u
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Domain> findDomainById(Long id) {
+        return databaseClient.sql("SELECT id, domain, created_at FROM domains WHERE id = :id")
+                .bind("id", id)
+                .map(R2dbcReadPathRepository::toDomain)
+                .one();
+    }
+
+    @Override
+    public Mono<Domain> findDomainByName(String domain) {
+        return databaseClient.sql("SELECT id, domain, created_at FROM domains WHERE domain = :domain")
+                .bind("domain", domain)
+                .map(R2dbcReadPathRepository::toDomain)
+                .one();
+    }
+
+    @Override
+    public Mono<Alias> findAliasById(Long id) {
+        return databaseClient.sql("SELECT id, source, destination, created_at FROM aliases WHERE id = :id")
+                .bind("id", id)
+                .map(row -> Alias.builder()
+                        .id(row.get("id", Long.class))
+                        .source(row.get("source", String.class))
+                        .destination(row.get("destination", String.class))
+                        .createdAt(row.get("created_at", LocalDateTime.class))
+                        .build())
+                .one();
+    }
+
+    @Override
+    public Mono<User> findUserById(Long id) {
+        return databaseClient.sql(USER_SELECT + "WHERE u.id = :id")
+                .bind("id", id)
+                .map(R2dbcReadPathRepository::toUser)
+                .one();
+    }
+
+    @Override
+    public Mono<User> findUserByUsername(String username) {
+        return databaseClient.sql(USER_SELECT + "WHERE u.username = :username")
+                .bind("username", username)
+                .map(R2dbcReadPathRepository::toUser)
+                .one();
+    }
+
+    @Override
+    public Mono<Session> findSessionByRefreshToken(String refreshToken) {
+        return databaseClient.sql("""
+                        SELECT id, user_id, refresh_token, expires_at, created_at, ip_address, user_agent,
+                               revoked, revoked_at
+                        FROM sessions WHERE refresh_token = :token
+                        """)
+                .bind("token", refreshToken)
+                .map(row -> Session.builder()
+                        .id(row.get("id", Long.class))
+                        .userId(row.get("user_id", Long.class))
+                        .refreshToken(row.get("refresh_token", String.class))
+                        .expiresAt(row.get("expires_at", LocalDateTime.class))
+                        .createdAt(row.get("created_at", LocalDateTime.class))
+                        .ipAddress(row.get("ip_address", String.class))
+                        .userAgent(row.get("user_agent", String.class))
+                        .revoked(row.get("revoked", Boolean.class))
+                        .revokedAt(row.get("revoked_at", LocalDateTime.class))
+                        .build())
+                .one();
+    }
+
+    private static Domain toDomain(Readable row) {
+        return Domain.builder()
+                .id(row.get("id", Long.class))
+                .domain(row.get("domain", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .build();
+    }
+
+    private static User toUser(Readable row) {
+        return User.builder()
+                .id(row.get("id", Long.class))
+                .username(row.get("username", String.class))
+                .passwordHash(row.get("password_bcrypt", String.class))
+                .dovecotPasswordHash(row.get("password", String.class))
+                .quotaBytes(row.get("quota_bytes", Long.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .lastLoginAt(row.get("last_login_at", LocalDateTime.class))
+                .enabled(row.get("is_active", Boolean.class))
+                .accountNonExpired(row.get("account_non_expired", Boolean.class))
+                .accountNonLocked(row.get("account_non_locked", Boolean.class))
+                .credentialsNonExpired(row.get("credentials_non_expired", Boolean.class))
+                .roles(toSet(row.get("roles", String[].class)))
+                .permissions(toSet(row.get("permissions", String[].class)))
+                .build();
+    }
+
+    private static Set<String> toSet(String[] values) {
+        return values == null ? new HashSet<>() : new HashSet<>(Arrays.asList(values));
+    }
+}
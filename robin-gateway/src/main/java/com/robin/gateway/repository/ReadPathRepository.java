@@ -0,0 +1,68 @@
+package com.robin.gateway.repository;
+
+import com.robin.gateway.model.Alias;
+import com.robin.gateway.model.Domain;
+import com.robin.gateway.model.Session;
+import com.robin.gateway.model.User;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive lookups for the high-traffic read paths.
+ *
+ * Two implementations exist, selected by {@code robin.persistence.read-mode}:
+ * {@link JpaReadPathRepository} (default) bridges the JPA repositories onto bounded-elastic
+ * threads, {@link R2dbcReadPathRepository} uses the non-blocking R2DBC driver.
+ * Writes always go through the JPA repositories.
+ *
+ * @author Robin Gateway Team
+ */
+public interface ReadPathRepository {
+
+    /**
+     * Find domain by ID.
+     *
+     * @param id the domain ID
+     * @return the domain, or empty if not found
+     */
+    Mono<Domain> findDomainById(Long id);
+
+    /**
+     * Find domain by name.
+     *
+     * @param domain the domain name
+     * @return the domain, or empty if not found
+     */
+    Mono<Domain> findDomainByName(String domain);
+
+    /**
+     * Find alias by ID.
+     *
+     * @param id the alias ID
+     * @return the alias, or empty if not found
+     */
+    Mono<Alias> findAliasById(Long id);
+
+    /**
+     * Find user by ID, including roles and permissions.
+     *
+     * @param id the user ID
+     * @return the user, or empty if not found
+     */
+    Mono<User> findUserById(Long id);
+
+    /**
+     * Find user by username, including roles and permissions.
+     *
+     * @param username the username
+     * @return the user, or empty if not found
+     */
+    Mono<User> findUserByUsername(String username);
+
+    /**
+     * Find session by refresh token.
+     *
+     * @param refreshToken the refresh token
+     * @return the session, or empty if not found
+     */
+    Mono<Session> findSessionByRefreshToken(String refreshToken);
+}
@@ -0,0 +1,310 @@
+package com.robin.gateway.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robin.gateway.datasource.DatabaseCalls;
+import com.robin.gateway.exception.GatewayException;
+import com.robin.gateway.model.dto.ChangeFeedResponse;
+import com.robin.gateway.model.dto.ChangeFeedResponse.Change;
+import com.robin.gateway.model.dto.ChangeFeedResponse.Operation;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental change feed over users, domains and aliases.
+ * <p>
+ * Rows carry a {@code revision} maintained by triggers (see
+ * {@code V7__add_change_feed_revisions.sql}): the writing transaction's id plus a fixed
+ * base, so one transaction's changes share a revision. Deletes leave tombstones. A page is
+ * the next {@code limit} changes after {@code since}, read through the revision indexes, so
+ * the cost depends on the number of changes rather than the size of the tables.
+ * <p>
+ * Pages stop below the commit-ordered horizon (the oldest transaction still running), so a
+ * transaction that commits after a page was read never lands below that page's
+ * {@code nextRevision}. A long-running transaction anywhere in the database holds the feed
+ * back until it ends. A page never splits one transaction's changes; a single transaction
+ * larger than {@code limit} is returned whole.
+ * <p>
+ * Long-polling requests re-read the page on every {@code robin_entity_changes}
+ * notification and keep waiting while it is still empty, until the wait runs out.
+ * Notifications are received on a dedicated R2DBC {@code LISTEN} connection to
+ * {@code robin.persistence.r2dbc.url}, independent of the read mode. While that connection
+ * is down, or with {@code robin.changes.listen=false} or no URL, a periodic tick wakes the
+ * waiting polls instead.
+ */
+@Service
+@Slf4j
+public class ChangeFeedService {
+
+    private static final String CHANNEL = "robin_entity_changes";
+
+    private static final String CHANGES_SQL = """
+            SELECT revision, entity, operation, id, data FROM (
+                (SELECT u.revision, 'user' AS entity, 'UPSERT' AS operation, u.id::BIGINT AS id,
+                        json_build_object('username', u.username, 'quotaBytes', u.quota_bytes,
+                                          'enabled', u.is_active,
+                                          'roles', ARRAY(SELECT r.role FROM user_roles r WHERE r.user_id = u.id))::TEXT AS data
+                 FROM users u WHERE u.revision > ? AND u.revision < ? ORDER BY u.revision LIMIT ?)
+                UNION ALL
+                (SELECT d.revision, 'domain', 'UPSERT', d.id::BIGINT,
+                        json_build_object('domain', d.domain)::TEXT
+                 FROM domains d WHERE d.revision > ? AND d.revision < ? ORDER BY d.revision LIMIT ?)
+                UNION ALL
+                (SELECT a.revision, 'alias', 'UPSERT', a.id::BIGINT,
+                        json_build_object('source', a.source, 'destination', a.destination)::TEXT
+                 FROM aliases a WHERE a.revision > ? AND a.revision < ? ORDER BY a.revision LIMIT ?)
+                UNION ALL
+                (SELECT t.revision, t.entity, 'DELETE', t.entity_id,
+                        json_build_object('key', t.entity_key)::TEXT
+                 FROM change_tombstones t WHERE t.revision > ? AND t.revision < ? ORDER BY t.revision LIMIT ?)
+            ) c
+            -- A delete and a re-insert of the same key in one transaction apply in that order
+            ORDER BY revision, operation, entity, id
+            LIMIT ?
+            """;
+
+    private static final String HORIZON_SQL = "SELECT entity_revision_horizon()";
+
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseCalls databaseCalls;
+    private final ObjectMapper objectMapper;
+    private final Sinks.Many<Long> changeSignals = Sinks.many().multicast().directBestEffort();
+    private final int maxLimit;
+    private final Duration maxWait;
+    private final Duration tickInterval;
+    private final Duration tombstoneRetention;
+    private final boolean listen;
+    private final String listenUrl;
+    private final String listenUsername;
+    private final String listenPassword;
+    private volatile boolean listening;
+    private Disposable listener;
+
+    public ChangeFeedService(
+            JdbcTemplate jdbcTemplate,
+            DatabaseCalls databaseCalls,
+            ObjectMapper objectMapper,
+            @Value("${robin.changes.max-limit:1000}") int maxLimit,
+            @Value("${robin.changes.max-wait:30s}") Duration maxWait,
+            @Value("${robin.changes.tick-interval:5s}") Duration tickInterval,
+            @Value("${robin.changes.tombstone-retention:7d}") Duration tombstoneRetention,
+            @Value("${robin.changes.listen:true}") boolean listen,
+            @Value("${robin.persistence.r2dbc.url:}") String listenUrl,
+            @Value("${robin.persistence.r2dbc.username:}") String listenUsername,
+            @Value("${robin.persistence.r2dbc.password:}") String listenPassword) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseCalls = databaseCalls;
+        this.objectMapper = objectMapper;
+        this.maxLimit = maxLimit;
+        this.maxWait = maxWait;
+        this.tickInterval = tickInterval;
+        this.tombstoneRetention = tombstoneRetention;
+        this.listen = listen;
+        this.listenUrl = listenUrl;
+        this.listenUsername = listenUsername;
+        this.listenPassword = listenPassword;
+    }
+
+    @PostConstruct
+    public void startListening() {
+        boolean enabled = listen && !listenUrl.isBlank();
+        if (!enabled) {
+            log.info("Change notifications disabled; long polls wake every {}", tickInterval);
+        }
+        Flux<Long> notifications = enabled ? notifications() : Flux.empty();
+
+        // Ticks stand in for notifications while there is no LISTEN connection
+        Flux<Long> ticks = Flux.interval(tickInterval).filter(tick -> !listening);
+        listener = Flux.merge(notifications, ticks)
+                .subscribe(signal -> changeSignals.tryEmitNext(signal));
+    }
+
+    private Flux<Long> notifications() {
+        return Flux.usingWhen(
+                        Mono.from(ConnectionFactories.get(ConnectionFactoryOptions.parse(listenUrl).mutate()
+                                        .option(ConnectionFactoryOptions.USER, listenUsername)
+                                        .option(ConnectionFactoryOptions.PASSWORD, listenPassword)
+                                        .build())
+                                .create())
+                                .cast(PostgresqlConnection.class),
+                        connection -> connection.createStatement("LISTEN " + CHANNEL)
+                                .execute()
+                                .flatMap(PostgresqlResult::getRowsUpdated)
+                                .doOnComplete(() -> listening = true)
+                                // One signal for whatever committed while nobody was listening
+                                .thenMany(Flux.concat(Mono.just(0L), connection.getNotifications()
+                                        .map(notification -> System.nanoTime()))),
+                        PostgresqlConnection::close)
+                .doOnTerminate(() -> listening = false)
+                .doOnCancel(() -> listening = false)
+                .doOnError(e -> log.warn("Change notification listener failed, retrying: {}", e.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofMinutes(1)));
+    }
+
+    @PreDestroy
+    public void stopListening() {
+        if (listener != null) {
+            listener.dispose();
+        }
+    }
+
+    /**
+     * Get changes after a revision.
+     *
+     * @param since last revision the client has applied
+     * @param limit maximum changes to return
+     * @param wait  how long to wait for a change when there is none yet; zero to return immediately
+     * @return the next page of changes
+     */
+    public Mono<ChangeFeedResponse> getChanges(long since, int limit, Duration wait) {
+        int cappedLimit = Math.max(1, Math.min(limit, maxLimit));
+        Duration cappedWait = wait.compareTo(maxWait) > 0 ? maxWait : wait;
+
+        if (cappedWait.isZero() || cappedWait.isNegative()) {
+            return readPage(since, cappedLimit);
+        }
+
+        return Mono.defer(() -> poll(since, cappedLimit, System.nanoTime() + cappedWait.toNanos()));
+    }
+
+    /**
+     * Read the page; while it is empty, wait for a change signal and read again, until
+     * {@code deadline} (a {@link System#nanoTime()} value).
+     */
+    private Mono<ChangeFeedResponse> poll(long since, int limit, long deadline) {
+        // Subscribe to the signal before reading so a commit in between isn't missed
+        Sinks.Empty<Void> changed = Sinks.empty();
+        return Mono.using(
+                () -> changeSignals.asFlux().take(1).subscribe(signal -> changed.tryEmitEmpty()),
+                subscription -> readPage(since, limit).flatMap(page -> {
+                    long remaining = deadline - System.nanoTime();
+                    if (!page.getChanges().isEmpty() || page.isResyncRequired() || remaining <= 0) {
+                        return Mono.just(page);
+                    }
+                    // A signal can be another table's change or a tick: read again and keep
+                    // waiting if nothing new is visible yet
+                    return changed.asMono()
+                            .thenReturn(true)
+                            .timeout(Duration.ofNanos(remaining), Mono.just(false))
+                            .flatMap(signalled -> signalled
+                                    ? poll(since, limit, deadline)
+                                    : readPage(since, limit));
+                }),
+                Disposable::dispose);
+    }
+
+    private Mono<ChangeFeedResponse> readPage(long since, int limit) {
+        return databaseCalls.read(() -> {
+                    // Taken first: everything below it is committed by the time the changes are read
+                    long horizon = jdbcTemplate.queryForObject(HORIZON_SQL, Long.class);
+                    Long purgedThrough = jdbcTemplate.queryForObject(
+                            "SELECT purged_through FROM change_feed_horizon WHERE id = 1", Long.class);
+                    if (purgedThrough != null && since < purgedThrough) {
+                        // Deletes after 'since' are gone: the client reloads everything and
+                        // continues from the horizon captured before its reload
+                        return ChangeFeedResponse.builder()
+                                .since(since)
+                                .nextRevision(horizon - 1)
+                                .resyncRequired(true)
+                                .changes(List.of())
+                                .build();
+                    }
+
+                    List<Change> changes = readChanges(since, horizon, limit + 1);
+                    boolean hasMore = changes.size() > limit;
+                    List<Change> page = changes;
+                    if (hasMore) {
+                        long last = changes.get(limit - 1).getRevision();
+                        if (changes.get(limit).getRevision() != last) {
+                            page = changes.subList(0, limit);
+                        } else if (changes.get(0).getRevision() != last) {
+                            // Don't split a transaction: leave its changes for the next page
+                            page = changes.stream().filter(change -> change.getRevision() < last).toList();
+                        } else {
+                            // One transaction larger than the page
+                            page = readChanges(last - 1, last + 1, Integer.MAX_VALUE);
+                        }
+                    }
+                    long next = page.isEmpty() ? since : page.get(page.size() - 1).getRevision();
+
+                    return ChangeFeedResponse.builder()
+                            .since(since)
+                            .nextRevision(next)
+                            .hasMore(hasMore)
+                            .changes(new ArrayList<>(page))
+                            .build();
+                })
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error reading changes since {}", since, e));
+    }
+
+    /**
+     * Changes with {@code since < revision < until}, in revision order.
+     */
+    private List<Change> readChanges(long since, long until, int limit) {
+        List<Change> changes = new ArrayList<>(Math.min(limit, maxLimit + 1));
+        jdbcTemplate.query(CHANGES_SQL, rs -> {
+            changes.add(Change.builder()
+                    .revision(rs.getLong("revision"))
+                    .entity(rs.getString("entity"))
+                    .operation(Operation.valueOf(rs.getString("operation")))
+                    .id(rs.getLong("id"))
+                    .data(parseData(rs.getString("data")))
+                    .build());
+        }, since, until, limit, since, until, limit, since, until, limit, since, until, limit, limit);
+        return changes;
+    }
+
+    private Map<String, Object> parseData(String json) {
+        try {
+            return objectMapper.readValue(json, DATA_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Drop tombstones past the retention window and advance the resync horizon.
+     */
+    @Scheduled(fixedDelayString = "${robin.changes.purge-interval-ms:3600000}")
+    public void purgeTombstones() {
+        try {
+            int purged = jdbcTemplate.update("""
+                    WITH purged AS (
+                        DELETE FROM change_tombstones WHERE deleted_at < NOW() - make_interval(secs => ?)
+                        RETURNING revision
+                    )
+                    UPDATE change_feed_horizon
+                    SET purged_through = GREATEST(purged_through, (SELECT COALESCE(MAX(revision), 0) FROM purged))
+                    WHERE id = 1 AND EXISTS (SELECT 1 FROM purged)
+                    """, (double) tombstoneRetention.toSeconds());
+            if (purged > 0) {
+                log.info("Purged change feed tombstones older than {}", tombstoneRetention);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to purge change feed tombstones: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.robin.gateway.service;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+/**
+ * A configuration section ready to be sent as strict JSON.
+ *
+ * @param etag strong entity tag of the section
+ * @param body encoded content, produced lazily on subscription
+ */
+public record ConfigContent(String etag, Flux<DataBuffer> body) {
+}
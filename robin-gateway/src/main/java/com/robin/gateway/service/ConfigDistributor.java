@@ -0,0 +1,283 @@
+package com.robin.gateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.robin.gateway.exception.InvalidRequestException;
+import com.robin.gateway.model.dto.ConfigDistributionReport;
+import com.robin.gateway.model.dto.ConfigDistributionReport.NodeStatus;
+import com.robin.gateway.service.RobinNodesProperties.Mode;
+import com.robin.gateway.util.ETags;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Distributes configuration sections to several Robin MTA nodes ({@code robin.nodes}).
+ * <p>
+ * Each node gets the gateway's copy of the sections ({@code PUT /config/json}), is told to
+ * reload ({@code POST /config/reload}) and is then read back to confirm which version it
+ * runs. Nodes are handled concurrently up to {@code max-concurrency}, each within its own
+ * timeout, so distributing to twenty nodes takes about as long as to the slowest one.
+ * A failing node is reported, not retried, and does not hold up the others.
+ * <p>
+ * In {@link Mode#ROLLING rolling} mode nodes are reloaded in waves of {@code wave-size};
+ * a wave has to come back healthy before the next one starts, otherwise the remaining
+ * nodes are skipped and keep running their previous configuration.
+ */
+@Component
+@Slf4j
+public class ConfigDistributor {
+
+    private final ConfigStore configStore;
+    private final RobinNodesProperties properties;
+    private final WebClient webClient;
+    private final Timer succeeded;
+    private final Timer failed;
+
+    public ConfigDistributor(
+            ConfigStore configStore,
+            RobinNodesProperties properties,
+            WebClient.Builder webClientBuilder,
+            MeterRegistry meterRegistry) {
+        this.configStore = configStore;
+        this.properties = properties;
+        this.webClient = webClientBuilder.clone().build();
+
+        this.succeeded = Timer.builder("robin.config.distribution.node")
+                .description("Time to push, reload and verify configuration on a Robin node")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.failed = Timer.builder("robin.config.distribution.node")
+                .description("Time to push, reload and verify configuration on a Robin node")
+                .tag("result", "failure")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true if Robin nodes are configured
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Distribute sections in the configured mode.
+     *
+     * @see #distribute(Collection, Mode)
+     */
+    public Mono<ConfigDistributionReport> distribute(Collection<String> sections) {
+        return distribute(sections, properties.getMode());
+    }
+
+    /**
+     * Push sections to every node and reload them.
+     *
+     * @param sections section names
+     * @param mode     parallel or rolling
+     * @return per-node outcome; node failures are reported, not signalled as errors
+     * @throws InvalidRequestException (signalled) if no nodes are configured
+     */
+    public Mono<ConfigDistributionReport> distribute(Collection<String> sections, Mode mode) {
+        if (!isEnabled()) {
+            return Mono.error(new InvalidRequestException("No Robin nodes are configured (robin.nodes.endpoints)"));
+        }
+        Instant startedAt = Instant.now();
+        return Flux.fromIterable(new LinkedHashSet<>(sections))
+                .concatMap(this::snapshot)
+                .collectList()
+                .flatMap(snapshots -> {
+                    log.info("Distributing {} to {} Robin node(s), {}",
+                            snapshots.stream().map(ConfigSnapshot::section).toList(),
+                            properties.getEndpoints().size(), mode);
+                    Mono<List<ConfigDistributionReport.Node>> nodes = mode == Mode.ROLLING
+                            ? rolling(snapshots)
+                            : parallel(snapshots);
+                    return nodes.map(results -> {
+                        Map<String, String> versions = new LinkedHashMap<>();
+                        snapshots.forEach(snapshot -> versions.put(snapshot.section(), snapshot.etag()));
+                        ConfigDistributionReport report = ConfigDistributionReport.builder()
+                                .mode(mode.name())
+                                .versions(versions)
+                                .startedAt(startedAt)
+                                .finishedAt(Instant.now())
+                                .nodes(results)
+                                .build();
+                        log.info("Distribution finished: {} of {} node(s) succeeded",
+                                results.stream().filter(node -> node.getStatus() == NodeStatus.SUCCEEDED).count(),
+                                results.size());
+                        return report;
+                    });
+                });
+    }
+
+    private Mono<ConfigSnapshot> snapshot(String section) {
+        return Mono.defer(() -> {
+            ConfigSnapshot cached = configStore.cached(section);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return Mono.fromCallable(() -> configStore.load(section))
+                    .subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    private Mono<List<ConfigDistributionReport.Node>> parallel(List<ConfigSnapshot> snapshots) {
+        return Flux.fromIterable(properties.getEndpoints())
+                .flatMapSequential(node -> push(node, snapshots, null), properties.getMaxConcurrency())
+                .collectList();
+    }
+
+    private Mono<List<ConfigDistributionReport.Node>> rolling(List<ConfigSnapshot> snapshots) {
+        List<RobinNodesProperties.Node> endpoints = properties.getEndpoints();
+        int waveSize = Math.max(1, properties.getWaveSize());
+        List<List<RobinNodesProperties.Node>> waves = new ArrayList<>();
+        for (int i = 0; i < endpoints.size(); i += waveSize) {
+            waves.add(endpoints.subList(i, Math.min(endpoints.size(), i + waveSize)));
+        }
+
+        AtomicBoolean halted = new AtomicBoolean();
+        return Flux.range(0, waves.size())
+                .concatMap(index -> Flux.defer(() -> {
+                    int wave = index + 1;
+                    Flux<RobinNodesProperties.Node> nodes = Flux.fromIterable(waves.get(index));
+                    if (halted.get()) {
+                        return nodes.map(node -> describe(node, wave)
+                                .status(NodeStatus.SKIPPED)
+                                .build());
+                    }
+                    return nodes
+                            .flatMapSequential(node -> push(node, snapshots, wave), properties.getMaxConcurrency())
+                            .collectList()
+                            .doOnNext(results -> {
+                                if (results.stream().anyMatch(node -> node.getStatus() != NodeStatus.SUCCEEDED)) {
+                                    log.warn("Rolling distribution halted after wave {} of {}", wave, waves.size());
+                                    halted.set(true);
+                                }
+                            })
+                            .flatMapIterable(results -> results);
+                }))
+                .collectList();
+    }
+
+    /**
+     * Push, reload and verify one node; in rolling mode ({@code wave != null}) also wait for it
+     * to report healthy.
+     */
+    private Mono<ConfigDistributionReport.Node> push(RobinNodesProperties.Node node, List<ConfigSnapshot> snapshots,
+                                                     Integer wave) {
+        ConfigDistributionReport.Node.NodeBuilder result = describe(node, wave);
+        Timer.Sample sample = Timer.start();
+        long start = System.nanoTime();
+
+        Mono<Void> distribute = Flux.fromIterable(snapshots)
+                .flatMap(snapshot -> webClient.put()
+                        .uri(node.getUrl() + "/config/json?section={section}", snapshot.section())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(snapshot.tree())
+                        .retrieve()
+                        .toBodilessEntity())
+                .then(Mono.defer(() -> {
+                    result.pushMillis(millisSince(start));
+                    long reloadStart = System.nanoTime();
+                    return webClient.post()
+                            .uri(node.getUrl() + "/config/reload")
+                            .retrieve()
+                            .toBodilessEntity()
+                            .doOnSuccess(response -> result.reloadMillis(millisSince(reloadStart)));
+                }))
+                .thenMany(Flux.fromIterable(snapshots)
+                        .flatMapSequential(snapshot -> webClient.get()
+                                .uri(node.getUrl() + "/config/json?section={section}", snapshot.section())
+                                .retrieve()
+                                .bodyToMono(JsonNode.class)
+                                .map(tree -> Map.entry(snapshot.section(), versionOf(snapshot, tree)))))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue, LinkedHashMap::new)
+                .flatMap(versions -> {
+                    result.versions(versions);
+                    for (ConfigSnapshot snapshot : snapshots) {
+                        if (!snapshot.etag().equals(versions.get(snapshot.section()))) {
+                            return Mono.error(new IllegalStateException(
+                                    "Node is not running the distributed version of " + snapshot.section()));
+                        }
+                    }
+                    return Mono.<Void>empty();
+                })
+                .timeout(properties.getTimeout(), Mono.error(new TimeoutException(
+                        "Timed out after " + properties.getTimeout().toMillis() + " ms")));
+
+        if (wave != null) {
+            distribute = distribute.then(healthy(node)
+                    .doOnSuccess(ok -> result.healthy(true))
+                    .doOnError(e -> result.healthy(false)));
+        }
+
+        return distribute
+                .then(Mono.fromCallable(() -> {
+                    sample.stop(succeeded);
+                    return result.status(NodeStatus.SUCCEEDED).build();
+                }))
+                .onErrorResume(e -> {
+                    sample.stop(failed);
+                    log.warn("Configuration distribution to {} ({}) failed: {}", node.getName(), node.getUrl(), e.getMessage());
+                    return Mono.just(result.status(NodeStatus.FAILED).error(e.getMessage()).build());
+                });
+    }
+
+    /**
+     * Poll the node's health endpoint until it answers with a 2xx status.
+     */
+    private Mono<Void> healthy(RobinNodesProperties.Node node) {
+        return webClient.get()
+                .uri(node.getUrl() + properties.getHealthPath())
+                .retrieve()
+                .toBodilessEntity()
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, properties.getHealthInterval()))
+                .timeout(properties.getHealthTimeout(), Mono.error(new TimeoutException(
+                        "Not healthy within " + properties.getHealthTimeout().toMillis() + " ms of the reload")))
+                .then();
+    }
+
+    /**
+     * The version a node reports: the gateway's hash if the content matches, else a hash of
+     * what the node returned.
+     */
+    private String versionOf(ConfigSnapshot expected, JsonNode actual) {
+        if (expected.tree().equals(actual)) {
+            return expected.etag();
+        }
+        try {
+            return ETags.of(configStore.getObjectMapper().writeValueAsBytes(actual));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot hash configuration of " + expected.section(), e);
+        }
+    }
+
+    private static ConfigDistributionReport.Node.NodeBuilder describe(RobinNodesProperties.Node node, Integer wave) {
+        return ConfigDistributionReport.Node.builder()
+                .name(node.getName() != null ? node.getName() : node.getUrl())
+                .url(node.getUrl())
+                .wave(wave);
+    }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
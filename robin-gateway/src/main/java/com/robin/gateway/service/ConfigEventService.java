@@ -0,0 +1,211 @@
+package com.robin.gateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robin.gateway.exception.InvalidRequestException;
+import com.robin.gateway.exception.NotFoundException;
+import com.robin.gateway.model.dto.ConfigChangeEvent;
+import com.robin.gateway.model.dto.ConfigChangeEvent.Type;
+import com.robin.gateway.util.JsonPatches;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent events for configuration changes.
+ * <p>
+ * Invalidations from {@link ConfigStore} (the directory watcher and the gateway's own writes)
+ * are turned into change events by a single pipeline: the section is reloaded, duplicate
+ * signals for the same content are dropped and the RFC 6902 diff against the previously
+ * published content is computed (except for sections above the streaming threshold). Each event is encoded to JSON once and published on one
+ * shared sink, so an event costs the same whatever the number of subscribers.
+ * <p>
+ * Every subscriber gets its own bounded buffer; a subscriber that cannot keep up loses its
+ * oldest undelivered events rather than holding back the others. The last few events are
+ * replayed to clients reconnecting with {@code Last-Event-ID}. A shared heartbeat keeps
+ * idle connections open through proxies.
+ */
+@Service
+@Slf4j
+public class ConfigEventService {
+
+    private static final String EVENT_NAME = "config-change";
+
+    /**
+     * An event encoded with and without its diff.
+     */
+    private record Encoded(long id, String section, String json, String jsonWithDiff) {
+    }
+
+    private final ConfigStore configStore;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final Sinks.Many<Encoded> events;
+    private final Flux<Long> heartbeats;
+    private final Map<String, ConfigSnapshot> published = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter publishedEvents;
+    private final Counter droppedEvents;
+    private volatile long lastId;
+    private Disposable subscription;
+
+    public ConfigEventService(
+            ConfigStore configStore,
+            ObjectMapper objectMapper,
+            @Value("${robin.configuration.events.buffer-size:64}") int bufferSize,
+            @Value("${robin.configuration.events.replay-size:32}") int replaySize,
+            @Value("${robin.configuration.events.heartbeat:15s}") Duration heartbeat,
+            MeterRegistry meterRegistry) {
+        this.configStore = configStore;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.events = Sinks.many().replay().limit(replaySize);
+        this.heartbeats = Flux.interval(heartbeat).share();
+
+        this.publishedEvents = Counter.builder("robin.config.events.published")
+                .description("Configuration change events published")
+                .register(meterRegistry);
+        this.droppedEvents = Counter.builder("robin.config.events.dropped")
+                .description("Configuration change events dropped for subscribers that fell behind")
+                .register(meterRegistry);
+        Gauge.builder("robin.config.events.subscribers", subscribers, AtomicInteger::get)
+                .description("Open configuration event streams")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        subscription = configStore.changes()
+                .onBackpressureBuffer()
+                .concatMap(change -> Mono.fromCallable(() -> toEvent(change))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .onErrorResume(e -> {
+                            log.warn("Failed to publish change of configuration section {}: {}",
+                                    change.section(), e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe(this::publish);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        events.tryEmitComplete();
+    }
+
+    /**
+     * Open an event stream.
+     *
+     * @param lastEventId id of the last event the client saw, to replay what it missed; null
+     *                    to receive only events from now on
+     * @param sections    sections to receive events for, or null/empty for all
+     * @param diff        whether to include the RFC 6902 diff in events
+     * @return change events, interleaved with heartbeat comments
+     */
+    public Flux<ServerSentEvent<String>> stream(Long lastEventId, Set<String> sections, boolean diff) {
+        return Flux.defer(() -> {
+                    long after = lastEventId != null ? lastEventId : lastId;
+                    Flux<ServerSentEvent<String>> changes = events.asFlux()
+                            .filter(event -> event.id() > after
+                                    && (sections == null || sections.isEmpty() || sections.contains(event.section())))
+                            .onBackpressureBuffer(bufferSize, event -> droppedEvents.increment(),
+                                    BufferOverflowStrategy.DROP_OLDEST)
+                            .map(event -> ServerSentEvent.builder(diff ? event.jsonWithDiff() : event.json())
+                                    .id(String.valueOf(event.id()))
+                                    .event(EVENT_NAME)
+                                    .build());
+                    Flux<ServerSentEvent<String>> keepAlive = heartbeats
+                            .map(tick -> ServerSentEvent.<String>builder().comment("heartbeat").build());
+                    return Flux.merge(changes, keepAlive);
+                })
+                .doOnSubscribe(s -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    /**
+     * Turn a change signal into an event, or null if the content did not actually change.
+     */
+    private ConfigChangeEvent toEvent(ConfigStore.Change change) {
+        String section = change.section();
+        ConfigSnapshot previous = published.get(section);
+        if (previous == null) {
+            previous = change.previous();
+        }
+
+        ConfigSnapshot current;
+        try {
+            ConfigStore.ConfigFile file = configStore.describe(section);
+            // Large sections are announced by version only, without parsing them for a diff
+            current = configStore.isLarge(file)
+                    ? new ConfigSnapshot(section, file.file(), null, file.etag(), 0)
+                    : configStore.load(section);
+        } catch (NotFoundException e) {
+            current = null;
+        } catch (InvalidRequestException e) {
+            // A file in the configuration directory that is not a section
+            return null;
+        }
+
+        ConfigChangeEvent.ConfigChangeEventBuilder event = ConfigChangeEvent.builder()
+                .section(section)
+                .changedAt(Instant.now());
+        if (current == null) {
+            if (previous == null) {
+                return null;
+            }
+            published.remove(section);
+            return event.type(Type.DELETED).previousVersion(previous.etag()).build();
+        }
+        if (previous != null && previous.etag().equals(current.etag())) {
+            return null;
+        }
+        published.put(section, current);
+        event.type(Type.UPDATED).version(current.etag());
+        if (previous != null) {
+            event.previousVersion(previous.etag());
+            if (previous.tree() != null && current.tree() != null) {
+                event.diff(JsonPatches.diff(previous.tree(), current.tree()));
+            }
+        }
+        return event.build();
+    }
+
+    private void publish(ConfigChangeEvent event) {
+        event.setId(lastId + 1);
+        Encoded encoded;
+        try {
+            encoded = new Encoded(event.getId(), event.getSection(),
+                    objectMapper.writeValueAsString(event.toBuilder().diff(null).build()),
+                    objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to encode change of configuration section {}: {}", event.getSection(), e.getMessage());
+            return;
+        }
+        events.tryEmitNext(encoded);
+        // Subscribers joining from here on only want later events
+        lastId = encoded.id();
+        publishedEvents.increment();
+        log.debug("Published {} of configuration section {} (event {})", event.getType(), event.getSection(), event.getId());
+    }
+}
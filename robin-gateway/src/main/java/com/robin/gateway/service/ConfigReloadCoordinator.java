@@ -0,0 +1,277 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.model.dto.ConfigDistributionReport;
+import com.robin.gateway.model.dto.ConfigReloadReport;
+import com.robin.gateway.model.dto.ConfigReloadReport.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Debounces and coalesces Robin configuration reloads.
+ * <p>
+ * Each configuration write is registered with {@link #submit} and gets a write id. Robin
+ * is reloaded once no further write has arrived for the debounce window (or once the
+ * oldest pending write has waited {@code max-delay}), and that single reload covers every
+ * write registered since the previous one. Only one reload runs at a time; writes arriving
+ * meanwhile are batched into the next. Failed reloads are retried with exponential backoff.
+ * <p>
+ * When Robin nodes are configured ({@code robin.nodes}) the reload is a distribution of the
+ * written sections to every node through {@link ConfigDistributor} instead, and the report
+ * carries the outcome per node. Failed nodes are reported rather than retried.
+ * <p>
+ * The outcome of recent reloads, including which writes each covered, is kept for
+ * {@link #report(long)} and {@link #recent()}.
+ */
+@Component
+@Slf4j
+public class ConfigReloadCoordinator {
+
+    /**
+     * A registered write and the eventual outcome of the reload covering it.
+     *
+     * @param writeId    id of the write
+     * @param completion emits the covering reload's report once it has finished
+     */
+    public record ReloadHandle(long writeId, Mono<ConfigReloadReport> completion) {
+    }
+
+    private record PendingWrite(ConfigReloadReport.Write write, Sinks.One<ConfigReloadReport> sink) {
+    }
+
+    private final WebClient webClient;
+    private final ConfigDistributor distributor;
+    private final ConfigReloadProperties properties;
+    private final AtomicLong writeIds = new AtomicLong();
+    private final AtomicLong reloadIds = new AtomicLong();
+
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter saved;
+    private final Timer latency;
+
+    // Guarded by this
+    private List<PendingWrite> pending = new ArrayList<>();
+    private long firstPendingNanos;
+    private Disposable timer;
+    private ConfigReloadReport running;
+    private final Deque<ConfigReloadReport> history = new ArrayDeque<>();
+
+    public ConfigReloadCoordinator(
+            WebClient.Builder webClientBuilder,
+            @Value("${robin.service-url:http://localhost:8080}") String robinServiceUrl,
+            ConfigDistributor distributor,
+            ConfigReloadProperties properties,
+            MeterRegistry meterRegistry) {
+        this.webClient = webClientBuilder.clone().baseUrl(robinServiceUrl).build();
+        this.distributor = distributor;
+        this.properties = properties;
+
+        this.succeeded = Counter.builder("robin.config.reloads")
+                .description("Robin configuration reloads by outcome")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.failed = Counter.builder("robin.config.reloads")
+                .description("Robin configuration reloads by outcome")
+                .tag("result", "failure")
+                .register(meterRegistry);
+        this.saved = Counter.builder("robin.config.reloads.saved")
+                .description("Reloads avoided by coalescing several writes into one")
+                .register(meterRegistry);
+        this.latency = Timer.builder("robin.config.reload.latency")
+                .description("Time to reload Robin, including retries")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Register a configuration write that Robin needs to pick up.
+     *
+     * @param section the section that was written
+     * @return the write id and a handle on the reload that will cover it
+     */
+    public ReloadHandle submit(String section) {
+        ConfigReloadReport.Write write = ConfigReloadReport.Write.builder()
+                .writeId(writeIds.incrementAndGet())
+                .section(section)
+                .writtenAt(Instant.now())
+                .build();
+        Sinks.One<ConfigReloadReport> sink = Sinks.one();
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                firstPendingNanos = System.nanoTime();
+            }
+            pending.add(new PendingWrite(write, sink));
+            schedule();
+        }
+        return new ReloadHandle(write.getWriteId(), sink.asMono());
+    }
+
+    /**
+     * Status of the reload covering a write.
+     *
+     * @return the report (status {@code PENDING} if the write has not been picked up yet),
+     * or empty if the write is unknown or too old to be remembered
+     */
+    public synchronized Optional<ConfigReloadReport> report(long writeId) {
+        if (pending.stream().anyMatch(p -> p.write().getWriteId() == writeId)) {
+            return Optional.of(pendingReport());
+        }
+        if (running != null && covers(running, writeId)) {
+            return Optional.of(running);
+        }
+        return history.stream().filter(report -> covers(report, writeId)).findFirst();
+    }
+
+    /**
+     * Pending writes, the running reload and recently finished reloads, newest first.
+     */
+    public synchronized List<ConfigReloadReport> recent() {
+        List<ConfigReloadReport> reports = new ArrayList<>();
+        if (!pending.isEmpty()) {
+            reports.add(pendingReport());
+        }
+        if (running != null) {
+            reports.add(running);
+        }
+        reports.addAll(history);
+        return reports;
+    }
+
+    private static boolean covers(ConfigReloadReport report, long writeId) {
+        return report.getWrites().stream().anyMatch(write -> write.getWriteId() == writeId);
+    }
+
+    private ConfigReloadReport pendingReport() {
+        return ConfigReloadReport.builder()
+                .status(Status.PENDING)
+                .writes(pending.stream().map(PendingWrite::write).toList())
+                .build();
+    }
+
+    /**
+     * (Re)arm the debounce timer. Caller holds the monitor.
+     */
+    private void schedule() {
+        if (running != null || pending.isEmpty()) {
+            // Picked up when the running reload finishes
+            return;
+        }
+        if (timer != null) {
+            timer.dispose();
+        }
+        long waitedNanos = System.nanoTime() - firstPendingNanos;
+        long delayNanos = Math.max(0, Math.min(properties.getDebounce().toNanos(),
+                properties.getMaxDelay().toNanos() - waitedNanos));
+        timer = Schedulers.parallel().schedule(this::reload, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void reload() {
+        List<PendingWrite> batch;
+        ConfigReloadReport report;
+        synchronized (this) {
+            if (running != null || pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+            timer = null;
+            report = ConfigReloadReport.builder()
+                    .reloadId(reloadIds.incrementAndGet())
+                    .status(Status.RUNNING)
+                    .writes(batch.stream().map(PendingWrite::write).toList())
+                    .startedAt(Instant.now())
+                    .build();
+            running = report;
+        }
+        saved.increment(batch.size() - 1);
+        log.info("Reloading Robin configuration (reload {}, covering {} write(s))", report.getReloadId(), batch.size());
+
+        Timer.Sample sample = Timer.start();
+        if (distributor.isEnabled()) {
+            distributor.distribute(batch.stream().map(write -> write.write().getSection()).toList())
+                    .subscribe(
+                            distribution -> finish(report, batch, 1, failure(distribution), distribution.getNodes(), sample),
+                            error -> finish(report, batch, 1, error, null, sample));
+            return;
+        }
+
+        AtomicInteger attempts = new AtomicInteger();
+        Mono.defer(() -> {
+                    attempts.incrementAndGet();
+                    return webClient.post()
+                            .uri("/config/reload")
+                            .retrieve()
+                            .toBodilessEntity()
+                            .timeout(properties.getTimeout());
+                })
+                .retryWhen(Retry.backoff(Math.max(0, properties.getMaxAttempts() - 1), properties.getBackoff())
+                        .doBeforeRetry(signal -> log.warn("Robin reload {} failed, retrying: {}",
+                                report.getReloadId(), signal.failure().getMessage())))
+                .subscribe(
+                        response -> finish(report, batch, attempts.get(), null, null, sample),
+                        error -> finish(report, batch, attempts.get(), error, null, sample));
+    }
+
+    private static Throwable failure(ConfigDistributionReport distribution) {
+        if (distribution.isSucceeded()) {
+            return null;
+        }
+        long failedNodes = distribution.getNodes().stream()
+                .filter(node -> node.getStatus() != ConfigDistributionReport.NodeStatus.SUCCEEDED)
+                .count();
+        return new IllegalStateException(failedNodes + " of " + distribution.getNodes().size()
+                + " Robin node(s) did not pick up the configuration");
+    }
+
+    private void finish(ConfigReloadReport report, List<PendingWrite> batch, int attempts, Throwable error,
+                        List<ConfigDistributionReport.Node> nodes, Timer.Sample sample) {
+        sample.stop(latency);
+        ConfigReloadReport.ConfigReloadReportBuilder finished = report.toBuilder()
+                .attempts(attempts)
+                .nodes(nodes)
+                .finishedAt(Instant.now());
+        if (error == null) {
+            finished.status(Status.SUCCEEDED);
+            succeeded.increment();
+            log.info("Triggered config reload on Robin Server (reload {})", report.getReloadId());
+        } else {
+            Throwable cause = Exceptions.isRetryExhausted(error) && error.getCause() != null ? error.getCause() : error;
+            finished.status(Status.FAILED).error(cause.getMessage());
+            failed.increment();
+            log.error("Failed to trigger config reload {} after {} attempt(s): {}",
+                    report.getReloadId(), attempts, cause.getMessage());
+        }
+        ConfigReloadReport result = finished.build();
+
+        synchronized (this) {
+            running = null;
+            history.addFirst(result);
+            while (history.size() > properties.getHistorySize()) {
+                history.removeLast();
+            }
+            schedule();
+        }
+        batch.forEach(write -> write.sink().tryEmitValue(result));
+    }
+}
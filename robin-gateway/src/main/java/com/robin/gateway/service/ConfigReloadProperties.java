@@ -0,0 +1,46 @@
+package com.robin.gateway.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Robin reload coordination settings ({@code robin.configuration.reload}).
+ *
+ * @author Robin Gateway Team
+ */
+@Data
+@ConfigurationProperties(prefix = "robin.configuration.reload")
+public class ConfigReloadProperties {
+
+    /**
+     * Quiet period after a write before Robin is reloaded; further writes restart it.
+     */
+    private Duration debounce = Duration.ofSeconds(2);
+
+    /**
+     * Upper bound on how long a write waits for its reload while writes keep coming.
+     */
+    private Duration maxDelay = Duration.ofSeconds(10);
+
+    /**
+     * Attempts per reload, including the first.
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Initial delay between attempts, doubled on each retry.
+     */
+    private Duration backoff = Duration.ofSeconds(1);
+
+    /**
+     * Timeout of a single reload request.
+     */
+    private Duration timeout = Duration.ofSeconds(10);
+
+    /**
+     * Number of finished reloads kept for the status endpoint.
+     */
+    private int historySize = 50;
+}
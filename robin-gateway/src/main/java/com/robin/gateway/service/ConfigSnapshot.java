@@ -0,0 +1,20 @@
+package com.robin.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.nio.file.Path;
+
+/**
+ * One parsed version of a configuration section file.
+ * <p>
+ * The tree is shared by every reader of this version and must not be modified;
+ * copy it ({@link JsonNode#deepCopy()}) before making changes.
+ *
+ * @param section    section name (file name without extension)
+ * @param file       file the section was read from
+ * @param tree       parsed content
+ * @param etag       strong entity tag, the SHA-256 of the file content
+ * @param generation store-wide load counter, increasing with every parse
+ */
+public record ConfigSnapshot(String section, Path file, JsonNode tree, String etag, long generation) {
+}
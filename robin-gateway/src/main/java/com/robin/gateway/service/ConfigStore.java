@@ -0,0 +1,626 @@
+package com.robin.gateway.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.robin.gateway.exception.InvalidRequestException;
+import com.robin.gateway.exception.NotFoundException;
+import com.robin.gateway.exception.PreconditionFailedException;
+import com.robin.gateway.model.dto.ConfigVersion;
+import com.robin.gateway.util.ETags;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * File access for Robin configuration sections, with a parsed-tree cache.
+ * <p>
+ * Each section ({@code <config-path>/<section>.json5}, falling back to {@code .json}) is
+ * parsed once and served from memory until it changes. Changes are picked up from a
+ * {@link WatchService} on the configuration directory, so edits made by Robin or by hand
+ * are seen as well as the gateway's own writes.
+ * <p>
+ * A load that races with an invalidation is not cached: every invalidation bumps the
+ * section's epoch and a load only stores its result if the epoch it started with is
+ * still current.
+ * <p>
+ * Every snapshot carries a content-hash entity tag, computed once when the file is read,
+ * so conditional GETs are answered from memory. Writes can be made conditional on the
+ * tag of the file currently on disk; the check and the write run under a per-section lock.
+ * <p>
+ * Writes are crash safe: the new content goes to a temporary file in the same directory,
+ * is fsynced and then renamed over the section file with {@code ATOMIC_MOVE}, so Robin
+ * never sees a partly written file. The replaced file is kept in {@code .history/} (a
+ * bounded ring per section) and can be restored.
+ * <p>
+ * Sections larger than {@code streaming-threshold} are not kept as trees: parsing tens of
+ * megabytes allocates several times that in nodes. They are described (size and tag) by
+ * hashing the file in chunks and read through {@link #openParser} at the token level.
+ * <p>
+ * Every invalidation, whether from the watcher or from a write, is also signalled on
+ * {@link #changes()}.
+ */
+@Component
+@Slf4j
+public class ConfigStore {
+
+    private static final Pattern SECTION_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    /**
+     * Names taken by other endpoints under {@code /api/v1/config}.
+     */
+    private static final Set<String> RESERVED_SECTIONS = Set.of("events", "reloads");
+    private static final Pattern VERSION_ID = Pattern.compile("[0-9]+");
+    private static final String HISTORY_DIR = ".history";
+
+    /**
+     * A section that may have changed on disk.
+     *
+     * @param section  section name
+     * @param previous the snapshot cached until now, or null if the section was not cached
+     */
+    public record Change(String section, ConfigSnapshot previous) {
+    }
+
+    /**
+     * A section file described without parsing it.
+     *
+     * @param section section name
+     * @param file    file holding the section
+     * @param size    file size in bytes
+     * @param etag    strong entity tag of the content
+     */
+    public record ConfigFile(String section, Path file, long size, String etag) {
+    }
+
+    private record Read(ConfigSnapshot snapshot, int size) {
+    }
+
+    private final Path configDir;
+    private final Path historyDir;
+    private final int historySize;
+    private final long streamingThreshold;
+    private final ObjectMapper objectMapper;
+    private final Map<String, ConfigSnapshot> cache = new ConcurrentHashMap<>();
+    private final Map<String, ConfigFile> files = new ConcurrentHashMap<>();
+    private final Map<String, Long> epochs = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> writeLocks = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Sinks.Many<Change> changes = Sinks.many().multicast().directBestEffort();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+    private final Timer loadTimer;
+
+    private WatchService watchService;
+    private volatile boolean watching;
+
+    public ConfigStore(
+            @Value("${robin.config-path:cfg/}") String configPath,
+            @Value("${robin.configuration.history-size:10}") int historySize,
+            @Value("${robin.configuration.streaming-threshold:8MB}") DataSize streamingThreshold,
+            MeterRegistry meterRegistry) {
+        this.configDir = Paths.get(configPath).toAbsolutePath().normalize();
+        this.historyDir = configDir.resolve(HISTORY_DIR);
+        this.historySize = historySize;
+        this.streamingThreshold = streamingThreshold.toBytes();
+        // Jackson with JSON5-like support (comments, etc)
+        this.objectMapper = JsonMapper.builder()
+                .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+                .enable(JsonReadFeature.ALLOW_YAML_COMMENTS)
+                .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+                .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+                .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .build();
+
+        this.hits = Counter.builder("robin.config.cache.requests")
+                .description("Configuration section reads by cache outcome")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("robin.config.cache.requests")
+                .description("Configuration section reads by cache outcome")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("robin.config.cache.invalidations")
+                .description("Cached configuration sections dropped after a change on disk")
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("robin.config.load")
+                .description("Time to read and parse a configuration section from disk")
+                .register(meterRegistry);
+        Gauge.builder("robin.config.cache.sections", cache, Map::size)
+                .description("Configuration sections currently cached")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!Files.isDirectory(configDir)) {
+            log.warn("Configuration directory {} does not exist. Creating it.", configDir);
+            Files.createDirectories(configDir);
+        }
+        watchService = configDir.getFileSystem().newWatchService();
+        configDir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        watching = true;
+        Thread watchThread = new Thread(this::watch, "config-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * @return the mapper used for configuration files (JSON5 tolerant, indented output)
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Return the cached snapshot, without touching disk.
+     *
+     * @return the snapshot, or null if the section has to be loaded
+     */
+    public ConfigSnapshot cached(String section) {
+        ConfigSnapshot snapshot = cache.get(section);
+        if (snapshot != null) {
+            hits.increment();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Return the current snapshot of a section, loading it from disk if needed. Blocking.
+     *
+     * @throws NotFoundException       if neither {@code .json5} nor {@code .json} exists
+     * @throws InvalidRequestException if the section name is not a plain file name
+     */
+    public ConfigSnapshot load(String section) {
+        ConfigSnapshot snapshot = cached(section);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        misses.increment();
+        validateSection(section);
+
+        long epoch = epochs.getOrDefault(section, 0L);
+        Read read = loadTimer.record(() -> read(section));
+        ConfigSnapshot loaded = read.snapshot();
+        epochs.compute(section, (key, current) -> {
+            // Without the watcher, outside edits would go unnoticed: don't cache then
+            if (watching && (current == null ? 0L : current) == epoch) {
+                // Keep an earlier description of the same content so callers holding it stay current
+                ConfigFile described = new ConfigFile(section, loaded.file(), read.size(), loaded.etag());
+                files.merge(section, described, (previous, next) -> previous.equals(next) ? previous : next);
+                // Large trees are parsed for writes only and not kept; readers stream them
+                if (read.size() <= streamingThreshold) {
+                    cache.put(section, loaded);
+                }
+            }
+            return current;
+        });
+        return loaded;
+    }
+
+    /**
+     * Describe a section without parsing it; the file is hashed in chunks unless already
+     * known. Blocking.
+     *
+     * @throws NotFoundException       if neither {@code .json5} nor {@code .json} exists
+     * @throws InvalidRequestException if the section name is not a plain file name
+     */
+    public ConfigFile describe(String section) {
+        ConfigFile described = files.get(section);
+        if (described != null) {
+            return described;
+        }
+        validateSection(section);
+
+        long epoch = epochs.getOrDefault(section, 0L);
+        Path file = resolve(section);
+        if (file == null) {
+            throw new NotFoundException("Configuration section", section);
+        }
+        ConfigFile hashed;
+        try (InputStream in = Files.newInputStream(file)) {
+            hashed = new ConfigFile(section, file, Files.size(file), ETags.of(in));
+        } catch (IOException e) {
+            log.error("Failed to read config file: {}", file, e);
+            throw new UncheckedIOException("Failed to read configuration", e);
+        }
+        epochs.compute(section, (key, current) -> {
+            if (watching && (current == null ? 0L : current) == epoch) {
+                files.put(section, hashed);
+            }
+            return current;
+        });
+        return hashed;
+    }
+
+    /**
+     * @return true if the section is too large to be cached as a tree and should be streamed
+     */
+    public boolean isLarge(ConfigFile file) {
+        return file.size() > streamingThreshold;
+    }
+
+    /**
+     * Open a token-level parser on a section file (JSON5 tolerant). If the section was
+     * replaced since it was described, the parser reads the new content.
+     */
+    public JsonParser openParser(ConfigFile file) throws IOException {
+        return objectMapper.createParser(file.file().toFile());
+    }
+
+    /**
+     * Write a section to its {@code .json5} file, unless the content is unchanged. Blocking.
+     *
+     * @param section section name
+     * @param content new content
+     * @param ifMatch {@code If-Match} header value, or null for an unconditional write
+     * @return entity tag of the section and whether the file was written
+     * @throws PreconditionFailedException if {@code ifMatch} does not match the file on disk
+     */
+    public ConfigWriteResult write(String section, Object content, String ifMatch) {
+        validateSection(section);
+        JsonNode replacement = objectMapper.valueToTree(content);
+        return apply(section, current -> replacement, ifMatch, true);
+    }
+
+    /**
+     * Change an existing section, e.g. by applying a patch. The change gets the current
+     * (shared, read-only) tree and returns the new one; returning the same or an equal tree
+     * means nothing is written. Blocking.
+     *
+     * @return entity tag of the section and whether the file was written
+     * @throws NotFoundException           if the section does not exist
+     * @throws PreconditionFailedException if {@code ifMatch} does not match the file on disk
+     */
+    public ConfigWriteResult update(String section, UnaryOperator<JsonNode> change, String ifMatch) {
+        validateSection(section);
+        return apply(section, change, ifMatch, false);
+    }
+
+    /**
+     * Make a previous version the current content again. The version being replaced is
+     * itself kept in the history. Blocking.
+     *
+     * @return entity tag of the restored content
+     * @throws NotFoundException if the version is not (or no longer) in the history
+     */
+    public ConfigWriteResult restore(String section, String versionId, String ifMatch) {
+        validateSection(section);
+        if (!VERSION_ID.matcher(versionId).matches()) {
+            throw new NotFoundException("Configuration version", versionId);
+        }
+        Path version = historyDir.resolve(section).resolve(versionId + ".json5");
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(version);
+        } catch (NoSuchFileException e) {
+            throw new NotFoundException("Configuration version", versionId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read configuration version", e);
+        }
+        log.info("Restoring configuration section {} to version {}", section, versionId);
+        JsonNode restored;
+        try {
+            restored = objectMapper.readTree(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse configuration version", e);
+        }
+        return apply(section, current -> restored, ifMatch, true);
+    }
+
+    /**
+     * List the kept previous versions of a section, newest first. Blocking.
+     */
+    public List<ConfigVersion> versions(String section) {
+        validateSection(section);
+        Path dir = historyDir.resolve(section);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        List<ConfigVersion> versions = new ArrayList<>();
+        for (Path file : historyFiles(dir)) {
+            try {
+                byte[] bytes = Files.readAllBytes(file);
+                String id = versionId(file);
+                versions.add(ConfigVersion.builder()
+                        .id(id)
+                        .replacedAt(Instant.ofEpochMilli(Long.parseLong(id)))
+                        .etag(ETags.of(bytes))
+                        .sizeBytes(bytes.length)
+                        .build());
+            } catch (NoSuchFileException e) {
+                // Pruned by a concurrent write
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read configuration history", e);
+            }
+        }
+        return versions.reversed();
+    }
+
+    private ConfigWriteResult apply(String section, UnaryOperator<JsonNode> change, String ifMatch,
+                                    boolean createIfMissing) {
+        Path target = configDir.resolve(section + ".json5");
+        ReentrantLock lock = writeLocks.computeIfAbsent(section, key -> new ReentrantLock());
+        lock.lock();
+        boolean written = false;
+        try {
+            String diskEtag = currentEtag(section);
+            if (ifMatch != null && !ETags.matchSucceeds(ifMatch, diskEtag)) {
+                throw new PreconditionFailedException("Configuration section " + section + " has changed");
+            }
+
+            JsonNode current = null;
+            if (diskEtag != null) {
+                ConfigSnapshot snapshot = load(section);
+                if (!snapshot.etag().equals(diskEtag)) {
+                    // Edited outside the gateway and the watcher has not caught up yet
+                    invalidate(section);
+                    snapshot = load(section);
+                }
+                current = snapshot.tree();
+            } else if (!createIfMissing) {
+                throw new NotFoundException("Configuration section", section);
+            }
+
+            JsonNode updated = change.apply(current);
+            if (updated == current || updated.equals(current)) {
+                log.debug("Configuration section {} unchanged, not written", section);
+                return new ConfigWriteResult(diskEtag, false);
+            }
+
+            Path existing = resolve(section);
+            if (existing != null) {
+                archive(section, existing);
+            }
+            byte[] bytes = objectMapper.writeValueAsBytes(updated);
+            atomicWrite(target, bytes);
+            written = true;
+            log.info("Updated configuration file: {}", target);
+            return new ConfigWriteResult(ETags.of(bytes), true);
+        } catch (IOException e) {
+            log.error("Failed to write config file: {}", target, e);
+            throw new UncheckedIOException("Failed to write configuration", e);
+        } finally {
+            lock.unlock();
+            if (written) {
+                // Don't wait for the watcher to notice our own write
+                invalidate(section);
+            }
+        }
+    }
+
+    private void atomicWrite(Path target, byte[] bytes) throws IOException {
+        Path temp = Files.createTempFile(configDir, "." + target.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        syncDirectory(configDir);
+    }
+
+    /**
+     * Persist the rename itself. Not supported on every platform, where it is skipped.
+     */
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            log.trace("Directory fsync not supported for {}: {}", dir, e.getMessage());
+        }
+    }
+
+    /**
+     * Keep the file about to be replaced, then trim the section's ring to its size.
+     */
+    private void archive(String section, Path current) throws IOException {
+        if (historySize <= 0) {
+            return;
+        }
+        Path dir = Files.createDirectories(historyDir.resolve(section));
+        List<Path> kept = historyFiles(dir);
+        // Ids are replacement times, kept increasing even for several writes within a millisecond
+        long id = System.currentTimeMillis();
+        if (!kept.isEmpty()) {
+            id = Math.max(id, Long.parseLong(versionId(kept.get(kept.size() - 1))) + 1);
+        }
+        Path version = dir.resolve(id + ".json5");
+        // A copy rather than a hard link: the live file can also be rewritten in place (by Robin,
+        // an editor, or after our own rename fails), which would change a linked version too
+        Files.copy(current, version);
+
+        List<Path> files = historyFiles(dir);
+        for (int i = 0; i < files.size() - historySize; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    /**
+     * History files of one section, oldest first.
+     */
+    private static List<Path> historyFiles(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> VERSION_ID.matcher(versionId(file)).matches())
+                    .sorted(Comparator.comparingLong(file -> Long.parseLong(versionId(file))))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list configuration history", e);
+        }
+    }
+
+    private static String versionId(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".json5") ? name.substring(0, name.length() - ".json5".length()) : name;
+    }
+
+    /**
+     * Tag of the section as it is on disk now, bypassing the cache, which may briefly lag
+     * behind edits made outside the gateway.
+     */
+    private String currentEtag(String section) throws IOException {
+        Path file = resolve(section);
+        return file == null ? null : ETags.of(Files.readAllBytes(file));
+    }
+
+    /**
+     * Drop a section from the cache.
+     */
+    public void invalidate(String section) {
+        epochs.merge(section, 1L, Long::sum);
+        files.remove(section);
+        ConfigSnapshot previous = cache.remove(section);
+        if (previous != null) {
+            invalidations.increment();
+            log.debug("Invalidated configuration section {}", section);
+        }
+        // Called from the watcher and from writers; the sink needs serialized emission
+        synchronized (changes) {
+            changes.tryEmitNext(new Change(section, previous));
+        }
+    }
+
+    /**
+     * Sections that may have changed, signalled whenever a section is invalidated. Several
+     * signals can be emitted for one change, and a signal does not guarantee the content
+     * differs. Subscribers that cannot keep up miss signals, so they should buffer.
+     */
+    public Flux<Change> changes() {
+        return changes.asFlux();
+    }
+
+    private Path resolve(String section) {
+        Path file = configDir.resolve(section + ".json5");
+        if (Files.exists(file)) {
+            return file;
+        }
+        file = configDir.resolve(section + ".json");
+        return Files.exists(file) ? file : null;
+    }
+
+    private Read read(String section) {
+        Path file = resolve(section);
+        if (file == null) {
+            throw new NotFoundException("Configuration section", section);
+        }
+
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            JsonNode tree = objectMapper.readTree(bytes);
+            return new Read(new ConfigSnapshot(section, file, tree, ETags.of(bytes), generation.incrementAndGet()),
+                    bytes.length);
+        } catch (IOException e) {
+            log.error("Failed to read config file: {}", file, e);
+            throw new UncheckedIOException("Failed to read configuration", e);
+        }
+    }
+
+    private static void validateSection(String section) {
+        if (!SECTION_NAME.matcher(section).matches() || RESERVED_SECTIONS.contains(section)) {
+            throw new InvalidRequestException("Invalid configuration section: " + section);
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        log.debug("Configuration watch overflowed, dropping all cached sections");
+                        cache.keySet().forEach(this::invalidate);
+                        files.keySet().forEach(this::invalidate);
+                        continue;
+                    }
+                    String section = sectionOf(event.context().toString());
+                    if (section != null) {
+                        invalidate(section);
+                    }
+                }
+                if (!key.reset()) {
+                    log.warn("Configuration directory {} is no longer watched; caching disabled", configDir);
+                    watching = false;
+                    cache.clear();
+                    files.clear();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Shutting down
+        } finally {
+            watching = false;
+        }
+    }
+
+    private static String sectionOf(String fileName) {
+        if (fileName.endsWith(".json5")) {
+            return fileName.substring(0, fileName.length() - ".json5".length());
+        }
+        if (fileName.endsWith(".json")) {
+            return fileName.substring(0, fileName.length() - ".json".length());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.robin.gateway.service;
+
+/**
+ * Outcome of a configuration write.
+ *
+ * @param etag    entity tag of the section after the write
+ * @param changed false if the new content equalled the current one and nothing was written
+ * @param writeId id under which the write was submitted for a Robin reload, null if unchanged
+ */
+public record ConfigWriteResult(String etag, boolean changed, Long writeId) {
+
+    public ConfigWriteResult(String etag, boolean changed) {
+        this(etag, changed, null);
+    }
+
+    public ConfigWriteResult withWriteId(long writeId) {
+        return new ConfigWriteResult(etag, changed, writeId);
+    }
+}
@@ -1,20 +1,26 @@
 package com.robin.gateway.service;
 
-import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.json.JsonMapper;
-import jakarta.annotation.PostConstruct;
+import com.robin.gateway.exception.NotFoundException;
+import com.robin.gateway.model.dto.ConfigDistributionReport;
+import com.robin.gateway.model.dto.ConfigReloadReport;
+import com.robin.gateway.model.dto.ConfigVersion;
+import com.robin.gateway.util.JsonPatches;
+import com.robin.gateway.util.JsonStreams;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
-import java.io.File;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
 
 /**
  * Service for managing Robin MTA configuration files.
@@ -25,46 +31,110 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class ConfigurationService {
 
-    @Value("${robin.config-path:cfg/}")
-    private String configPath;
-
-    @Value("${robin.service-url:http://localhost:8080}")
-    private String robinServiceUrl;
+    private static final int STREAM_CHUNK_BYTES = 65536;
 
+    private final ConfigStore configStore;
+    private final ConfigReloadCoordinator reloadCoordinator;
+    private final ConfigDistributor distributor;
     private final ObjectMapper objectMapper;
-    private final WebClient.Builder webClientBuilder;
-
-    public ConfigurationService(WebClient.Builder webClientBuilder) {
-        this.webClientBuilder = webClientBuilder;
-        // Initialize Jackson with JSON5-like support (comments, etc)
-        this.objectMapper = JsonMapper.builder()
-                .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
-                .enable(JsonReadFeature.ALLOW_YAML_COMMENTS)
-                .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
-                .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
-                .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
-                .enable(SerializationFeature.INDENT_OUTPUT)
-                .build();
+
+    public ConfigurationService(ConfigStore configStore, ConfigReloadCoordinator reloadCoordinator,
+                                ConfigDistributor distributor, ObjectMapper objectMapper) {
+        this.configStore = configStore;
+        this.reloadCoordinator = reloadCoordinator;
+        this.distributor = distributor;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Get a configuration section encoded for the response.
+     * <p>
+     * Sections up to {@code robin.configuration.streaming-threshold} are encoded from the
+     * cached tree. Larger ones are never parsed into a tree: the file is re-encoded token by
+     * token into chunks as the client reads them.
+     *
+     * @param section       the configuration section name
+     * @param bufferFactory factory for the response buffers
+     * @return entity tag and lazily produced body
+     */
+    public Mono<ConfigContent> readSection(String section, DataBufferFactory bufferFactory) {
+        return Mono.defer(() -> {
+            ConfigSnapshot cached = configStore.cached(section);
+            if (cached != null) {
+                return Mono.just(encode(cached, bufferFactory));
+            }
+            return Mono.fromCallable(() -> configStore.describe(section))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(file -> configStore.isLarge(file)
+                            ? Mono.just(new ConfigContent(file.etag(), JsonStreams.copy(
+                                    () -> configStore.openParser(file), bufferFactory, STREAM_CHUNK_BYTES)))
+                            : getSnapshot(section).map(snapshot -> encode(snapshot, bufferFactory)));
+        });
     }
 
-    @PostConstruct
-    public void init() {
-        File cfgDir = new File(configPath);
-        if (!cfgDir.exists()) {
-            log.warn("Configuration directory {} does not exist. Creating it.", configPath);
-            cfgDir.mkdirs();
-        }
+    private ConfigContent encode(ConfigSnapshot snapshot, DataBufferFactory bufferFactory) {
+        Flux<DataBuffer> body = Mono.fromCallable(
+                        () -> bufferFactory.wrap(objectMapper.writeValueAsBytes(snapshot.tree())))
+                .flux();
+        return new ConfigContent(snapshot.etag(), body);
     }
 
     /**
      * Get configuration section (e.g. "storage", "relay").
+     * <p>
+     * Cached sections are returned without leaving the calling thread; the returned tree is
+     * shared and must not be modified.
      *
      * @param section the configuration section name (filename without extension)
-     * @return the configuration map
+     * @return the parsed configuration
      */
-    public Mono<Map<String, Object>> getConfig(String section) {
-        return Mono.fromCallable(() -> readConfigFromFile(section))
-                .subscribeOn(Schedulers.boundedElastic());
+    public Mono<JsonNode> getConfig(String section) {
+        return getSnapshot(section).map(ConfigSnapshot::tree);
+    }
+
+    /**
+     * Get the current snapshot of a configuration section.
+     *
+     * @param section the configuration section name
+     * @return the snapshot
+     */
+    public Mono<ConfigSnapshot> getSnapshot(String section) {
+        return Mono.defer(() -> {
+            ConfigSnapshot cached = configStore.cached(section);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return Mono.fromCallable(() -> configStore.load(section))
+                    .subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    /**
+     * Get the value at a JSON Pointer (RFC 6901) within a configuration section.
+     *
+     * @param section the configuration section name
+     * @param pointer pointer into the section, e.g. {@code /auth/enabled}
+     * @return the value; shared and must not be modified
+     */
+    public Mono<JsonNode> getValue(String section, String pointer) {
+        return Mono.defer(() -> {
+                    ConfigSnapshot cached = configStore.cached(section);
+                    if (cached != null) {
+                        return Mono.justOrEmpty(JsonPatches.at(cached.tree(), pointer));
+                    }
+                    return Mono.fromCallable(() -> {
+                                ConfigStore.ConfigFile file = configStore.describe(section);
+                                if (!configStore.isLarge(file)) {
+                                    return JsonPatches.at(configStore.load(section).tree(), pointer);
+                                }
+                                // Only the requested subtree is built; everything else is skipped token by token
+                                try (JsonParser parser = configStore.openParser(file)) {
+                                    return JsonStreams.readAt(parser, JsonPointer.compile(pointer));
+                                }
+                            })
+                            .subscribeOn(Schedulers.boundedElastic());
+                })
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Configuration value", section + pointer)));
     }
 
     /**
@@ -72,52 +142,103 @@ public class ConfigurationService {
      *
      * @param section the configuration section name
      * @param newConfig the new configuration map
+     * @param ifMatch {@code If-Match} precondition, or null to overwrite unconditionally
+     * @return entity tag of the section and whether it changed
      */
-    public Mono<Void> updateConfig(String section, Map<String, Object> newConfig) {
-        return Mono.fromRunnable(() -> writeConfigToFile(section, newConfig))
-                .subscribeOn(Schedulers.boundedElastic())
-                .then(triggerReload());
+    public Mono<ConfigWriteResult> updateConfig(String section, Map<String, Object> newConfig, String ifMatch) {
+        return write(section, () -> configStore.write(section, newConfig, ifMatch));
     }
 
-    private Map<String, Object> readConfigFromFile(String section) {
-        File file = new File(configPath, section + ".json5");
-        if (!file.exists()) {
-            // Try .json
-            file = new File(configPath, section + ".json");
-            if (!file.exists()) {
-                throw new RuntimeException("Configuration file for '" + section + "' not found.");
-            }
-        }
-
-        try {
-            return objectMapper.readValue(file, Map.class);
-        } catch (Exception e) {
-            log.error("Failed to read config file: {}", file.getAbsolutePath(), e);
-            throw new RuntimeException("Failed to read configuration", e);
-        }
+    /**
+     * Apply an RFC 7396 JSON Merge Patch to a configuration section.
+     *
+     * @param section the configuration section name
+     * @param patch the merge patch
+     * @param ifMatch {@code If-Match} precondition, or null
+     * @return entity tag of the section and whether it changed
+     */
+    public Mono<ConfigWriteResult> mergePatch(String section, JsonNode patch, String ifMatch) {
+        return write(section, () -> configStore.update(section, current -> JsonPatches.mergePatch(current, patch), ifMatch));
     }
 
-    private void writeConfigToFile(String section, Map<String, Object> content) {
-        // Default to json5
-        File file = new File(configPath, section + ".json5");
-        
-        try {
-            objectMapper.writeValue(file, content);
-            log.info("Updated configuration file: {}", file.getAbsolutePath());
-        } catch (Exception e) {
-            log.error("Failed to write config file: {}", file.getAbsolutePath(), e);
-            throw new RuntimeException("Failed to write configuration", e);
-        }
+    /**
+     * Apply an RFC 6902 JSON Patch to a configuration section.
+     *
+     * @param section the configuration section name
+     * @param operations the patch operations
+     * @param ifMatch {@code If-Match} precondition, or null
+     * @return entity tag of the section and whether it changed
+     */
+    public Mono<ConfigWriteResult> jsonPatch(String section, JsonNode operations, String ifMatch) {
+        return write(section, () -> configStore.update(section, current -> JsonPatches.jsonPatch(current, operations), ifMatch));
     }
 
-    private Mono<Void> triggerReload() {
-        return webClientBuilder.build()
-                .post()
-                .uri(robinServiceUrl + "/config/reload")
-                .retrieve()
-                .toBodilessEntity()
-                .doOnSuccess(v -> log.info("Triggered config reload on Robin Server"))
-                .doOnError(e -> log.error("Failed to trigger config reload: {}", e.getMessage()))
-                .then();
+    /**
+     * List previous versions of a configuration section, newest first.
+     *
+     * @param section the configuration section name
+     * @return kept versions
+     */
+    public Mono<List<ConfigVersion>> getVersions(String section) {
+        return Mono.fromCallable(() -> configStore.versions(section))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Roll a configuration section back to a previous version.
+     *
+     * @param section the configuration section name
+     * @param versionId the version to restore
+     * @param ifMatch {@code If-Match} precondition, or null to restore unconditionally
+     * @return entity tag of the section and whether it changed
+     */
+    public Mono<ConfigWriteResult> restoreVersion(String section, String versionId, String ifMatch) {
+        return write(section, () -> configStore.restore(section, versionId, ifMatch));
+    }
+
+    /**
+     * Push the current version of a section to every Robin node and reload them, outside of
+     * the write-triggered reloads.
+     *
+     * @param section the configuration section name
+     * @param mode    {@code parallel} or {@code rolling}, or null for the configured mode
+     * @return outcome per node
+     */
+    public Mono<ConfigDistributionReport> distribute(String section, String mode) {
+        return Mono.defer(() -> mode == null
+                ? distributor.distribute(List.of(section))
+                : distributor.distribute(List.of(section), RobinNodesProperties.Mode.from(mode)));
+    }
+
+    /**
+     * Pending writes, the running reload and recently finished reloads, newest first.
+     */
+    public Mono<List<ConfigReloadReport>> getReloads() {
+        return Mono.fromSupplier(reloadCoordinator::recent);
+    }
+
+    /**
+     * Status of the Robin reload covering a configuration write.
+     *
+     * @param writeId id returned for the write
+     * @return the covering reload, pending if the write has not been picked up yet
+     */
+    public Mono<ConfigReloadReport> getReloadForWrite(long writeId) {
+        return Mono.defer(() -> reloadCoordinator.report(writeId)
+                .map(Mono::just)
+                .orElseGet(() -> Mono.error(new NotFoundException("Configuration write", writeId))));
+    }
+
+    /**
+     * Run a blocking write and, if the content changed, submit it for the next Robin reload.
+     * The reload is debounced, so the write completes without waiting for it; its outcome
+     * is available from {@link ConfigReloadCoordinator#report(long)} under the write id.
+     */
+    private Mono<ConfigWriteResult> write(String section, Callable<ConfigWriteResult> write) {
+        return Mono.fromCallable(write)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(result -> result.changed()
+                        ? result.withWriteId(reloadCoordinator.submit(section).writeId())
+                        : result);
     }
 }
@@ -1,60 +1,100 @@
 package com.robin.gateway.service;
 
+import com.robin.gateway.datasource.DatabaseCalls;
+import com.robin.gateway.datasource.WorkloadClass;
+import com.robin.gateway.exception.GatewayException;
+import com.robin.gateway.exception.InvalidRequestException;
+import com.robin.gateway.exception.NotFoundException;
 import com.robin.gateway.model.Alias;
 import com.robin.gateway.model.Domain;
+import com.robin.gateway.model.dto.AliasBatchResponse;
+import com.robin.gateway.model.dto.AliasBatchResponse.ItemResult;
+import com.robin.gateway.model.dto.AliasBatchResponse.Status;
+import com.robin.gateway.model.dto.AliasRequest;
 import com.robin.gateway.repository.AliasRepository;
 import com.robin.gateway.repository.DomainRepository;
+import com.robin.gateway.repository.ReadPathRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DomainService {
 
+    /**
+     * Upserts one chunk of aliases given as parallel arrays; xmax is only 0 for a row this
+     * statement inserted, so it tells creates from updates without a separate lookup.
+     */
+    private static final String UPSERT_ALIAS_SQL =
+            "INSERT INTO aliases (source, destination, created_at) " +
+            "SELECT source, destination, NOW() FROM unnest(?::varchar[], ?::varchar[]) AS item(source, destination) " +
+            "ON CONFLICT (source) DO UPDATE SET destination = EXCLUDED.destination " +
+            "RETURNING source, (xmax = 0) AS inserted";
+
     private final DomainRepository domainRepository;
     private final AliasRepository aliasRepository;
+    private final ReadPathRepository readPathRepository;
+    private final DatabaseCalls databaseCalls;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${robin.aliases.batch.max-size:10000}")
+    private int maxAliasBatchSize;
+
+    @Value("${robin.aliases.batch.jdbc-batch-size:500}")
+    private int aliasJdbcBatchSize;
 
     /**
      * Get all domains with pagination
      */
     public Mono<Page<Domain>> getAllDomains(Pageable pageable) {
-        return Mono.fromCallable(() -> domainRepository.findAll(pageable))
-                .subscribeOn(Schedulers.boundedElastic())
+        return databaseCalls.read(() -> domainRepository.findAll(pageable))
                 .doOnSuccess(domains -> log.debug("Retrieved {} domains", domains.getTotalElements()))
-                .doOnError(e -> log.error("Error retrieving domains", e));
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error retrieving domains", e));
     }
 
     /**
      * Get domain by ID
      */
     public Mono<Domain> getDomainById(Long id) {
-        return Mono.fromCallable(() -> domainRepository.findById(id))
-                .subscribeOn(Schedulers.boundedElastic())
-                .flatMap(optionalDomain -> optionalDomain
-                        .map(Mono::just)
-                        .orElse(Mono.error(new RuntimeException("Domain not found: " + id))))
+        return readPathRepository.findDomainById(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Domain", id)))
                 .doOnSuccess(domain -> log.debug("Retrieved domain: {}", domain.getDomain()))
-                .doOnError(e -> log.error("Error retrieving domain with id: {}", id, e));
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error retrieving domain with id: {}", id, e));
     }
 
     /**
      * Get domain by name
      */
     public Mono<Optional<Domain>> getDomainByName(String domainName) {
-        return Mono.fromCallable(() -> domainRepository.findByDomain(domainName))
-                .subscribeOn(Schedulers.boundedElastic())
+        return readPathRepository.findDomainByName(domainName)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
                 .doOnSuccess(domain -> log.debug("Retrieved domain by name: {}", domainName))
-                .doOnError(e -> log.error("Error retrieving domain by name: {}", domainName, e));
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error retrieving domain by name: {}", domainName, e));
     }
 
     /**
@@ -62,10 +102,10 @@ public class DomainService {
      */
     @Transactional
     public Mono<Domain> createDomain(String domainName) {
-        return Mono.fromCallable(() -> {
+        return databaseCalls.call(WorkloadClass.ADMIN_WRITE, () -> {
             // Check if domain already exists
             if (domainRepository.existsByDomain(domainName)) {
-                throw new IllegalArgumentException("Domain already exists: " + domainName);
+                throw new InvalidRequestException("Domain already exists: " + domainName);
             }
 
             Domain domain = Domain.builder()
@@ -74,9 +114,8 @@ public class DomainService {
 
             return domainRepository.save(domain);
         })
-                .subscribeOn(Schedulers.boundedElastic())
                 .doOnSuccess(domain -> log.info("Created domain: {}", domain.getDomain()))
-                .doOnError(e -> log.error("Error creating domain: {}", domainName, e));
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error creating domain: {}", domainName, e));
     }
 
     /**
@@ -84,9 +123,9 @@ public class DomainService {
      */
     @Transactional
     public Mono<Void> deleteDomain(Long id) {
-        return Mono.fromCallable(() -> {
+        return databaseCalls.call(WorkloadClass.ADMIN_WRITE, () -> {
             if (!domainRepository.existsById(id)) {
-                throw new RuntimeException("Domain not found: " + id);
+                throw new NotFoundException("Domain", id);
             }
 
             // Delete all aliases for this domain first
@@ -101,9 +140,8 @@ public class DomainService {
             log.info("Deleted domain with id: {}", id);
             return null;
         })
-                .subscribeOn(Schedulers.boundedElastic())
                 .then()
-                .doOnError(e -> log.error("Error deleting domain with id: {}", id, e));
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error deleting domain with id: {}", id, e));
     }
 
     // ===== Alias Management =====
@@ -112,38 +150,33 @@ public class DomainService {
      * Get all aliases for a domain
      */
     public Mono<List<Alias>> getAliasesByDomain(Long domainId) {
-        return Mono.fromCallable(() -> {
+        return databaseCalls.read(() -> {
             Domain domain = domainRepository.findById(domainId)
-                    .orElseThrow(() -> new RuntimeException("Domain not found: " + domainId));
+                    .orElseThrow(() -> new NotFoundException("Domain", domainId));
 
             return aliasRepository.findBySource(domain.getDomain() + "%");
         })
-                .subscribeOn(Schedulers.boundedElastic())
                 .doOnSuccess(aliases -> log.debug("Retrieved {} aliases for domain id: {}", aliases.size(), domainId))
-                .doOnError(e -> log.error("Error retrieving aliases for domain id: {}", domainId, e));
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error retrieving aliases for domain id: {}", domainId, e));
     }
 
     /**
      * Get all aliases with pagination
      */
     public Mono<Page<Alias>> getAllAliases(Pageable pageable) {
-        return Mono.fromCallable(() -> aliasRepository.findAll(pageable))
-                .subscribeOn(Schedulers.boundedElastic())
+        return databaseCalls.read(() -> aliasRepository.findAll(pageable))
                 .doOnSuccess(aliases -> log.debug("Retrieved {} aliases", aliases.getTotalElements()))
-                .doOnError(e -> log.error("Error retrieving aliases", e));
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error retrieving aliases", e));
     }
 
     /**
      * Get alias by ID
      */
     public Mono<Alias> getAliasById(Long id) {
-        return Mono.fromCallable(() -> aliasRepository.findById(id))
-                .subscribeOn(Schedulers.boundedElastic())
-                .flatMap(optionalAlias -> optionalAlias
-                        .map(Mono::just)
-                        .orElse(Mono.error(new RuntimeException("Alias not found: " + id))))
+        return readPathRepository.findAliasById(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Alias", id)))
                 .doOnSuccess(alias -> log.debug("Retrieved alias: {} -> {}", alias.getSource(), alias.getDestination()))
-                .doOnError(e -> log.error("Error retrieving alias with id: {}", id, e));
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error retrieving alias with id: {}", id, e));
     }
 
     /**
@@ -151,10 +184,10 @@ public class DomainService {
      */
     @Transactional
     public Mono<Alias> createAlias(String source, String destination) {
-        return Mono.fromCallable(() -> {
+        return databaseCalls.call(WorkloadClass.ADMIN_WRITE, () -> {
             // Validate email format
             if (!source.contains("@") || !destination.contains("@")) {
-                throw new IllegalArgumentException("Invalid email format for alias");
+                throw new InvalidRequestException("Invalid email format for alias");
             }
 
             // Extract domain from source email
@@ -162,13 +195,13 @@ public class DomainService {
 
             // Check if domain exists
             if (!domainRepository.existsByDomain(sourceDomain)) {
-                throw new IllegalArgumentException("Source domain does not exist: " + sourceDomain);
+                throw new InvalidRequestException("Source domain does not exist: " + sourceDomain);
             }
 
             // Check if alias already exists
             List<Alias> existingAliases = aliasRepository.findBySource(source);
             if (!existingAliases.isEmpty()) {
-                throw new IllegalArgumentException("Alias already exists: " + source);
+                throw new InvalidRequestException("Alias already exists: " + source);
             }
 
             Alias alias = Alias.builder()
@@ -178,9 +211,149 @@ public class DomainService {
 
             return aliasRepository.save(alias);
         })
-                .subscribeOn(Schedulers.boundedElastic())
                 .doOnSuccess(alias -> log.info("Created alias: {} -> {}", alias.getSource(), alias.getDestination()))
-                .doOnError(e -> log.error("Error creating alias: {} -> {}", source, destination, e));
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error creating alias: {} -> {}", source, destination, e));
+    }
+
+    /**
+     * Create or update many aliases in a single transaction.
+     * <p>
+     * All source domains are validated with one query, existing sources are looked up
+     * with one query, and rows are written with {@code INSERT ... ON CONFLICT (source)}
+     * in JDBC batches. Invalid items are rejected individually without failing the batch;
+     * when the same source appears more than once the last occurrence wins.
+     *
+     * @param requests alias source/destination pairs, from a JSON array or NDJSON stream
+     * @return per-item results and throughput figures
+     */
+    public Mono<AliasBatchResponse> upsertAliases(Flux<AliasRequest> requests) {
+        return requests.take(maxAliasBatchSize + 1L)
+                .collectList()
+                .flatMap(items -> databaseCalls.call(WorkloadClass.BULK, () -> upsertAliasBatch(items)))
+                .doOnSuccess(result -> log.info("Upserted alias batch: {} created, {} updated, {} rejected in {} ms",
+                        result.getCreated(), result.getUpdated(), result.getRejected(), result.getDurationMs()))
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error upserting alias batch", e));
+    }
+
+    private AliasBatchResponse upsertAliasBatch(List<AliasRequest> items) {
+        if (items.size() > maxAliasBatchSize) {
+            throw new InvalidRequestException("Alias batch exceeds maximum size of " + maxAliasBatchSize);
+        }
+
+        long start = System.nanoTime();
+        ItemResult[] results = new ItemResult[items.size()];
+
+        // Validate format and collapse duplicate sources (last one wins)
+        Map<String, Integer> accepted = new LinkedHashMap<>();
+        Set<String> domains = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            AliasRequest item = items.get(i);
+            String source = item.getSource();
+            String destination = item.getDestination();
+            if (source == null || destination == null || !source.contains("@") || !destination.contains("@")) {
+                results[i] = itemResult(i, item, Status.REJECTED, "Invalid email format for alias");
+                continue;
+            }
+            Integer previous = accepted.put(source, i);
+            if (previous != null) {
+                results[previous] = itemResult(previous, items.get(previous), Status.REJECTED,
+                        "Superseded by a later item with the same source");
+            }
+            domains.add(source.substring(source.indexOf("@") + 1));
+        }
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            Set<String> existingDomains = findExisting("SELECT domain FROM domains WHERE domain = ANY(?)", domains);
+
+            Iterator<Map.Entry<String, Integer>> it = accepted.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Integer> entry = it.next();
+                String sourceDomain = entry.getKey().substring(entry.getKey().indexOf("@") + 1);
+                if (!existingDomains.contains(sourceDomain)) {
+                    int index = entry.getValue();
+                    results[index] = itemResult(index, items.get(index), Status.REJECTED,
+                            "Source domain does not exist: " + sourceDomain);
+                    it.remove();
+                }
+            }
+
+            List<Integer> rows = new ArrayList<>(accepted.values());
+            for (int from = 0; from < rows.size(); from += aliasJdbcBatchSize) {
+                List<Integer> chunk = rows.subList(from, Math.min(from + aliasJdbcBatchSize, rows.size()));
+                Map<String, Boolean> inserted = upsertAliasChunk(items, chunk);
+                for (int index : chunk) {
+                    AliasRequest item = items.get(index);
+                    Status status = inserted.get(item.getSource()) ? Status.CREATED : Status.UPDATED;
+                    results[index] = itemResult(index, item, status, null);
+                }
+            }
+        });
+
+        long durationNanos = System.nanoTime() - start;
+        int created = 0;
+        int updated = 0;
+        int rejected = 0;
+        for (ItemResult result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case UPDATED -> updated++;
+                case REJECTED -> rejected++;
+            }
+        }
+
+        return AliasBatchResponse.builder()
+                .results(List.of(results))
+                .total(items.size())
+                .created(created)
+                .updated(updated)
+                .rejected(rejected)
+                .durationMs(durationNanos / 1_000_000)
+                .itemsPerSecond(durationNanos > 0 ? items.size() * 1_000_000_000.0 / durationNanos : 0)
+                .build();
+    }
+
+    /**
+     * Upsert the items at {@code chunk} in one statement.
+     *
+     * @return whether each source was inserted rather than updated
+     */
+    private Map<String, Boolean> upsertAliasChunk(List<AliasRequest> items, List<Integer> chunk) {
+        String[] sources = new String[chunk.size()];
+        String[] destinations = new String[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            AliasRequest item = items.get(chunk.get(i));
+            sources[i] = item.getSource();
+            destinations[i] = item.getDestination();
+        }
+        Map<String, Boolean> inserted = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERT_ALIAS_SQL);
+            ps.setArray(1, con.createArrayOf("varchar", sources));
+            ps.setArray(2, con.createArrayOf("varchar", destinations));
+            return ps;
+        }, (RowCallbackHandler) rs -> inserted.put(rs.getString("source"), rs.getBoolean("inserted")));
+        return inserted;
+    }
+
+    private Set<String> findExisting(String sql, Collection<String> values) {
+        if (values.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("varchar", values.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1)));
+    }
+
+    private static ItemResult itemResult(int index, AliasRequest item, Status status, String error) {
+        return ItemResult.builder()
+                .index(index)
+                .source(item.getSource())
+                .destination(item.getDestination())
+                .status(status)
+                .error(error)
+                .build();
     }
 
     /**
@@ -188,20 +361,19 @@ public class DomainService {
      */
     @Transactional
     public Mono<Alias> updateAlias(Long id, String destination) {
-        return Mono.fromCallable(() -> {
+        return databaseCalls.call(WorkloadClass.ADMIN_WRITE, () -> {
             Alias alias = aliasRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Alias not found: " + id));
+                    .orElseThrow(() -> new NotFoundException("Alias", id));
 
             if (!destination.contains("@")) {
-                throw new IllegalArgumentException("Invalid email format for destination");
+                throw new InvalidRequestException("Invalid email format for destination");
             }
 
             alias.setDestination(destination);
             return aliasRepository.save(alias);
         })
-                .subscribeOn(Schedulers.boundedElastic())
                 .doOnSuccess(alias -> log.info("Updated alias: {} -> {}", alias.getSource(), alias.getDestination()))
-                .doOnError(e -> log.error("Error updating alias with id: {}", id, e));
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error updating alias with id: {}", id, e));
     }
 
     /**
@@ -209,17 +381,16 @@ public class DomainService {
      */
     @Transactional
     public Mono<Void> deleteAlias(Long id) {
-        return Mono.fromCallable(() -> {
+        return databaseCalls.call(WorkloadClass.ADMIN_WRITE, () -> {
             if (!aliasRepository.existsById(id)) {
-                throw new RuntimeException("Alias not found: " + id);
+                throw new NotFoundException("Alias", id);
             }
 
             aliasRepository.deleteById(id);
             log.info("Deleted alias with id: {}", id);
             return null;
         })
-                .subscribeOn(Schedulers.boundedElastic())
                 .then()
-                .doOnError(e -> log.error("Error deleting alias with id: {}", id, e));
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error deleting alias with id: {}", id, e));
     }
 }
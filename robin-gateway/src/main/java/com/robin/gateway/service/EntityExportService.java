@@ -0,0 +1,334 @@
+package com.robin.gateway.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.robin.gateway.datasource.DatabaseCalls;
+import com.robin.gateway.datasource.RoutingContext;
+import com.robin.gateway.datasource.WorkloadClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Locale;
+
+/**
+ * Streaming export of users, domains and aliases.
+ * <p>
+ * Rows are read through a PostgreSQL server-side cursor (fetch size inside a read-only
+ * transaction) and encoded incrementally into CSV or NDJSON chunks. Chunks are only
+ * produced when the subscriber requests them, so a slow client holds back the cursor
+ * instead of the gateway buffering the table in memory.
+ */
+@Service
+@Slf4j
+public class EntityExportService {
+
+    public enum Entity {
+        USERS("users",
+                "SELECT id, username, quota_bytes, is_active, created_at, updated_at, last_login_at FROM users ORDER BY id"),
+        DOMAINS("domains",
+                "SELECT id, domain, created_at FROM domains ORDER BY id"),
+        ALIASES("aliases",
+                "SELECT id, source, destination, created_at FROM aliases ORDER BY id");
+
+        private final String fileName;
+        private final String sql;
+
+        Entity(String fileName, String sql) {
+            this.fileName = fileName;
+            this.sql = sql;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public static Entity from(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export entity: " + value);
+            }
+        }
+    }
+
+    public enum Format {
+        CSV("csv", "text/csv"),
+        NDJSON("ndjson", "application/x-ndjson");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static Format from(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final DataSource dataSource;
+    private final DatabaseCalls databaseCalls;
+    private final int fetchSize;
+    private final int chunkBytes;
+
+    public EntityExportService(
+            DataSource dataSource,
+            DatabaseCalls databaseCalls,
+            @Value("${robin.export.fetch-size:1000}") int fetchSize,
+            @Value("${robin.export.chunk-bytes:65536}") int chunkBytes) {
+        this.dataSource = dataSource;
+        this.databaseCalls = databaseCalls;
+        this.fetchSize = fetchSize;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Stream all rows of an entity table.
+     *
+     * @param entity        the table to export
+     * @param format        the output encoding
+     * @param bufferFactory factory for the response buffers
+     * @return encoded chunks, generated on demand from the cursor
+     */
+    public Flux<DataBuffer> export(Entity entity, Format format, DataBufferFactory bufferFactory) {
+        Flux<DataBuffer> chunks = Flux.<DataBuffer, ExportCursor>generate(
+                        () -> RoutingContext.withWorkload(WorkloadClass.BULK,
+                                () -> ExportCursor.open(dataSource, entity, format, fetchSize)),
+                        (cursor, sink) -> {
+                            try {
+                                byte[] chunk = cursor.nextChunk(chunkBytes);
+                                if (chunk == null) {
+                                    sink.complete();
+                                } else {
+                                    sink.next(bufferFactory.wrap(chunk));
+                                }
+                            } catch (SQLException | IOException e) {
+                                sink.error(e);
+                            }
+                            return cursor;
+                        },
+                        ExportCursor::close)
+                // Requests are re-issued on the worker, so the blocking cursor never runs on the event loop
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnSubscribe(s -> log.info("Starting {} export of {}", format, entity.getFileName()))
+                .doOnError(e -> log.error("Error exporting {}", entity.getFileName(), e));
+
+        // One bulk slot per running export, held until the cursor is closed
+        return databaseCalls.stream(WorkloadClass.BULK, chunks);
+    }
+
+    /**
+     * JDBC cursor plus encoder state for one export.
+     */
+    private static final class ExportCursor {
+
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final Format format;
+        private final String[] columns;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        private final JsonGenerator json;
+        private boolean headerWritten;
+        private boolean exhausted;
+        private long rows;
+
+        private ExportCursor(Connection connection, PreparedStatement statement, ResultSet resultSet, Format format)
+                throws SQLException, IOException {
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.format = format;
+
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            this.columns = new String[metaData.getColumnCount()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = metaData.getColumnLabel(i + 1);
+            }
+            if (format == Format.NDJSON) {
+                this.json = JSON_FACTORY.createGenerator(buffer, JsonEncoding.UTF8);
+                // Rows are separated by newlines, not by Jackson's default root separator
+                this.json.setRootValueSeparator(null);
+            } else {
+                this.json = null;
+            }
+        }
+
+        static ExportCursor open(DataSource dataSource, Entity entity, Format format, int fetchSize) throws SQLException, IOException {
+            Connection connection = dataSource.getConnection();
+            try {
+                // PostgreSQL only honours the fetch size (server-side cursor) outside auto-commit
+                connection.setReadOnly(true);
+                connection.setAutoCommit(false);
+                PreparedStatement statement = connection.prepareStatement(
+                        entity.sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return new ExportCursor(connection, statement, statement.executeQuery(), format);
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Encode rows until roughly {@code chunkBytes} are buffered.
+         *
+         * @return the encoded chunk or null once the cursor is exhausted
+         */
+        byte[] nextChunk(int chunkBytes) throws SQLException, IOException {
+            if (!headerWritten) {
+                headerWritten = true;
+                if (format == Format.CSV) {
+                    writeCsvRow(columns);
+                }
+            }
+
+            boolean more = true;
+            while (buffer.size() < chunkBytes && (more = resultSet.next())) {
+                rows++;
+                if (format == Format.CSV) {
+                    writeCsvRow(resultSet);
+                } else {
+                    writeJsonRow(resultSet);
+                }
+            }
+            if (json != null) {
+                json.flush();
+            }
+
+            if (!more) {
+                exhausted = true;
+            }
+            if (buffer.size() == 0 && !more) {
+                return null;
+            }
+            byte[] chunk = buffer.toByteArray();
+            buffer.reset();
+            return chunk;
+        }
+
+        private void writeCsvRow(String[] values) {
+            StringBuilder line = new StringBuilder(128);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendCsvValue(line, values[i]);
+            }
+            line.append('\n');
+            buffer.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeCsvRow(ResultSet rs) throws SQLException {
+            String[] values = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                Object value = rs.getObject(i + 1);
+                values[i] = value == null ? null : formatValue(value).toString();
+            }
+            writeCsvRow(values);
+        }
+
+        private void writeJsonRow(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                Object value = rs.getObject(i + 1);
+                json.writeFieldName(columns[i]);
+                if (value == null) {
+                    json.writeNull();
+                } else if (value instanceof Boolean b) {
+                    json.writeBoolean(b);
+                } else if (value instanceof Integer n) {
+                    json.writeNumber(n);
+                } else if (value instanceof Long n) {
+                    json.writeNumber(n);
+                } else {
+                    json.writeString(formatValue(value).toString());
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        private static Object formatValue(Object value) {
+            if (value instanceof Timestamp ts) {
+                return ts.toLocalDateTime();
+            }
+            return value;
+        }
+
+        static void appendCsvValue(StringBuilder line, String value) {
+            if (value == null) {
+                return;
+            }
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                line.append(value);
+                return;
+            }
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+            line.append('"');
+        }
+
+        void close() {
+            log.debug("Closing export cursor after {} rows", rows);
+            try {
+                if (!exhausted) {
+                    // Cancelled mid-export: stop the server-side query before tearing down
+                    statement.cancel();
+                }
+                resultSet.close();
+                statement.close();
+                // Read-only work: nothing to commit, just end the transaction holding the cursor
+                connection.rollback();
+            } catch (SQLException e) {
+                log.warn("Error closing export cursor: {}", e.getMessage());
+            } finally {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.warn("Error releasing export connection: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
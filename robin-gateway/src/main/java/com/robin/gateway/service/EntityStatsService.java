@@ -0,0 +1,144 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.datasource.DatabaseCalls;
+import com.robin.gateway.datasource.WorkloadClass;
+import com.robin.gateway.exception.GatewayException;
+import com.robin.gateway.model.dto.EntityStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Dashboard totals backed by the {@code entity_counters} table.
+ * <p>
+ * Reads are a single primary-key lookup per counter. Triggers keep the users, domains
+ * and aliases counters current (see {@code V6__add_entity_counters.sql}); this service
+ * refreshes active sessions periodically and reconciles the trigger-maintained counters
+ * against real counts to correct any drift.
+ */
+@Service
+@Slf4j
+public class EntityStatsService {
+
+    private static final String SELECT_COUNTERS_SQL = "SELECT entity, total, reconciled_at FROM entity_counters";
+
+    /**
+     * Exact counts used by reconciliation, keyed by counter name.
+     */
+    private static final Map<String, String> RECONCILE_COUNT_SQL = Map.of(
+            "users", "SELECT COUNT(*) FROM users",
+            "domains", "SELECT COUNT(*) FROM domains",
+            "aliases", "SELECT COUNT(*) FROM aliases");
+
+    private static final String ACTIVE_SESSIONS_SQL =
+            "SELECT COUNT(*) FROM sessions WHERE revoked = FALSE AND expires_at > NOW()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseCalls databaseCalls;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate reconcileTransaction;
+
+    public EntityStatsService(JdbcTemplate jdbcTemplate,
+                              DatabaseCalls databaseCalls,
+                              MeterRegistry meterRegistry,
+                              PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseCalls = databaseCalls;
+        this.meterRegistry = meterRegistry;
+        // Repeatable read: a trigger update committed after our snapshot makes the
+        // reconciling UPDATE fail instead of silently overwriting that delta
+        this.reconcileTransaction = new TransactionTemplate(transactionManager);
+        this.reconcileTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Get entity totals for the dashboard.
+     *
+     * @return current counter values
+     */
+    public Mono<EntityStats> getEntityStats() {
+        return databaseCalls.read(() -> {
+                    EntityStats stats = new EntityStats();
+                    jdbcTemplate.query(SELECT_COUNTERS_SQL, rs -> {
+                        long total = rs.getLong("total");
+                        switch (rs.getString("entity")) {
+                            case "users" -> stats.setUsers(total);
+                            case "domains" -> stats.setDomains(total);
+                            case "aliases" -> stats.setAliases(total);
+                            case "active_sessions" -> stats.setActiveSessions(total);
+                            default -> {
+                                return;
+                            }
+                        }
+                        Timestamp reconciledAt = rs.getTimestamp("reconciled_at");
+                        LocalDateTime value = reconciledAt == null ? null : reconciledAt.toLocalDateTime();
+                        if (stats.getReconciledAt() == null || (value != null && value.isBefore(stats.getReconciledAt()))) {
+                            stats.setReconciledAt(value);
+                        }
+                    });
+                    return stats;
+                })
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error retrieving entity stats", e));
+    }
+
+    /**
+     * Refresh the active sessions counter (expiry is time-based, so no trigger can track it).
+     * Runs in the bulk bulkhead, like the other background work.
+     */
+    @Scheduled(fixedDelayString = "${robin.stats.active-sessions-interval-ms:60000}")
+    public void refreshActiveSessions() {
+        try {
+            databaseCalls.call(WorkloadClass.BULK, () -> {
+                Long active = jdbcTemplate.queryForObject(ACTIVE_SESSIONS_SQL, Long.class);
+                return jdbcTemplate.update(
+                        "UPDATE entity_counters SET total = ?, updated_at = NOW(), reconciled_at = NOW() WHERE entity = 'active_sessions'",
+                        active);
+            }).block();
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh active sessions counter: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Correct drift between the trigger-maintained counters and the real row counts.
+     * <p>
+     * Each counter is recounted in its own short transaction in the bulk bulkhead. A counter
+     * whose row changed concurrently is skipped and picked up on the next run.
+     */
+    @Scheduled(initialDelayString = "${robin.stats.reconcile-interval-ms:3600000}",
+            fixedDelayString = "${robin.stats.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        RECONCILE_COUNT_SQL.forEach((entity, countSql) -> {
+            try {
+                Long drift = databaseCalls.call(WorkloadClass.BULK, () -> reconcileTransaction.execute(status -> {
+                    Long stored = jdbcTemplate.queryForObject(
+                            "SELECT total FROM entity_counters WHERE entity = ?", Long.class, entity);
+                    Long actual = jdbcTemplate.queryForObject(countSql, Long.class);
+                    jdbcTemplate.update(
+                            "UPDATE entity_counters SET total = ?, reconciled_at = NOW() WHERE entity = ?",
+                            actual, entity);
+                    return actual - (stored == null ? 0 : stored);
+                })).block();
+                if (drift != null && drift != 0) {
+                    log.warn("Corrected {} counter drift of {}", entity, drift);
+                    meterRegistry.counter("robin.stats.counter.drift", "entity", entity).increment(Math.abs(drift));
+                }
+            } catch (ConcurrencyFailureException e) {
+                log.debug("Skipped {} counter reconciliation due to concurrent update", entity);
+            } catch (RuntimeException e) {
+                log.warn("Failed to reconcile {} counter: {}", entity, e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package com.robin.gateway.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in the results of a log query, handed to clients as an opaque token.
+ * <p>
+ * The position is the timestamp of the last entry returned plus how many entries with that
+ * timestamp have been returned, counted in the query's order. The next page is the same
+ * query narrowed to the rest of the time range, skipping only those entries, so it does not
+ * depend on how many entries came before and does not shift when lines are appended to the
+ * log.
+ *
+ * @param query     hash of the normalized query the cursor was issued for
+ * @param timestamp epoch milliseconds of the last entry returned
+ * @param tie       entries with that timestamp returned so far
+ */
+record LogCursor(int query, long timestamp, int tie) {
+
+    private static final String VERSION = "1";
+
+    /**
+     * @return the token form
+     */
+    String encode() {
+        String value = VERSION + ':' + query + ':' + timestamp + ':' + tie;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Read a token.
+     *
+     * @return the cursor or null if the token is malformed
+     */
+    static LogCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII).split(":");
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                return null;
+            }
+            int tie = Integer.parseInt(parts[3]);
+            return tie > 0 ? new LogCursor(Integer.parseInt(parts[1]), Long.parseLong(parts[2]), tie) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The filter of the remaining entries: up to and including this timestamp for newest
+     * first, from it for oldest first. The first {@link #tie} matches of the narrowed query
+     * are the ones already returned.
+     */
+    LogFilter narrow(LogFilter filter, LogService.Order order) {
+        if (order == LogService.Order.NEWEST) {
+            Instant to = filter.toMillis() > timestamp + 1 ? Instant.ofEpochMilli(timestamp + 1) : filter.to();
+            return new LogFilter(filter.level(), filter.logger(), filter.search(), filter.from(), to);
+        }
+        Instant from = filter.fromMillis() < timestamp ? Instant.ofEpochMilli(timestamp) : filter.from();
+        return new LogFilter(filter.level(), filter.logger(), filter.search(), from, filter.to());
+    }
+}
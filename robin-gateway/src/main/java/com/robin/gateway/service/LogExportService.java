@@ -0,0 +1,186 @@
+package com.robin.gateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robin.gateway.exception.InvalidRequestException;
+import com.robin.gateway.exception.TooManyRequestsException;
+import com.robin.gateway.util.LogLineParser.LogLine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streaming export of the MTA log.
+ * <p>
+ * Matching entries are parsed as the log streams in from the MTA (or the index) and encoded
+ * in chunks of {@code robin.logs.export.chunk-entries} entries. Chunks are only produced when
+ * the client requests them, so a slow download holds back the upstream read instead of the
+ * gateway buffering the log.
+ * <p>
+ * Exports run for as long as the client keeps reading, so each user may only run
+ * {@code robin.logs.export.max-per-user} at a time and the gateway
+ * {@code robin.logs.export.max-concurrent} in total; further requests are rejected with 429.
+ */
+@Service
+@Slf4j
+public class LogExportService {
+
+    public enum Format {
+        TEXT("txt", "text/plain"),
+        NDJSON("ndjson", "application/x-ndjson");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * Format by name or extension; {@code json} is accepted for NDJSON.
+         */
+        public static Format from(String value) {
+            return switch (value.toLowerCase(Locale.ROOT)) {
+                case "txt", "text" -> TEXT;
+                case "json", "ndjson" -> NDJSON;
+                default -> throw new InvalidRequestException("Unsupported export format: " + value);
+            };
+        }
+    }
+
+    private final LogService logService;
+    private final ObjectMapper objectMapper;
+    private final int maxPerUser;
+    private final int maxConcurrent;
+    private final int chunkEntries;
+    private final ConcurrentHashMap<String, Integer> activeByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter rejected;
+
+    public LogExportService(
+            LogService logService,
+            ObjectMapper objectMapper,
+            @Value("${robin.logs.export.max-per-user:2}") int maxPerUser,
+            @Value("${robin.logs.export.max-concurrent:8}") int maxConcurrent,
+            @Value("${robin.logs.export.chunk-entries:256}") int chunkEntries,
+            MeterRegistry meterRegistry) {
+        this.logService = logService;
+        this.objectMapper = objectMapper;
+        this.maxPerUser = maxPerUser;
+        this.maxConcurrent = maxConcurrent;
+        this.chunkEntries = chunkEntries;
+
+        Gauge.builder("robin.logs.export.active", active, AtomicInteger::get)
+                .description("Log exports in progress")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("robin.logs.export.rejected")
+                .description("Log exports rejected by the concurrency limits")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stream the matching entries, oldest first.
+     * <p>
+     * The user's export slot is taken when the returned stream is subscribed and released
+     * when it terminates or is cancelled, so a response that is never written holds none.
+     * A rejection is signalled before the first chunk, while the status can still change.
+     *
+     * @param user          name of the requesting user
+     * @param filter        the criteria
+     * @param format        the output encoding
+     * @param bufferFactory factory for the response buffers
+     * @return encoded chunks, produced on demand; signals {@link TooManyRequestsException}
+     *         if the user or the gateway is at its export limit
+     */
+    public Flux<DataBuffer> export(String user, LogFilter filter, Format format, DataBufferFactory bufferFactory) {
+        return Flux.usingWhen(
+                Mono.fromCallable(() -> acquire(user)),
+                slot -> {
+                    log.info("Exporting logs for {} as {} with {}", user, format.getExtension(), filter);
+                    return logService.stream(filter)
+                            .buffer(chunkEntries)
+                            .map(entries -> encode(entries, format, bufferFactory));
+                },
+                slot -> Mono.fromRunnable(slot::release));
+    }
+
+    private DataBuffer encode(List<LogLine> entries, Format format, DataBufferFactory bufferFactory) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(entries.size() * 160);
+        for (LogLine entry : entries) {
+            if (format == Format.NDJSON) {
+                try {
+                    buffer.write(objectMapper.writeValueAsBytes(LogService.toEntry(entry)));
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                // The lines as the MTA wrote them, stack trace included
+                buffer.write(entry.text(), StandardCharsets.UTF_8);
+                if (entry.stackTrace() != null) {
+                    buffer.write((byte) '\n');
+                    buffer.write(entry.stackTrace(), StandardCharsets.UTF_8);
+                }
+            }
+            buffer.write((byte) '\n');
+        }
+        return buffer;
+    }
+
+    private Slot acquire(String user) {
+        if (active.incrementAndGet() > maxConcurrent) {
+            active.decrementAndGet();
+            rejected.increment();
+            throw new TooManyRequestsException("Too many log exports in progress, try again later");
+        }
+        if (activeByUser.merge(user, 1, Integer::sum) > maxPerUser) {
+            new Slot(user).release();
+            rejected.increment();
+            throw new TooManyRequestsException("At most " + maxPerUser + " log exports per user can run at a time");
+        }
+        return new Slot(user);
+    }
+
+    /**
+     * One running export of a user; released at most once.
+     */
+    private final class Slot {
+
+        private final String user;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Slot(String user) {
+            this.user = user;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                activeByUser.computeIfPresent(user, (key, count) -> count > 1 ? count - 1 : null);
+                active.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.util.LogLineParser.LogLine;
+
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Criteria of a log query; null components match everything.
+ *
+ * @param level  entry level, e.g. {@code ERROR}
+ * @param logger logger name as reported in entries
+ * @param search text to look for
+ * @param from   earliest entry time, inclusive
+ * @param to     latest entry time, exclusive
+ */
+public record LogFilter(String level, String logger, String search, Instant from, Instant to) {
+
+    public long fromMillis() {
+        return from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+    }
+
+    public long toMillis() {
+        return to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Whether an entry matches the level, logger and time range. The search text is not
+     * checked; where it applies depends on the source, see {@link #contains}.
+     */
+    public boolean matches(LogLine line) {
+        return matches(line, LogService.loggerOf(line));
+    }
+
+    /**
+     * Whether an entry reported with the given logger name matches the level, logger and
+     * time range.
+     */
+    public boolean matches(LogLine line, String reportedLogger) {
+        if (level != null && !level.equals(line.level().name())) {
+            return false;
+        }
+        if (logger != null && !logger.equals(reportedLogger)) {
+            return false;
+        }
+        return line.timestamp() >= fromMillis() && line.timestamp() < toMillis();
+    }
+
+    /**
+     * Whether the text of an entry, including its stack trace, contains the search text,
+     * ignoring case.
+     */
+    public boolean contains(LogLine line) {
+        if (search == null || search.isBlank()) {
+            return true;
+        }
+        String term = search.toLowerCase(Locale.ROOT);
+        return line.text().toLowerCase(Locale.ROOT).contains(term)
+                || (line.stackTrace() != null && line.stackTrace().toLowerCase(Locale.ROOT).contains(term));
+    }
+}
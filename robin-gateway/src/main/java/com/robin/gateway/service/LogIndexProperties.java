@@ -0,0 +1,42 @@
+package com.robin.gateway.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Gateway-side index of the Robin MTA log ({@code robin.logs.index}).
+ * <p>
+ * When enabled, the shared log tail runs continuously and every entry is appended to
+ * compressed, time-bucketed segment files; log queries are then answered from the segments
+ * instead of downloading the MTA log.
+ *
+ * @author Robin Gateway Team
+ */
+@Data
+@ConfigurationProperties(prefix = "robin.logs.index")
+public class LogIndexProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Directory holding the segment and index files.
+     */
+    private String directory = "data/log-index";
+
+    /**
+     * Time span of one segment.
+     */
+    private Duration bucket = Duration.ofHours(1);
+
+    /**
+     * Segments whose whole span is older than this are deleted.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * Entries per compressed block; each block gets one entry in the sparse index.
+     */
+    private int blockEntries = 256;
+}
@@ -0,0 +1,226 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.exception.InvalidRequestException;
+import com.robin.gateway.model.dto.LogEntry;
+import com.robin.gateway.model.dto.LogPage;
+import com.robin.gateway.model.dto.LogPage.SourceStatus;
+import com.robin.gateway.util.LogLineParser.LogLine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One timestamp-ordered view of several logs: the Robin MTA and the programs around it
+ * (Dovecot, ClamAV, Rspamd), as configured in {@code robin.logs.sources}.
+ * <p>
+ * All selected sources are requested at once and each is decoded and parsed as it arrives.
+ * Since every log is written in time order, the parsed streams are combined with a k-way
+ * merge ({@link Flux#mergeComparing}) that only ever holds the next few entries of each
+ * source; nothing is concatenated and sorted. An oldest-first page cancels every source once
+ * it is full, and a source is cancelled on its own once it passes the end of the time range.
+ * <p>
+ * A source that fails, or that owes the merge entries and sends none for
+ * {@code robin.logs.source-timeout}, is dropped from the merge and reported in
+ * {@link LogPage#getSources()}; the entries of the other sources are still returned. Only
+ * outstanding demand is timed: a source whose entries are all buffered may legitimately go
+ * quiet while the merge waits on another one.
+ */
+@Service
+@Slf4j
+public class LogMergeService {
+
+    /**
+     * An entry and the name of its source.
+     */
+    private record Sourced(String source, LogLine line) {
+    }
+
+    /**
+     * Entries requested from a source and not yet received, and since when the source has
+     * owed entries without sending one.
+     */
+    private static final class Demand {
+
+        private final AtomicLong outstanding = new AtomicLong();
+        private volatile long owingSince;
+
+        void requested(long n) {
+            if (outstanding.getAndAccumulate(n, Operators::addCap) == 0) {
+                owingSince = System.nanoTime();
+            }
+        }
+
+        void received() {
+            outstanding.getAndUpdate(n -> n == Long.MAX_VALUE ? n : n - 1);
+            owingSince = System.nanoTime();
+        }
+
+        boolean stalled(Duration idle) {
+            return outstanding.get() > 0 && System.nanoTime() - owingSince >= idle.toNanos();
+        }
+
+        /**
+         * Signals a {@link TimeoutException} once the source has owed entries for
+         * {@code idle}, checking a few times per period.
+         */
+        Mono<Void> watch(Duration idle) {
+            Duration period = idle.dividedBy(4).isPositive() ? idle.dividedBy(4) : idle;
+            return Flux.interval(period, period)
+                    .filter(tick -> stalled(idle))
+                    .next()
+                    .then(Mono.error(TimeoutException::new));
+        }
+    }
+
+    private static final Comparator<Sourced> BY_TIME = Comparator.comparingLong(sourced -> sourced.line().timestamp());
+
+    private final LogService logService;
+    private final LogSourcesProperties properties;
+    private final WebClient webClient;
+    private final Map<String, LogSourcesProperties.Source> sources = new LinkedHashMap<>();
+
+    public LogMergeService(
+            LogService logService,
+            LogSourcesProperties properties,
+            WebClient.Builder webClientBuilder,
+            @Value("${ROBIN_CLIENT_URL:http://localhost:8090}") String robinClientUrl) {
+        this.logService = logService;
+        this.properties = properties;
+        this.webClient = webClientBuilder.clone().build();
+
+        if (properties.getSources().isEmpty()) {
+            LogSourcesProperties.Source robin = new LogSourcesProperties.Source();
+            robin.setName("robin");
+            robin.setUrl(robinClientUrl + "/logs?q=.");
+            sources.put(robin.getName(), robin);
+        }
+        for (LogSourcesProperties.Source source : properties.getSources()) {
+            if (sources.put(source.getName(), source) != null) {
+                throw new IllegalStateException("Duplicate log source: " + source.getName());
+            }
+        }
+    }
+
+    /**
+     * Names of the configured sources, in configuration order.
+     */
+    public List<String> sourceNames() {
+        return List.copyOf(sources.keySet());
+    }
+
+    /**
+     * Get a page of entries merged from several sources.
+     * <p>
+     * The filter is applied to each source separately; an entry without a logger of its own
+     * is reported with the source name as logger. {@code total} counts as for
+     * {@link LogService#getLogs(LogFilter, int, int, LogService.Order)}.
+     *
+     * @param names  sources to read, or null or empty for all
+     * @param filter the criteria
+     * @param limit  page size
+     * @param offset entries to skip, counted in the requested order
+     * @param order  newest or oldest first
+     * @return the page, with the outcome of each source
+     * @throws InvalidRequestException (signalled) for an unknown source or a negative or too
+     *                                 large window
+     */
+    public Mono<LogPage> getLogs(Collection<String> names, LogFilter filter, int limit, int offset,
+                                 LogService.Order order) {
+        if (!logService.withinWindow(limit, offset)) {
+            return Mono.error(logService.windowError());
+        }
+        List<LogSourcesProperties.Source> selected = new ArrayList<>();
+        if (names == null || names.isEmpty()) {
+            selected.addAll(sources.values());
+        } else {
+            for (String name : names) {
+                LogSourcesProperties.Source source = sources.get(name);
+                if (source == null) {
+                    return Mono.error(new InvalidRequestException("Unknown log source: " + name));
+                }
+                selected.add(source);
+            }
+        }
+
+        return Mono.defer(() -> {
+            List<LogPage.Source> reports = new ArrayList<>();
+            List<Flux<Sourced>> streams = new ArrayList<>();
+            for (LogSourcesProperties.Source source : selected) {
+                LogPage.Source report = LogPage.Source.builder()
+                        .name(source.getName())
+                        .status(SourceStatus.OK)
+                        .build();
+                reports.add(report);
+                streams.add(read(source, filter, report));
+            }
+            log.debug("Merging logs of {} with {}, limit: {}, offset: {}, order: {}",
+                    reports.stream().map(LogPage.Source::getName).toList(), filter, limit, offset, order);
+
+            @SuppressWarnings("unchecked")
+            Flux<Sourced> merged = Flux.mergeComparing(properties.getMergePrefetch(), BY_TIME,
+                    streams.toArray(Flux[]::new));
+            Mono<LogPage> page = order == LogService.Order.OLDEST
+                    ? LogService.page(merged, limit, offset, LogMergeService::toEntry)
+                    : LogService.newestPage(merged, limit, offset, LogMergeService::toEntry);
+            return page.map(result -> {
+                result.setSources(reports);
+                return result;
+            });
+        });
+    }
+
+    /**
+     * Matching entries of one source in time order. Failures end the stream and are
+     * recorded in {@code report} instead of being signalled.
+     */
+    private Flux<Sourced> read(LogSourcesProperties.Source source, LogFilter filter, LogPage.Source report) {
+        long to = filter.toMillis();
+        Flux<DataBuffer> body = webClient.get()
+                .uri(URI.create(source.getUrl()))
+                .retrieve()
+                .bodyToFlux(DataBuffer.class);
+        Demand demand = new Demand();
+        return logService.entries(logService.decode(body), true)
+                .doOnNext(line -> demand.received())
+                .doOnRequest(demand::requested)
+                // Gaps while the merge is not asking for more are not stalls
+                .takeUntilOther(demand.watch(properties.getSourceTimeout()))
+                // The log is in time order, so nothing after the end of the range can match
+                .takeWhile(line -> line.timestamp() < to)
+                .filter(line -> filter.matches(line, LogService.loggerOf(line, source.getName()))
+                        && filter.contains(line))
+                .doOnNext(line -> report.setEntries(report.getEntries() + 1))
+                .map(line -> new Sourced(source.getName(), line))
+                .onErrorResume(e -> {
+                    boolean timedOut = e instanceof TimeoutException;
+                    report.setStatus(timedOut ? SourceStatus.TIMED_OUT : SourceStatus.FAILED);
+                    report.setError(timedOut
+                            ? "No data within " + properties.getSourceTimeout().toMillis() + " ms"
+                            : e.getMessage());
+                    log.warn("Reading log source {} ({}) failed: {}", source.getName(), source.getUrl(), report.getError());
+                    return Flux.empty();
+                });
+    }
+
+    private static LogEntry toEntry(Sourced sourced) {
+        LogEntry entry = LogService.toEntry(sourced.line(), sourced.source());
+        entry.setSource(sourced.source());
+        return entry;
+    }
+}
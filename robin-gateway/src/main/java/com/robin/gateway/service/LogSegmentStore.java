@@ -0,0 +1,422 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.util.LogLineParser.Level;
+import com.robin.gateway.util.LogLineParser.LogLine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only store of MTA log entries in compressed, time-bucketed segments.
+ * <p>
+ * Each bucket ({@code robin.logs.index.bucket}) is one segment: a data file of gzip members
+ * ({@code <bucket start>.log.gz}) and an index file ({@code <bucket start>.idx}) with one
+ * line per member. A member holds up to {@code block-entries} consecutive entries in their
+ * original text, so the index is a sparse timestamp index: first and last timestamp, byte
+ * range, a bit mask of the levels present and the ids of the loggers present. Loggers are
+ * numbered in {@code loggers.txt}. Queries select segments and then blocks by time range,
+ * level and logger, and decompress only those blocks.
+ * <p>
+ * Entries are buffered until a block is full, the bucket changes or the periodic flush; the
+ * buffered block is included in queries. Segments past the retention are deleted whole.
+ */
+@Component
+@Slf4j
+public class LogSegmentStore {
+
+    private static final String DATA_SUFFIX = ".log.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String LOGGERS_FILE = "loggers.txt";
+    private static final int ALL_LEVELS = (1 << Level.values().length) - 1;
+
+    /**
+     * One gzip member of a segment: a run of consecutive entries.
+     */
+    record Block(long firstTimestamp, long lastTimestamp, long offset, int length, int entries, int levels,
+                 BitSet loggers) {
+
+        boolean matches(long from, long to, int levelMask, int loggerId) {
+            return lastTimestamp >= from && firstTimestamp < to && (levels & levelMask) != 0
+                    && (loggerId < 0 || loggers.get(loggerId));
+        }
+
+        String toIndexLine() {
+            StringBuilder line = new StringBuilder(64)
+                    .append(firstTimestamp).append(' ').append(lastTimestamp).append(' ')
+                    .append(offset).append(' ').append(length).append(' ')
+                    .append(entries).append(' ').append(levels).append(' ');
+            for (int id = loggers.nextSetBit(0); id >= 0; id = loggers.nextSetBit(id + 1)) {
+                line.append(id).append(',');
+            }
+            return line.append('\n').toString();
+        }
+
+        static Block parse(String line) {
+            String[] fields = line.split(" ");
+            BitSet loggers = new BitSet();
+            if (fields.length > 6) {
+                for (String id : fields[6].split(",")) {
+                    if (!id.isEmpty()) {
+                        loggers.set(Integer.parseInt(id));
+                    }
+                }
+            }
+            return new Block(Long.parseLong(fields[0]), Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                    Integer.parseInt(fields[3]), Integer.parseInt(fields[4]), Integer.parseInt(fields[5]), loggers);
+        }
+    }
+
+    /**
+     * The files and blocks of one bucket, with the union of its blocks' masks.
+     */
+    private static final class Segment {
+
+        private final long start;
+        private final Path data;
+        private final Path index;
+        private final List<Block> blocks = new ArrayList<>();
+        private final BitSet loggers = new BitSet();
+        private int levels;
+        private long size;
+
+        Segment(long start, Path directory) {
+            this.start = start;
+            this.data = directory.resolve(start + DATA_SUFFIX);
+            this.index = directory.resolve(start + INDEX_SUFFIX);
+        }
+
+        void add(Block block) {
+            blocks.add(block);
+            levels |= block.levels();
+            loggers.or(block.loggers());
+        }
+    }
+
+    /**
+     * Entries not written yet, all of one bucket.
+     */
+    private static final class Pending {
+
+        private final long bucket;
+        private final StringBuilder text = new StringBuilder(16384);
+        private final BitSet loggers = new BitSet();
+        private long firstTimestamp = Long.MAX_VALUE;
+        private long lastTimestamp = Long.MIN_VALUE;
+        private int entries;
+        private int levels;
+
+        Pending(long bucket) {
+            this.bucket = bucket;
+        }
+
+        void add(LogLine line, int loggerId) {
+            text.append(line.text()).append('\n');
+            if (line.stackTrace() != null) {
+                text.append(line.stackTrace()).append('\n');
+            }
+            firstTimestamp = Math.min(firstTimestamp, line.timestamp());
+            lastTimestamp = Math.max(lastTimestamp, line.timestamp());
+            entries++;
+            levels |= 1 << line.level().ordinal();
+            loggers.set(loggerId);
+        }
+
+        Block toBlock(long offset, int length) {
+            return new Block(firstTimestamp, lastTimestamp, offset, length, entries, levels, (BitSet) loggers.clone());
+        }
+    }
+
+    private final LogIndexProperties properties;
+    private final long bucketMillis;
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<String, Integer> loggerIds = new HashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Counter writeFailures;
+    private Path directory;
+    private Pending pending;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private long bytes;
+
+    public LogSegmentStore(LogIndexProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.bucketMillis = properties.getBucket().toMillis();
+        this.meterRegistry = meterRegistry;
+        this.writeFailures = Counter.builder("robin.logs.index.write.failures")
+                .description("Blocks of log entries, or entries of a new logger, that could not be written to the index")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Register the gauges and load the existing segments.
+     */
+    @PostConstruct
+    public synchronized void init() throws IOException {
+        // Registered here rather than in the constructor, so they never see a partly built store
+        Gauge.builder("robin.logs.index.segments", this, store -> store.stats()[0])
+                .description("Log index segments on disk")
+                .register(meterRegistry);
+        Gauge.builder("robin.logs.index.bytes", this, store -> store.stats()[1])
+                .description("Compressed size of the log index")
+                .register(meterRegistry);
+        if (!isEnabled()) {
+            return;
+        }
+        directory = Paths.get(properties.getDirectory()).toAbsolutePath();
+        Files.createDirectories(directory);
+
+        Path loggersFile = directory.resolve(LOGGERS_FILE);
+        if (Files.exists(loggersFile)) {
+            for (String logger : Files.readAllLines(loggersFile, StandardCharsets.UTF_8)) {
+                loggerIds.putIfAbsent(logger, loggerIds.size());
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path indexFile : files.filter(file -> file.getFileName().toString().endsWith(INDEX_SUFFIX)).toList()) {
+                String name = indexFile.getFileName().toString();
+                Segment segment = new Segment(Long.parseLong(name.substring(0, name.length() - INDEX_SUFFIX.length())),
+                        directory);
+                if (!Files.exists(segment.data)) {
+                    continue;
+                }
+                for (String line : Files.readAllLines(indexFile, StandardCharsets.UTF_8)) {
+                    if (!line.isBlank()) {
+                        segment.add(Block.parse(line));
+                    }
+                }
+                // Bytes of a member whose index line was never written are skipped, not reused
+                segment.size = Files.size(segment.data);
+                bytes += segment.size;
+                segments.put(segment.start, segment);
+                for (Block block : segment.blocks) {
+                    lastTimestamp = Math.max(lastTimestamp, block.lastTimestamp());
+                }
+            }
+        }
+        log.info("Opened log index in {}: {} segments, {} loggers", directory, segments.size(), loggerIds.size());
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Timestamp of the newest entry stored, or {@link Long#MIN_VALUE} if there is none.
+     */
+    public synchronized long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * Add an entry. Write failures are logged and counted, not thrown, so that one failed
+     * write does not stop indexing.
+     *
+     * @param line   the entry
+     * @param logger its logger name, as reported to clients
+     */
+    public synchronized void append(LogLine line, String logger) {
+        int loggerId;
+        try {
+            loggerId = loggerId(logger);
+        } catch (IOException e) {
+            writeFailures.increment();
+            log.error("Failed to add logger {} to the index, its entry is only in the MTA log: {}",
+                    logger, e.getMessage());
+            return;
+        }
+        long bucket = Math.floorDiv(line.timestamp(), bucketMillis) * bucketMillis;
+        if (pending != null && (pending.bucket != bucket || pending.entries >= properties.getBlockEntries())) {
+            writePending();
+        }
+        if (pending == null) {
+            pending = new Pending(bucket);
+        }
+        pending.add(line, loggerId);
+        lastTimestamp = Math.max(lastTimestamp, line.timestamp());
+    }
+
+    /**
+     * Write the buffered entries as a block.
+     */
+    @Scheduled(fixedDelayString = "${robin.logs.index.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        if (pending != null) {
+            writePending();
+        }
+    }
+
+    /**
+     * Delete segments whose whole bucket is past the retention.
+     */
+    @Scheduled(fixedDelayString = "${robin.logs.index.retention-check-interval-ms:600000}")
+    public synchronized void purge() {
+        long cutoff = System.currentTimeMillis() - properties.getRetention().toMillis();
+        var expired = segments.headMap(cutoff - bucketMillis, true);
+        for (Segment segment : List.copyOf(expired.values())) {
+            try {
+                Files.deleteIfExists(segment.index);
+                Files.deleteIfExists(segment.data);
+                expired.remove(segment.start);
+                bytes -= segment.size;
+                log.info("Deleted log segment {} past retention", segment.data.getFileName());
+            } catch (IOException e) {
+                log.warn("Failed to delete log segment {}: {}", segment.data.getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Blocks that may hold entries matching the criteria, each read when subscribed to.
+     *
+     * @param from        earliest timestamp, inclusive
+     * @param to          latest timestamp, exclusive
+     * @param level       only blocks with entries of this level, or null
+     * @param logger      only blocks with entries of this logger, or null
+     * @param newestFirst order of the blocks; lines within a block are always oldest first
+     * @return the lines of each candidate block
+     */
+    public Flux<Flux<String>> blocks(long from, long to, Level level, String logger, boolean newestFirst) {
+        return Flux.defer(() -> Flux.fromIterable(plan(from, to, level, logger, newestFirst)))
+                .map(reader -> Mono.fromCallable(reader)
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMapIterable(lines -> lines));
+    }
+
+    private synchronized List<Callable<List<String>>> plan(long from, long to, Level level, String logger,
+                                                        boolean newestFirst) {
+        List<Callable<List<String>>> readers = new ArrayList<>();
+        int levelMask = level == null ? ALL_LEVELS : 1 << level.ordinal();
+        int loggerId = -1;
+        if (logger != null) {
+            Integer id = loggerIds.get(logger);
+            if (id == null) {
+                return readers;
+            }
+            loggerId = id;
+        }
+
+        Long first = from == Long.MIN_VALUE ? null : segments.floorKey(Math.floorDiv(from, bucketMillis) * bucketMillis);
+        var candidates = first == null ? segments.headMap(to, false) : segments.subMap(first, true, to, false);
+        for (Segment segment : candidates.values()) {
+            if ((segment.levels & levelMask) == 0 || (loggerId >= 0 && !segment.loggers.get(loggerId))) {
+                continue;
+            }
+            for (Block block : segment.blocks) {
+                if (block.matches(from, to, levelMask, loggerId)) {
+                    Path data = segment.data;
+                    readers.add(() -> read(data, block));
+                }
+            }
+        }
+        if (pending != null && pending.toBlock(0, 0).matches(from, to, levelMask, loggerId)) {
+            String text = pending.text.toString();
+            readers.add(() -> text.lines().toList());
+        }
+        if (newestFirst) {
+            Collections.reverse(readers);
+        }
+        return readers;
+    }
+
+    private static List<String> read(Path data, Block block) throws IOException {
+        byte[] member = new byte[block.length()];
+        ByteBuffer buffer = ByteBuffer.wrap(member);
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, block.offset() + buffer.position()) < 0) {
+                    throw new IOException("Truncated log segment " + data.getFileName());
+                }
+            }
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(member)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+
+    private void writePending() {
+        Pending block = pending;
+        pending = null;
+        try {
+            Segment segment = segments.get(block.bucket);
+            if (segment == null) {
+                segment = new Segment(block.bucket, directory);
+                segments.put(block.bucket, segment);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(block.text.length() / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(block.text.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            byte[] member = out.toByteArray();
+            // Offsets come from the file itself, so bytes left by a failed write are skipped
+            long offset = Files.exists(segment.data) ? Files.size(segment.data) : 0;
+            Files.write(segment.data, member, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            long size = Files.size(segment.data);
+            bytes += size - segment.size;
+            segment.size = size;
+
+            Block written = block.toBlock(offset, member.length);
+            // Index line last: a member without one is never read
+            Files.writeString(segment.index, written.toIndexLine(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            segment.add(written);
+        } catch (IOException e) {
+            writeFailures.increment();
+            log.error("Failed to write {} log entries to the index, they are only in the MTA log: {}",
+                    block.entries, e.getMessage());
+        }
+    }
+
+    private int loggerId(String logger) throws IOException {
+        Integer id = loggerIds.get(logger);
+        if (id != null) {
+            return id;
+        }
+        int newId = loggerIds.size();
+        Files.writeString(directory.resolve(LOGGERS_FILE), logger + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        loggerIds.put(logger, newId);
+        return newId;
+    }
+
+    private synchronized long[] stats() {
+        return new long[] {segments.size(), bytes};
+    }
+}
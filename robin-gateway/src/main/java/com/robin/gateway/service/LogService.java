@@ -0,0 +1,598 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.exception.InvalidRequestException;
+import com.robin.gateway.model.dto.LogEntry;
+import com.robin.gateway.model.dto.LogPage;
+import com.robin.gateway.util.LogLineParser;
+import com.robin.gateway.util.LogLineParser.LogLine;
+import com.robin.gateway.util.TtlCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Paged access to the Robin MTA log ({@code GET /logs} on the client API).
+ * <p>
+ * The log body is decoded line by line as it arrives and filtered while decoding; it is
+ * never held in memory as a whole. Newest-first pages keep a ring of the last
+ * {@code offset + limit} matching lines while the rest of the log streams past, and
+ * oldest-first pages cancel the download as soon as the page is full. Only the lines of
+ * the returned page are turned into entries. Memory use is proportional to the page, not
+ * to the size of the log.
+ * <p>
+ * Lines are parsed by {@link LogLineParser} into timestamp, thread, level, logger and
+ * message. Lines that do not start an entry (stack frames, wrapped messages) are attached to
+ * the entry before them as its stack trace, so an entry and its trace are filtered, counted
+ * and paged together.
+ * <p>
+ * With {@code robin.logs.index.enabled} queries are answered from {@link LogSegmentStore}
+ * instead, which also supports time ranges without reading the whole log.
+ * <p>
+ * Pages link to the next one with a {@link LogCursor}, and newest-first scans of the MTA log
+ * are cached briefly, so paging through a query downloads the log once rather than once per
+ * page.
+ */
+@Service
+@Slf4j
+public class LogService {
+
+    public enum Order {
+        NEWEST,
+        OLDEST;
+
+        public static Order from(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRequestException("Unsupported log order: " + value);
+            }
+        }
+    }
+
+    private static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
+    private static final String DEFAULT_LOGGER = "robin";
+    private static final int MAX_STACK_TRACE_LINES = 500;
+    /** Pages a newest-first snapshot keeps: the one asked for and the next ones. */
+    private static final int SNAPSHOT_PAGES = 10;
+
+    private final WebClient webClient;
+    private final StringDecoder lineDecoder;
+    private final LogLineParser parser;
+    private final LogSegmentStore index;
+    private final int maxWindow;
+    private final TtlCache<String, Snapshot> snapshots;
+
+    public LogService(
+            WebClient.Builder webClientBuilder,
+            LogSegmentStore index,
+            @Value("${ROBIN_CLIENT_URL:http://localhost:8090}") String robinClientUrl,
+            @Value("${robin.logs.max-line-bytes:65536}") int maxLineBytes,
+            @Value("${robin.logs.max-window:10000}") int maxWindow,
+            @Value("${robin.logs.time-zone:}") String timeZone,
+            @Value("${robin.logs.cache.max-entries:8}") int cacheMaxEntries,
+            @Value("${robin.logs.cache.ttl:10s}") Duration cacheTtl,
+            MeterRegistry meterRegistry) {
+        this.webClient = webClientBuilder.clone().baseUrl(robinClientUrl).build();
+        this.lineDecoder = StringDecoder.allMimeTypes(StringDecoder.DEFAULT_DELIMITERS, true);
+        // A single line longer than this fails the request instead of growing the buffer
+        this.lineDecoder.setMaxInMemorySize(maxLineBytes);
+        this.maxWindow = maxWindow;
+        this.index = index;
+        this.snapshots = new TtlCache<>(cacheMaxEntries, cacheTtl);
+        this.parser = new LogLineParser(timeZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(timeZone));
+
+        FunctionCounter.builder("robin.logs.lines", parser, LogLineParser::parsedCount)
+                .description("MTA log lines parsed into entries")
+                .tag("result", "parsed")
+                .register(meterRegistry);
+        FunctionCounter.builder("robin.logs.lines", parser, LogLineParser::unrecognizedCount)
+                .description("MTA log lines not recognized as the start of an entry")
+                .tag("result", "unrecognized")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get a page of log entries filtered by level and search term only.
+     *
+     * @param level  only entries of this level, or null
+     * @param search search term, or null
+     * @param limit  page size
+     * @param offset entries to skip, counted in the requested order
+     * @param order  newest or oldest first
+     * @return the page
+     * @throws InvalidRequestException (signalled) for a negative or too large window
+     */
+    public Mono<LogPage> getLogs(String level, String search, int limit, int offset, Order order) {
+        return getLogs(new LogFilter(level, null, search, null, null), limit, offset, order);
+    }
+
+    /**
+     * Get a page of log entries by offset.
+     *
+     * @see #getLogs(LogFilter, int, int, String, Order)
+     */
+    public Mono<LogPage> getLogs(LogFilter filter, int limit, int offset, Order order) {
+        return getLogs(filter, limit, offset, null, order);
+    }
+
+    /**
+     * Get a page of log entries.
+     * <p>
+     * With the log index enabled the page is read from the index segments that can hold
+     * matching entries, and {@code total} only counts up to the end of the page. Otherwise
+     * the MTA log is downloaded; the search term is passed to the MTA and the other criteria
+     * are applied here.
+     * <p>
+     * Every page but the last has a {@code nextCursor}; passing it back instead of an offset
+     * resumes after the last entry returned (see {@link LogCursor}). A newest-first scan of
+     * the MTA log keeps the matches of the requested page and the nine after it, at most
+     * {@code robin.logs.max-window}, for {@code robin.logs.cache.ttl}, keyed by the query.
+     * Further pages of the same query are cut from them without downloading the log again;
+     * pages past them scan the log once more.
+     *
+     * @param filter the criteria
+     * @param limit  page size
+     * @param offset entries to skip, counted in the requested order; 0 with a cursor
+     * @param cursor {@code nextCursor} of the previous page of the same query, or null
+     * @param order  newest or oldest first
+     * @return the page
+     * @throws InvalidRequestException (signalled) for a negative or too large window, or a
+     *                                 cursor that was not issued for this query
+     */
+    public Mono<LogPage> getLogs(LogFilter filter, int limit, int offset, String cursor, Order order) {
+        if (!withinWindow(limit, offset)) {
+            return Mono.error(windowError());
+        }
+        String key = queryKey(filter, order);
+        LogCursor position = null;
+        if (cursor != null) {
+            position = LogCursor.decode(cursor);
+            if (position == null || position.query() != key.hashCode()) {
+                return Mono.error(new InvalidRequestException("Cursor does not belong to this query"));
+            }
+            if (offset != 0) {
+                return Mono.error(new InvalidRequestException("offset cannot be combined with cursor"));
+            }
+        }
+        LogFilter range = position != null ? position.narrow(filter, order) : filter;
+        int skip = position != null ? position.tie() : offset;
+
+        if (index.isEnabled()) {
+            log.debug("Reading logs from the index with {}, limit: {}, skip: {}, order: {}", range, limit, skip, order);
+            return page(indexed(range, order == Order.NEWEST), limit, skip, key);
+        }
+        if (order == Order.OLDEST) {
+            return page(matches(range), limit, skip, key);
+        }
+
+        // Sized to the page rather than to max-window, so memory stays proportional to it
+        int capacity = (int) Math.min(maxWindow, ((long) skip + limit) * SNAPSHOT_PAGES);
+        Snapshot cached = snapshots.get(key);
+        Mono<Snapshot> snapshot = cached != null && (position != null || cached.covers(offset + limit))
+                ? Mono.just(cached)
+                : scan(filter, capacity).doOnNext(scanned -> snapshots.put(key, scanned));
+        LogCursor after = position;
+        return snapshot.flatMap(scanned -> {
+            int start = after != null ? scanned.find(after) : offset;
+            if (start >= 0) {
+                return Mono.just(scanned.page(start, limit, key));
+            }
+            // The cursor is past the matches the snapshot keeps: scan the rest of the range,
+            // keeping only what the page needs
+            return scan(range, (int) Math.min((long) skip + limit, Integer.MAX_VALUE))
+                    .map(rest -> rest.page(skip, limit, key));
+        });
+    }
+
+    /**
+     * All matching entries, oldest first, read from the index when it is enabled and from the
+     * MTA log otherwise, with the same criteria as {@link #getLogs}. Entries are parsed as the
+     * log streams in and only as fast as they are consumed.
+     *
+     * @param filter the criteria
+     * @return the entries
+     */
+    public Flux<LogLine> stream(LogFilter filter) {
+        return index.isEnabled() ? indexed(filter, false) : matches(filter);
+    }
+
+    /**
+     * Cache and cursor key of a query.
+     */
+    static String queryKey(LogFilter filter, Order order) {
+        return order + " " + filter;
+    }
+
+    /**
+     * Whether a page window is within {@code robin.logs.max-window}.
+     */
+    boolean withinWindow(int limit, int offset) {
+        return limit >= 1 && offset >= 0 && (long) offset + limit <= maxWindow;
+    }
+
+    InvalidRequestException windowError() {
+        return new InvalidRequestException("limit must be at least 1 and offset + limit at most " + maxWindow);
+    }
+
+    /**
+     * Page of a stream of entries already in the requested order. One extra entry tells
+     * whether there is more; taking it cancels the rest of the stream.
+     */
+    static <T> Mono<LogPage> page(Flux<T> matches, int limit, int offset, Function<T, LogEntry> toEntry) {
+        return page(matches, limit, offset, toEntry, null);
+    }
+
+    /**
+     * Page of a stream of entries as {@link #page(Flux, int, int, Function)}, with the cursor
+     * of its last entry if there is more.
+     */
+    private static <T> Mono<LogPage> page(Flux<T> matches, int limit, int offset, Function<T, LogEntry> toEntry,
+                                          Function<T, String> cursorOf) {
+        return matches.skip(offset)
+                .take(limit + 1L)
+                .collectList()
+                .map(page -> {
+                    boolean hasMore = page.size() > limit;
+                    List<T> kept = hasMore ? page.subList(0, limit) : page;
+                    LogPage result = new LogPage(toEntries(kept.iterator(), toEntry), offset + page.size(), hasMore);
+                    if (hasMore && cursorOf != null) {
+                        result.setNextCursor(cursorOf.apply(kept.get(kept.size() - 1)));
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Page of a stream of entries in the requested order, with cursors for query {@code key}.
+     * Entries are ranked among those with the same timestamp as they stream past, skipped
+     * ones included.
+     */
+    private static Mono<LogPage> page(Flux<LogLine> matches, int limit, int offset, String key) {
+        Flux<Ranked> ranked = Flux.defer(() -> matches.map(new Ranking()));
+        return page(ranked, limit, offset, entry -> toEntry(entry.line()),
+                entry -> new LogCursor(key.hashCode(), entry.line().timestamp(), entry.tie()).encode());
+    }
+
+    /**
+     * Newest-first page of a stream of entries in time order, keeping only the last
+     * {@code offset + limit} while the stream is read to the end.
+     */
+    static <T> Mono<LogPage> newestPage(Flux<T> matches, int limit, int offset, Function<T, LogEntry> toEntry) {
+        return matches.collect(() -> new Tail<T>(offset + limit), Tail::add)
+                .map(tail -> tail.page(offset, toEntry));
+    }
+
+    /**
+     * Matching entries from the index. Blocks come in the requested order and are read one
+     * at a time; a newest-first block is reversed after parsing.
+     */
+    private Flux<LogLine> indexed(LogFilter filter, boolean newestFirst) {
+        LogLineParser.Level level;
+        try {
+            level = filter.level() != null ? LogLineParser.Level.valueOf(filter.level()) : null;
+        } catch (IllegalArgumentException e) {
+            // Same as the MTA path: an unknown level matches nothing
+            return Flux.empty();
+        }
+        return index.blocks(filter.fromMillis(), filter.toMillis(), level, filter.logger(), newestFirst)
+                .concatMap(block -> {
+                    Flux<LogLine> entries = entries(block);
+                    if (!newestFirst) {
+                        return entries;
+                    }
+                    return entries.collectList().flatMapIterable(list -> {
+                        Collections.reverse(list);
+                        return list;
+                    });
+                }, 1)
+                .filter(line -> filter.matches(line) && filter.contains(line));
+    }
+
+    /**
+     * Entries of the MTA log matching a filter, in log order.
+     */
+    private Flux<LogLine> matches(LogFilter filter) {
+        String query = filter.search() != null ? filter.search() : (filter.level() != null ? filter.level() : ".");
+        log.debug("Fetching logs from MTA with query: {}, filter: {}", query, filter);
+        return entries(lines(query)).filter(filter::matches);
+    }
+
+    /**
+     * Read the whole MTA log, keeping the newest {@code capacity} matches.
+     */
+    private Mono<Snapshot> scan(LogFilter filter, int capacity) {
+        return matches(filter).collect(() -> new Tail<LogLine>(capacity), Tail::add)
+                .map(tail -> new Snapshot(tail.newestFirst(), tail.total));
+    }
+
+    /**
+     * Stream the MTA log as lines, decoded from the body as it arrives.
+     */
+    private Flux<String> lines(String query) {
+        Flux<DataBuffer> body = webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/logs").queryParam("q", query).build())
+                .retrieve()
+                .bodyToFlux(DataBuffer.class);
+        return decode(body);
+    }
+
+    /**
+     * Split a log body into lines as it arrives.
+     *
+     * @param body raw log bytes
+     * @return the lines, without delimiters
+     */
+    public Flux<String> decode(Flux<DataBuffer> body) {
+        return lineDecoder.decode(body, STRING_TYPE, null, Map.of());
+    }
+
+    /**
+     * Parse lines into entries, attaching continuation lines to the entry before them. An
+     * entry is emitted when the next one starts or the lines complete.
+     *
+     * @param lines log lines; blank lines and the MTA's usage text are skipped
+     * @return the entries
+     */
+    public Flux<LogLine> entries(Flux<String> lines) {
+        return entries(lines, false);
+    }
+
+    /**
+     * Parse lines into entries as {@link #entries(Flux)} does.
+     *
+     * @param lines log lines; blank lines and the MTA's usage text are skipped
+     * @param loose whether lines of other programs' logs also start entries, see
+     *              {@link LogLineParser#parseLoose}; leading lines that start no entry are then
+     *              dropped, since they have no timestamp to be merged by
+     * @return the entries
+     */
+    public Flux<LogLine> entries(Flux<String> lines, boolean loose) {
+        return Flux.defer(() -> {
+            Grouping grouping = new Grouping(loose ? parser::parseLoose : parser::parse, !loose);
+            return lines.filter(line -> !line.isBlank() && !line.startsWith("Usage:"))
+                    .handle(grouping)
+                    .concatWith(Mono.fromSupplier(grouping::flush));
+        });
+    }
+
+    /**
+     * The response form of a parsed entry.
+     */
+    public static LogEntry toEntry(LogLine line) {
+        return toEntry(line, DEFAULT_LOGGER);
+    }
+
+    /**
+     * The response form of a parsed entry, reporting {@code defaultLogger} for an entry
+     * without a logger.
+     */
+    static LogEntry toEntry(LogLine line, String defaultLogger) {
+        return LogEntry.builder()
+                .timestamp(line.instant().toString())
+                .level(line.level().name())
+                .logger(loggerOf(line, defaultLogger))
+                .thread(line.thread())
+                .message(line.message())
+                .stackTrace(line.stackTrace())
+                .build();
+    }
+
+    /**
+     * Logger name of an entry as reported to clients.
+     */
+    static String loggerOf(LogLine line) {
+        return loggerOf(line, DEFAULT_LOGGER);
+    }
+
+    static String loggerOf(LogLine line, String defaultLogger) {
+        String logger = line.logger();
+        return logger != null ? logger : defaultLogger;
+    }
+
+    private static <T> List<LogEntry> toEntries(Iterator<T> lines, Function<T, LogEntry> toEntry) {
+        List<LogEntry> entries = new ArrayList<>();
+        while (lines.hasNext()) {
+            entries.add(toEntry.apply(lines.next()));
+        }
+        return entries;
+    }
+
+    /**
+     * Per-request state of {@link #entries}: the entry still collecting continuation lines.
+     */
+    private static final class Grouping implements BiConsumer<String, SynchronousSink<LogLine>> {
+
+        private final Function<String, LogLine> parser;
+        private final boolean keepOrphans;
+        private LogLine current;
+        private StringBuilder stackTrace;
+        private int stackTraceLines;
+
+        Grouping(Function<String, LogLine> parser, boolean keepOrphans) {
+            this.parser = parser;
+            this.keepOrphans = keepOrphans;
+        }
+
+        @Override
+        public void accept(String line, SynchronousSink<LogLine> sink) {
+            LogLine parsed = parser.apply(line);
+            if (parsed == null && current != null) {
+                if (stackTraceLines++ < MAX_STACK_TRACE_LINES) {
+                    if (stackTrace == null) {
+                        stackTrace = new StringBuilder(line);
+                    } else {
+                        stackTrace.append('\n').append(line);
+                    }
+                }
+                return;
+            }
+            if (parsed == null && !keepOrphans) {
+                // A leading line with nothing to attach to, e.g. the rest of an entry cut by rotation
+                return;
+            }
+            LogLine previous = flush();
+            // Otherwise it is kept as a message of its own
+            current = parsed != null ? parsed : LogLineParser.fallback(line, System.currentTimeMillis());
+            if (previous != null) {
+                sink.next(previous);
+            }
+        }
+
+        /**
+         * @return the entry being collected, with its stack trace, or null
+         */
+        LogLine flush() {
+            LogLine entry = current;
+            if (entry != null && stackTrace != null) {
+                entry = entry.withStackTrace(stackTrace.toString());
+            }
+            current = null;
+            stackTrace = null;
+            stackTraceLines = 0;
+            return entry;
+        }
+    }
+
+    /**
+     * An entry and its rank among the consecutive entries with its timestamp, from 1.
+     */
+    private record Ranked(LogLine line, int tie) {
+    }
+
+    /**
+     * Per-request state of {@link #page(Flux, int, int, String)}.
+     */
+    private static final class Ranking implements Function<LogLine, Ranked> {
+
+        private long timestamp = Long.MIN_VALUE;
+        private int tie;
+
+        @Override
+        public Ranked apply(LogLine line) {
+            tie = line.timestamp() == timestamp ? tie + 1 : 1;
+            timestamp = line.timestamp();
+            return new Ranked(line, tie);
+        }
+    }
+
+    /**
+     * Result of a newest-first MTA log scan, cached per query.
+     *
+     * @param lines the newest matches, newest first
+     * @param total all matches in the scanned range
+     */
+    private record Snapshot(List<LogLine> lines, long total) {
+
+        /**
+         * Whether the first {@code count} matches are all kept.
+         */
+        boolean covers(int count) {
+            return count <= lines.size() || lines.size() == total;
+        }
+
+        /**
+         * Index of the entry after a cursor.
+         *
+         * @return the index, or -1 if it is past the matches kept
+         */
+        int find(LogCursor cursor) {
+            // Newest first: find the first entry at or before the cursor's timestamp
+            int low = 0;
+            int high = lines.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (lines.get(mid).timestamp() > cursor.timestamp()) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int start = low + cursor.tie();
+            return start < lines.size() || lines.size() == total ? start : -1;
+        }
+
+        LogPage page(int start, int limit, String key) {
+            int end = Math.min(start + limit, lines.size());
+            if (start >= end) {
+                return new LogPage(List.of(), total, false);
+            }
+            boolean hasMore = end < total;
+            LogPage page = new LogPage(toEntries(lines.subList(start, end).iterator(), LogService::toEntry),
+                    total, hasMore);
+            if (hasMore) {
+                page.setNextCursor(cursorAt(end - 1, key));
+            }
+            return page;
+        }
+
+        private String cursorAt(int i, String key) {
+            long timestamp = lines.get(i).timestamp();
+            int first = i;
+            while (first > 0 && lines.get(first - 1).timestamp() == timestamp) {
+                first--;
+            }
+            return new LogCursor(key.hashCode(), timestamp, i - first + 1).encode();
+        }
+    }
+
+    /**
+     * The last {@code capacity} matching entries of a scan, plus the number of matches.
+     */
+    private static final class Tail<T> {
+
+        private final int capacity;
+        private final ArrayDeque<T> lines;
+        private long total;
+
+        Tail(int capacity) {
+            this.capacity = capacity;
+            this.lines = new ArrayDeque<>(Math.min(capacity, 1024));
+        }
+
+        List<T> newestFirst() {
+            List<T> list = new ArrayList<>(lines);
+            Collections.reverse(list);
+            return list;
+        }
+
+        void add(T line) {
+            total++;
+            if (lines.size() == capacity) {
+                lines.pollFirst();
+            }
+            lines.addLast(line);
+        }
+
+        /**
+         * Newest-first page: the ring read backwards, skipping the newest {@code offset}.
+         */
+        LogPage page(int offset, Function<T, LogEntry> toEntry) {
+            Iterator<T> newestFirst = lines.descendingIterator();
+            for (int i = 0; i < offset && newestFirst.hasNext(); i++) {
+                newestFirst.next();
+            }
+            return new LogPage(toEntries(newestFirst, toEntry), total, total > capacity);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.robin.gateway.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Log sources read by merged log queries ({@code robin.logs.sources}).
+ * <p>
+ * With no sources configured the merged view reads the Robin MTA log only.
+ *
+ * @author Robin Gateway Team
+ */
+@Data
+@ConfigurationProperties(prefix = "robin.logs")
+public class LogSourcesProperties {
+
+    private List<Source> sources = new ArrayList<>();
+
+    /**
+     * How long a source may owe the merge entries without sending one before it is reported
+     * as timed out and left out of the rest of the query.
+     */
+    private Duration sourceTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Entries requested ahead from each source while merging.
+     */
+    private int mergePrefetch = 256;
+
+    @Data
+    public static class Source {
+
+        /**
+         * Name reported in entries and as the logger of entries without one, e.g. {@code dovecot}.
+         */
+        private String name;
+
+        /**
+         * URL answering with the plain-text log, oldest line first.
+         */
+        private String url;
+    }
+}
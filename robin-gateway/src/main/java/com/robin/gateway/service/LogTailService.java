@@ -0,0 +1,361 @@
+package com.robin.gateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robin.gateway.util.LogLineParser.LogLine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live tail of the Robin MTA log as server-sent events.
+ * <p>
+ * However many viewers are connected, a single follower polls the MTA for what was appended
+ * since its previous poll: it asks for {@code Range: bytes=<offset>-} and, if the MTA
+ * ignores the range, skips the bytes it has already seen without decoding them. Since that
+ * still transfers the whole log, the follower then only polls every
+ * {@code no-range-poll-interval} until the MTA answers a range again. New lines
+ * are parsed and encoded to JSON once and multicast to every viewer. The follower starts
+ * with the first viewer, opens with the last {@code replay-size} entries of the log, and
+ * stops {@code idle-timeout} after the last viewer has left.
+ * <p>
+ * With the log index enabled the follower runs all the time instead and feeds
+ * {@link LogSegmentStore}: its first poll catches up on everything newer than the newest
+ * indexed entry, and viewers share the same polls. Against an MTA without Range support
+ * it backs off as above, so the index then trails the log by up to
+ * {@code no-range-poll-interval} instead of downloading it in full every poll.
+ * <p>
+ * Level and search filters are applied per viewer to the shared entries, both
+ * case-insensitive. Every viewer gets its own bounded buffer; one that cannot keep up loses
+ * its oldest undelivered entries rather than holding back the others. A shared heartbeat
+ * keeps idle connections open through proxies.
+ */
+@Service
+@Slf4j
+public class LogTailService {
+
+    private static final String EVENT_NAME = "log";
+
+    /**
+     * An entry encoded once for all viewers, with the lower-cased text searches run against.
+     */
+    private record Encoded(long id, String level, String searchable, String json) {
+    }
+
+    private final LogService logService;
+    private final LogSegmentStore index;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int replaySize;
+    private final int maxPollBytes;
+    private final Duration pollTimeout;
+    private final Duration noRangePollInterval;
+    private final Flux<LogLine> lines;
+    private final Flux<Encoded> entries;
+    private final Flux<Long> heartbeats;
+    private final AtomicLong lastId = new AtomicLong();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter polls;
+    private final Counter fullDownloads;
+    private final Counter droppedEntries;
+    private Disposable ingestion;
+
+    public LogTailService(
+            LogService logService,
+            LogSegmentStore index,
+            WebClient.Builder webClientBuilder,
+            ObjectMapper objectMapper,
+            @Value("${ROBIN_CLIENT_URL:http://localhost:8090}") String robinClientUrl,
+            @Value("${robin.logs.tail.poll-interval:2s}") Duration pollInterval,
+            @Value("${robin.logs.tail.no-range-poll-interval:60s}") Duration noRangePollInterval,
+            @Value("${robin.logs.tail.poll-timeout:60s}") Duration pollTimeout,
+            @Value("${robin.logs.tail.max-poll-bytes:1MB}") DataSize maxPollBytes,
+            @Value("${robin.logs.tail.replay-size:100}") int replaySize,
+            @Value("${robin.logs.tail.buffer-size:256}") int bufferSize,
+            @Value("${robin.logs.tail.heartbeat:15s}") Duration heartbeat,
+            @Value("${robin.logs.tail.idle-timeout:30s}") Duration idleTimeout,
+            MeterRegistry meterRegistry) {
+        this.logService = logService;
+        this.index = index;
+        this.webClient = webClientBuilder.clone().baseUrl(robinClientUrl).build();
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        this.maxPollBytes = (int) maxPollBytes.toBytes();
+        this.pollTimeout = pollTimeout;
+        this.noRangePollInterval = noRangePollInterval;
+        this.heartbeats = Flux.interval(heartbeat).share();
+
+        this.lines = Flux.defer(() -> {
+                    Follower follower = new Follower();
+                    log.info("Starting MTA log tail");
+                    // A tick arriving while a poll is still running is dropped, not queued
+                    return Flux.interval(Duration.ZERO, pollInterval)
+                            .onBackpressureDrop()
+                            .concatMap(tick -> follower.poll(), 1);
+                })
+                .doFinally(signal -> log.info("Stopped MTA log tail"))
+                .publish()
+                .refCount();
+        this.entries = lines.mapNotNull(this::encode)
+                .replay(replaySize)
+                .refCount(1, idleTimeout);
+
+        this.polls = Counter.builder("robin.logs.tail.polls")
+                .description("MTA log requests made by the shared log tail")
+                .register(meterRegistry);
+        this.fullDownloads = Counter.builder("robin.logs.tail.full-downloads")
+                .description("Range polls the MTA answered with the whole log")
+                .register(meterRegistry);
+        this.droppedEntries = Counter.builder("robin.logs.tail.dropped")
+                .description("Log entries dropped for viewers that fell behind")
+                .register(meterRegistry);
+        Gauge.builder("robin.logs.tail.subscribers", subscribers, AtomicInteger::get)
+                .description("Open log tail streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * With the log index enabled, keep the tail running and write every entry to the index.
+     */
+    @PostConstruct
+    public void start() {
+        if (!index.isEnabled()) {
+            return;
+        }
+        // Viewers keep getting the latest entries replayed while the tail runs without them
+        Disposable replay = entries.subscribe();
+        Disposable writer = lines.publishOn(Schedulers.boundedElastic())
+                .subscribe(line -> index.append(line, LogService.loggerOf(line)),
+                        e -> log.error("Log indexing stopped: {}", e.getMessage()));
+        ingestion = Disposables.composite(replay, writer);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ingestion != null) {
+            ingestion.dispose();
+        }
+    }
+
+    /**
+     * Open a tail stream.
+     *
+     * @param lastEventId id of the last entry the client saw, to skip what it already has
+     *                    among the replayed entries; null to receive them all
+     * @param level       only entries of this level, or null
+     * @param search      only entries containing this text (case-insensitive), or null
+     * @return log entries, interleaved with heartbeat comments
+     */
+    public Flux<ServerSentEvent<String>> stream(Long lastEventId, String level, String search) {
+        return Flux.defer(() -> {
+                    long after = lastEventId != null ? lastEventId : 0;
+                    String wanted = level == null || level.isBlank() ? null : level.trim().toUpperCase(Locale.ROOT);
+                    String term = search == null || search.isBlank() ? null : search.toLowerCase(Locale.ROOT);
+                    Flux<ServerSentEvent<String>> tail = entries
+                            .filter(entry -> entry.id() > after
+                                    && (wanted == null || wanted.equals(entry.level()))
+                                    && (term == null || entry.searchable().contains(term)))
+                            .onBackpressureBuffer(bufferSize, entry -> droppedEntries.increment(),
+                                    BufferOverflowStrategy.DROP_OLDEST)
+                            .map(entry -> ServerSentEvent.builder(entry.json())
+                                    .id(String.valueOf(entry.id()))
+                                    .event(EVENT_NAME)
+                                    .build());
+                    Flux<ServerSentEvent<String>> keepAlive = heartbeats
+                            .map(tick -> ServerSentEvent.<String>builder().comment("heartbeat").build());
+                    return Flux.merge(tail, keepAlive);
+                })
+                .doOnSubscribe(s -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    private Encoded encode(LogLine line) {
+        String text = line.stackTrace() != null ? line.text() + '\n' + line.stackTrace() : line.text();
+        try {
+            return new Encoded(lastId.incrementAndGet(), line.level().name(), text.toLowerCase(Locale.ROOT),
+                    objectMapper.writeValueAsString(LogService.toEntry(line)));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to encode log entry: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Position of the shared tail in the MTA log. Polls run one at a time.
+     */
+    private final class Follower {
+
+        private long offset;
+        private boolean started;
+        private boolean rangeIgnored;
+        private long nextFullPollNanos;
+
+        Flux<LogLine> poll() {
+            if (rangeIgnored && System.nanoTime() - nextFullPollNanos < 0) {
+                return Flux.empty();
+            }
+            polls.increment();
+            return webClient.get()
+                    .uri(uriBuilder -> uriBuilder.path("/logs").queryParam("q", ".").build())
+                    .headers(headers -> {
+                        if (started) {
+                            headers.setRange(List.of(HttpRange.createByteRange(offset)));
+                        }
+                    })
+                    .exchangeToFlux(this::read)
+                    .timeout(pollTimeout)
+                    .onErrorResume(e -> {
+                        log.warn("Error polling MTA log: {}", e.getMessage());
+                        return Flux.empty();
+                    });
+        }
+
+        private Flux<LogLine> read(ClientResponse response) {
+            int status = response.statusCode().value();
+            if (status == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+                rangeHonoured();
+                // Nothing appended, unless the log was replaced by a shorter one
+                checkLength(response.headers().header(HttpHeaders.CONTENT_RANGE));
+                return response.releaseBody().thenMany(Flux.empty());
+            }
+            if (response.statusCode().isError()) {
+                return response.<LogLine>createError().flux();
+            }
+            Flux<DataBuffer> body = response.bodyToFlux(DataBuffer.class);
+            if (!started) {
+                return backlog(body);
+            }
+            if (status == HttpStatus.PARTIAL_CONTENT.value()) {
+                rangeHonoured();
+                return appended(body);
+            }
+            // The MTA ignored the range: skip what was read before, without decoding it, and
+            // don't download the whole log again until the longer interval has passed
+            fullDownloads.increment();
+            if (!rangeIgnored) {
+                log.warn("MTA answered a Range request with the whole log; polling every {} instead", noRangePollInterval);
+                rangeIgnored = true;
+            }
+            nextFullPollNanos = System.nanoTime() + noRangePollInterval.toNanos();
+            AtomicLong length = new AtomicLong();
+            Flux<DataBuffer> counted = body.doOnNext(buffer -> length.addAndGet(buffer.readableByteCount()));
+            long seen = offset;
+            return appended(DataBufferUtils.skipUntilByteCount(counted, seen))
+                    .concatWith(Mono.fromRunnable(() -> {
+                        if (length.get() < seen) {
+                            restart();
+                        }
+                    }));
+        }
+
+        private void rangeHonoured() {
+            if (rangeIgnored) {
+                log.info("MTA answers Range requests again; resuming regular polling");
+                rangeIgnored = false;
+            }
+        }
+
+        /**
+         * First poll: the last {@code replay-size} entries of the whole log, or with the index
+         * enabled every entry newer than the index.
+         */
+        private Flux<LogLine> backlog(Flux<DataBuffer> body) {
+            AtomicLong length = new AtomicLong();
+            Flux<DataBuffer> counted = body.doOnNext(buffer -> length.addAndGet(buffer.readableByteCount()));
+            Flux<LogLine> entries = logService.entries(logService.decode(counted));
+            if (index.isEnabled()) {
+                long indexed = index.lastTimestamp();
+                entries = entries.filter(line -> line.timestamp() > indexed);
+            } else {
+                entries = entries.takeLast(replaySize);
+            }
+            return entries
+                    .doOnComplete(() -> {
+                        offset = length.get();
+                        started = true;
+                    });
+        }
+
+        /**
+         * Complete lines among the bytes following {@code offset}, at most
+         * {@code max-poll-bytes} per poll; the rest is read by the following polls.
+         */
+        private Flux<LogLine> appended(Flux<DataBuffer> bytes) {
+            return DataBufferUtils.join(DataBufferUtils.takeUntilByteCount(bytes, maxPollBytes))
+                    .flatMapMany(joined -> {
+                        byte[] data = new byte[joined.readableByteCount()];
+                        joined.read(data);
+                        DataBufferUtils.release(joined);
+
+                        int end = data.length;
+                        while (end > 0 && data[end - 1] != '\n') {
+                            end--;
+                        }
+                        if (end == 0 && data.length >= maxPollBytes) {
+                            // A single line longer than a poll: take it as it is
+                            end = data.length;
+                        }
+                        // A line still being written is left for the next poll
+                        offset += end;
+                        String text = new String(data, 0, end, StandardCharsets.UTF_8);
+                        return logService.entries(Flux.fromStream(text.lines()));
+                    });
+        }
+
+        /**
+         * Check the complete length from a {@code Content-Range: bytes *}{@code /<length>} header.
+         */
+        private void checkLength(List<String> contentRange) {
+            if (contentRange.isEmpty()) {
+                return;
+            }
+            String value = contentRange.get(0);
+            int slash = value.lastIndexOf('/');
+            try {
+                if (slash >= 0 && Long.parseLong(value.substring(slash + 1).trim()) < offset) {
+                    restart();
+                }
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring Content-Range {}", value);
+            }
+        }
+
+        /**
+         * The log shrank (rotated or truncated): start over from its current tail.
+         */
+        private void restart() {
+            log.info("MTA log shrank below offset {}; restarting tail", offset);
+            offset = 0;
+            started = false;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.exception.InvalidRequestException;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Robin MTA nodes that configuration is distributed to ({@code robin.nodes}).
+ * <p>
+ * With no endpoints configured the gateway keeps the single-node behaviour: it writes the
+ * shared configuration volume and reloads {@code robin.service-url}.
+ *
+ * @author Robin Gateway Team
+ */
+@Data
+@ConfigurationProperties(prefix = "robin.nodes")
+public class RobinNodesProperties {
+
+    public enum Mode {
+        /**
+         * Push to and reload every node at once, bounded by {@code max-concurrency}.
+         */
+        PARALLEL,
+        /**
+         * Reload {@code wave-size} nodes at a time and stop if a wave does not come back healthy.
+         */
+        ROLLING;
+
+        public static Mode from(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRequestException("Unsupported distribution mode: " + value);
+            }
+        }
+    }
+
+    private List<Node> endpoints = new ArrayList<>();
+
+    /**
+     * Mode used for the reloads that follow configuration writes.
+     */
+    private Mode mode = Mode.PARALLEL;
+
+    /**
+     * Nodes pushed to at the same time.
+     */
+    private int maxConcurrency = 16;
+
+    /**
+     * Time allowed per node for pushing the sections, reloading and reading them back.
+     */
+    private Duration timeout = Duration.ofSeconds(15);
+
+    /**
+     * Nodes per wave in rolling mode.
+     */
+    private int waveSize = 2;
+
+    /**
+     * Health endpoint polled on each node after a rolling-mode reload.
+     */
+    private String healthPath = "/health";
+
+    /**
+     * How long a node may take to report healthy after a rolling-mode reload.
+     */
+    private Duration healthTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Interval between health polls.
+     */
+    private Duration healthInterval = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return !endpoints.isEmpty();
+    }
+
+    @Data
+    public static class Node {
+
+        private String name;
+
+        /**
+         * Base URL of the node's service API, e.g. {@code http://robin-1:8080}.
+         */
+        private String url;
+    }
+}
@@ -0,0 +1,169 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.datasource.DatabaseCalls;
+import com.robin.gateway.exception.GatewayException;
+import com.robin.gateway.model.dto.SearchResponse;
+import com.robin.gateway.model.dto.SearchResponse.SearchHit;
+import com.robin.gateway.util.TtlCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Typeahead search across users, domains and aliases.
+ * <p>
+ * Substring matching is served by the {@code pg_trgm} GIN indexes created in
+ * {@code V4__add_trigram_search_indexes.sql}. Trigram indexes cannot narrow down
+ * one or two character terms, so those match as a prefix instead, served by the
+ * btree indexes of {@code V8__add_prefix_search_indexes.sql}. Short prefixes (the
+ * first keystrokes of every typeahead) are also answered from a small in-memory
+ * cache instead of hitting the shared MTA database on each keystroke.
+ */
+@Service
+@Slf4j
+public class SearchService {
+
+    static final int MAX_LIMIT = 50;
+
+    /**
+     * Shortest term matched as a substring; shorter terms have no trigram to look up.
+     */
+    static final int MIN_SUBSTRING_LENGTH = 3;
+
+    private static final String USERS_SQL =
+            "SELECT id, username, NULL AS detail FROM users WHERE username ILIKE ? ESCAPE '\\' " +
+            "ORDER BY similarity(username, ?) DESC, username LIMIT ?";
+
+    private static final String DOMAINS_SQL =
+            "SELECT id, domain, NULL AS detail FROM domains WHERE domain ILIKE ? ESCAPE '\\' " +
+            "ORDER BY similarity(domain, ?) DESC, domain LIMIT ?";
+
+    private static final String ALIASES_SQL =
+            "SELECT id, source, destination AS detail FROM aliases " +
+            "WHERE source ILIKE ? ESCAPE '\\' OR destination ILIKE ? ESCAPE '\\' " +
+            "ORDER BY GREATEST(similarity(source, ?), similarity(destination, ?)) DESC, source LIMIT ?";
+
+    // Backslash is LIKE's default escape, so these stay plain prefix patterns for the btree indexes
+    private static final String USERS_PREFIX_SQL =
+            "SELECT id, username, NULL AS detail FROM users WHERE lower(username) LIKE ? " +
+            "ORDER BY lower(username) LIMIT ?";
+
+    private static final String DOMAINS_PREFIX_SQL =
+            "SELECT id, domain, NULL AS detail FROM domains WHERE lower(domain) LIKE ? " +
+            "ORDER BY lower(domain) LIMIT ?";
+
+    private static final String ALIASES_PREFIX_SQL =
+            "SELECT id, source, destination AS detail FROM aliases " +
+            "WHERE lower(source) LIKE ? OR lower(destination) LIKE ? " +
+            "ORDER BY lower(source) LIMIT ?";
+
+    private static final RowMapper<SearchHit> HIT_MAPPER = (rs, rowNum) -> SearchHit.builder()
+            .id(rs.getLong(1))
+            .value(rs.getString(2))
+            .detail(rs.getString(3))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseCalls databaseCalls;
+    private final int prefixCacheMaxLength;
+    private final TtlCache<String, SearchResponse> prefixCache;
+
+    public SearchService(
+            JdbcTemplate jdbcTemplate,
+            DatabaseCalls databaseCalls,
+            @Value("${robin.search.prefix-cache.max-length:2}") int prefixCacheMaxLength,
+            @Value("${robin.search.prefix-cache.max-entries:1024}") int prefixCacheMaxEntries,
+            @Value("${robin.search.prefix-cache.ttl:30s}") Duration prefixCacheTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseCalls = databaseCalls;
+        this.prefixCacheMaxLength = prefixCacheMaxLength;
+        this.prefixCache = new TtlCache<>(prefixCacheMaxEntries, prefixCacheTtl);
+    }
+
+    /**
+     * Search users, domains and aliases containing the given term.
+     *
+     * @param query the search term
+     * @param limit maximum hits per entity type (capped at {@value #MAX_LIMIT})
+     * @return grouped search hits
+     */
+    public Mono<SearchResponse> search(String query, int limit) {
+        String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        if (term.isEmpty()) {
+            return Mono.just(emptyResponse(term));
+        }
+
+        Mono<SearchResponse> search = databaseCalls.read(() -> runSearch(term, cappedLimit))
+                .doOnError(GatewayException::isUnexpected, e -> log.error("Error searching for: {}", term, e));
+
+        if (term.length() <= prefixCacheMaxLength) {
+            String cacheKey = term + '\u0000' + cappedLimit;
+            SearchResponse cached = prefixCache.get(cacheKey);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return search.doOnNext(response -> prefixCache.put(cacheKey, response));
+        }
+        return search;
+    }
+
+    private SearchResponse runSearch(String term, int limit) {
+        List<SearchHit> users;
+        List<SearchHit> domains;
+        List<SearchHit> aliases;
+        if (term.length() < MIN_SUBSTRING_LENGTH) {
+            String pattern = escapeLike(term) + "%";
+            users = jdbcTemplate.query(USERS_PREFIX_SQL, HIT_MAPPER, pattern, limit);
+            domains = jdbcTemplate.query(DOMAINS_PREFIX_SQL, HIT_MAPPER, pattern, limit);
+            aliases = jdbcTemplate.query(ALIASES_PREFIX_SQL, HIT_MAPPER, pattern, pattern, limit);
+        } else {
+            String pattern = "%" + escapeLike(term) + "%";
+            users = jdbcTemplate.query(USERS_SQL, HIT_MAPPER, pattern, term, limit);
+            domains = jdbcTemplate.query(DOMAINS_SQL, HIT_MAPPER, pattern, term, limit);
+            aliases = jdbcTemplate.query(ALIASES_SQL, HIT_MAPPER, pattern, pattern, term, term, limit);
+        }
+
+        log.debug("Search '{}' matched {} users, {} domains, {} aliases",
+                term, users.size(), domains.size(), aliases.size());
+
+        return SearchResponse.builder()
+                .query(term)
+                .users(users)
+                .domains(domains)
+                .aliases(aliases)
+                .build();
+    }
+
+    private SearchResponse emptyResponse(String term) {
+        return SearchResponse.builder()
+                .query(term)
+                .users(List.of())
+                .domains(List.of())
+                .aliases(List.of())
+                .build();
+    }
+
+    /**
+     * Escape LIKE wildcards so user input is matched literally.
+     */
+    static String escapeLike(String term) {
+        StringBuilder escaped = new StringBuilder(term.length() + 4);
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
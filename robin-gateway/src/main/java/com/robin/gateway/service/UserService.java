@@ -1,13 +1,17 @@
 package com.robin.gateway.service;
 
+import com.robin.gateway.datasource.DatabaseCalls;
+import com.robin.gateway.datasource.WorkloadClass;
+import com.robin.gateway.exception.InvalidRequestException;
+import com.robin.gateway.exception.NotFoundException;
 import com.robin.gateway.model.User;
+import com.robin.gateway.repository.ReadPathRepository;
 import com.robin.gateway.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @Service
 @RequiredArgsConstructor
@@ -16,23 +20,22 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordSyncService passwordSyncService;
+    private final ReadPathRepository readPathRepository;
+    private final DatabaseCalls databaseCalls;
 
     public Flux<User> getAllUsers() {
-        return Mono.fromCallable(userRepository::findAll)
-                .subscribeOn(Schedulers.boundedElastic())
+        return databaseCalls.read(userRepository::findAll)
                 .flatMapMany(Flux::fromIterable);
     }
 
     public Mono<User> getUser(String username) {
-        return Mono.fromCallable(() -> userRepository.findByUsername(username))
-                .subscribeOn(Schedulers.boundedElastic())
-                .flatMap(opt -> opt.map(Mono::just).orElseGet(Mono::empty));
+        return readPathRepository.findUserByUsername(username);
     }
 
     public Mono<User> createUser(User user) {
-        return Mono.fromCallable(() -> {
+        return databaseCalls.call(WorkloadClass.ADMIN_WRITE, () -> {
             if (userRepository.existsByUsername(user.getUsername())) {
-                throw new IllegalArgumentException("Username already exists");
+                throw new InvalidRequestException("Username already exists: " + user.getUsername());
             }
 
             // Extract plain password before saving
@@ -49,13 +52,13 @@ public class UserService {
             // Reload user with updated password hashes
             return userRepository.findById(savedUser.getId())
                     .orElseThrow(() -> new IllegalStateException("User not found after creation"));
-        }).subscribeOn(Schedulers.boundedElastic());
+        });
     }
 
     public Mono<User> updateUser(String username, User updated) {
-        return Mono.fromCallable(() -> {
+        return databaseCalls.call(WorkloadClass.ADMIN_WRITE, () -> {
             User existing = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
+                    .orElseThrow(() -> new NotFoundException("User", username));
 
             // Update password using PasswordSyncService for dual-hash strategy
             if (updated.getPasswordHash() != null && !updated.getPasswordHash().isEmpty()) {
@@ -80,14 +83,15 @@ public class UserService {
             }
 
             return userRepository.save(existing);
-        }).subscribeOn(Schedulers.boundedElastic());
+        });
     }
 
     public Mono<Void> deleteUser(String username) {
-        return Mono.fromRunnable(() -> {
+        return databaseCalls.call(WorkloadClass.ADMIN_WRITE, () -> {
             User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
+                    .orElseThrow(() -> new NotFoundException("User", username));
             userRepository.delete(user);
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+            return null;
+        }).then();
     }
 }
@@ -0,0 +1,95 @@
+package com.robin.gateway.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Content-hash entity tags and conditional request matching (RFC 9110, section 13.1).
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Strong entity tag for the given content: quoted, unpadded base64url SHA-256.
+     */
+    public static String of(byte[] content) {
+        return tag(sha256().digest(content));
+    }
+
+    /**
+     * Entity tag of a stream's content, equal to {@link #of(byte[])} of the same bytes but read
+     * in chunks, so large files are hashed without loading them. The stream is not closed.
+     */
+    public static String of(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[65536];
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return tag(digest.digest());
+    }
+
+    /**
+     * Evaluate {@code If-None-Match}: weak comparison, {@code *} matches any existing resource.
+     *
+     * @param header header value, may be null
+     * @param etag   current entity tag, null if the resource does not exist
+     * @return true if the client's copy is current (respond 304)
+     */
+    public static boolean noneMatchFails(String header, String etag) {
+        return header != null && etag != null && anyMatches(header, etag, true);
+    }
+
+    /**
+     * Evaluate {@code If-Match}: strong comparison, {@code *} requires an existing resource.
+     *
+     * @param header header value, may be null (no precondition)
+     * @param etag   current entity tag, null if the resource does not exist
+     * @return true if the precondition holds
+     */
+    public static boolean matchSucceeds(String header, String etag) {
+        return header == null || (etag != null && anyMatches(header, etag, false));
+    }
+
+    private static boolean anyMatches(String header, String etag, boolean weak) {
+        String current = weak ? opaque(etag) : etag;
+        for (String candidate : header.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            if (weak) {
+                candidate = opaque(candidate);
+            } else if (candidate.startsWith("W/")) {
+                // Weak tags never match strongly
+                continue;
+            }
+            if (candidate.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String tag(byte[] digest) {
+        return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + '"';
+    }
+}
@@ -0,0 +1,109 @@
+package com.robin.gateway.util;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Incremental gzip encoder for streamed responses.
+ * <p>
+ * Input is compressed chunk by chunk and whatever compressed output the deflater has
+ * produced so far is handed back immediately, so memory stays bounded by the deflater
+ * window rather than by the size of the payload. Instances are not thread-safe.
+ */
+public class GzipChunkEncoder implements AutoCloseable {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final ByteArrayOutputStream sink = new ByteArrayOutputStream(8192);
+    private final GZIPOutputStream gzip;
+    private boolean finished;
+
+    public GzipChunkEncoder() {
+        try {
+            this.gzip = new GZIPOutputStream(sink, 8192);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compress a chunk.
+     *
+     * @return compressed bytes available so far, possibly empty
+     */
+    public byte[] encode(byte[] data, int offset, int length) {
+        try {
+            gzip.write(data, offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return drain();
+    }
+
+    public byte[] encode(byte[] data) {
+        return encode(data, 0, data.length);
+    }
+
+    /**
+     * Flush the remaining compressed data and the gzip trailer.
+     */
+    public byte[] finish() {
+        if (finished) {
+            return EMPTY;
+        }
+        finished = true;
+        try {
+            gzip.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return drain();
+    }
+
+    @Override
+    public void close() {
+        try {
+            gzip.close();
+        } catch (IOException ignored) {
+            // Nothing to release beyond the deflater, which close() has already ended
+        }
+    }
+
+    private byte[] drain() {
+        if (sink.size() == 0) {
+            return EMPTY;
+        }
+        byte[] out = sink.toByteArray();
+        sink.reset();
+        return out;
+    }
+
+    /**
+     * Gzip a stream of buffers on the fly, releasing each input buffer once consumed.
+     *
+     * @param source        uncompressed buffers
+     * @param bufferFactory factory for the compressed output buffers
+     * @return compressed buffers, ending with the gzip trailer
+     */
+    public static Flux<DataBuffer> gzip(Flux<DataBuffer> source, DataBufferFactory bufferFactory) {
+        return Flux.using(GzipChunkEncoder::new,
+                encoder -> source
+                        .concatMap(buffer -> {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            DataBufferUtils.release(buffer);
+                            byte[] compressed = encoder.encode(bytes);
+                            return compressed.length == 0 ? Mono.<DataBuffer>empty() : Mono.just(bufferFactory.wrap(compressed));
+                        })
+                        .concatWith(Mono.fromCallable(() -> bufferFactory.wrap(encoder.finish()))),
+                GzipChunkEncoder::close);
+    }
+}
@@ -0,0 +1,292 @@
+package com.robin.gateway.util;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.robin.gateway.exception.InvalidRequestException;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * JSON Merge Patch (RFC 7396) and JSON Patch (RFC 6902) over Jackson trees.
+ * <p>
+ * Patches are applied copy-on-write: the input tree is never modified, only the containers
+ * on the path to a change are copied and everything else is shared with the input. A patch
+ * that changes nothing returns the input instance itself, so callers can detect no-ops
+ * with an identity check. This makes patching a large cached configuration tree cost
+ * roughly the depth of the change rather than the size of the tree.
+ */
+public final class JsonPatches {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private JsonPatches() {
+    }
+
+    /**
+     * Apply an RFC 7396 merge patch.
+     *
+     * @param target current document, not modified
+     * @param patch  merge patch
+     * @return the patched document, or {@code target} itself if nothing changed
+     */
+    public static JsonNode mergePatch(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch.equals(target) ? target : patch;
+        }
+        ObjectNode source = target != null && target.isObject() ? (ObjectNode) target : null;
+        ObjectNode result = null;
+
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String name = field.getKey();
+            JsonNode current = source == null ? null : source.get(name);
+            if (field.getValue().isNull()) {
+                if (current != null) {
+                    result = result != null ? result : copy(source);
+                    result.remove(name);
+                }
+                continue;
+            }
+            JsonNode merged = mergePatch(current, field.getValue());
+            if (merged != current) {
+                result = result != null ? result : copy(source);
+                result.set(name, merged);
+            }
+        }
+
+        if (result != null) {
+            return result;
+        }
+        // Non-object target with a (no-op) object patch still becomes an object
+        return source != null ? source : NODES.objectNode();
+    }
+
+    /**
+     * Apply an RFC 6902 JSON Patch. The patch is atomic: if any operation fails, an
+     * exception is thrown and the target is left as it was.
+     *
+     * @param target     current document, not modified
+     * @param operations array of patch operations
+     * @return the patched document, or {@code target} itself if nothing changed
+     * @throws InvalidRequestException if the patch is malformed, a path does not exist or a
+     *                                 {@code test} operation fails
+     */
+    public static JsonNode jsonPatch(JsonNode target, JsonNode operations) {
+        if (!operations.isArray()) {
+            throw new InvalidRequestException("JSON Patch must be an array of operations");
+        }
+        JsonNode document = target;
+        for (int i = 0; i < operations.size(); i++) {
+            JsonNode operation = operations.get(i);
+            String op = text(operation, "op", i);
+            JsonPointer path = pointer(text(operation, "path", i), i);
+            switch (op) {
+                case "add" -> document = add(document, path, value(operation, i), i);
+                case "remove" -> document = remove(document, path, i);
+                case "replace" -> document = path.matches()
+                        ? value(operation, i)
+                        : add(remove(document, path, i), path, value(operation, i), i);
+                case "move" -> {
+                    JsonPointer from = pointer(text(operation, "from", i), i);
+                    if (path.toString().startsWith(from.toString() + "/")) {
+                        throw invalid(i, "cannot move a value into one of its children");
+                    }
+                    JsonNode value = get(document, from, i);
+                    document = add(remove(document, from, i), path, value, i);
+                }
+                case "copy" -> document = add(document, path,
+                        get(document, pointer(text(operation, "from", i), i), i), i);
+                case "test" -> {
+                    if (!get(document, path, i).equals(value(operation, i))) {
+                        throw invalid(i, "test failed at " + path);
+                    }
+                }
+                default -> throw invalid(i, "unknown op '" + op + "'");
+            }
+        }
+        return target != null && target.equals(document) ? target : document;
+    }
+
+    /**
+     * Compute an RFC 6902 patch that turns {@code source} into {@code target}. Objects are
+     * compared member by member; arrays and scalars that differ are replaced as a whole.
+     *
+     * @return the operations, empty if the documents are equal
+     */
+    public static ArrayNode diff(JsonNode source, JsonNode target) {
+        ArrayNode operations = NODES.arrayNode();
+        diff(source, target, "", operations);
+        return operations;
+    }
+
+    private static void diff(JsonNode source, JsonNode target, String path, ArrayNode operations) {
+        if (source.equals(target)) {
+            return;
+        }
+        if (!source.isObject() || !target.isObject()) {
+            operations.addObject().put("op", "replace").put("path", path).set("value", target);
+            return;
+        }
+        Iterator<String> names = source.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            if (!target.has(name)) {
+                operations.addObject().put("op", "remove").put("path", path + "/" + escape(name));
+            }
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = target.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String child = path + "/" + escape(field.getKey());
+            JsonNode current = source.get(field.getKey());
+            if (current == null) {
+                operations.addObject().put("op", "add").put("path", child).set("value", field.getValue());
+            } else {
+                diff(current, field.getValue(), child, operations);
+            }
+        }
+    }
+
+    private static String escape(String name) {
+        return name.replace("~", "~0").replace("/", "~1");
+    }
+
+    /**
+     * Resolve an RFC 6901 pointer.
+     *
+     * @return the node, or null if the pointer does not resolve
+     */
+    public static JsonNode at(JsonNode document, String pointer) {
+        JsonNode node = document.at(JsonPointer.compile(pointer));
+        return node.isMissingNode() ? null : node;
+    }
+
+    private static JsonNode get(JsonNode document, JsonPointer path, int index) {
+        JsonNode node = document.at(path);
+        if (node.isMissingNode()) {
+            throw invalid(index, "path " + path + " does not exist");
+        }
+        return node;
+    }
+
+    private static JsonNode add(JsonNode node, JsonPointer path, JsonNode value, int index) {
+        if (path.matches()) {
+            return value;
+        }
+        String token = path.getMatchingProperty();
+        JsonPointer rest = path.tail();
+        boolean last = rest.matches();
+
+        if (node instanceof ObjectNode object) {
+            if (last) {
+                return copy(object).set(token, value);
+            }
+            JsonNode child = object.get(token);
+            if (child == null) {
+                throw invalid(index, "parent of " + path + " does not exist");
+            }
+            return copy(object).set(token, add(child, rest, value, index));
+        }
+        if (node instanceof ArrayNode array) {
+            if (last) {
+                int position = "-".equals(token) ? array.size() : arrayIndex(token, array.size() + 1, index);
+                return copy(array).insert(position, value);
+            }
+            int position = arrayIndex(token, array.size(), index);
+            ArrayNode copy = copy(array);
+            copy.set(position, add(array.get(position), rest, value, index));
+            return copy;
+        }
+        throw invalid(index, "cannot add below a scalar at " + path);
+    }
+
+    private static JsonNode remove(JsonNode node, JsonPointer path, int index) {
+        if (path.matches()) {
+            throw invalid(index, "cannot remove the whole document");
+        }
+        String token = path.getMatchingProperty();
+        JsonPointer rest = path.tail();
+        boolean last = rest.matches();
+
+        if (node instanceof ObjectNode object && object.has(token)) {
+            ObjectNode copy = copy(object);
+            if (last) {
+                copy.remove(token);
+            } else {
+                copy.set(token, remove(object.get(token), rest, index));
+            }
+            return copy;
+        }
+        if (node instanceof ArrayNode array) {
+            int position = arrayIndex(token, array.size(), index);
+            ArrayNode copy = copy(array);
+            if (last) {
+                copy.remove(position);
+            } else {
+                copy.set(position, remove(array.get(position), rest, index));
+            }
+            return copy;
+        }
+        throw invalid(index, "path " + path + " does not exist");
+    }
+
+    private static int arrayIndex(String token, int limit, int index) {
+        // RFC 6902: decimal without leading zeros
+        if (token.isEmpty() || token.length() > 9 || (token.length() > 1 && token.charAt(0) == '0')
+                || !token.chars().allMatch(Character::isDigit)) {
+            throw invalid(index, "invalid array index '" + token + "'");
+        }
+        int position = Integer.parseInt(token);
+        if (position >= limit) {
+            throw invalid(index, "array index " + position + " out of bounds");
+        }
+        return position;
+    }
+
+    private static ObjectNode copy(ObjectNode object) {
+        ObjectNode copy = NODES.objectNode();
+        if (object != null) {
+            copy.setAll(object);
+        }
+        return copy;
+    }
+
+    private static ArrayNode copy(ArrayNode array) {
+        ArrayNode copy = NODES.arrayNode(array.size() + 1);
+        copy.addAll(array);
+        return copy;
+    }
+
+    private static String text(JsonNode operation, String field, int index) {
+        JsonNode value = operation.get(field);
+        if (value == null || !value.isTextual()) {
+            throw invalid(index, "missing '" + field + "'");
+        }
+        return value.asText();
+    }
+
+    private static JsonNode value(JsonNode operation, int index) {
+        JsonNode value = operation.get("value");
+        if (value == null) {
+            throw invalid(index, "missing 'value'");
+        }
+        return value;
+    }
+
+    private static JsonPointer pointer(String path, int index) {
+        try {
+            return JsonPointer.compile(path);
+        } catch (IllegalArgumentException e) {
+            throw invalid(index, "invalid pointer '" + path + "'");
+        }
+    }
+
+    private static InvalidRequestException invalid(int index, String reason) {
+        return new InvalidRequestException("JSON Patch operation " + index + ": " + reason);
+    }
+}
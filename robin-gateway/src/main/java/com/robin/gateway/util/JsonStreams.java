@@ -0,0 +1,162 @@
+package com.robin.gateway.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Token-level reading of JSON documents, for sections too large to materialize as a tree.
+ * <p>
+ * {@link #readAt} skips over everything outside the requested subtree without building it,
+ * and {@link #copy} re-encodes a document as strict JSON chunk by chunk. Either way memory
+ * use is bounded by the subtree or the chunk size rather than the document.
+ */
+@Slf4j
+public final class JsonStreams {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private JsonStreams() {
+    }
+
+    /**
+     * Advance a fresh parser to the value at an RFC 6901 pointer.
+     *
+     * @return true if found; the parser is then on the first token of the value
+     */
+    public static boolean seek(JsonParser parser, JsonPointer pointer) throws IOException {
+        JsonToken token = parser.nextToken();
+        JsonPointer path = pointer;
+        while (token != null && !path.matches()) {
+            if (token == JsonToken.START_OBJECT) {
+                String property = path.getMatchingProperty();
+                token = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (name.equals(property)) {
+                        token = value;
+                        break;
+                    }
+                    parser.skipChildren();
+                }
+            } else if (token == JsonToken.START_ARRAY) {
+                int index = path.getMatchingIndex();
+                token = null;
+                int i = 0;
+                JsonToken value;
+                while (index >= 0 && (value = parser.nextToken()) != JsonToken.END_ARRAY && value != null) {
+                    if (i++ == index) {
+                        token = value;
+                        break;
+                    }
+                    parser.skipChildren();
+                }
+            } else {
+                return false;
+            }
+            path = path.tail();
+        }
+        return token != null;
+    }
+
+    /**
+     * Read only the subtree at a pointer. The parser must have a codec (be created by an
+     * {@code ObjectMapper}).
+     *
+     * @return the subtree, or null if the pointer does not resolve
+     */
+    public static JsonNode readAt(JsonParser parser, JsonPointer pointer) throws IOException {
+        return seek(parser, pointer) ? parser.readValueAsTree() : null;
+    }
+
+    /**
+     * Stream a document as strict JSON in chunks of roughly {@code chunkBytes}. The parser is
+     * opened on subscription, read on demand on a worker thread and closed on completion,
+     * error or cancellation.
+     *
+     * @param open          opens the parser, e.g. on a JSON5 file
+     * @param bufferFactory factory for the emitted buffers
+     * @param chunkBytes    target chunk size
+     */
+    public static Flux<DataBuffer> copy(Callable<JsonParser> open, DataBufferFactory bufferFactory, int chunkBytes) {
+        return Flux.<DataBuffer, Copy>generate(
+                        () -> new Copy(open.call()),
+                        (copy, sink) -> {
+                            try {
+                                byte[] chunk = copy.nextChunk(chunkBytes);
+                                if (chunk == null) {
+                                    sink.complete();
+                                } else {
+                                    sink.next(bufferFactory.wrap(chunk));
+                                }
+                            } catch (IOException e) {
+                                sink.error(e);
+                            }
+                            return copy;
+                        },
+                        Copy::close)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Parser plus re-encoding state for one {@link #copy}.
+     */
+    private static final class Copy {
+
+        private final JsonParser parser;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        private final JsonGenerator generator;
+
+        Copy(JsonParser parser) throws IOException {
+            this.parser = parser;
+            this.generator = JSON_FACTORY.createGenerator(buffer);
+        }
+
+        /**
+         * @return the next chunk, or null at the end of the document
+         */
+        byte[] nextChunk(int chunkBytes) throws IOException {
+            JsonToken token = null;
+            // The generator keeps up to 8 KB of its own before writing through to the buffer
+            while (buffer.size() + generator.getOutputBuffered() < chunkBytes
+                    && (token = parser.nextToken()) != null) {
+                // Exact: keeps big decimals as written instead of going through double
+                generator.copyCurrentEventExact(parser);
+            }
+            generator.flush();
+            if (buffer.size() == 0 && token == null) {
+                return null;
+            }
+            byte[] chunk = buffer.toByteArray();
+            buffer.reset();
+            return chunk;
+        }
+
+        void close() {
+            try {
+                generator.close();
+            } catch (IOException e) {
+                log.warn("Error closing JSON stream: {}", e.getMessage());
+            } finally {
+                try {
+                    parser.close();
+                } catch (IOException e) {
+                    log.warn("Error closing JSON stream: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,526 @@
+package com.robin.gateway.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-pass parser for Robin MTA log lines.
+ * <p>
+ * Recognizes the layouts produced by Robin's Log4j patterns:
+ * <pre>
+ * 2024-01-15 10:30:00.123 INFO  [smtp-1] SmtpListener - Connection from 10.0.0.1
+ * 20240115 10:30:00.123 [smtp-1] ERROR Session: Relay failed
+ * 2024-01-15T10:30:00,123Z WARN Queue - Retry scheduled
+ * </pre>
+ * i.e. a timestamp, then an optional {@code [thread]} on either side of the level, then an
+ * optional logger terminated by {@code ":"} or {@code " - "}, then the message. The line is
+ * walked once with index arithmetic, no regular expressions and no intermediate strings: a
+ * {@link LogLine} keeps the line plus offsets, and the thread, logger and message are only
+ * cut out when asked for. Lines that do not start with a timestamp and a level (stack
+ * frames, wrapped messages, foreign output) are reported as unrecognized so callers can
+ * attach them to the previous entry.
+ * <p>
+ * Timestamps without an offset are read in the configured zone. Instances are thread-safe.
+ */
+public final class LogLineParser {
+
+    public enum Level {
+        TRACE,
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR;
+
+        /**
+         * Level named by {@code line[from, to)}, accepting the {@code WARNING} and {@code FATAL}
+         * spellings.
+         *
+         * @return the level or null
+         */
+        static Level of(String line, int from, int to) {
+            switch (to - from) {
+                case 4:
+                    if (line.startsWith("INFO", from)) {
+                        return INFO;
+                    }
+                    return line.startsWith("WARN", from) ? WARN : null;
+                case 5:
+                    if (line.startsWith("ERROR", from)) {
+                        return ERROR;
+                    }
+                    if (line.startsWith("DEBUG", from)) {
+                        return DEBUG;
+                    }
+                    if (line.startsWith("TRACE", from)) {
+                        return TRACE;
+                    }
+                    return line.startsWith("FATAL", from) ? ERROR : null;
+                case 7:
+                    return line.startsWith("WARNING", from) ? WARN : null;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * A parsed log entry. Components are offsets into {@code text}; -1 marks an absent thread
+     * or logger.
+     *
+     * @param text       the original line
+     * @param timestamp  epoch milliseconds
+     * @param level      the level
+     * @param stackTrace continuation lines that followed the entry, or null
+     */
+    public record LogLine(String text, long timestamp, Level level,
+                          int threadStart, int threadEnd, int loggerStart, int loggerEnd, int messageStart,
+                          String stackTrace) {
+
+        public String thread() {
+            return threadStart < 0 ? null : text.substring(threadStart, threadEnd);
+        }
+
+        public String logger() {
+            return loggerStart < 0 ? null : text.substring(loggerStart, loggerEnd);
+        }
+
+        public String message() {
+            return text.substring(messageStart);
+        }
+
+        public Instant instant() {
+            return Instant.ofEpochMilli(timestamp);
+        }
+
+        public LogLine withStackTrace(String stackTrace) {
+            return new LogLine(text, timestamp, level, threadStart, threadEnd, loggerStart, loggerEnd,
+                    messageStart, stackTrace);
+        }
+    }
+
+    /**
+     * Offset in effect for one local hour, cached so that consecutive lines skip the zone rules.
+     */
+    private record HourOffset(long localHour, int offsetSeconds) {
+    }
+
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+    private static final int LEVEL_SCAN_CHARS = 80;
+
+    private final ZoneRules rules;
+    private final int fixedOffsetSeconds;
+    private volatile HourOffset hourOffset = new HourOffset(Long.MIN_VALUE, 0);
+
+    private final LongAdder parsed = new LongAdder();
+    private final LongAdder unrecognized = new LongAdder();
+
+    public LogLineParser(ZoneId zone) {
+        this.rules = zone.getRules();
+        this.fixedOffsetSeconds = rules.isFixedOffset()
+                ? rules.getOffset(Instant.EPOCH).getTotalSeconds()
+                : Integer.MIN_VALUE;
+    }
+
+    /**
+     * Parse one line.
+     *
+     * @return the entry, or null if the line is not the start of an entry
+     */
+    public LogLine parse(String line) {
+        LogLine result = doParse(line);
+        (result != null ? parsed : unrecognized).increment();
+        return result;
+    }
+
+    /**
+     * Parse one line of a log written by another program, e.g. Dovecot, ClamAV or Rspamd.
+     * <p>
+     * Lines in the Robin layouts are parsed as by {@link #parse}. Otherwise a line starts an
+     * entry if it starts with a timestamp: one of the layouts above, syslog's
+     * {@code MMM dd HH:mm:ss} (in the current year) or ctime's {@code EEE MMM dd HH:mm:ss yyyy}.
+     * Its level is taken from an {@code Info:}, {@code Warning:}, {@code Error:} style token in
+     * the first words of the message, in any case, and is INFO without one. Such entries have no
+     * thread or logger.
+     *
+     * @return the entry, or null if the line is not the start of an entry
+     */
+    public LogLine parseLoose(String line) {
+        LogLine result = doParse(line);
+        if (result == null) {
+            result = doParseLoose(line);
+        }
+        (result != null ? parsed : unrecognized).increment();
+        return result;
+    }
+
+    /**
+     * Entry for a line that has no previous entry to attach to: the whole line is the message.
+     *
+     * @param line      the line
+     * @param timestamp epoch milliseconds to report for it
+     */
+    public static LogLine fallback(String line, long timestamp) {
+        return new LogLine(line, timestamp, Level.INFO, -1, -1, -1, -1, 0, null);
+    }
+
+    /**
+     * Lines parsed into entries so far.
+     */
+    public long parsedCount() {
+        return parsed.sum();
+    }
+
+    /**
+     * Lines that were not the start of an entry so far.
+     */
+    public long unrecognizedCount() {
+        return unrecognized.sum();
+    }
+
+    private LogLine doParse(String line) {
+        int n = line.length();
+        int i = timestampEnd(line);
+        if (i < 0) {
+            return null;
+        }
+        long timestamp = epochMillis(line, i);
+        if (timestamp == Long.MIN_VALUE) {
+            return null;
+        }
+
+        int threadStart = -1;
+        int threadEnd = -1;
+        i = skipSpaces(line, i);
+        if (i < n && line.charAt(i) == '[') {
+            threadEnd = line.indexOf(']', i + 1);
+            if (threadEnd < 0) {
+                return null;
+            }
+            threadStart = i + 1;
+            i = skipSpaces(line, threadEnd + 1);
+        }
+
+        int levelEnd = i;
+        while (levelEnd < n && line.charAt(levelEnd) >= 'A' && line.charAt(levelEnd) <= 'Z') {
+            levelEnd++;
+        }
+        Level level = Level.of(line, i, levelEnd);
+        if (level == null || (levelEnd < n && line.charAt(levelEnd) != ' ')) {
+            return null;
+        }
+        i = skipSpaces(line, levelEnd);
+
+        if (threadStart < 0 && i < n && line.charAt(i) == '[') {
+            int close = line.indexOf(']', i + 1);
+            if (close > 0) {
+                threadStart = i + 1;
+                threadEnd = close;
+                i = skipSpaces(line, close + 1);
+            }
+        }
+
+        int loggerStart = -1;
+        int loggerEnd = -1;
+        int messageStart = i;
+        int tokenEnd = line.indexOf(' ', i);
+        if (tokenEnd < 0) {
+            tokenEnd = n;
+        }
+        if (tokenEnd > i + 1 && line.charAt(tokenEnd - 1) == ':') {
+            loggerStart = i;
+            loggerEnd = tokenEnd - 1;
+            messageStart = skipSpaces(line, tokenEnd);
+        } else if (tokenEnd > i && line.startsWith(" - ", tokenEnd)) {
+            loggerStart = i;
+            loggerEnd = tokenEnd;
+            messageStart = tokenEnd + 3;
+        } else if (line.startsWith("- ", i)) {
+            messageStart = i + 2;
+        }
+        return new LogLine(line, timestamp, level, threadStart, threadEnd, loggerStart, loggerEnd, messageStart, null);
+    }
+
+    /**
+     * End of a leading {@code yyyy-MM-dd[ T]HH:mm:ss[.SSS][offset]} or
+     * {@code yyyyMMdd HH:mm:ss[.SSS]} timestamp, checked by shape only.
+     *
+     * @return the index after the timestamp, or -1
+     */
+    private static int timestampEnd(String line) {
+        int n = line.length();
+        int time;
+        if (n >= 19 && line.charAt(4) == '-' && line.charAt(7) == '-'
+                && (line.charAt(10) == ' ' || line.charAt(10) == 'T')) {
+            time = 11;
+        } else if (n >= 17 && line.charAt(8) == ' ' && digits(line, 0, 8) >= 0) {
+            time = 9;
+        } else {
+            return -1;
+        }
+        if (time + 8 > n || line.charAt(time + 2) != ':' || line.charAt(time + 5) != ':') {
+            return -1;
+        }
+        int i = time + 8;
+        if (i < n && (line.charAt(i) == '.' || line.charAt(i) == ',')) {
+            i++;
+            while (i < n && isDigit(line.charAt(i))) {
+                i++;
+            }
+        }
+        if (i < n && line.charAt(i) == 'Z') {
+            i++;
+        } else if (i + 5 <= n && (line.charAt(i) == '+' || line.charAt(i) == '-') && isDigit(line.charAt(i + 1))) {
+            i += line.charAt(i + 3) == ':' ? 6 : 5;
+        }
+        return i <= n ? i : -1;
+    }
+
+    /**
+     * Epoch milliseconds of the timestamp ending at {@code end}.
+     *
+     * @return the instant or {@link Long#MIN_VALUE} if a field is not a valid number
+     */
+    private long epochMillis(String line, int end) {
+        boolean dashed = line.charAt(4) == '-';
+        int year = digits(line, 0, 4);
+        int month = digits(line, dashed ? 5 : 4, 2);
+        int day = digits(line, dashed ? 8 : 6, 2);
+        int time = dashed ? 11 : 9;
+        int hour = digits(line, time, 2);
+        int minute = digits(line, time + 3, 2);
+        int second = digits(line, time + 6, 2);
+        if ((year | month | day | hour | minute | second) < 0
+                || month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 60) {
+            return Long.MIN_VALUE;
+        }
+
+        int i = time + 8;
+        int millis = 0;
+        if (i < end && (line.charAt(i) == '.' || line.charAt(i) == ',')) {
+            int scale = 100;
+            for (i++; i < end && isDigit(line.charAt(i)); i++) {
+                millis += (line.charAt(i) - '0') * scale;
+                scale /= 10;
+            }
+        }
+
+        long local = (daysFromCivil(year, month, day) * 86_400L + hour * 3600L + minute * 60L + second) * 1000L + millis;
+        if (i < end) {
+            return local - zoneOffsetMillis(line, i, end);
+        }
+        return local - offsetSeconds(local) * 1000L;
+    }
+
+    /**
+     * Milliseconds of an explicit {@code Z}, {@code +HH:MM} or {@code -HHMM} style offset.
+     */
+    private static long zoneOffsetMillis(String line, int from, int end) {
+        if (line.charAt(from) == 'Z') {
+            return 0;
+        }
+        int hours = digits(line, from + 1, 2);
+        int minutes = digits(line, end - 2, 2);
+        long millis = (Math.max(hours, 0) * 60L + Math.max(minutes, 0)) * 60_000L;
+        return line.charAt(from) == '-' ? -millis : millis;
+    }
+
+    /**
+     * Zone offset for a local time, looked up at most once per local hour.
+     */
+    private int offsetSeconds(long localMillis) {
+        if (fixedOffsetSeconds != Integer.MIN_VALUE) {
+            return fixedOffsetSeconds;
+        }
+        long localHour = Math.floorDiv(localMillis, MILLIS_PER_HOUR);
+        HourOffset cached = hourOffset;
+        if (cached.localHour() != localHour) {
+            // Offsets only change on hour boundaries in practice; ambiguous hours take the earlier offset
+            ZoneOffset offset = rules.getValidOffsets(LocalDateTime.ofEpochSecond(localHour * 3600L, 0, ZoneOffset.UTC))
+                    .stream()
+                    .findFirst()
+                    .orElseGet(() -> rules.getOffset(Instant.ofEpochSecond(localHour * 3600L)));
+            cached = new HourOffset(localHour, offset.getTotalSeconds());
+            hourOffset = cached;
+        }
+        return cached.offsetSeconds();
+    }
+
+    private LogLine doParseLoose(String line) {
+        long timestamp;
+        int i = timestampEnd(line);
+        if (i >= 0) {
+            timestamp = epochMillis(line, i);
+        } else if ((i = ctimeEnd(line)) >= 0) {
+            timestamp = localMillis(digits(line, 20, 4), month(line, 4), day(line, 8), line, 11);
+        } else if ((i = syslogEnd(line)) >= 0) {
+            timestamp = syslogMillis(line);
+        } else {
+            return null;
+        }
+        if (timestamp == Long.MIN_VALUE) {
+            return null;
+        }
+
+        int messageStart = skipSpaces(line, i);
+        if (line.startsWith("-> ", messageStart)) {
+            // ClamAV separates the timestamp with an arrow
+            messageStart += 3;
+        }
+        return new LogLine(line, timestamp, looseLevel(line, messageStart), -1, -1, -1, -1, messageStart, null);
+    }
+
+    /**
+     * End of a leading {@code EEE MMM dd HH:mm:ss yyyy} timestamp, or -1. The day may be
+     * padded with a space.
+     */
+    private static int ctimeEnd(String line) {
+        if (line.length() < 24 || line.charAt(3) != ' ' || line.charAt(7) != ' ' || line.charAt(10) != ' '
+                || line.charAt(19) != ' ' || month(line, 4) < 0 || !clock(line, 11) || digits(line, 20, 4) < 0) {
+            return -1;
+        }
+        return 24;
+    }
+
+    /**
+     * End of a leading {@code MMM dd HH:mm:ss} timestamp, or -1. The day may be padded with a
+     * space.
+     */
+    private static int syslogEnd(String line) {
+        if (line.length() < 15 || line.charAt(3) != ' ' || line.charAt(6) != ' ' || month(line, 0) < 0
+                || !clock(line, 7)) {
+            return -1;
+        }
+        return 15;
+    }
+
+    /**
+     * Epoch milliseconds of a syslog timestamp. The year is the current one, or the one before
+     * if that would put the entry more than a day in the future (a log read just after New Year).
+     */
+    private long syslogMillis(String line) {
+        int day = day(line, 4);
+        int month = month(line, 0);
+        long now = System.currentTimeMillis();
+        int year = Instant.ofEpochMilli(now).atOffset(rules.getOffset(Instant.ofEpochMilli(now))).getYear();
+        long millis = localMillis(year, month, day, line, 7);
+        if (millis != Long.MIN_VALUE && millis > now + 86_400_000L) {
+            millis = localMillis(year - 1, month, day, line, 7);
+        }
+        return millis;
+    }
+
+    /**
+     * Epoch milliseconds of a date and an {@code HH:mm:ss} time at {@code time}, read in the
+     * configured zone.
+     *
+     * @return the instant or {@link Long#MIN_VALUE} if a field is out of range
+     */
+    private long localMillis(int year, int month, int day, String line, int time) {
+        int hour = digits(line, time, 2);
+        int minute = digits(line, time + 3, 2);
+        int second = digits(line, time + 6, 2);
+        if ((year | month | day | hour | minute | second) < 0
+                || month < 1 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 60) {
+            return Long.MIN_VALUE;
+        }
+        long local = (daysFromCivil(year, month, day) * 86_400L + hour * 3600L + minute * 60L + second) * 1000L;
+        return local - offsetSeconds(local) * 1000L;
+    }
+
+    /**
+     * Whether {@code line} has an {@code HH:mm:ss} shape at {@code from}.
+     */
+    private static boolean clock(String line, int from) {
+        return line.charAt(from + 2) == ':' && line.charAt(from + 5) == ':'
+                && digits(line, from, 2) >= 0 && digits(line, from + 3, 2) >= 0 && digits(line, from + 6, 2) >= 0;
+    }
+
+    /**
+     * Day of month of two digits or a space and a digit at {@code from}, or -1.
+     */
+    private static int day(String line, int from) {
+        return line.charAt(from) == ' ' ? digits(line, from + 1, 1) : digits(line, from, 2);
+    }
+
+    /**
+     * Month 1-12 of an English three-letter abbreviation at {@code from}, or -1.
+     */
+    private static int month(String line, int from) {
+        for (int m = 0; m < 12; m++) {
+            if (line.regionMatches(from, MONTHS, m * 3, 3)) {
+                return m + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Level named by a word followed by a colon among the first words from {@code from}, e.g.
+     * {@code imap(joe): Error: ...} or {@code [lua] warning: ...}; INFO without one.
+     */
+    private static Level looseLevel(String line, int from) {
+        int limit = Math.min(line.length(), from + LEVEL_SCAN_CHARS);
+        for (int colon = line.indexOf(':', from); colon > 0 && colon < limit; colon = line.indexOf(':', colon + 1)) {
+            int start = colon;
+            while (start > from && Character.isLetter(line.charAt(start - 1))) {
+                start--;
+            }
+            Level level = Level.of(line.substring(start, colon).toUpperCase(Locale.ROOT), 0, colon - start);
+            if (level != null) {
+                return level;
+            }
+            if (colon - start == 5 && line.regionMatches(true, start, "PANIC", 0, 5)) {
+                return Level.ERROR;
+            }
+        }
+        return Level.INFO;
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date.
+     */
+    static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    /**
+     * Decimal value of {@code count} digits at {@code from}, or -1.
+     */
+    private static int digits(String line, int from, int count) {
+        if (from < 0 || from + count > line.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = line.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int skipSpaces(String line, int from) {
+        int i = from;
+        while (i < line.length() && line.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,10 @@
+-- Trigram indexes backing the /api/v1/search typeahead endpoint.
+-- pg_trgm GIN indexes let PostgreSQL answer ILIKE '%term%' lookups without
+-- scanning the users, domains and aliases tables shared with Robin MTA/Dovecot.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING gin (username gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_domains_domain_trgm ON domains USING gin (domain gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_aliases_source_trgm ON aliases USING gin (source gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_aliases_destination_trgm ON aliases USING gin (destination gin_trgm_ops);
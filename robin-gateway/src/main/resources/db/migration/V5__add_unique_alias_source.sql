@@ -0,0 +1,41 @@
+-- Enforce one alias row per source address.
+-- DomainService already rejects duplicate sources; this makes the constraint explicit
+-- and lets the batch alias endpoint upsert with INSERT ... ON CONFLICT (source).
+
+-- Older clients may have left duplicates. Rows repeating both source and destination carry
+-- nothing new and are dropped, keeping the earliest. A source forwarding to different
+-- destinations is live mail routing that only an operator can resolve, so the migration
+-- stops and lists those rows instead of picking one.
+DELETE FROM aliases a
+USING aliases b
+WHERE a.source = b.source
+  AND a.destination = b.destination
+  AND a.id > b.id;
+
+DO $$
+DECLARE
+    conflicts TEXT;
+BEGIN
+    SELECT string_agg(format('%s -> %s (ids %s)', source, destinations, ids), E'\n' ORDER BY source)
+    INTO conflicts
+    FROM (
+        SELECT source,
+               string_agg(destination, ', ' ORDER BY id) AS destinations,
+               string_agg(id::TEXT, ', ' ORDER BY id) AS ids
+        FROM aliases
+        GROUP BY source
+        HAVING COUNT(*) > 1
+    ) duplicated;
+
+    IF conflicts IS NOT NULL THEN
+        RAISE EXCEPTION 'Cannot add unique index on aliases(source): these sources have several destinations'
+            USING DETAIL = conflicts,
+                  HINT = 'Delete the unwanted rows or fold their destinations into one row, then re-run the migration.';
+    END IF;
+END
+$$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_aliases_source ON aliases(source);
+
+-- The plain index is redundant with the unique one
+DROP INDEX IF EXISTS idx_alias_source;
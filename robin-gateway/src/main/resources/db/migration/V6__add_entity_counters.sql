@@ -0,0 +1,76 @@
+-- Materialized row counts for the dashboard, so totals don't need COUNT(*) over MTA tables.
+-- users, domains and aliases are kept current by statement-level triggers, which also
+-- cover rows written by Robin MTA and Dovecot tooling. A batch insert costs one counter
+-- update per statement, not one per row. active_sessions depends on the clock (expiry),
+-- so it is refreshed by the gateway's reconciliation job instead.
+
+CREATE TABLE entity_counters (
+    entity VARCHAR(32) PRIMARY KEY,
+    total BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    reconciled_at TIMESTAMP
+);
+
+INSERT INTO entity_counters (entity, total, reconciled_at)
+SELECT 'users', COUNT(*), NOW() FROM users
+UNION ALL
+SELECT 'domains', COUNT(*), NOW() FROM domains
+UNION ALL
+SELECT 'aliases', COUNT(*), NOW() FROM aliases
+UNION ALL
+SELECT 'active_sessions', COUNT(*), NOW() FROM sessions WHERE revoked = FALSE AND expires_at > NOW();
+
+CREATE OR REPLACE FUNCTION entity_counters_inserted() RETURNS trigger AS $$
+DECLARE
+    delta BIGINT;
+BEGIN
+    SELECT COUNT(*) INTO delta FROM new_rows;
+    IF delta > 0 THEN
+        UPDATE entity_counters SET total = total + delta, updated_at = NOW() WHERE entity = TG_ARGV[0];
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION entity_counters_deleted() RETURNS trigger AS $$
+DECLARE
+    delta BIGINT;
+BEGIN
+    SELECT COUNT(*) INTO delta FROM old_rows;
+    IF delta > 0 THEN
+        UPDATE entity_counters SET total = total - delta, updated_at = NOW() WHERE entity = TG_ARGV[0];
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION entity_counters_truncated() RETURNS trigger AS $$
+BEGIN
+    UPDATE entity_counters SET total = 0, updated_at = NOW() WHERE entity = TG_ARGV[0];
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_users_count_insert AFTER INSERT ON users
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION entity_counters_inserted('users');
+CREATE TRIGGER trg_users_count_delete AFTER DELETE ON users
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION entity_counters_deleted('users');
+CREATE TRIGGER trg_users_count_truncate AFTER TRUNCATE ON users
+    FOR EACH STATEMENT EXECUTE FUNCTION entity_counters_truncated('users');
+
+CREATE TRIGGER trg_domains_count_insert AFTER INSERT ON domains
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION entity_counters_inserted('domains');
+CREATE TRIGGER trg_domains_count_delete AFTER DELETE ON domains
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION entity_counters_deleted('domains');
+CREATE TRIGGER trg_domains_count_truncate AFTER TRUNCATE ON domains
+    FOR EACH STATEMENT EXECUTE FUNCTION entity_counters_truncated('domains');
+
+CREATE TRIGGER trg_aliases_count_insert AFTER INSERT ON aliases
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION entity_counters_inserted('aliases');
+CREATE TRIGGER trg_aliases_count_delete AFTER DELETE ON aliases
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION entity_counters_deleted('aliases');
+CREATE TRIGGER trg_aliases_count_truncate AFTER TRUNCATE ON aliases
+    FOR EACH STATEMENT EXECUTE FUNCTION entity_counters_truncated('aliases');
+
+-- Lets the reconciliation job count active sessions from a small partial index
+CREATE INDEX IF NOT EXISTS idx_sessions_active_expiry ON sessions(expires_at) WHERE revoked = FALSE;
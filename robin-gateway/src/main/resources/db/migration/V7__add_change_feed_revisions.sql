@@ -0,0 +1,134 @@
+-- Change feed: every user, domain and alias row carries a revision, and deletes leave a
+-- tombstone with its own revision. Mirrors ask for rows with revision > N instead of
+-- re-reading full lists (see ChangeFeedService).
+--
+-- A write's revision is its transaction id (pg_current_xact_id, 64-bit and never reused)
+-- plus a fixed base, so all rows of one transaction share it. Transaction ids are handed out
+-- before the writes but the rows only become visible at commit, so readers never return
+-- anything at or above the commit-ordered horizon entity_revision_horizon(): the base plus
+-- the xmin of the current snapshot, below which every transaction has finished. A slower
+-- transaction that started earlier therefore can't commit below a revision already handed
+-- out, and writers don't wait on each other.
+-- Writes that only record a login (last_login_at/updated_at) don't bump.
+
+CREATE SEQUENCE entity_revision_seq;
+
+ALTER TABLE users ADD COLUMN revision BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE domains ADD COLUMN revision BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE aliases ADD COLUMN revision BIGINT NOT NULL DEFAULT 0;
+
+UPDATE users SET revision = nextval('entity_revision_seq');
+UPDATE domains SET revision = nextval('entity_revision_seq');
+UPDATE aliases SET revision = nextval('entity_revision_seq');
+
+-- Existing rows got 1..n above; later transactions must land above them. Every transaction
+-- that can still write has an id at or above the current xmin.
+DO $$
+BEGIN
+    EXECUTE format('CREATE FUNCTION entity_revision_base() RETURNS BIGINT IMMUTABLE AS %L LANGUAGE sql',
+                   format('SELECT %s::BIGINT',
+                          (SELECT last_value FROM entity_revision_seq) + 1
+                              - pg_snapshot_xmin(pg_current_snapshot())::TEXT::BIGINT));
+END
+$$;
+
+DROP SEQUENCE entity_revision_seq;
+
+CREATE INDEX idx_users_revision ON users(revision);
+CREATE INDEX idx_domains_revision ON domains(revision);
+CREATE INDEX idx_aliases_revision ON aliases(revision);
+
+CREATE TABLE change_tombstones (
+    id BIGSERIAL PRIMARY KEY,
+    revision BIGINT NOT NULL,
+    entity VARCHAR(16) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    entity_key VARCHAR(255) NOT NULL,
+    deleted_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_change_tombstones_revision ON change_tombstones(revision);
+CREATE INDEX idx_change_tombstones_deleted_at ON change_tombstones(deleted_at);
+
+-- Highest tombstone revision purged so far; clients behind it must resync from scratch
+CREATE TABLE change_feed_horizon (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    purged_through BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO change_feed_horizon (id, purged_through) VALUES (1, 0);
+
+CREATE OR REPLACE FUNCTION next_entity_revision() RETURNS BIGINT AS $$
+BEGIN
+    -- Wake long-polling readers; identical payloads are sent once per transaction
+    PERFORM pg_notify('robin_entity_changes', '');
+    RETURN entity_revision_base() + pg_current_xact_id()::TEXT::BIGINT;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Revisions below this belong to finished transactions; readers stop short of it
+CREATE OR REPLACE FUNCTION entity_revision_horizon() RETURNS BIGINT AS $$
+    SELECT entity_revision_base() + pg_snapshot_xmin(pg_current_snapshot())::TEXT::BIGINT;
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION entity_revision_bump() RETURNS trigger AS $$
+BEGIN
+    NEW.revision := next_entity_revision();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION users_revision_bump() RETURNS trigger AS $$
+BEGIN
+    -- Login bookkeeping is not a change mirrors care about. Other triggers force a bump
+    -- (e.g. role changes) by writing -1 to the revision column.
+    IF TG_OP = 'UPDATE'
+       AND NEW.revision IS NOT DISTINCT FROM OLD.revision
+       AND (NEW.username, NEW.password, NEW.password_bcrypt, NEW.quota_bytes, NEW.is_active,
+            NEW.account_non_expired, NEW.account_non_locked, NEW.credentials_non_expired)
+           IS NOT DISTINCT FROM
+           (OLD.username, OLD.password, OLD.password_bcrypt, OLD.quota_bytes, OLD.is_active,
+            OLD.account_non_expired, OLD.account_non_locked, OLD.credentials_non_expired) THEN
+        RETURN NEW;
+    END IF;
+    NEW.revision := next_entity_revision();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION entity_tombstone() RETURNS trigger AS $$
+BEGIN
+    -- TG_ARGV: entity name, natural key column
+    INSERT INTO change_tombstones (revision, entity, entity_id, entity_key)
+    VALUES (next_entity_revision(), TG_ARGV[0], OLD.id, to_jsonb(OLD) ->> TG_ARGV[1]);
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Role and permission rows are part of the user as seen by mirrors
+CREATE OR REPLACE FUNCTION user_grants_revision_bump() RETURNS trigger AS $$
+BEGIN
+    UPDATE users SET revision = -1
+    WHERE id = CASE WHEN TG_OP = 'DELETE' THEN OLD.user_id ELSE NEW.user_id END;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_users_revision BEFORE INSERT OR UPDATE ON users
+    FOR EACH ROW EXECUTE FUNCTION users_revision_bump();
+CREATE TRIGGER trg_domains_revision BEFORE INSERT OR UPDATE ON domains
+    FOR EACH ROW EXECUTE FUNCTION entity_revision_bump();
+CREATE TRIGGER trg_aliases_revision BEFORE INSERT OR UPDATE ON aliases
+    FOR EACH ROW EXECUTE FUNCTION entity_revision_bump();
+
+CREATE TRIGGER trg_users_tombstone AFTER DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION entity_tombstone('user', 'username');
+CREATE TRIGGER trg_domains_tombstone AFTER DELETE ON domains
+    FOR EACH ROW EXECUTE FUNCTION entity_tombstone('domain', 'domain');
+CREATE TRIGGER trg_aliases_tombstone AFTER DELETE ON aliases
+    FOR EACH ROW EXECUTE FUNCTION entity_tombstone('alias', 'source');
+
+CREATE TRIGGER trg_user_roles_revision AFTER INSERT OR DELETE ON user_roles
+    FOR EACH ROW EXECUTE FUNCTION user_grants_revision_bump();
+CREATE TRIGGER trg_user_permissions_revision AFTER INSERT OR DELETE ON user_permissions
+    FOR EACH ROW EXECUTE FUNCTION user_grants_revision_bump();
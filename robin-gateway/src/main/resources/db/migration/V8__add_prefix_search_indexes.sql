@@ -0,0 +1,8 @@
+-- Prefix indexes backing /api/v1/search for terms of one or two characters.
+-- Trigrams cannot narrow down terms that short, so they are matched as a prefix
+-- (lower(column) LIKE 'te%') against these btree indexes instead.
+
+CREATE INDEX IF NOT EXISTS idx_users_username_prefix ON users (lower(username) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_domains_domain_prefix ON domains (lower(domain) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_aliases_source_prefix ON aliases (lower(source) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_aliases_destination_prefix ON aliases (lower(destination) text_pattern_ops);
@@ -0,0 +1,113 @@
+package com.robin.gateway.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.robin.gateway.util.JsonPatches;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of changing one flag in a large {@code dovecot.json5}-shaped section.
+ * <p>
+ * {@code putWholeSection} is the round trip the UI had to make before PATCH existed:
+ * serialize the section for the GET, decode it again as the PUT body and serialize it
+ * indented for the file. {@code mergePatch} applies a one-field merge patch to the cached
+ * tree and serializes only for the file write; {@code mergePatchUnchanged} is the same patch
+ * when the value is already set, which now ends before any serialization or I/O.
+ * {@code getWholeSection} versus {@code getByPointer} compares reading one value.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigPatchBenchmark {
+
+    /**
+     * Number of user/namespace blocks, roughly 150 bytes of JSON each.
+     */
+    @Param({"500", "5000"})
+    public int blocks;
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final ObjectMapper wire = new ObjectMapper();
+    private JsonNode cached;
+    private JsonNode patch;
+    private JsonNode unchangedPatch;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectNode root = wire.createObjectNode();
+        ObjectNode auth = root.putObject("auth");
+        auth.put("enabled", true);
+        auth.put("mechanisms", "plain login");
+        ArrayNode namespaces = root.putArray("namespaces");
+        for (int i = 0; i < blocks; i++) {
+            ObjectNode namespace = namespaces.addObject();
+            namespace.put("name", "inbox-" + i);
+            namespace.put("separator", "/");
+            namespace.put("prefix", "");
+            namespace.put("location", "maildir:~/Maildir-" + i);
+            namespace.putObject("mailbox").put("auto", "subscribe").put("special_use", "\\Sent");
+        }
+        cached = wire.readTree(mapper.writeValueAsBytes(root));
+        patch = wire.readTree("{\"auth\": {\"enabled\": false}}");
+        unchangedPatch = wire.readTree("{\"auth\": {\"enabled\": true}}");
+    }
+
+    @Benchmark
+    public byte[] putWholeSection() throws Exception {
+        byte[] getBody = wire.writeValueAsBytes(cached);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> putBody = wire.readValue(getBody, Map.class);
+        ((Map<String, Object>) putBody.get("auth")).put("enabled", false);
+        return mapper.writeValueAsBytes(putBody);
+    }
+
+    @Benchmark
+    public byte[] mergePatch() throws Exception {
+        JsonNode updated = JsonPatches.mergePatch(cached, patch);
+        return updated == cached ? null : mapper.writeValueAsBytes(updated);
+    }
+
+    @Benchmark
+    public byte[] mergePatchUnchanged() throws Exception {
+        JsonNode updated = JsonPatches.mergePatch(cached, unchangedPatch);
+        return updated == cached ? null : mapper.writeValueAsBytes(updated);
+    }
+
+    @Benchmark
+    public byte[] getWholeSection() throws Exception {
+        return wire.writeValueAsBytes(cached);
+    }
+
+    @Benchmark
+    public byte[] getByPointer() throws Exception {
+        return wire.writeValueAsBytes(JsonPatches.at(cached, "/auth/enabled"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ConfigPatchBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,119 @@
+package com.robin.gateway.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.robin.gateway.util.JsonStreams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a 50 MB {@code relay.json5}-shaped section: a routing table of domain entries.
+ * <p>
+ * {@code readTree} is what the gateway did for every section: parse the whole file into
+ * a tree. {@code subtreeAtEnd} extracts the last route with {@link JsonStreams#readAt},
+ * skipping everything before it token by token, and {@code streamSection} re-encodes the
+ * whole file in 64 KB chunks as the GET endpoint now does for large sections.
+ * <p>
+ * The interesting number is allocation, so run with the GC profiler:
+ * {@code -prof gc} and compare {@code gc.alloc.rate.norm} (bytes per operation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class ConfigStreamingBenchmark {
+
+    private static final long TARGET_BYTES = 50L * 1024 * 1024;
+
+    private final ObjectMapper json5 = JsonMapper.builder()
+            .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+            .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+            .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .build();
+    private Path file;
+    private JsonPointer lastRoute;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = Files.createTempFile("relay", ".json5");
+        int routes = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("{\n  // Generated routing table\n  enabled: true,\n  routes: [\n");
+            while (Files.size(file) < TARGET_BYTES) {
+                for (int i = 0; i < 1000; i++, routes++) {
+                    out.write("    { domain: 'tenant-" + routes + ".example.com', mx: ['mx1.example.net', "
+                            + "'mx2.example.net'], port: 25, tls: true, weight: " + (routes % 10) + " },\n");
+                }
+                out.flush();
+            }
+            out.write("  ],\n}\n");
+        }
+        lastRoute = JsonPointer.compile("/routes/" + (routes - 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public JsonNode readTree() throws Exception {
+        return json5.readTree(file.toFile());
+    }
+
+    @Benchmark
+    public JsonNode subtreeAtEnd() throws Exception {
+        try (JsonParser parser = json5.createParser(file.toFile())) {
+            return JsonStreams.readAt(parser, lastRoute);
+        }
+    }
+
+    @Benchmark
+    public long streamSection() {
+        File source = file.toFile();
+        return JsonStreams.copy(() -> json5.createParser(source), DefaultDataBufferFactory.sharedInstance, 65536)
+                .map(buffer -> {
+                    int size = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return (long) size;
+                })
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ConfigStreamingBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build())
+                .run();
+    }
+}
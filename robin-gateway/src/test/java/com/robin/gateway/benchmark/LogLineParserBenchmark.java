@@ -0,0 +1,103 @@
+package com.robin.gateway.benchmark;
+
+import com.robin.gateway.util.LogLineParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log lines parsed per second.
+ * <p>
+ * {@code legacy} mirrors the previous controller code: four {@code contains} scans for the
+ * level, {@code Instant.now()} as the timestamp and a {@link HashMap} per line.
+ * {@code parse} is {@link LogLineParser} on the same lines, a mix of entries in Robin's
+ * layouts and stack frames it has to reject. Scores are per line; the parser is expected
+ * to stay well above 1M lines/s on one core. Run with {@code -prof gc} to compare
+ * {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogLineParserBenchmark {
+
+    private static final int LINES = 1024;
+
+    private final LogLineParser parser = new LogLineParser(ZoneId.of("Europe/London"));
+    private String[] lines;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lines = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            lines[i] = switch (i % 8) {
+                case 0 -> "2024-03-31 10:" + (i % 60 < 10 ? "0" : "") + (i % 60)
+                        + ":12.345 ERROR [smtp-" + (i % 16) + "] SmtpSession - Relay to mx" + i + ".example.com failed";
+                case 1 -> "\tat com.mimecast.robin.smtp.session.Session.relay(Session.java:" + i + ")";
+                case 2 -> "20240331 10:15:00.001 [queue-1] WARN QueueWorker: Retry " + i + " scheduled in 300s";
+                case 3 -> "2024-03-31T10:30:00,123+01:00 DEBUG [main] Config - Reloaded section " + i;
+                default -> "2024-03-31 10:30:00.123 INFO  [smtp-" + (i % 16) + "] SmtpListener - Connection "
+                        + i + " from 10.0." + (i % 256) + ".1";
+            };
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void legacy(Blackhole blackhole) {
+        for (String line : lines) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("message", line);
+            entry.put("timestamp", Instant.now().toString());
+            String level = "INFO";
+            if (line.contains(" ERROR ")) {
+                level = "ERROR";
+            } else if (line.contains(" WARN ")) {
+                level = "WARN";
+            } else if (line.contains(" DEBUG ")) {
+                level = "DEBUG";
+            } else if (line.contains(" TRACE ")) {
+                level = "TRACE";
+            }
+            entry.put("level", level);
+            entry.put("logger", "robin");
+            blackhole.consume(entry);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void parse(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(parser.parse(line));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(LogLineParserBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build())
+                .run();
+    }
+}
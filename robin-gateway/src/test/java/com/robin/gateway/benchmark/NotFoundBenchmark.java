@@ -0,0 +1,82 @@
+package com.robin.gateway.benchmark;
+
+import com.robin.gateway.exception.GatewayException;
+import com.robin.gateway.exception.NotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 404 throughput of the old and new not-found paths.
+ * <p>
+ * {@code legacy} mirrors the previous code: a {@link RuntimeException} with a full stack,
+ * classified by message text and logged with its stack (modelled by materialising the
+ * trace, without the appender I/O). {@code typed} is the stackless
+ * {@link NotFoundException} that passes the controller's catch-all untouched. {@code depth}
+ * adds frames below the pipeline, standing in for the Netty/Reactor stack a real request
+ * is served from.
+ * <p>
+ * Run with {@code mvn test-compile} and then {@link #main} from the IDE, or
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main NotFoundBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundBenchmark {
+
+    @Param({"16", "128"})
+    public int depth;
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        blackhole.consume(atDepth(depth, () -> Mono.<String>empty()
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Domain not found: " + 42)))
+                .map(domain -> 200)
+                .onErrorResume(e -> {
+                    blackhole.consume(e.getStackTrace());
+                    if (e.getMessage().contains("not found")) {
+                        return Mono.just(404);
+                    }
+                    return Mono.just(500);
+                })
+                .block()));
+    }
+
+    @Benchmark
+    public void typed(Blackhole blackhole) {
+        blackhole.consume(atDepth(depth, () -> Mono.<String>empty()
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Domain", 42)))
+                .map(domain -> 200)
+                .onErrorResume(GatewayException::isUnexpected, e -> Mono.just(500))
+                .onErrorResume(GatewayException.class, e -> Mono.just(e.getStatus().value()))
+                .block()));
+    }
+
+    private static Integer atDepth(int depth, Supplier<Integer> request) {
+        return depth == 0 ? request.get() : atDepth(depth - 1, request);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(NotFoundBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
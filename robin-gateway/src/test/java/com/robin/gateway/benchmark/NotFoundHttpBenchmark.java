@@ -0,0 +1,77 @@
+package com.robin.gateway.benchmark;
+
+import com.robin.gateway.controller.DomainController;
+import com.robin.gateway.exception.GlobalExceptionHandler;
+import com.robin.gateway.exception.NotFoundException;
+import com.robin.gateway.service.DomainService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 404 throughput of {@code GET /api/v1/domains/{id}} through the WebFlux dispatcher,
+ * {@link DomainController} and {@link GlobalExceptionHandler}, complementing
+ * {@link NotFoundBenchmark}, which covers the pipeline alone. Every response is checked to
+ * be a 404, so a regression to the 500 path fails the run instead of being measured.
+ * <p>
+ * The domain lookup is a mock answering {@link NotFoundException}; there is no socket, so
+ * the figure is the gateway's own cost per not-found request.
+ * <p>
+ * Run with {@code mvn test-compile} and then {@link #main} from the IDE, or
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main NotFoundHttpBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundHttpBenchmark {
+
+    private WebTestClient client;
+
+    @Setup
+    public void setUp() {
+        DomainService domainService = mock(DomainService.class);
+        when(domainService.getDomainById(anyLong()))
+                .thenAnswer(invocation -> Mono.error(new NotFoundException("Domain", invocation.getArgument(0))));
+        client = WebTestClient.bindToController(new DomainController(domainService))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] notFound() {
+        return client.get().uri("/api/v1/domains/42")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NOT_FOUND)
+                .expectBody()
+                .returnResult()
+                .getResponseBody();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(NotFoundHttpBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,59 @@
+package com.robin.gateway.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for R2dbcConfig.
+ */
+@DisplayName("R2dbcConfig Tests")
+class R2dbcConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class, JdbcTemplateAutoConfiguration.class))
+            .withUserConfiguration(R2dbcConfig.class)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:postgresql://localhost:5432/robin",
+                    "spring.datasource.username=robin",
+                    "spring.datasource.password=secret",
+                    "spring.datasource.hikari.maximum-pool-size=7",
+                    "robin.persistence.r2dbc.url=r2dbc:postgresql://localhost:5432/robin",
+                    "robin.persistence.r2dbc.username=robin",
+                    "robin.persistence.r2dbc.password=secret");
+
+    @Test
+    @DisplayName("Should keep the JDBC pool next to the R2DBC pool in r2dbc mode")
+    void testJdbcPoolInR2dbcMode() {
+        runner.withPropertyValues("robin.persistence.read-mode=r2dbc").run(context -> {
+            assertThat(context).hasSingleBean(ConnectionFactory.class);
+            assertThat(context).hasSingleBean(DataSource.class);
+            assertThat(context).hasSingleBean(JdbcTemplate.class);
+
+            HikariDataSource dataSource = context.getBean(HikariDataSource.class);
+            assertThat(dataSource.getJdbcUrl()).isEqualTo("jdbc:postgresql://localhost:5432/robin");
+            assertThat(dataSource.getUsername()).isEqualTo("robin");
+            assertThat(dataSource.getMaximumPoolSize()).isEqualTo(7);
+        });
+    }
+
+    @Test
+    @DisplayName("Should leave the JDBC pool to Boot in jpa mode")
+    void testJpaMode() {
+        runner.withPropertyValues("robin.persistence.read-mode=jpa").run(context -> {
+            assertThat(context).doesNotHaveBean(ConnectionFactory.class);
+            assertThat(context).hasSingleBean(DataSource.class);
+            assertThat(context).hasSingleBean(JdbcTemplate.class);
+        });
+    }
+}
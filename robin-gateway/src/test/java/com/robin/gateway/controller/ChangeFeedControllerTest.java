@@ -0,0 +1,55 @@
+package com.robin.gateway.controller;
+
+import com.robin.gateway.datasource.BulkheadFullException;
+import com.robin.gateway.datasource.WorkloadClass;
+import com.robin.gateway.exception.GlobalExceptionHandler;
+import com.robin.gateway.service.ChangeFeedService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ChangeFeedController error mapping.
+ */
+@DisplayName("ChangeFeedController Tests")
+class ChangeFeedControllerTest {
+
+    private final ChangeFeedService changeFeedService = mock(ChangeFeedService.class);
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToController(new ChangeFeedController(changeFeedService))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should answer 503 when the bulkhead is full")
+    void testBulkheadFull() {
+        when(changeFeedService.getChanges(5L, 500, Duration.ZERO))
+                .thenReturn(Mono.error(new BulkheadFullException(WorkloadClass.INTERACTIVE_READ, "queue full")));
+
+        client.get().uri("/api/v1/changes?since=5")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    @DisplayName("Should answer 500 for an unexpected error")
+    void testUnexpected() {
+        when(changeFeedService.getChanges(5L, 500, Duration.ZERO)).thenReturn(Mono.error(new IllegalStateException("boom")));
+
+        client.get().uri("/api/v1/changes?since=5")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
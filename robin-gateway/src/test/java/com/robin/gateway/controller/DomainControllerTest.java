@@ -0,0 +1,71 @@
+package com.robin.gateway.controller;
+
+import com.robin.gateway.datasource.BulkheadFullException;
+import com.robin.gateway.datasource.WorkloadClass;
+import com.robin.gateway.exception.GlobalExceptionHandler;
+import com.robin.gateway.exception.NotFoundException;
+import com.robin.gateway.service.DomainService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for DomainController error mapping.
+ */
+@DisplayName("DomainController Tests")
+class DomainControllerTest {
+
+    private final DomainService domainService = mock(DomainService.class);
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToController(new DomainController(domainService))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should answer 503 with Retry-After when the bulkhead is full")
+    void testBulkheadFull() {
+        when(domainService.getDomainById(1L))
+                .thenReturn(Mono.error(new BulkheadFullException(WorkloadClass.INTERACTIVE_READ, "queue full")));
+
+        client.get().uri("/api/v1/domains/1")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1")
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Too many concurrent interactive_read database calls (queue full)");
+    }
+
+    @Test
+    @DisplayName("Should answer 404 for a missing domain")
+    void testNotFound() {
+        when(domainService.getDomainById(2L)).thenReturn(Mono.error(new NotFoundException("Domain", 2L)));
+
+        client.get().uri("/api/v1/domains/2")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Not Found")
+                .jsonPath("$.message").isEqualTo("Domain not found: 2");
+    }
+
+    @Test
+    @DisplayName("Should answer 500 for an unexpected error")
+    void testUnexpected() {
+        when(domainService.getDomainById(3L)).thenReturn(Mono.error(new IllegalStateException("boom")));
+
+        client.get().uri("/api/v1/domains/3")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
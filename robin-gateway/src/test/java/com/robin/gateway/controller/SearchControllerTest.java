@@ -0,0 +1,75 @@
+package com.robin.gateway.controller;
+
+import com.robin.gateway.datasource.BulkheadFullException;
+import com.robin.gateway.datasource.WorkloadClass;
+import com.robin.gateway.exception.GlobalExceptionHandler;
+import com.robin.gateway.model.dto.SearchResponse;
+import com.robin.gateway.service.SearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for SearchController error mapping.
+ */
+@DisplayName("SearchController Tests")
+class SearchControllerTest {
+
+    private final SearchService searchService = mock(SearchService.class);
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToController(new SearchController(searchService))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should return grouped hits")
+    void testSearch() {
+        when(searchService.search("example", 10)).thenReturn(Mono.just(SearchResponse.builder()
+                .query("example")
+                .users(List.of())
+                .domains(List.of(SearchResponse.SearchHit.builder().id(1L).value("example.com").build()))
+                .aliases(List.of())
+                .build()));
+
+        client.get().uri("/api/v1/search?q=example")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.domains[0].value").isEqualTo("example.com");
+    }
+
+    @Test
+    @DisplayName("Should answer 503 with Retry-After when the bulkhead is full")
+    void testBulkheadFull() {
+        when(searchService.search("example", 10))
+                .thenReturn(Mono.error(new BulkheadFullException(WorkloadClass.INTERACTIVE_READ, "queue full")));
+
+        client.get().uri("/api/v1/search?q=example")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1");
+    }
+
+    @Test
+    @DisplayName("Should answer 500 for an unexpected error")
+    void testUnexpected() {
+        when(searchService.search("example", 10)).thenReturn(Mono.error(new IllegalStateException("boom")));
+
+        client.get().uri("/api/v1/search?q=example")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
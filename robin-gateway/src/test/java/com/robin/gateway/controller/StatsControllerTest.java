@@ -0,0 +1,52 @@
+package com.robin.gateway.controller;
+
+import com.robin.gateway.datasource.DeadlineExceededException;
+import com.robin.gateway.exception.GlobalExceptionHandler;
+import com.robin.gateway.service.EntityStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for StatsController error mapping.
+ */
+@DisplayName("StatsController Tests")
+class StatsControllerTest {
+
+    private final EntityStatsService entityStatsService = mock(EntityStatsService.class);
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToController(new StatsController(entityStatsService))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should answer 504 when the request deadline passes")
+    void testDeadlineExceeded() {
+        when(entityStatsService.getEntityStats())
+                .thenReturn(Mono.error(new DeadlineExceededException("Request deadline exceeded")));
+
+        client.get().uri("/api/v1/stats/entities")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("Should answer 500 for an unexpected error")
+    void testUnexpected() {
+        when(entityStatsService.getEntityStats()).thenReturn(Mono.error(new IllegalStateException("boom")));
+
+        client.get().uri("/api/v1/stats/entities")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
@@ -0,0 +1,89 @@
+package com.robin.gateway.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for Bulkhead.
+ */
+@DisplayName("Bulkhead Tests")
+class BulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Bulkhead bulkhead(int maxConcurrent, int maxQueue, Duration maxWait) {
+        WorkloadProperties.Limits limits = new WorkloadProperties.Limits();
+        limits.setMaxConcurrent(maxConcurrent);
+        limits.setMaxQueue(maxQueue);
+        limits.setMaxWait(maxWait);
+        return new Bulkhead(WorkloadClass.BULK, limits, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should hand a released slot to the next waiter")
+    void testReleasePassesSlotToWaiter() {
+        Bulkhead bulkhead = bulkhead(1, 10, Duration.ofSeconds(5));
+        Bulkhead.Permit first = bulkhead.acquire().block();
+        assertThat(first).isNotNull();
+
+        AtomicReference<Bulkhead.Permit> second = new AtomicReference<>();
+        Disposable waiting = bulkhead.acquire().subscribe(second::set);
+        assertThat(second.get()).isNull();
+
+        first.release();
+        assertThat(second.get()).isNotNull();
+        waiting.dispose();
+    }
+
+    @Test
+    @DisplayName("Should reject immediately when the queue is full")
+    void testRejectWhenQueueFull() {
+        Bulkhead bulkhead = bulkhead(1, 0, Duration.ofSeconds(5));
+        bulkhead.acquire().block();
+
+        StepVerifier.create(bulkhead.acquire())
+                .expectError(BulkheadFullException.class)
+                .verify(Duration.ofSeconds(1));
+        assertThat(meterRegistry.counter("robin.db.bulkhead.rejected", "workload", "bulk", "reason", "queue_full").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should reject a waiter after the maximum wait")
+    void testRejectAfterMaxWait() {
+        Bulkhead bulkhead = bulkhead(1, 10, Duration.ofMillis(50));
+        bulkhead.acquire().block();
+
+        StepVerifier.create(bulkhead.acquire())
+                .expectError(BulkheadFullException.class)
+                .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    @DisplayName("Should not leak or duplicate slots when a waiter cancels")
+    void testCancelledWaiterDoesNotLeak() {
+        Bulkhead bulkhead = bulkhead(1, 1, Duration.ofMillis(200));
+        Bulkhead.Permit first = bulkhead.acquire().block();
+        assertThat(first).isNotNull();
+
+        Disposable cancelled = bulkhead.acquire().subscribe();
+        cancelled.dispose();
+        first.release();
+        // Releasing twice must not create an extra slot
+        first.release();
+
+        Bulkhead.Permit next = bulkhead.acquire().block(Duration.ofSeconds(1));
+        assertThat(next).isNotNull();
+        StepVerifier.create(bulkhead.acquire())
+                .expectError(BulkheadFullException.class)
+                .verify(Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,89 @@
+package com.robin.gateway.datasource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.util.context.Context;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CallHandle.
+ */
+@DisplayName("CallHandle Tests")
+class CallHandleTest {
+
+    @Test
+    @DisplayName("Should cancel open statements and interrupt the worker")
+    void testCancelRunningCall() throws Exception {
+        CallHandle handle = new CallHandle(null);
+        Statement open = mock(Statement.class);
+        Statement closed = mock(Statement.class);
+        when(closed.isClosed()).thenReturn(true);
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> leakedInterrupt = CompletableFuture.supplyAsync(() -> {
+            try {
+                handle.run(() -> {
+                    CallHandle.current().register(open);
+                    CallHandle.current().register(closed);
+                    started.countDown();
+                    Thread.sleep(10_000);
+                    return "finished";
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return Thread.currentThread().isInterrupted();
+        });
+
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(handle.cancel()).isNotNegative();
+
+        assertThat(leakedInterrupt.get(5, TimeUnit.SECONDS)).isFalse();
+        verify(open).cancel();
+        verify(closed, never()).cancel();
+        assertThat(CallHandle.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should refuse to start once cancelled")
+    void testCancelBeforeStart() {
+        CallHandle handle = new CallHandle(null);
+        assertThat(handle.cancel()).isNegative();
+
+        assertThatThrownBy(() -> handle.run(() -> "never"))
+                .isInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    @DisplayName("Should not cancel a finished call")
+    void testCancelAfterCompletion() throws Exception {
+        CallHandle handle = new CallHandle(null);
+        assertThat(handle.run(() -> "done")).isEqualTo("done");
+
+        assertThat(handle.cancel()).isNegative();
+        assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should derive the statement timeout from the deadline")
+    void testQueryTimeoutFromDeadline() {
+        RequestDeadline deadline = RequestDeadline.from(
+                RequestDeadline.with(Context.empty(), Duration.ofMillis(2500))).orElseThrow();
+
+        assertThat(new CallHandle(deadline).queryTimeoutSeconds()).isEqualTo(3);
+        assertThat(new CallHandle(null).queryTimeoutSeconds()).isZero();
+    }
+}
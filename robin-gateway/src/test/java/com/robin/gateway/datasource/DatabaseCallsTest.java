@@ -0,0 +1,152 @@
+package com.robin.gateway.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for DatabaseCalls.
+ * <p>
+ * Runs against a one-connection Hikari pool whose driver connection blocks every query
+ * until the statement is cancelled, as PostgreSQL does for a long running query.
+ */
+@DisplayName("DatabaseCalls Tests")
+class DatabaseCallsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch queryStarted = new CountDownLatch(1);
+    private HikariDataSource pool;
+    private DataSource dataSource;
+    private DatabaseCalls calls;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.createStatement()).thenAnswer(invocation -> blockingStatement());
+        DataSource driver = mock(DataSource.class);
+        when(driver.getConnection()).thenReturn(connection);
+
+        pool = new HikariDataSource();
+        pool.setDataSource(driver);
+        pool.setMaximumPoolSize(1);
+        pool.setMinimumIdle(0);
+        pool.setConnectionTimeout(1000);
+        pool.setPoolName("database-calls-test");
+        dataSource = new CancellableDataSource(pool);
+        calls = new DatabaseCalls(mock(PlatformTransactionManager.class), new WorkloadProperties(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private Statement blockingStatement() throws SQLException {
+        Statement statement = mock(Statement.class);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            queryStarted.countDown();
+            cancelled.await(10, TimeUnit.SECONDS);
+            throw new SQLException("canceling statement due to user request", "57014");
+        }).when(statement).executeQuery(anyString());
+        doAnswer(invocation -> {
+            cancelled.countDown();
+            return null;
+        }).when(statement).cancel();
+        return statement;
+    }
+
+    /**
+     * Blocking work: one query on a pooled connection.
+     */
+    private String slowQuery() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeQuery("SELECT pg_sleep(10)");
+            return "finished";
+        }
+    }
+
+    /**
+     * Wait for the cancelled worker to close its connection.
+     *
+     * @return connections still checked out
+     */
+    private int awaitReleased() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pool.getHikariPoolMXBean().getActiveConnections() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return pool.getHikariPoolMXBean().getActiveConnections();
+    }
+
+    private double cancelled(String reason) {
+        return meterRegistry.counter("robin.db.cancelled", "workload", "interactive_read", "reason", reason).count();
+    }
+
+    @Test
+    @DisplayName("Should return the pooled connection when the client goes away")
+    void testClientCancelReleasesConnection() throws Exception {
+        Disposable request = calls.call(WorkloadClass.INTERACTIVE_READ, this::slowQuery).subscribe();
+        assertThat(queryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(pool.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+
+        request.dispose();
+
+        assertThat(awaitReleased()).isZero();
+        assertThat(cancelled("client")).isEqualTo(1.0);
+        // The single connection is usable again
+        try (Connection connection = pool.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Should signal 504 and return the connection when the deadline passes")
+    void testDeadlineReleasesConnection() throws Exception {
+        StepVerifier.create(calls.call(WorkloadClass.INTERACTIVE_READ, this::slowQuery)
+                        .contextWrite(context -> RequestDeadline.with(context, Duration.ofMillis(200))))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(DeadlineExceededException.class)
+                        .extracting(e -> ((DeadlineExceededException) e).getStatus().value())
+                        .isEqualTo(504))
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(awaitReleased()).isZero();
+        assertThat(cancelled("deadline")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should not start a call whose deadline has already passed")
+    void testExpiredDeadline() {
+        StepVerifier.create(calls.call(WorkloadClass.INTERACTIVE_READ, this::slowQuery)
+                        .contextWrite(context -> RequestDeadline.with(context, Duration.ZERO)))
+                .expectError(DeadlineExceededException.class)
+                .verify(Duration.ofSeconds(1));
+
+        assertThat(queryStarted.getCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,108 @@
+package com.robin.gateway.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ReplicaRoutingDataSource.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReplicaRoutingDataSource Tests")
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        routing = new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(30), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should use the primary for work without read intent")
+    void testUnmarkedWorkUsesPrimary() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    @DisplayName("Should use a replica for read-only work")
+    void testReadUsesReplica() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        assertThat(connect(RoutingContext.Intent.READ)).isSameAs(replicaConnection);
+        assertThat(meterRegistry.counter("robin.datasource.routes", "target", "replica-1", "reason", "read").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should keep sticky reads on the primary")
+    void testStickyReadUsesPrimary() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertThat(connect(RoutingContext.Intent.READ_PRIMARY)).isSameAs(primaryConnection);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary and back off when the replica fails")
+    void testFallbackOnReplicaFailure() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertThat(connect(RoutingContext.Intent.READ)).isSameAs(primaryConnection);
+        assertThat(routing.getReplicas().get(0).isAvailable()).isFalse();
+        assertThat(meterRegistry.counter("robin.datasource.replica.failures", "target", "replica-1").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should skip a lagging replica until it catches up")
+    void testLaggingReplicaSkipped() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReplicaTarget target = routing.getReplicas().get(0);
+
+        target.recordLag(10_000, Duration.ofSeconds(5));
+        assertThat(connect(RoutingContext.Intent.READ)).isSameAs(primaryConnection);
+
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        target.recordLag(0, Duration.ofSeconds(5));
+        assertThat(connect(RoutingContext.Intent.READ)).isSameAs(replicaConnection);
+    }
+
+    private Connection connect(RoutingContext.Intent intent) {
+        return RoutingContext.with(intent, () -> {
+            try {
+                return routing.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package com.robin.gateway.datasource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for WorkloadProperties.
+ */
+@DisplayName("WorkloadProperties Tests")
+class WorkloadPropertiesTest {
+
+    @Test
+    @DisplayName("Should use the class defaults when a class is not configured")
+    void testDefaults() {
+        WorkloadProperties.Limits limits = new WorkloadProperties().limitsFor(WorkloadClass.BULK);
+
+        assertThat(limits.getMaxConcurrent()).isEqualTo(2);
+        assertThat(limits.getMaxQueue()).isEqualTo(20);
+        assertThat(limits.getMaxWait()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(limits.getPoolSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep the class defaults for fields a partial config leaves out")
+    void testPartialConfig() {
+        WorkloadProperties.Limits configured = new WorkloadProperties.Limits();
+        configured.setPoolSize(3);
+        WorkloadProperties properties = new WorkloadProperties();
+        properties.getWorkloads().put(WorkloadClass.BULK, configured);
+
+        WorkloadProperties.Limits limits = properties.limitsFor(WorkloadClass.BULK);
+
+        assertThat(limits.getPoolSize()).isEqualTo(3);
+        assertThat(limits.getMaxConcurrent()).isEqualTo(2);
+        assertThat(limits.getMaxQueue()).isEqualTo(20);
+        assertThat(limits.getMaxWait()).isEqualTo(Duration.ofSeconds(30));
+    }
+}
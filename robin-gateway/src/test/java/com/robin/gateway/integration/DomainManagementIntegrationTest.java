@@ -5,7 +5,9 @@ import com.robin.gateway.model.Domain;
 import com.robin.gateway.model.Alias;
 import com.robin.gateway.model.dto.AliasRequest;
 import com.robin.gateway.model.dto.AuthResponse;
+import com.robin.gateway.model.dto.ChangeFeedResponse;
 import com.robin.gateway.model.dto.DomainRequest;
+import com.robin.gateway.model.dto.EntityStats;
 import com.robin.gateway.model.dto.LoginRequest;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +24,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -394,4 +397,100 @@ class DomainManagementIntegrationTest {
                 .exchange()
                 .expectStatus().isUnauthorized();
     }
+
+    @Test
+    @Order(16)
+    @DisplayName("Test 16: Entity stats should match the live domain and alias counts")
+    void testEntityStats_MatchCounts() {
+        Map<?, ?> page = webTestClient.get()
+                .uri("/api/v1/domains?page=0&size=1")
+                .header("Authorization", "Bearer " + adminToken)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(page).isNotNull();
+        long domainCount = ((Number) page.get("totalElements")).longValue();
+
+        webTestClient.get()
+                .uri("/api/v1/stats/entities")
+                .header("Authorization", "Bearer " + adminToken)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(EntityStats.class)
+                .value(stats -> {
+                    assertThat(stats.getDomains()).isEqualTo(domainCount);
+                    assertThat(stats.getUsers()).isGreaterThanOrEqualTo(1);
+                });
+    }
+
+    @Test
+    @Order(17)
+    @DisplayName("Test 17: Change feed should report the deleted domain as a tombstone")
+    void testChangeFeed_ContainsTombstone() {
+        assertThat(createdDomainId).isNotNull();
+
+        webTestClient.get()
+                .uri("/api/v1/changes?since=0&limit=1000")
+                .header("Authorization", "Bearer " + adminToken)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ChangeFeedResponse.class)
+                .value(feed -> {
+                    assertThat(feed.isResyncRequired()).isFalse();
+                    assertThat(feed.getNextRevision()).isPositive();
+                    assertThat(feed.getChanges())
+                            .anyMatch(change -> "domain".equals(change.getEntity())
+                                    && change.getOperation() == ChangeFeedResponse.Operation.DELETE
+                                    && createdDomainId.equals(change.getId()));
+                    assertThat(feed.getChanges())
+                            .extracting(ChangeFeedResponse.Change::getRevision)
+                            .isSorted();
+                });
+    }
+
+    @Test
+    @Order(18)
+    @DisplayName("Test 18: Batch alias upsert should create, update and reject per item")
+    void testUpsertAliasBatch_Success() {
+        // Arrange: example.com is gone after Test 14, so the batch gets a domain of its own
+        webTestClient.post()
+                .uri("/api/v1/domains")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(DomainRequest.builder().domain("batch.com").build())
+                .exchange()
+                .expectStatus().isCreated();
+        webTestClient.post()
+                .uri("/api/v1/domains/aliases")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(AliasRequest.builder().source("info@batch.com").destination("admin@batch.com").build())
+                .exchange()
+                .expectStatus().isCreated();
+
+        List<AliasRequest> requests = List.of(
+                AliasRequest.builder().source("sales@batch.com").destination("admin@batch.com").build(),
+                AliasRequest.builder().source("info@batch.com").destination("batch@batch.com").build(),
+                AliasRequest.builder().source("ops@nonexistent.com").destination("admin@batch.com").build()
+        );
+
+        // Act & Assert
+        webTestClient.post()
+                .uri("/api/v1/domains/aliases/batch")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requests)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.total").isEqualTo(3)
+                .jsonPath("$.created").isEqualTo(1)
+                .jsonPath("$.updated").isEqualTo(1)
+                .jsonPath("$.rejected").isEqualTo(1)
+                .jsonPath("$.results[0].status").isEqualTo("CREATED")
+                .jsonPath("$.results[1].status").isEqualTo("UPDATED")
+                .jsonPath("$.results[2].status").isEqualTo("REJECTED");
+    }
 }
@@ -0,0 +1,195 @@
+package com.robin.gateway.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robin.gateway.service.EntityExportService;
+import com.robin.gateway.service.EntityExportService.Entity;
+import com.robin.gateway.service.EntityExportService.Format;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for EntityExportService.
+ * Streams real tables through the PostgreSQL server-side cursor, with a small fetch size and
+ * chunk size so that an export spans many round trips and chunks.
+ */
+@SpringBootTest
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EntityExportIntegrationTest {
+
+    private static final int DOMAINS = 5_000;
+    private static final String DOMAINS_SQL = "SELECT id, domain, created_at FROM domains ORDER BY id";
+
+    @Autowired
+    private EntityExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:15-alpine"))
+            .withDatabaseName("robin_test")
+            .withUsername("robin")
+            .withPassword("robin")
+            .withReuse(true);
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>(
+            DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379)
+            .withReuse(true);
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", redis::getFirstMappedPort);
+        registry.add("robin.service-url", () -> "http://localhost:9999");
+        registry.add("robin.export.fetch-size", () -> "100");
+        registry.add("robin.export.chunk-bytes", () -> "1024");
+    }
+
+    @BeforeAll
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO domains (domain) "
+                + "SELECT 'export' || i || '.test' FROM generate_series(1, ?) AS i", DOMAINS);
+        jdbcTemplate.update("INSERT INTO aliases (source, destination) VALUES "
+                + "('comma@export.test', 'a,b@export.test'), "
+                + "('quote@export.test', 'say \"hi\"@export.test'), "
+                + "('newline@export.test', E'first\\nsecond@export.test')");
+    }
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM aliases WHERE source LIKE '%@export.test'");
+        jdbcTemplate.update("DELETE FROM domains WHERE domain LIKE 'export%.test'");
+    }
+
+    private String export(Entity entity, Format format) {
+        return DataBufferUtils.join(exportService.export(entity, format, DefaultDataBufferFactory.sharedInstance))
+                .map(buffer -> {
+                    String text = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return text;
+                })
+                .block(Duration.ofSeconds(30));
+    }
+
+    /**
+     * Backends running the domain export that have not ended their transaction.
+     */
+    private int openExportCursors() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM pg_stat_activity "
+                + "WHERE query = ? AND state <> 'idle' AND pid <> pg_backend_pid()", Integer.class, DOMAINS_SQL);
+    }
+
+    @Test
+    @DisplayName("Should export a table as CSV with a header and quoted values")
+    void testCsv() {
+        String csv = export(Entity.ALIASES, Format.CSV);
+
+        assertThat(csv).startsWith("id,source,destination,created_at\n");
+        assertThat(csv).containsPattern("\\d+,comma@export\\.test,\"a,b@export\\.test\",\\S+\n");
+        assertThat(csv).containsPattern("\\d+,quote@export\\.test,\"say \"\"hi\"\"@export\\.test\",\\S+\n");
+        assertThat(csv).containsPattern("\\d+,newline@export\\.test,\"first\nsecond@export\\.test\",\\S+\n");
+    }
+
+    @Test
+    @DisplayName("Should export every row across many cursor fetches")
+    void testCsvAllRows() {
+        long expected = jdbcTemplate.queryForObject("SELECT count(*) FROM domains", Long.class);
+
+        String csv = export(Entity.DOMAINS, Format.CSV);
+
+        // Header plus one line per row, none split across chunks
+        assertThat(csv.lines()).hasSize((int) expected + 1);
+        assertThat(csv).contains("export1.test", "export" + DOMAINS + ".test");
+        assertThat(openExportCursors()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should export a table as NDJSON with typed values")
+    void testNdjson() throws Exception {
+        String ndjson = export(Entity.ALIASES, Format.NDJSON);
+
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        assertThat(rows).filteredOn(row -> row.get("source").asText().endsWith("@export.test"))
+                .extracting(row -> row.get("destination").asText())
+                .containsExactlyInAnyOrder("a,b@export.test", "say \"hi\"@export.test", "first\nsecond@export.test");
+        assertThat(rows).allSatisfy(row -> {
+            assertThat(row.get("id").isNumber()).isTrue();
+            assertThat(row.get("created_at").isTextual()).isTrue();
+        });
+    }
+
+    @Test
+    @DisplayName("Should close the cursor and end the transaction when the client cancels")
+    void testCancelClosesCursor() throws Exception {
+        List<DataBuffer> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<DataBuffer> client = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(DataBuffer chunk) {
+                received.add(chunk);
+            }
+        };
+        exportService.export(Entity.DOMAINS, Format.CSV, DefaultDataBufferFactory.sharedInstance).subscribe(client);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (received.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(received).hasSize(1);
+        // The cursor is held open in its transaction while the client is not reading
+        assertThat(openExportCursors()).isEqualTo(1);
+
+        client.dispose();
+
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (openExportCursors() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(openExportCursors()).isZero();
+    }
+}
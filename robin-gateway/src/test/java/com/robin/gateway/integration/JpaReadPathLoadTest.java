@@ -0,0 +1,22 @@
+package com.robin.gateway.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Read path load test with {@code robin.persistence.read-mode=jpa}.
+ */
+@DisplayName("JPA read path load test")
+class JpaReadPathLoadTest extends ReadPathLoadTestSupport {
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        configureCommonProperties(registry, "jpa");
+    }
+
+    @Override
+    String mode() {
+        return "jpa";
+    }
+}
@@ -0,0 +1,22 @@
+package com.robin.gateway.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Read path load test with {@code robin.persistence.read-mode=r2dbc}.
+ */
+@DisplayName("R2DBC read path load test")
+class R2dbcReadPathLoadTest extends ReadPathLoadTestSupport {
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        configureCommonProperties(registry, "r2dbc");
+    }
+
+    @Override
+    String mode() {
+        return "r2dbc";
+    }
+}
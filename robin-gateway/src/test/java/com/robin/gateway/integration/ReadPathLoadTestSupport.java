@@ -0,0 +1,213 @@
+package com.robin.gateway.integration;
+
+import com.robin.gateway.model.dto.AuthResponse;
+import com.robin.gateway.model.dto.LoginRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Shared load scenario for the read path implementations.
+ *
+ * Fires 2,000 concurrent requests at the domain lookup and current-user endpoints and
+ * reports throughput and p99 latency. Only runs with {@code -DloadTests=true}, e.g.
+ * {@code mvn test -Dtest='*ReadPathLoadTest' -DloadTests=true}.
+ * <p>
+ * Each run must stay within {@code -DloadTests.maxP99Ms} (default 2000) and
+ * {@code -DloadTests.minThroughput} requests per second (default 200). When both modes run in
+ * the same JVM, the second one also checks that r2dbc is not slower than jpa beyond
+ * {@code -DloadTests.tolerance} (default 0.10).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "loadTests", matches = "true")
+abstract class ReadPathLoadTestSupport {
+
+    private static final int CONCURRENCY = 2000;
+    private static final int WARMUP_REQUESTS = 200;
+    private static final double MAX_P99_MS = Double.parseDouble(System.getProperty("loadTests.maxP99Ms", "2000"));
+    private static final double MIN_THROUGHPUT = Double.parseDouble(System.getProperty("loadTests.minThroughput", "200"));
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("loadTests.tolerance", "0.10"));
+
+    /**
+     * Results by label and mode, shared by the subclasses for the comparison.
+     */
+    private static final Map<String, Map<String, Result>> RESULTS = new ConcurrentHashMap<>();
+
+    private record Result(double throughput, double p99) {
+    }
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:15-alpine"))
+            .withDatabaseName("robin_test")
+            .withUsername("robin")
+            .withPassword("robin")
+            .withReuse(true);
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>(
+            DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379)
+            .withReuse(true);
+
+    @LocalServerPort
+    private int port;
+
+    private WebClient client;
+    private ConnectionProvider connectionProvider;
+    private String accessToken;
+    private long domainId;
+
+    static void configureCommonProperties(DynamicPropertyRegistry registry, String readMode) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        registry.add("robin.persistence.read-mode", () -> readMode);
+        registry.add("robin.persistence.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":"
+                + postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + postgres.getDatabaseName());
+        registry.add("robin.persistence.r2dbc.username", postgres::getUsername);
+        registry.add("robin.persistence.r2dbc.password", postgres::getPassword);
+
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", redis::getFirstMappedPort);
+
+        registry.add("robin.service-url", () -> "http://localhost:9999");
+        registry.add("ROBIN_CLIENT_URL", () -> "http://localhost:9999");
+        registry.add("ROBIN_SERVICE_URL", () -> "http://localhost:9999");
+    }
+
+    /**
+     * @return label used in the report
+     */
+    abstract String mode();
+
+    @BeforeAll
+    void setUp() {
+        connectionProvider = ConnectionProvider.builder("read-path-load")
+                .maxConnections(CONCURRENCY)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        client = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+
+        AuthResponse auth = client.post()
+                .uri("/api/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(LoginRequest.builder().username("admin@robin.local").password("admin123").build())
+                .retrieve()
+                .bodyToMono(AuthResponse.class)
+                .block(Duration.ofSeconds(30));
+        assertThat(auth).isNotNull();
+        accessToken = auth.getTokens().getAccessToken();
+
+        Map<?, ?> domain = client.post()
+                .uri("/api/v1/domains")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("domain", "load-" + mode() + "-" + System.nanoTime() + ".test"))
+                .retrieve()
+                .bodyToMono(Map.class)
+                .block(Duration.ofSeconds(30));
+        assertThat(domain).isNotNull();
+        domainId = ((Number) domain.get("id")).longValue();
+    }
+
+    @Test
+    @DisplayName("Domain lookup under 2,000 concurrent requests")
+    void domainLookupLoad() {
+        runLoad("GET /api/v1/domains/{id}", "/api/v1/domains/" + domainId);
+    }
+
+    @Test
+    @DisplayName("Current user lookup under 2,000 concurrent requests")
+    void currentUserLoad() {
+        runLoad("GET /api/v1/auth/me", "/api/v1/auth/me");
+    }
+
+    private void runLoad(String label, String uri) {
+        // Warm up connections, JIT and both pools before measuring
+        fire(uri, WARMUP_REQUESTS);
+
+        long started = System.nanoTime();
+        long[] latencies = fire(uri, CONCURRENCY);
+        long elapsed = System.nanoTime() - started;
+
+        Arrays.sort(latencies);
+        double throughput = CONCURRENCY / (elapsed / 1_000_000_000.0);
+        double p50 = latencies[(int) (latencies.length * 0.50)] / 1_000_000.0;
+        double p99 = latencies[(int) Math.ceil(latencies.length * 0.99) - 1] / 1_000_000.0;
+
+        System.out.printf("[%s] %s: %d requests, %.0f req/s, p50 %.1f ms, p99 %.1f ms%n",
+                mode(), label, CONCURRENCY, throughput, p50, p99);
+
+        assertThat(p99).as("[%s] %s p99 ms", mode(), label).isLessThanOrEqualTo(MAX_P99_MS);
+        assertThat(throughput).as("[%s] %s req/s", mode(), label).isGreaterThanOrEqualTo(MIN_THROUGHPUT);
+
+        Map<String, Result> byMode = RESULTS.computeIfAbsent(label, key -> new ConcurrentHashMap<>());
+        byMode.put(mode(), new Result(throughput, p99));
+        Result r2dbc = byMode.get("r2dbc");
+        Result jpa = byMode.get("jpa");
+        if (r2dbc != null && jpa != null) {
+            assertThat(r2dbc.throughput()).as("%s req/s, r2dbc vs jpa", label)
+                    .isGreaterThanOrEqualTo(jpa.throughput() * (1 - TOLERANCE));
+            assertThat(r2dbc.p99()).as("%s p99 ms, r2dbc vs jpa", label)
+                    .isLessThanOrEqualTo(jpa.p99() * (1 + TOLERANCE));
+        }
+    }
+
+    private long[] fire(String uri, int requests) {
+        long[] latencies = Flux.range(0, requests)
+                .flatMap(i -> {
+                    long start = System.nanoTime();
+                    return client.get()
+                            .uri(uri)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                            .retrieve()
+                            .toBodilessEntity()
+                            .map(response -> {
+                                assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+                                return System.nanoTime() - start;
+                            });
+                }, requests)
+                .collectList()
+                .map(list -> list.stream().mapToLong(Long::longValue).toArray())
+                .block(Duration.ofMinutes(2));
+        assertThat(latencies).hasSize(requests);
+        return latencies;
+    }
+
+    @AfterAll
+    void tearDown() {
+        connectionProvider.disposeLater().block(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,225 @@
+package com.robin.gateway.integration;
+
+import com.robin.gateway.model.dto.AuthResponse;
+import com.robin.gateway.model.dto.LoginRequest;
+import com.robin.gateway.model.dto.SearchResponse;
+import com.robin.gateway.model.dto.SearchResponse.SearchHit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the typeahead search endpoint.
+ * Runs the ILIKE/similarity and prefix queries against PostgreSQL with pg_trgm, and
+ * checks with EXPLAIN that the trigram and prefix indexes serve them.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SearchIntegrationTest {
+
+    /** Generated aliases, enough that a sequential scan is the expensive plan. */
+    private static final int BULK_ALIASES = 20_000;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String adminToken;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:15-alpine"))
+            .withDatabaseName("robin_test")
+            .withUsername("robin")
+            .withPassword("robin")
+            .withReuse(true);
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>(
+            DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379)
+            .withReuse(true);
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", redis::getFirstMappedPort);
+        registry.add("robin.service-url", () -> "http://localhost:9999");
+    }
+
+    @BeforeAll
+    void setUp() {
+        adminToken = webTestClient.post()
+                .uri("/api/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(LoginRequest.builder().username("admin@robin.local").password("admin123").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AuthResponse.class)
+                .returnResult()
+                .getResponseBody()
+                .getTokens()
+                .getAccessToken();
+
+        for (int i = 1; i <= 4; i++) {
+            jdbcTemplate.update("INSERT INTO users (username, password) VALUES (?, 'x')", "kestrel" + i + "@search.test");
+            jdbcTemplate.update("INSERT INTO domains (domain) VALUES (?)", "kestrel" + i + ".search.test");
+        }
+        jdbcTemplate.update("INSERT INTO aliases (source, destination) VALUES ('sales@search.test', 'kestrel1@search.test')");
+        jdbcTemplate.update("INSERT INTO aliases (source, destination) VALUES ('kestrel-team@search.test', 'ops@search.test')");
+        // Wildcard look-alikes: only the literal match may be returned
+        jdbcTemplate.update("INSERT INTO domains (domain) VALUES ('under_score.search.test'), ('underXscore.search.test')");
+        jdbcTemplate.update("INSERT INTO domains (domain) VALUES ('fifty%off.search.test'), ('fiftyPERCENToff.search.test')");
+        jdbcTemplate.update("INSERT INTO aliases (source, destination) "
+                + "SELECT 'bulk' || i || '-' || md5(i::TEXT) || '@bulk.search.test', md5(i::TEXT || 'd') || '@bulk.search.test' "
+                + "FROM generate_series(1, ?) AS i", BULK_ALIASES);
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE domains");
+        jdbcTemplate.execute("ANALYZE aliases");
+    }
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM aliases WHERE source LIKE '%search.test'");
+        jdbcTemplate.update("DELETE FROM domains WHERE domain LIKE '%search.test'");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE '%search.test'");
+    }
+
+    private SearchResponse search(String query, int limit) {
+        return webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/search")
+                        .queryParam("q", "{q}")
+                        .queryParam("limit", limit)
+                        .build(query))
+                .header("Authorization", "Bearer " + adminToken)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(SearchResponse.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private String explain(String sql) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+        return String.join("\n", plan);
+    }
+
+    /**
+     * Plan of a query on a table too small for the planner to prefer an index on its own;
+     * only shows that the index can serve the predicate.
+     */
+    private String explainWithoutSeqScan(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                try (ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+                    StringBuilder plan = new StringBuilder();
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                    return plan.toString();
+                } finally {
+                    statement.execute("RESET enable_seqscan");
+                }
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Should group substring matches by type, capped per group")
+    void testGroupedAndLimited() {
+        SearchResponse response = search("KESTREL", 3);
+
+        assertThat(response.getQuery()).isEqualTo("kestrel");
+        assertThat(response.getUsers()).hasSize(3)
+                .allSatisfy(hit -> assertThat(hit.getValue()).contains("kestrel"));
+        assertThat(response.getDomains()).hasSize(3)
+                .allSatisfy(hit -> assertThat(hit.getValue()).endsWith(".search.test"));
+        // One alias matches on its source, the other on its destination
+        assertThat(response.getAliases()).extracting(SearchHit::getValue)
+                .containsExactlyInAnyOrder("kestrel-team@search.test", "sales@search.test");
+        assertThat(response.getAliases()).filteredOn(hit -> hit.getValue().equals("sales@search.test"))
+                .extracting(SearchHit::getDetail).containsExactly("kestrel1@search.test");
+    }
+
+    @Test
+    @DisplayName("Should match % and _ literally")
+    void testWildcardsEscaped() {
+        assertThat(search("under_score", 10).getDomains()).extracting(SearchHit::getValue)
+                .containsExactly("under_score.search.test");
+        assertThat(search("fifty%off", 10).getDomains()).extracting(SearchHit::getValue)
+                .containsExactly("fifty%off.search.test");
+    }
+
+    @Test
+    @DisplayName("Should answer the alias OR predicate from both trigram indexes")
+    void testAliasPlanUsesTrigramIndexes() {
+        String plan = explain("SELECT id, source, destination FROM aliases "
+                + "WHERE source ILIKE '%kestrel%' ESCAPE '\\' OR destination ILIKE '%kestrel%' ESCAPE '\\' "
+                + "ORDER BY GREATEST(similarity(source, 'kestrel'), similarity(destination, 'kestrel')) DESC, source "
+                + "LIMIT 10");
+
+        assertThat(plan).contains("BitmapOr", "idx_aliases_source_trgm", "idx_aliases_destination_trgm")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    @DisplayName("Should answer user and domain searches from their trigram indexes")
+    void testUserAndDomainPlansUseTrigramIndexes() {
+        String users = explainWithoutSeqScan("SELECT id, username FROM users "
+                + "WHERE username ILIKE '%kestrel%' ESCAPE '\\' "
+                + "ORDER BY similarity(username, 'kestrel') DESC, username LIMIT 10");
+        String domains = explainWithoutSeqScan("SELECT id, domain FROM domains "
+                + "WHERE domain ILIKE '%kestrel%' ESCAPE '\\' "
+                + "ORDER BY similarity(domain, 'kestrel') DESC, domain LIMIT 10");
+
+        assertThat(users).contains("idx_users_username_trgm");
+        assertThat(domains).contains("idx_domains_domain_trgm");
+    }
+
+    @Test
+    @DisplayName("Should match short terms as a prefix from the btree indexes")
+    void testShortTermsUsePrefixIndexes() {
+        assertThat(search("ke", 10).getDomains()).extracting(SearchHit::getValue)
+                .containsExactly("kestrel1.search.test", "kestrel2.search.test",
+                        "kestrel3.search.test", "kestrel4.search.test");
+
+        String aliases = explain("SELECT id, source, destination FROM aliases "
+                + "WHERE lower(source) LIKE 'ke%' OR lower(destination) LIKE 'ke%' "
+                + "ORDER BY lower(source) LIMIT 10");
+        String users = explainWithoutSeqScan("SELECT id, username FROM users "
+                + "WHERE lower(username) LIKE 'ke%' ORDER BY lower(username) LIMIT 10");
+
+        assertThat(aliases).contains("idx_aliases_source_prefix").doesNotContain("Seq Scan");
+        assertThat(users).contains("idx_users_username_prefix");
+    }
+}
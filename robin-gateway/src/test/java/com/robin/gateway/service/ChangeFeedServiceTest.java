@@ -0,0 +1,175 @@
+package com.robin.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robin.gateway.datasource.DatabaseCalls;
+import com.robin.gateway.datasource.WorkloadProperties;
+import com.robin.gateway.model.dto.ChangeFeedResponse;
+import com.robin.gateway.model.dto.ChangeFeedResponse.Change;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.publisher.Mono;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ChangeFeedService.
+ * <p>
+ * The database is a stub serving a list of change rows, a horizon and a purge mark; the
+ * queries themselves run against PostgreSQL in DomainManagementIntegrationTest. LISTEN is
+ * disabled, so waiting polls are woken by the tick alone.
+ */
+@DisplayName("ChangeFeedService Tests")
+class ChangeFeedServiceTest {
+
+    /** One row of the changes query. */
+    private record Row(long revision, String entity, String operation, long id) {
+    }
+
+    private final List<Row> rows = new CopyOnWriteArrayList<>();
+    private final AtomicInteger pageReads = new AtomicInteger();
+    private volatile long horizon = 100;
+    private volatile Long purgedThrough = 0L;
+    private ChangeFeedService service;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T queryForObject(String sql, Class<T> requiredType) {
+                if (sql.contains("entity_revision_horizon")) {
+                    pageReads.incrementAndGet();
+                    return (T) Long.valueOf(horizon);
+                }
+                return (T) purgedThrough;
+            }
+
+            @Override
+            public void query(String sql, RowCallbackHandler handler, Object... args) {
+                // since, until and limit of the first branch; the same for every branch
+                long since = (Long) args[0];
+                long until = (Long) args[1];
+                int limit = (Integer) args[args.length - 1];
+                try {
+                    for (Row row : rows.stream()
+                            .filter(row -> row.revision() > since && row.revision() < until)
+                            .limit(limit)
+                            .toList()) {
+                        handler.processRow(resultSet(row));
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        DatabaseCalls databaseCalls = new DatabaseCalls(mock(PlatformTransactionManager.class),
+                new WorkloadProperties(), new SimpleMeterRegistry());
+        service = new ChangeFeedService(jdbcTemplate, databaseCalls, new ObjectMapper(), 1000,
+                Duration.ofSeconds(30), Duration.ofMillis(50), Duration.ofDays(7), false, "", "", "");
+        service.startListening();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stopListening();
+    }
+
+    private static ResultSet resultSet(Row row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("revision")).thenReturn(row.revision());
+        when(rs.getString("entity")).thenReturn(row.entity());
+        when(rs.getString("operation")).thenReturn(row.operation());
+        when(rs.getLong("id")).thenReturn(row.id());
+        when(rs.getString("data")).thenReturn("{}");
+        return rs;
+    }
+
+    @Test
+    @DisplayName("Should keep a long poll waiting through ticks until the wait runs out")
+    void testLongPollHeldUntilWaitExpires() {
+        long start = System.nanoTime();
+        ChangeFeedResponse page = service.getChanges(0, 10, Duration.ofMillis(600)).block(Duration.ofSeconds(5));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(page.getChanges()).isEmpty();
+        assertThat(page.getNextRevision()).isZero();
+        // Woken by several 50 ms ticks, but held for the whole wait
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(600);
+        assertThat(pageReads.get()).isGreaterThan(2);
+    }
+
+    @Test
+    @DisplayName("Should answer a long poll as soon as a change becomes visible")
+    void testLongPollAnsweredOnChange() {
+        Mono.delay(Duration.ofMillis(200)).subscribe(tick -> rows.add(new Row(7, "domain", "UPSERT", 1)));
+
+        long start = System.nanoTime();
+        ChangeFeedResponse page = service.getChanges(0, 10, Duration.ofSeconds(10)).block(Duration.ofSeconds(5));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(page.getChanges()).extracting(Change::getRevision).containsExactly(7L);
+        assertThat(page.getNextRevision()).isEqualTo(7);
+        assertThat(elapsedMs).isLessThan(2000);
+    }
+
+    @Test
+    @DisplayName("Should stop pages below the horizon of running transactions")
+    void testHorizon() {
+        rows.add(new Row(5, "domain", "UPSERT", 1));
+        rows.add(new Row(9, "alias", "UPSERT", 2));
+        horizon = 9;
+
+        ChangeFeedResponse page = service.getChanges(0, 10, Duration.ZERO).block(Duration.ofSeconds(5));
+
+        assertThat(page.getChanges()).extracting(Change::getRevision).containsExactly(5L);
+        assertThat(page.getNextRevision()).isEqualTo(5);
+        assertThat(page.isHasMore()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not split one transaction's changes across pages")
+    void testTransactionNotSplit() {
+        rows.add(new Row(5, "domain", "UPSERT", 1));
+        rows.add(new Row(6, "alias", "UPSERT", 2));
+        rows.add(new Row(6, "alias", "UPSERT", 3));
+
+        ChangeFeedResponse page = service.getChanges(0, 2, Duration.ZERO).block(Duration.ofSeconds(5));
+
+        assertThat(page.getChanges()).extracting(Change::getRevision).containsExactly(5L);
+        assertThat(page.getNextRevision()).isEqualTo(5);
+        assertThat(page.isHasMore()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should ask for a resync once tombstones after since have been purged")
+    void testResyncAfterPurge() {
+        rows.add(new Row(50, "domain", "DELETE", 1));
+        purgedThrough = 40L;
+        horizon = 60;
+
+        ChangeFeedResponse behind = service.getChanges(30, 10, Duration.ofSeconds(10)).block(Duration.ofSeconds(5));
+        ChangeFeedResponse current = service.getChanges(40, 10, Duration.ZERO).block(Duration.ofSeconds(5));
+
+        // Answered at once, not held: the client must reload and continue from below the horizon
+        assertThat(behind.isResyncRequired()).isTrue();
+        assertThat(behind.getChanges()).isEmpty();
+        assertThat(behind.getNextRevision()).isEqualTo(59);
+        assertThat(current.isResyncRequired()).isFalse();
+        assertThat(current.getChanges()).extracting(Change::getRevision).containsExactly(50L);
+    }
+}
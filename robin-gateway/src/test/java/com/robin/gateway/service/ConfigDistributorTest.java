@@ -0,0 +1,143 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.model.dto.ConfigDistributionReport;
+import com.robin.gateway.model.dto.ConfigDistributionReport.NodeStatus;
+import com.robin.gateway.service.RobinNodesProperties.Mode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ConfigDistributor.
+ */
+@DisplayName("ConfigDistributor Tests")
+class ConfigDistributorTest {
+
+    @TempDir
+    Path configDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<String, String> reloadedHosts = new ConcurrentHashMap<>();
+    private final Set<String> failingHosts = ConcurrentHashMap.newKeySet();
+    private final RobinNodesProperties properties = new RobinNodesProperties();
+    private ConfigStore store;
+    private ConfigDistributor distributor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.writeString(configDir.resolve("relay.json5"), "{ enabled: true, port: 25 }");
+        store = new ConfigStore(configDir.toString(), 3, DataSize.ofMegabytes(8), meterRegistry);
+        store.init();
+
+        for (String host : List.of("robin-1", "robin-2", "robin-3", "robin-4")) {
+            RobinNodesProperties.Node node = new RobinNodesProperties.Node();
+            node.setName(host);
+            node.setUrl("http://" + host + ":8080");
+            properties.getEndpoints().add(node);
+        }
+        properties.setTimeout(Duration.ofSeconds(5));
+        properties.setWaveSize(2);
+        properties.setHealthTimeout(Duration.ofMillis(200));
+        properties.setHealthInterval(Duration.ofMillis(20));
+
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(this::robin);
+        distributor = new ConfigDistributor(store, properties, builder, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    /**
+     * Minimal Robin service API: accepts pushes and reloads, serves the relay section back.
+     */
+    private Mono<ClientResponse> robin(ClientRequest request) {
+        String host = request.url().getHost();
+        String path = request.url().getPath();
+        if (failingHosts.contains(host) && !path.equals("/config/json")) {
+            return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+        }
+        if (request.method() == HttpMethod.POST) {
+            reloadedHosts.put(host, path);
+        }
+        if (request.method() == HttpMethod.GET && path.equals("/config/json")) {
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"enabled\":true,\"port\":25}")
+                    .build());
+        }
+        return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+    }
+
+    @Test
+    @DisplayName("Should push, reload and verify every node")
+    void testParallel() {
+        ConfigDistributionReport report = distributor.distribute(List.of("relay"), Mode.PARALLEL)
+                .block(Duration.ofSeconds(5));
+
+        String version = store.load("relay").etag();
+        assertThat(report.isSucceeded()).isTrue();
+        assertThat(report.getVersions()).containsEntry("relay", version);
+        assertThat(report.getNodes()).hasSize(4).allSatisfy(node -> {
+            assertThat(node.getStatus()).isEqualTo(NodeStatus.SUCCEEDED);
+            assertThat(node.getVersions()).containsEntry("relay", version);
+            assertThat(node.getReloadMillis()).isNotNull();
+        });
+        assertThat(reloadedHosts).hasSize(4).containsValue("/config/reload");
+    }
+
+    @Test
+    @DisplayName("Should report a failing node without failing the others")
+    void testNodeFailure() {
+        failingHosts.add("robin-2");
+
+        ConfigDistributionReport report = distributor.distribute(List.of("relay"), Mode.PARALLEL)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(report.isSucceeded()).isFalse();
+        assertThat(report.getNodes()).extracting(ConfigDistributionReport.Node::getStatus)
+                .containsExactly(NodeStatus.SUCCEEDED, NodeStatus.FAILED, NodeStatus.SUCCEEDED, NodeStatus.SUCCEEDED);
+        assertThat(report.getNodes().get(1).getError()).contains("503");
+        assertThat(meterRegistry.get("robin.config.distribution.node").tag("result", "failure").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should stop rolling after an unhealthy wave")
+    void testRollingHalts() {
+        failingHosts.add("robin-1");
+
+        ConfigDistributionReport report = distributor.distribute(List.of("relay"), Mode.ROLLING)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(report.getNodes()).extracting(ConfigDistributionReport.Node::getWave)
+                .containsExactly(1, 1, 2, 2);
+        assertThat(report.getNodes()).extracting(ConfigDistributionReport.Node::getStatus)
+                .containsExactly(NodeStatus.FAILED, NodeStatus.SUCCEEDED, NodeStatus.SKIPPED, NodeStatus.SKIPPED);
+        assertThat(report.getNodes().get(1).getHealthy()).isTrue();
+        assertThat(reloadedHosts).containsOnlyKeys("robin-2");
+    }
+}
@@ -0,0 +1,106 @@
+package com.robin.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ConfigEventService.
+ */
+@DisplayName("ConfigEventService Tests")
+class ConfigEventServiceTest {
+
+    @TempDir
+    Path configDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ConfigStore store;
+    private ConfigEventService events;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.writeString(configDir.resolve("relay.json5"), "{ enabled: false, port: 25 }");
+        store = new ConfigStore(configDir.toString(), 3, DataSize.ofMegabytes(8), meterRegistry);
+        store.init();
+        store.load("relay");
+        events = new ConfigEventService(store, objectMapper, 4, 8, Duration.ofMinutes(1), meterRegistry);
+        events.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        events.stop();
+        store.close();
+    }
+
+    private static Flux<ServerSentEvent<String>> changes(Flux<ServerSentEvent<String>> stream) {
+        return stream.filter(event -> event.data() != null);
+    }
+
+    @Test
+    @DisplayName("Should publish one event with version and diff for a gateway write")
+    void testWriteEvent() throws Exception {
+        String previous = store.load("relay").etag();
+        Flux<ServerSentEvent<String>> stream = changes(events.stream(null, null, true));
+
+        List<ServerSentEvent<String>> received = stream
+                .doOnSubscribe(s -> store.write("relay", Map.of("enabled", true, "port", 25), null))
+                .take(1)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        JsonNode event = objectMapper.readTree(received.get(0).data());
+        assertThat(received.get(0).event()).isEqualTo("config-change");
+        assertThat(received.get(0).id()).isEqualTo(String.valueOf(event.get("id").asLong()));
+        assertThat(event.get("section").asText()).isEqualTo("relay");
+        assertThat(event.get("type").asText()).isEqualTo("UPDATED");
+        assertThat(event.get("version").asText()).isEqualTo(store.load("relay").etag());
+        assertThat(event.get("previousVersion").asText()).isEqualTo(previous);
+        assertThat(event.get("diff")).isEqualTo(objectMapper.readTree(
+                "[{\"op\":\"replace\",\"path\":\"/enabled\",\"value\":true}]"));
+    }
+
+    @Test
+    @DisplayName("Should replay missed events after Last-Event-ID and filter by section")
+    void testReplay() throws Exception {
+        writeAndAwait("relay", Map.of("enabled", true));
+        writeAndAwait("storage", Map.of("path", "/var"));
+        writeAndAwait("relay", Map.of("enabled", false));
+
+        List<ServerSentEvent<String>> relayOnly = changes(events.stream(0L, Set.of("relay"), false))
+                .take(2)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(relayOnly).hasSize(2).allSatisfy(event -> {
+            JsonNode json = objectMapper.readTree(event.data());
+            assertThat(json.get("section").asText()).isEqualTo("relay");
+            assertThat(json.has("diff")).isFalse();
+        });
+        assertThat(meterRegistry.get("robin.config.events.subscribers").gauge().value()).isZero();
+    }
+
+    private void writeAndAwait(String section, Map<String, Object> content) {
+        changes(events.stream(null, Set.of(section), false))
+                .doOnSubscribe(s -> store.write(section, content, null))
+                .blockFirst(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,90 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.model.dto.ConfigReloadReport;
+import com.robin.gateway.model.dto.ConfigReloadReport.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ConfigReloadCoordinator.
+ */
+@DisplayName("ConfigReloadCoordinator Tests")
+class ConfigReloadCoordinatorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger reloadRequests = new AtomicInteger();
+
+    private ConfigReloadCoordinator coordinator(HttpStatus... responses) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            int call = reloadRequests.getAndIncrement();
+            HttpStatus status = responses[Math.min(call, responses.length - 1)];
+            return Mono.just(ClientResponse.create(status).build());
+        });
+        ConfigReloadProperties properties = new ConfigReloadProperties();
+        properties.setDebounce(Duration.ofMillis(100));
+        properties.setMaxDelay(Duration.ofSeconds(5));
+        properties.setBackoff(Duration.ofMillis(10));
+        ConfigDistributor singleNode = new ConfigDistributor(null, new RobinNodesProperties(), builder, meterRegistry);
+        return new ConfigReloadCoordinator(builder, "http://robin:8080", singleNode, properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should coalesce writes within the debounce window into one reload")
+    void testCoalescesWrites() {
+        ConfigReloadCoordinator coordinator = coordinator(HttpStatus.OK);
+
+        ConfigReloadCoordinator.ReloadHandle first = coordinator.submit("relay");
+        ConfigReloadCoordinator.ReloadHandle second = coordinator.submit("storage");
+        ConfigReloadCoordinator.ReloadHandle third = coordinator.submit("relay");
+
+        ConfigReloadReport report = third.completion().block(Duration.ofSeconds(5));
+        assertThat(first.completion().block(Duration.ofSeconds(5))).isEqualTo(report);
+        assertThat(second.completion().block(Duration.ofSeconds(5))).isEqualTo(report);
+
+        assertThat(report.getStatus()).isEqualTo(Status.SUCCEEDED);
+        assertThat(report.getWrites()).extracting(ConfigReloadReport.Write::getWriteId)
+                .containsExactly(first.writeId(), second.writeId(), third.writeId());
+        assertThat(reloadRequests.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("robin.config.reloads.saved").counter().count()).isEqualTo(2.0);
+        assertThat(coordinator.report(second.writeId())).contains(report);
+    }
+
+    @Test
+    @DisplayName("Should report pending writes before the reload runs")
+    void testPendingReport() {
+        ConfigReloadCoordinator coordinator = coordinator(HttpStatus.OK);
+
+        ConfigReloadCoordinator.ReloadHandle handle = coordinator.submit("relay");
+
+        assertThat(coordinator.report(handle.writeId())).get()
+                .extracting(ConfigReloadReport::getStatus).isEqualTo(Status.PENDING);
+        assertThat(coordinator.report(handle.writeId() + 100)).isEmpty();
+        handle.completion().block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should retry failed reloads and report the outcome")
+    void testRetries() {
+        ConfigReloadCoordinator recovering = coordinator(HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.OK);
+        ConfigReloadReport recovered = recovering.submit("relay").completion().block(Duration.ofSeconds(5));
+        assertThat(recovered.getStatus()).isEqualTo(Status.SUCCEEDED);
+        assertThat(recovered.getAttempts()).isEqualTo(2);
+
+        reloadRequests.set(0);
+        ConfigReloadCoordinator failing = coordinator(HttpStatus.SERVICE_UNAVAILABLE);
+        ConfigReloadReport failed = failing.submit("relay").completion().block(Duration.ofSeconds(5));
+        assertThat(failed.getStatus()).isEqualTo(Status.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(3);
+        assertThat(reloadRequests.get()).isEqualTo(3);
+    }
+}
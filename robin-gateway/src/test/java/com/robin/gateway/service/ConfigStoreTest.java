@@ -0,0 +1,201 @@
+package com.robin.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.robin.gateway.exception.InvalidRequestException;
+import com.robin.gateway.exception.NotFoundException;
+import com.robin.gateway.exception.PreconditionFailedException;
+import com.robin.gateway.model.dto.ConfigVersion;
+import com.robin.gateway.util.JsonPatches;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for ConfigStore.
+ */
+@DisplayName("ConfigStore Tests")
+class ConfigStoreTest {
+
+    @TempDir
+    Path configDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConfigStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new ConfigStore(configDir.toString(), 3, DataSize.ofMegabytes(8), meterRegistry);
+        store.init();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should parse JSON5 once and serve the cached tree")
+    void testCachesParsedTree() throws Exception {
+        // Written before the store watches, so no late change event invalidates between the loads
+        Files.writeString(configDir.resolve("relay.json5"), "{ // comment\n enabled: true, port: 25, }");
+        store.close();
+        store = new ConfigStore(configDir.toString(), 3, DataSize.ofMegabytes(8), meterRegistry);
+        store.init();
+
+        ConfigSnapshot first = store.load("relay");
+        ConfigSnapshot second = store.load("relay");
+
+        assertThat(first.tree().get("port").asInt()).isEqualTo(25);
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.get("robin.config.cache.requests").tag("result", "hit").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should fall back to .json and reject unknown or unsafe sections")
+    void testResolveSectionFile() throws Exception {
+        Files.writeString(configDir.resolve("storage.json"), "{\"path\": \"/var/mail\"}");
+
+        assertThat(store.load("storage").tree().get("path").asText()).isEqualTo("/var/mail");
+        assertThatThrownBy(() -> store.load("missing")).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> store.load("..")).isInstanceOf(InvalidRequestException.class);
+        // Shadowed by GET /api/v1/config/events and /reloads
+        Files.writeString(configDir.resolve("events.json"), "{}");
+        assertThatThrownBy(() -> store.load("events")).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> store.load("reloads")).isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    @DisplayName("Should drop the cached tree on its own writes")
+    void testWriteInvalidates() {
+        store.write("dovecot", Map.of("auth", true), null);
+        ConfigSnapshot before = store.load("dovecot");
+
+        store.write("dovecot", Map.of("auth", false), null);
+        ConfigSnapshot after = store.load("dovecot");
+
+        assertThat(after.generation()).isGreaterThan(before.generation());
+        assertThat(after.tree().get("auth").asBoolean()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should notice edits made outside the gateway")
+    void testWatcherInvalidates() throws Exception {
+        Path file = configDir.resolve("server.json5");
+        Files.writeString(file, "{ hostname: 'a' }");
+        store.load("server");
+
+        Files.writeString(file, "{ hostname: 'b' }");
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (store.cached("server") != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(store.load("server").tree().get("hostname").asText()).isEqualTo("b");
+    }
+
+    @Test
+    @DisplayName("Should tag content by hash and reject writes against a stale tag")
+    void testConditionalWrite() {
+        String written = store.write("relay", Map.of("port", 25), null).etag();
+        assertThat(store.load("relay").etag()).isEqualTo(written);
+
+        String updated = store.write("relay", Map.of("port", 587), written).etag();
+        assertThat(updated).isNotEqualTo(written);
+
+        assertThatThrownBy(() -> store.write("relay", Map.of("port", 2525), written))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(store.load("relay").tree().get("port").asInt()).isEqualTo(587);
+    }
+
+    @Test
+    @DisplayName("Should replace files atomically and keep a bounded ring of previous versions")
+    void testHistoryAndRestore() throws Exception {
+        for (int port = 1; port <= 5; port++) {
+            store.write("relay", Map.of("port", port), null);
+        }
+
+        List<ConfigVersion> versions = store.versions("relay");
+        assertThat(versions).hasSize(3);
+        assertThat(versions.get(0).getReplacedAt()).isAfterOrEqualTo(versions.get(2).getReplacedAt());
+        try (var files = Files.list(configDir)) {
+            assertThat(files.map(file -> file.getFileName().toString())).containsExactlyInAnyOrder("relay.json5", ".history");
+        }
+
+        // Newest kept version is the content before the last write
+        store.restore("relay", versions.get(0).getId(), null);
+        assertThat(store.load("relay").tree().get("port").asInt()).isEqualTo(4);
+        assertThat(store.versions("relay").get(0).getEtag()).isNotEqualTo(versions.get(0).getEtag());
+
+        assertThatThrownBy(() -> store.restore("relay", "123", null)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should keep archived versions apart from later in-place edits of the live file")
+    void testHistoryIndependentOfLiveFile() throws Exception {
+        // Long enough that the temporary file name for the replacing write is rejected
+        String section = "s".repeat(240);
+        Path live = configDir.resolve(section + ".json5");
+        Files.writeString(live, "{\"port\": 1}");
+
+        assertThatThrownBy(() -> store.write(section, Map.of("port", 2), null))
+                .isInstanceOf(UncheckedIOException.class);
+        Files.writeString(live, "{\"port\": 3}");
+
+        List<ConfigVersion> versions = store.versions(section);
+        assertThat(versions).hasSize(1);
+        Path version = configDir.resolve(".history").resolve(section).resolve(versions.get(0).getId() + ".json5");
+        assertThat(Files.readString(version)).isEqualTo("{\"port\": 1}");
+    }
+
+    @Test
+    @DisplayName("Should skip writes that do not change the content")
+    void testUnchangedWriteSkipped() throws Exception {
+        JsonNode patch = store.getObjectMapper().readTree("{\"port\": 25}");
+
+        ConfigWriteResult first = store.write("relay", Map.of("port", 25), null);
+        ConfigWriteResult again = store.write("relay", Map.of("port", 25), null);
+        ConfigWriteResult patched = store.update("relay", current -> JsonPatches.mergePatch(current, patch), null);
+
+        assertThat(first.changed()).isTrue();
+        assertThat(again.changed()).isFalse();
+        assertThat(patched.changed()).isFalse();
+        assertThat(again.etag()).isEqualTo(first.etag());
+        assertThat(store.versions("relay")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should describe large sections without caching their tree")
+    void testLargeSectionNotCached() throws Exception {
+        // Written before the store watches, so no late change event drops what is described
+        String content = "{ routes: [" + "{ domain: 'example.com', host: 'mx' },".repeat(10) + "] }";
+        Files.writeString(configDir.resolve("routing.json5"), content);
+        ConfigStore small = new ConfigStore(configDir.toString(), 3, DataSize.ofBytes(64), meterRegistry);
+        small.init();
+        try {
+            ConfigStore.ConfigFile file = small.describe("routing");
+            ConfigSnapshot loaded = small.load("routing");
+
+            assertThat(small.isLarge(file)).isTrue();
+            assertThat(file.size()).isEqualTo(Files.size(configDir.resolve("routing.json5")));
+            assertThat(file.etag()).isEqualTo(loaded.etag());
+            assertThat(small.cached("routing")).isNull();
+            assertThat(small.describe("routing")).isSameAs(file);
+        } finally {
+            small.close();
+        }
+    }
+}
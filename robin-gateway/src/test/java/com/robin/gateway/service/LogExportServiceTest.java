@@ -0,0 +1,167 @@
+package com.robin.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robin.gateway.exception.InvalidRequestException;
+import com.robin.gateway.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for LogExportService.
+ */
+@DisplayName("LogExportService Tests")
+class LogExportServiceTest {
+
+    private static final int LINES = 1000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger chunksSent = new AtomicInteger();
+
+    /**
+     * MTA log of {@code LINES} entries, every tenth an error with a stack frame, sent in
+     * 1000-byte chunks.
+     */
+    private LogExportService service(int maxPerUser) {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            log.append("2024-01-01 00:00:").append(String.format("%02d", i % 60)).append(".000 ")
+                    .append(i % 10 == 0 ? "ERROR" : "INFO ").append(" [smtp-1] Session - line ").append(i).append('\n');
+            if (i % 10 == 0) {
+                log.append("\tat Session.relay(Session.java:42)\n");
+            }
+        }
+        byte[] bytes = log.toString().getBytes(StandardCharsets.UTF_8);
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> Mono.just(
+                ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                        .body(Flux.range(0, (bytes.length + 999) / 1000)
+                                .map(i -> (DataBuffer) DefaultDataBufferFactory.sharedInstance.wrap(
+                                        ByteBuffer.wrap(bytes, i * 1000, Math.min(1000, bytes.length - i * 1000))))
+                                .doOnNext(chunk -> chunksSent.incrementAndGet()))
+                        .build()));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LogSegmentStore index = new LogSegmentStore(new LogIndexProperties(), meterRegistry);
+        LogService logService = new LogService(builder, index, "http://robin:8090", 4096, 1000, "UTC",
+                8, Duration.ofSeconds(10), meterRegistry);
+        return new LogExportService(logService, objectMapper, maxPerUser, 8, 16, meterRegistry);
+    }
+
+    private static String text(Flux<DataBuffer> body) {
+        return DataBufferUtils.join(body)
+                .map(buffer -> {
+                    String text = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return text;
+                })
+                .block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should export matching lines as written, stack traces included")
+    void testTextExport() {
+        LogFilter errors = new LogFilter("ERROR", null, null, null, null);
+        String text = text(service(2).export("alice", errors, LogExportService.Format.TEXT,
+                DefaultDataBufferFactory.sharedInstance));
+
+        List<String> lines = text.lines().toList();
+        assertThat(lines).hasSize(LINES / 10 * 2);
+        assertThat(lines.get(0)).isEqualTo("2024-01-01 00:00:00.000 ERROR [smtp-1] Session - line 0");
+        assertThat(lines.get(1)).isEqualTo("\tat Session.relay(Session.java:42)");
+    }
+
+    @Test
+    @DisplayName("Should export one JSON entry per line")
+    void testNdjsonExport() throws Exception {
+        LogFilter all = new LogFilter(null, null, null, null, null);
+        String text = text(service(2).export("alice", all, LogExportService.Format.from("json"),
+                DefaultDataBufferFactory.sharedInstance));
+
+        List<String> lines = text.lines().toList();
+        assertThat(lines).hasSize(LINES);
+        JsonNode last = objectMapper.readTree(lines.get(LINES - 1));
+        assertThat(last.get("message").asText()).isEqualTo("line 999");
+        assertThat(last.get("timestamp").asText()).isEqualTo("2024-01-01T00:00:39Z");
+        assertThat(objectMapper.readTree(lines.get(0)).get("stackTrace").asText())
+                .isEqualTo("\tat Session.relay(Session.java:42)");
+    }
+
+    @Test
+    @DisplayName("Should read the log only as fast as chunks are consumed")
+    void testBackpressure() {
+        LogFilter all = new LogFilter(null, null, null, null, null);
+        DataBuffer first = service(2).export("alice", all, LogExportService.Format.TEXT,
+                        DefaultDataBufferFactory.sharedInstance)
+                .blockFirst(Duration.ofSeconds(5));
+
+        assertThat(first.toString(StandardCharsets.UTF_8)).startsWith("2024-01-01 00:00:00.000 ERROR");
+        assertThat(chunksSent.get()).isLessThan(20);
+    }
+
+    @Test
+    @DisplayName("Should limit concurrent exports per user")
+    void testPerUserLimit() {
+        LogExportService service = service(1);
+        LogFilter all = new LogFilter(null, null, null, null, null);
+        // Reads one chunk and then holds the export open
+        BaseSubscriber<DataBuffer> running = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+        };
+        service.export("alice", all, LogExportService.Format.TEXT, DefaultDataBufferFactory.sharedInstance)
+                .subscribe(running);
+
+        assertThatThrownBy(() -> text(service.export("alice", all, LogExportService.Format.TEXT,
+                DefaultDataBufferFactory.sharedInstance)))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(text(service.export("bob", all, LogExportService.Format.TEXT,
+                DefaultDataBufferFactory.sharedInstance))).isNotEmpty();
+
+        running.dispose();
+        assertThat(text(service.export("alice", all, LogExportService.Format.TEXT,
+                DefaultDataBufferFactory.sharedInstance))).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not take a slot for an export that is never read")
+    void testUnsubscribedExportHoldsNoSlot() {
+        LogExportService service = service(1);
+        LogFilter all = new LogFilter(null, null, null, null, null);
+        for (int i = 0; i < 3; i++) {
+            service.export("alice", all, LogExportService.Format.TEXT, DefaultDataBufferFactory.sharedInstance);
+        }
+
+        assertThat(text(service.export("alice", all, LogExportService.Format.TEXT,
+                DefaultDataBufferFactory.sharedInstance))).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject unknown formats")
+    void testUnknownFormat() {
+        assertThatThrownBy(() -> LogExportService.Format.from("xml")).isInstanceOf(InvalidRequestException.class);
+    }
+}
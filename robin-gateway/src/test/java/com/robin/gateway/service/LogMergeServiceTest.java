@@ -0,0 +1,235 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.exception.InvalidRequestException;
+import com.robin.gateway.model.dto.LogEntry;
+import com.robin.gateway.model.dto.LogPage;
+import com.robin.gateway.model.dto.LogPage.SourceStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Unit tests for LogMergeService.
+ */
+@DisplayName("LogMergeService Tests")
+class LogMergeServiceTest {
+
+    private static final String ROBIN = """
+            2024-01-15 10:00:00.000 INFO  [smtp-1] Session - robin 0
+            2024-01-15 10:00:02.000 ERROR [smtp-2] Session - robin 2
+            java.io.IOException: relay failed
+            2024-01-15 10:00:04.000 INFO  [smtp-1] Session - robin 4
+            2024-01-15 10:00:06.000 INFO  [smtp-1] Session - robin 6
+            """;
+    private static final String DOVECOT = """
+            2024-01-15 10:00:01 imap(joe): Info: Logged in
+            2024-01-15 10:00:05 imap(joe): Error: Mailbox INBOX is locked
+            """;
+    private static final String CLAMAV = """
+            Mon Jan 15 10:00:03 2024 -> /tmp/msg-1: Eicar-Signature FOUND
+            """;
+
+    private final AtomicBoolean robinCancelled = new AtomicBoolean();
+
+    /**
+     * Sources robin, dovecot and clamav serving the logs above, broken answering 500 and
+     * stalled never sending a byte. With {@code robinOpen} the robin log is never completed.
+     */
+    private LogMergeService service(boolean robinOpen) {
+        Map<String, Flux<DataBuffer>> bodies = Map.of(
+                "robin", text(ROBIN).concatWith(robinOpen ? Flux.never() : Flux.empty())
+                        .doOnCancel(() -> robinCancelled.set(true)),
+                "dovecot", text(DOVECOT),
+                "clamav", text(CLAMAV),
+                "stalled", Flux.never());
+        return service(bodies, List.of("robin", "dovecot", "clamav", "broken", "stalled"), 256);
+    }
+
+    /**
+     * Sources named {@code names} serving {@code bodies}; a name without a body answers 500.
+     */
+    private LogMergeService service(Map<String, Flux<DataBuffer>> bodies, List<String> names, int prefetch) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            Flux<DataBuffer> body = bodies.get(request.url().getHost());
+            if (body == null) {
+                return Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+            }
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                    .body(body)
+                    .build());
+        });
+
+        LogSourcesProperties properties = new LogSourcesProperties();
+        properties.setSourceTimeout(Duration.ofMillis(200));
+        properties.setMergePrefetch(prefetch);
+        for (String name : names) {
+            LogSourcesProperties.Source source = new LogSourcesProperties.Source();
+            source.setName(name);
+            source.setUrl("http://" + name + ":8080/log");
+            properties.getSources().add(source);
+        }
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LogSegmentStore index = new LogSegmentStore(new LogIndexProperties(), meterRegistry);
+        LogService logService = new LogService(builder, index, "http://robin:8090", 4096, 1000, "UTC", 8, Duration.ofSeconds(10), meterRegistry);
+        return new LogMergeService(logService, properties, builder, "http://robin:8090");
+    }
+
+    private static String slowLine(long i) {
+        return String.format("2024-01-15 10:00:%02d.500 INFO  [smtp-1] Session - slow %d%n", i * 10, i);
+    }
+
+    private static Flux<DataBuffer> text(String log) {
+        return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(log.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static LogFilter all() {
+        return new LogFilter(null, null, null, null, null);
+    }
+
+    @Test
+    @DisplayName("Should merge sources in timestamp order and report failed and timed out sources")
+    void testMergeOrderAndFailures() {
+        LogPage page = service(false).getLogs(null, all(), 100, 0, LogService.Order.OLDEST)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(page.getEntries()).extracting(LogEntry::getMessage).containsExactly(
+                "robin 0", "imap(joe): Info: Logged in", "robin 2", "/tmp/msg-1: Eicar-Signature FOUND",
+                "robin 4", "imap(joe): Error: Mailbox INBOX is locked", "robin 6");
+        assertThat(page.getEntries()).extracting(LogEntry::getSource).containsExactly(
+                "robin", "dovecot", "robin", "clamav", "robin", "dovecot", "robin");
+        LogEntry clamav = page.getEntries().get(3);
+        assertThat(clamav.getTimestamp()).isEqualTo("2024-01-15T10:00:03Z");
+        assertThat(clamav.getLogger()).isEqualTo("clamav");
+        assertThat(page.getEntries().get(2).getStackTrace()).isEqualTo("java.io.IOException: relay failed");
+        assertThat(page.isHasMore()).isFalse();
+
+        assertThat(page.getSources()).extracting(LogPage.Source::getName, LogPage.Source::getStatus).containsExactly(
+                tuple("robin", SourceStatus.OK),
+                tuple("dovecot", SourceStatus.OK),
+                tuple("clamav", SourceStatus.OK),
+                tuple("broken", SourceStatus.FAILED),
+                tuple("stalled", SourceStatus.TIMED_OUT));
+        assertThat(page.getSources().get(0).getEntries()).isEqualTo(4);
+        assertThat(page.getSources().get(3).getError()).contains("500");
+    }
+
+    @Test
+    @DisplayName("Should filter each selected source and page newest first")
+    void testNewestFirstWithFilter() {
+        LogFilter errors = new LogFilter("ERROR", null, null, null, null);
+        LogPage page = service(false).getLogs(List.of("robin", "dovecot"), errors, 1, 0, LogService.Order.NEWEST)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(page.getEntries()).extracting(LogEntry::getMessage)
+                .containsExactly("imap(joe): Error: Mailbox INBOX is locked");
+        assertThat(page.getTotal()).isEqualTo(2);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getSources()).extracting(LogPage.Source::getName).containsExactly("robin", "dovecot");
+    }
+
+    @Test
+    @DisplayName("Should stop reading a source past the end of the time range")
+    void testEndTimeCancelsSource() {
+        LogFilter range = new LogFilter(null, null, null, null, Instant.parse("2024-01-15T10:00:03Z"));
+        LogPage page = service(true).getLogs(List.of("robin", "dovecot"), range, 100, 0, LogService.Order.OLDEST)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(page.getEntries()).extracting(LogEntry::getMessage)
+                .containsExactly("robin 0", "imap(joe): Info: Logged in", "robin 2");
+        assertThat(robinCancelled).isTrue();
+        assertThat(page.getSources()).allSatisfy(source -> assertThat(source.getStatus()).isEqualTo(SourceStatus.OK));
+    }
+
+    @Test
+    @DisplayName("Should not time out a fast source while the merge waits on a slow one")
+    void testSlowAndFastSource() {
+        // Two entries up front, then one every 100 ms: 400 ms in all, longer than the
+        // timeout, while the fast source is held back by the merge
+        Flux<DataBuffer> slow = text(slowLine(0) + slowLine(1)).concatWith(
+                Flux.interval(Duration.ofMillis(100))
+                        .take(4)
+                        .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+                                slowLine(i + 2).getBytes(StandardCharsets.UTF_8))));
+        // Everything at once, but only read as the slow source catches up
+        StringBuilder fast = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            fast.append(String.format("2024-01-15 10:00:%02d.000 INFO  [smtp-2] Session - fast %d%n", i, i));
+        }
+        LogMergeService service = service(Map.of("slow", slow, "fast", text(fast.toString())),
+                List.of("slow", "fast"), 2);
+
+        LogPage page = service.getLogs(null, all(), 100, 0, LogService.Order.OLDEST).block(Duration.ofSeconds(5));
+
+        assertThat(page.getSources()).extracting(LogPage.Source::getName, LogPage.Source::getStatus).containsExactly(
+                tuple("slow", SourceStatus.OK),
+                tuple("fast", SourceStatus.OK));
+        assertThat(page.getEntries()).hasSize(46);
+        assertThat(page.getEntries()).extracting(entry -> Instant.parse(entry.getTimestamp())).isSorted();
+    }
+
+    @Test
+    @DisplayName("Should time out a source that stalls after its first entries")
+    void testStallAfterFirstEntry() {
+        // The second entry is only complete once a third line arrives, which never happens
+        Flux<DataBuffer> stuck = text(slowLine(0) + slowLine(1)).concatWith(Flux.never());
+        LogMergeService service = service(Map.of("robin", text(ROBIN), "stuck", stuck),
+                List.of("robin", "stuck"), 2);
+
+        LogPage page = service.getLogs(null, all(), 100, 0, LogService.Order.OLDEST).block(Duration.ofSeconds(5));
+
+        assertThat(page.getEntries()).extracting(LogEntry::getMessage)
+                .containsExactly("robin 0", "slow 0", "robin 2", "robin 4", "robin 6");
+        assertThat(page.getSources()).extracting(LogPage.Source::getName, LogPage.Source::getStatus).containsExactly(
+                tuple("robin", SourceStatus.OK),
+                tuple("stuck", SourceStatus.TIMED_OUT));
+    }
+
+    @Test
+    @DisplayName("Should drop leading lines that start no entry")
+    void testLeadingLinesDropped() {
+        Flux<DataBuffer> rotated = text("""
+                	at com.robin.smtp.Session.relay(Session.java:120)
+                output of some other program
+                2024-01-15 10:00:01.000 INFO  [smtp-3] Session - rotated 1
+                """);
+        LogFilter range = new LogFilter(null, null, null, null, Instant.parse("2024-01-15T10:00:03Z"));
+        LogMergeService service = service(Map.of("robin", text(ROBIN), "rotated", rotated),
+                List.of("robin", "rotated"), 256);
+
+        LogPage page = service.getLogs(null, range, 100, 0, LogService.Order.OLDEST).block(Duration.ofSeconds(5));
+
+        // Not stamped with the current time, which would end the source at the end of the range
+        assertThat(page.getEntries()).extracting(LogEntry::getMessage)
+                .containsExactly("robin 0", "rotated 1", "robin 2");
+        assertThat(page.getEntries().get(1).getStackTrace()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject unknown sources")
+    void testUnknownSource() {
+        assertThatThrownBy(() -> service(false).getLogs(List.of("postfix"), all(), 10, 0, LogService.Order.NEWEST)
+                .block())
+                .isInstanceOf(InvalidRequestException.class);
+    }
+}
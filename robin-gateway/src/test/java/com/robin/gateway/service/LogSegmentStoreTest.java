@@ -0,0 +1,202 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.model.dto.LogEntry;
+import com.robin.gateway.model.dto.LogPage;
+import com.robin.gateway.util.LogLineParser;
+import com.robin.gateway.util.LogLineParser.LogLine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for LogSegmentStore.
+ */
+@DisplayName("LogSegmentStore Tests")
+class LogSegmentStoreTest {
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+            .withZone(ZoneOffset.UTC);
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LogLineParser parser = new LogLineParser(ZoneOffset.UTC);
+    private LogIndexProperties properties;
+    private LogSegmentStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new LogIndexProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setBlockEntries(10);
+        properties.setRetention(Duration.ofDays(36500));
+        store = open();
+
+        // Three hours of one INFO entry per minute; a single relay failure at 01:30
+        for (int minute = 0; minute < 180; minute++) {
+            boolean failure = minute == 90;
+            store.append(entry(START.plusSeconds(minute * 60L), failure ? "ERROR" : "INFO",
+                    failure ? "Relay" : "Session", "entry " + minute), failure ? "Relay" : "Session");
+        }
+        store.flush();
+    }
+
+    private LogSegmentStore open() throws Exception {
+        LogSegmentStore opened = new LogSegmentStore(properties, meterRegistry);
+        opened.init();
+        return opened;
+    }
+
+    private LogLine entry(Instant time, String level, String logger, String message) {
+        return parser.parse(FORMAT.format(time) + " " + level + " [main] " + logger + " - " + message);
+    }
+
+    private static long hour(int hour) {
+        return START.plusSeconds(hour * 3600L).toEpochMilli();
+    }
+
+    private long blocks(long from, long to, LogLineParser.Level level, String logger) {
+        return store.blocks(from, to, level, logger, false).count().block();
+    }
+
+    @Test
+    @DisplayName("Should write one segment per bucket with a sparse block index")
+    void testSegments() throws Exception {
+        assertThat(directory.resolve(hour(0) + ".log.gz")).exists();
+        assertThat(directory.resolve(hour(2) + ".idx")).exists();
+        assertThat(Files.readAllLines(directory.resolve("loggers.txt"))).containsExactly("Session", "Relay");
+        assertThat(blocks(Long.MIN_VALUE, Long.MAX_VALUE, null, null)).isEqualTo(18);
+        assertThat(store.lastTimestamp()).isEqualTo(START.plusSeconds(179 * 60L).toEpochMilli());
+        assertThat(meterRegistry.get("robin.logs.index.segments").gauge().value()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("Should select only blocks that can hold matching entries")
+    void testPruning() {
+        assertThat(blocks(hour(1), hour(2), null, null)).isEqualTo(6);
+        assertThat(blocks(hour(1) + 25 * 60_000L, hour(1) + 35 * 60_000L, null, null)).isEqualTo(2);
+        assertThat(blocks(Long.MIN_VALUE, Long.MAX_VALUE, LogLineParser.Level.ERROR, null)).isEqualTo(1);
+        assertThat(blocks(Long.MIN_VALUE, Long.MAX_VALUE, null, "Relay")).isEqualTo(1);
+        assertThat(blocks(Long.MIN_VALUE, Long.MAX_VALUE, null, "Unknown")).isZero();
+        assertThat(blocks(Long.MIN_VALUE, hour(1), LogLineParser.Level.ERROR, null)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should read back the original lines, including unflushed entries")
+    void testRead() {
+        store.append(entry(START.plusSeconds(3 * 3600L), "WARN", "Queue", "pending"), "Queue");
+
+        List<String> newest = store.blocks(hour(3), Long.MAX_VALUE, null, null, true)
+                .concatMap(block -> block)
+                .collectList()
+                .block();
+
+        assertThat(newest).containsExactly("2024-01-01 03:00:00.000 WARN [main] Queue - pending");
+        assertThat(store.blocks(hour(1) + 29 * 60_000L, hour(1) + 30 * 60_000L, null, null, false)
+                .concatMap(block -> block)
+                .collectList()
+                .block())
+                .hasSize(10)
+                .contains("2024-01-01 01:29:00.000 INFO [main] Session - entry 89");
+    }
+
+    @Test
+    @DisplayName("Should keep later offsets right and count the failure when an index line cannot be written")
+    void testIndexWriteFailure() throws Exception {
+        // A directory in place of the index file makes appending the index line fail
+        Path index = Files.createDirectory(directory.resolve(hour(3) + ".idx"));
+        store.append(entry(START.plusSeconds(3 * 3600L), "WARN", "Queue", "lost"), "Queue");
+        store.flush();
+        Files.delete(index);
+        store.append(entry(START.plusSeconds(3 * 3600L + 60), "WARN", "Queue", "kept"), "Queue");
+        store.flush();
+
+        assertThat(meterRegistry.counter("robin.logs.index.write.failures").count()).isEqualTo(1.0);
+        assertThat(store.blocks(hour(3), Long.MAX_VALUE, null, null, false)
+                .concatMap(block -> block)
+                .collectList()
+                .block())
+                .containsExactly("2024-01-01 03:01:00.000 WARN [main] Queue - kept");
+    }
+
+    @Test
+    @DisplayName("Should count and skip an entry whose new logger cannot be recorded")
+    void testLoggerWriteFailure() throws Exception {
+        // A directory in place of the loggers file makes recording a new logger fail
+        Files.delete(directory.resolve("loggers.txt"));
+        Path loggers = Files.createDirectory(directory.resolve("loggers.txt"));
+        store.append(entry(START.plusSeconds(3 * 3600L), "WARN", "Queue", "lost"), "Queue");
+        Files.delete(loggers);
+        store.append(entry(START.plusSeconds(3 * 3600L + 60), "WARN", "Queue", "kept"), "Queue");
+        store.append(entry(START.plusSeconds(3 * 3600L + 120), "INFO", "Session", "known"), "Session");
+        store.flush();
+
+        assertThat(meterRegistry.counter("robin.logs.index.write.failures").count()).isEqualTo(1.0);
+        assertThat(store.blocks(hour(3), Long.MAX_VALUE, null, null, false)
+                .concatMap(block -> block)
+                .collectList()
+                .block())
+                .containsExactly("2024-01-01 03:01:00.000 WARN [main] Queue - kept",
+                        "2024-01-01 03:02:00.000 INFO [main] Session - known");
+    }
+
+    @Test
+    @DisplayName("Should reload segments after a restart")
+    void testReopen() throws Exception {
+        store = open();
+
+        assertThat(store.lastTimestamp()).isEqualTo(START.plusSeconds(179 * 60L).toEpochMilli());
+        assertThat(blocks(Long.MIN_VALUE, Long.MAX_VALUE, null, "Relay")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should delete whole segments past the retention")
+    void testPurge() throws Exception {
+        // Only the first hour ends before the cutoff at 01:30
+        properties.setRetention(Duration.between(START.plusSeconds(5400), Instant.now()));
+        store.purge();
+
+        assertThat(directory.resolve(hour(0) + ".log.gz")).doesNotExist();
+        assertThat(directory.resolve(hour(1) + ".idx")).exists();
+        assertThat(Files.list(directory).filter(file -> file.toString().endsWith(".idx")).count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should answer time-range queries from the index without calling the MTA")
+    void testQueryThroughService() {
+        WebClient.Builder failing = WebClient.builder().exchangeFunction(request ->
+                Mono.error(new IllegalStateException("MTA must not be called")));
+        LogService service = new LogService(failing, store, "http://robin:8090", 4096, 1000, "UTC", 8, Duration.ofSeconds(10), meterRegistry);
+
+        LogPage page = service.getLogs(new LogFilter(null, "Session", null,
+                        Instant.ofEpochMilli(hour(1)), Instant.ofEpochMilli(hour(2))), 3, 0, LogService.Order.NEWEST)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(page.getEntries()).extracting(LogEntry::getMessage)
+                .containsExactly("entry 119", "entry 118", "entry 117");
+        assertThat(page.isHasMore()).isTrue();
+
+        LogPage errors = service.getLogs(new LogFilter("ERROR", null, "RELAY", null, null), 10, 0,
+                        LogService.Order.OLDEST)
+                .block(Duration.ofSeconds(5));
+        assertThat(errors.getEntries()).singleElement()
+                .satisfies(entry -> assertThat(entry.getTimestamp()).isEqualTo("2024-01-01T01:30:00Z"));
+    }
+}
@@ -0,0 +1,196 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.exception.InvalidRequestException;
+import com.robin.gateway.model.dto.LogEntry;
+import com.robin.gateway.model.dto.LogPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for LogService.
+ */
+@DisplayName("LogService Tests")
+class LogServiceTest {
+
+    private static final int LINES = 10_000;
+
+    private final AtomicInteger chunksSent = new AtomicInteger();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicReference<String> appended = new AtomicReference<>("");
+
+    /**
+     * MTA log of {@code LINES} entries, every tenth an error with a two-line stack trace,
+     * followed by {@code appended}, sent in 1000-byte chunks that split lines at arbitrary
+     * points.
+     */
+    private LogService service() {
+        StringBuilder log = new StringBuilder("Usage: logs?q=term\r\n");
+        for (int i = 0; i < LINES; i++) {
+            log.append("2024-01-01 00:00:00.250 ").append(i % 10 == 0 ? "ERROR" : "INFO ")
+                    .append(" [smtp-").append(i % 4).append("] Session - line ").append(i).append("\r\n");
+            if (i % 10 == 0) {
+                log.append("java.io.IOException: line ").append(i).append("\r\n")
+                        .append("\tat Session.relay(Session.java:42)\r\n");
+            }
+        }
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            requests.incrementAndGet();
+            byte[] bytes = (log + appended.get()).getBytes(StandardCharsets.UTF_8);
+            Flux<DataBuffer> body = Flux.range(0, (bytes.length + 999) / 1000)
+                    .map(i -> (DataBuffer) DefaultDataBufferFactory.sharedInstance.wrap(
+                            ByteBuffer.wrap(bytes, i * 1000, Math.min(1000, bytes.length - i * 1000))))
+                    .doOnNext(chunk -> chunksSent.incrementAndGet())
+                    .doOnCancel(() -> cancelled.set(true));
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                    .body(body)
+                    .build());
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LogSegmentStore index = new LogSegmentStore(new LogIndexProperties(), meterRegistry);
+        return new LogService(builder, index, "http://robin:8090", 4096, 1000, "UTC", 8, Duration.ofSeconds(10), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should return newest entries first while counting every match")
+    void testNewestFirst() {
+        LogPage page = service().getLogs(null, null, 3, 2, LogService.Order.NEWEST).block(Duration.ofSeconds(5));
+
+        assertThat(page.getEntries()).extracting(LogEntry::getMessage)
+                .containsExactly("line 9997", "line 9996", "line 9995");
+        LogEntry first = page.getEntries().get(0);
+        assertThat(first.getTimestamp()).isEqualTo("2024-01-01T00:00:00.250Z");
+        assertThat(first.getLevel()).isEqualTo("INFO");
+        assertThat(first.getThread()).isEqualTo("smtp-1");
+        assertThat(first.getLogger()).isEqualTo("Session");
+        assertThat(page.getTotal()).isEqualTo(LINES);
+        assertThat(page.isHasMore()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should filter by level with stack traces attached to their entry")
+    void testLevelFilter() {
+        LogPage page = service().getLogs("ERROR", null, 2, 0, LogService.Order.NEWEST).block(Duration.ofSeconds(5));
+
+        assertThat(page.getEntries()).extracting(LogEntry::getMessage).containsExactly("line 9990", "line 9980");
+        assertThat(page.getEntries()).allSatisfy(entry -> assertThat(entry.getLevel()).isEqualTo("ERROR"));
+        assertThat(page.getEntries().get(0).getStackTrace())
+                .isEqualTo("java.io.IOException: line 9990\n\tat Session.relay(Session.java:42)");
+        assertThat(page.getTotal()).isEqualTo(LINES / 10);
+    }
+
+    @Test
+    @DisplayName("Should stop reading once an oldest-first page is full")
+    void testOldestFirstStopsEarly() {
+        LogPage page = service().getLogs(null, null, 5, 10, LogService.Order.OLDEST).block(Duration.ofSeconds(5));
+
+        assertThat(page.getEntries()).extracting(LogEntry::getMessage)
+                .first().isEqualTo("line 10");
+        assertThat(page.getEntries()).hasSize(5);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(cancelled).isTrue();
+        assertThat(chunksSent.get()).isLessThan(10);
+    }
+
+    @Test
+    @DisplayName("Should page newest first by cursor from one download, unaffected by appended lines")
+    void testNewestFirstCursor() {
+        LogService service = service();
+        LogFilter all = new LogFilter(null, null, null, null, null);
+        LogPage first = service.getLogs(all, 3, 0, null, LogService.Order.NEWEST).block(Duration.ofSeconds(5));
+        assertThat(first.getNextCursor()).isNotNull();
+
+        // Every line has the same timestamp, so the cursor resumes by rank alone
+        appended.set("2024-01-01 00:00:01.000 INFO  [smtp-0] Session - late line\r\n");
+        LogPage second = service.getLogs(all, 3, 0, first.getNextCursor(), LogService.Order.NEWEST)
+                .block(Duration.ofSeconds(5));
+        assertThat(second.getEntries()).extracting(LogEntry::getMessage)
+                .containsExactly("line 9996", "line 9995", "line 9994");
+        assertThat(requests).hasValue(1);
+
+        // A larger page than the snapshot holds scans again, now with the late line, and so
+        // does paging past it
+        LogPage deep = service.getLogs(all, 1000, 0, null, LogService.Order.NEWEST).block(Duration.ofSeconds(5));
+        assertThat(deep.getEntries()).extracting(LogEntry::getMessage).first().isEqualTo("late line");
+        assertThat(requests).hasValue(2);
+        String cursor = deep.getNextCursor();
+        deep = service.getLogs(all, 1000, 0, cursor, LogService.Order.NEWEST).block(Duration.ofSeconds(5));
+        assertThat(deep.getEntries()).extracting(LogEntry::getMessage).first().isEqualTo("line 9000");
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Should keep a newest-first snapshot proportional to the page size")
+    void testSnapshotSize() {
+        LogService service = service();
+        LogFilter all = new LogFilter(null, null, null, null, null);
+        LogPage page = service.getLogs(all, 10, 0, null, LogService.Order.NEWEST).block(Duration.ofSeconds(5));
+        for (int i = 1; i < 10; i++) {
+            page = service.getLogs(all, 10, 0, page.getNextCursor(), LogService.Order.NEWEST)
+                    .block(Duration.ofSeconds(5));
+        }
+        assertThat(page.getEntries()).extracting(LogEntry::getMessage).last().isEqualTo("line 9900");
+        assertThat(requests).hasValue(1);
+
+        // Ten pages of ten are kept, not max-window entries: the eleventh reads the log again
+        page = service.getLogs(all, 10, 0, page.getNextCursor(), LogService.Order.NEWEST).block(Duration.ofSeconds(5));
+        assertThat(page.getEntries()).extracting(LogEntry::getMessage).first().isEqualTo("line 9899");
+        assertThat(page.getTotal()).isEqualTo(LINES);
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should page oldest first by cursor")
+    void testOldestFirstCursor() {
+        LogService service = service();
+        LogFilter errors = new LogFilter("ERROR", null, null, null, null);
+        LogPage first = service.getLogs(errors, 2, 0, null, LogService.Order.OLDEST).block(Duration.ofSeconds(5));
+        LogPage second = service.getLogs(errors, 2, 0, first.getNextCursor(), LogService.Order.OLDEST)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(first.getEntries()).extracting(LogEntry::getMessage).containsExactly("line 0", "line 10");
+        assertThat(second.getEntries()).extracting(LogEntry::getMessage).containsExactly("line 20", "line 30");
+        assertThat(second.getNextCursor()).isNotNull().isNotEqualTo(first.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should reject cursors of another query")
+    void testForeignCursor() {
+        LogService service = service();
+        LogPage page = service.getLogs(null, null, 2, 0, LogService.Order.NEWEST).block(Duration.ofSeconds(5));
+        LogFilter errors = new LogFilter("ERROR", null, null, null, null);
+
+        assertThatThrownBy(() -> service.getLogs(errors, 2, 0, page.getNextCursor(), LogService.Order.NEWEST).block())
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> service.getLogs(errors, 2, 0, "not-a-cursor", LogService.Order.NEWEST).block())
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject windows beyond the configured maximum")
+    void testWindowLimit() {
+        assertThatThrownBy(() -> service().getLogs(null, null, 100, 901, LogService.Order.NEWEST).block())
+                .isInstanceOf(InvalidRequestException.class);
+    }
+}
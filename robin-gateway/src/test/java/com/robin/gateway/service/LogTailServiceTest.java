@@ -0,0 +1,181 @@
+package com.robin.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for LogTailService.
+ */
+@DisplayName("LogTailService Tests")
+class LogTailServiceTest {
+
+    private final StringBuffer mtaLog = new StringBuffer();
+    private final AtomicInteger fullReads = new AtomicInteger();
+    private final AtomicInteger rangeReads = new AtomicInteger();
+    private volatile boolean honourRange = true;
+    private LogTailService tail;
+
+    /**
+     * MTA stub that honours {@code Range: bytes=<offset>-} on its log unless
+     * {@code honourRange} is cleared.
+     */
+    @BeforeEach
+    void setUp() {
+        append("2024-01-01 10:00:00.000 INFO [smtp-1] Session - old entry",
+                "2024-01-01 10:00:01.000 ERROR [smtp-2] Session - old failure",
+                "2024-01-01 10:00:02.000 INFO [smtp-1] Session - last entry");
+
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            byte[] bytes = mtaLog.toString().getBytes(StandardCharsets.UTF_8);
+            String range = request.headers().getFirst(HttpHeaders.RANGE);
+            if (range == null || !honourRange) {
+                fullReads.incrementAndGet();
+                return Mono.just(response(HttpStatus.OK, bytes, 0));
+            }
+            rangeReads.incrementAndGet();
+            int from = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+            if (from >= bytes.length) {
+                return Mono.just(ClientResponse.create(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + bytes.length)
+                        .build());
+            }
+            return Mono.just(response(HttpStatus.PARTIAL_CONTENT, bytes, from));
+        });
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LogSegmentStore index = new LogSegmentStore(new LogIndexProperties(), meterRegistry);
+        LogService logService = new LogService(builder, index, "http://robin:8090", 4096, 1000, "UTC", 8, Duration.ofSeconds(10), meterRegistry);
+        tail = new LogTailService(logService, index, builder, new ObjectMapper(), "http://robin:8090",
+                Duration.ofMillis(50), Duration.ofHours(1), Duration.ofSeconds(5), DataSize.ofKilobytes(64), 2, 16,
+                Duration.ofHours(1), Duration.ofMillis(100), meterRegistry);
+    }
+
+    /**
+     * Append lines in one write, as the MTA's logger does for an event and its stack trace.
+     */
+    private void append(String... lines) {
+        mtaLog.append(String.join("\n", lines)).append('\n');
+    }
+
+    private static ClientResponse response(HttpStatus status, byte[] bytes, int from) {
+        return ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                .body(Flux.just((DataBuffer) DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(bytes, from, bytes.length - from))))
+                .build();
+    }
+
+    private static Mono<List<String>> entries(Flux<ServerSentEvent<String>> stream, int count) {
+        return stream.filter(event -> event.data() != null)
+                .map(ServerSentEvent::data)
+                .take(count)
+                .collectList();
+    }
+
+    @Test
+    @DisplayName("Should share one upstream follower between viewers")
+    void testSharedTail() {
+        Mono<List<String>> first = entries(tail.stream(null, null, null), 3);
+        Mono<List<String>> second = entries(tail.stream(null, null, null)
+                .delaySubscription(Duration.ofMillis(120)), 3);
+        Mono.delay(Duration.ofMillis(250)).subscribe(tick -> append(
+                "2024-01-01 10:00:03.000 WARN [smtp-3] Session - new entry"));
+
+        var both = Mono.zip(first, second).block(Duration.ofSeconds(5));
+
+        for (List<String> viewer : List.of(both.getT1(), both.getT2())) {
+            assertThat(viewer).hasSize(3);
+            assertThat(viewer.get(0)).contains("\"message\":\"old failure\"");
+            assertThat(viewer.get(1)).contains("\"message\":\"last entry\"");
+            assertThat(viewer.get(2)).contains("\"message\":\"new entry\"", "\"level\":\"WARN\"",
+                    "\"thread\":\"smtp-3\"", "\"timestamp\":\"2024-01-01T10:00:03Z\"");
+        }
+        // Both viewers were served by one initial download, then byte-range polls
+        assertThat(fullReads).hasValue(1);
+        assertThat(rangeReads.get()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should apply level and search filters per viewer")
+    void testFilters() {
+        Mono<List<String>> errors = entries(tail.stream(null, "ERROR", null), 2);
+        Mono<List<String>> search = entries(tail.stream(null, null, "RELAY"), 1);
+        Mono.delay(Duration.ofMillis(200)).subscribe(tick -> {
+            append("2024-01-01 10:00:04.000 INFO [smtp-1] Session - unrelated");
+            append("2024-01-01 10:00:05.000 ERROR [smtp-4] Relay - relay refused",
+                    "java.io.IOException: refused",
+                    "\tat Relay.send(Relay.java:42)");
+        });
+
+        var both = Mono.zip(errors, search).block(Duration.ofSeconds(5));
+
+        assertThat(both.getT1()).hasSize(2);
+        assertThat(both.getT1().get(0)).contains("old failure");
+        assertThat(both.getT1().get(1)).contains("\"logger\":\"Relay\"",
+                "\"stackTrace\":\"java.io.IOException: refused\\n\\tat Relay.send(Relay.java:42)\"");
+        assertThat(both.getT2()).singleElement().asString().contains("relay refused");
+    }
+
+    @Test
+    @DisplayName("Should skip replayed entries the client already has")
+    void testLastEventId() {
+        List<String> replayed = entries(tail.stream(null, null, null), 2).block(Duration.ofSeconds(5));
+        Mono.delay(Duration.ofMillis(150)).subscribe(tick -> append(
+                "2024-01-01 10:00:06.000 INFO [smtp-1] Session - after reconnect"));
+
+        List<String> resumed = entries(tail.stream(2L, null, null), 1).block(Duration.ofSeconds(5));
+
+        assertThat(replayed).hasSize(2);
+        assertThat(resumed).singleElement().asString().contains("after reconnect");
+    }
+
+    @Test
+    @DisplayName("Should match the level filter regardless of case")
+    void testLevelCase() {
+        List<String> errors = entries(tail.stream(null, " error ", null), 1).block(Duration.ofSeconds(5));
+
+        assertThat(errors).singleElement().asString().contains("old failure");
+    }
+
+    @Test
+    @DisplayName("Should back off when the MTA ignores Range requests")
+    void testRangeIgnored() {
+        honourRange = false;
+        AtomicInteger replayed = new AtomicInteger();
+        // Appended once the replay is through, so only a range poll can deliver it
+        Flux<ServerSentEvent<String>> stream = tail.stream(null, null, null)
+                .doOnNext(event -> {
+                    if (event.data() != null && replayed.incrementAndGet() == 2) {
+                        append("2024-01-01 10:00:07.000 INFO [smtp-1] Session - appended");
+                    }
+                });
+
+        List<String> seen = entries(stream, 3).block(Duration.ofSeconds(5));
+        Flux.interval(Duration.ofMillis(50)).take(10).blockLast();
+
+        assertThat(seen.get(2)).contains("appended");
+        // The first range poll downloads the whole log; later ones wait for the longer interval
+        assertThat(fullReads).hasValue(2);
+    }
+}
@@ -0,0 +1,159 @@
+package com.robin.gateway.service;
+
+import com.robin.gateway.datasource.DatabaseCalls;
+import com.robin.gateway.datasource.WorkloadProperties;
+import com.robin.gateway.model.dto.SearchResponse;
+import com.robin.gateway.model.dto.SearchResponse.SearchHit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for SearchService.
+ * <p>
+ * The queries themselves run against PostgreSQL in SearchIntegrationTest; here the
+ * database is a stub that records each query and answers with up to three hits per table.
+ */
+@DisplayName("SearchService Tests")
+class SearchServiceTest {
+
+    /** One executed query: the SQL and its bind values. */
+    private record Query(String sql, List<Object> args) {
+
+        String table() {
+            return sql.substring(sql.indexOf(" FROM ") + 6).split(" ")[0];
+        }
+
+        Object pattern() {
+            return args.get(0);
+        }
+
+        Object limit() {
+            return args.get(args.size() - 1);
+        }
+    }
+
+    private final List<Query> queries = new ArrayList<>();
+    private SearchService service;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+                Query query = new Query(sql, List.of(args));
+                queries.add(query);
+                // Up to three rows per table, fewer if the limit says so
+                return (List<T>) LongStream.rangeClosed(1, Math.min(3, (Integer) query.limit()))
+                        .mapToObj(id -> SearchHit.builder()
+                                .id(id)
+                                .value(query.table() + " " + id)
+                                .detail(query.table().equals("aliases") ? "destination " + id : null)
+                                .build())
+                        .collect(Collectors.toList());
+            }
+        };
+        DatabaseCalls databaseCalls = new DatabaseCalls(mock(PlatformTransactionManager.class),
+                new WorkloadProperties(), new SimpleMeterRegistry());
+        service = new SearchService(jdbcTemplate, databaseCalls, 2, 16, Duration.ofMinutes(1));
+    }
+
+    private SearchResponse search(String query, int limit) {
+        return service.search(query, limit).block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should group hits by entity type for the normalized term")
+    void testGrouping() {
+        SearchResponse response = search("  Example ", 10);
+
+        assertThat(response.getQuery()).isEqualTo("example");
+        assertThat(queries).extracting(Query::table).containsExactly("users", "domains", "aliases");
+        assertThat(response.getUsers()).extracting(SearchHit::getValue)
+                .containsExactly("users 1", "users 2", "users 3");
+        assertThat(response.getDomains()).extracting(SearchHit::getValue)
+                .containsExactly("domains 1", "domains 2", "domains 3");
+        assertThat(response.getAliases()).extracting(SearchHit::getValue, SearchHit::getDetail)
+                .first().isEqualTo(tuple("aliases 1", "destination 1"));
+        // Aliases match on either address and rank by the closer of the two
+        assertThat(queries.get(2).args()).containsExactly("%example%", "%example%", "example", "example", 10);
+    }
+
+    @Test
+    @DisplayName("Should cap the limit per entity type")
+    void testLimits() {
+        assertThat(search("example", 1).getUsers()).hasSize(1);
+        search("example", 500);
+        search("example", -3);
+
+        assertThat(queries).extracting(Query::limit).containsExactly(1, 1, 1,
+                SearchService.MAX_LIMIT, SearchService.MAX_LIMIT, SearchService.MAX_LIMIT,
+                1, 1, 1);
+    }
+
+    @Test
+    @DisplayName("Should match LIKE wildcards and the escape character literally")
+    void testEscaping() {
+        search("50%_off\\now", 10);
+
+        assertThat(queries).extracting(Query::pattern).containsOnly("%50\\%\\_off\\\\now%");
+        // Similarity ranks by the unescaped term
+        assertThat(queries.get(0).args().get(1)).isEqualTo("50%_off\\now");
+    }
+
+    @Test
+    @DisplayName("Should answer short prefixes from the cache per term and limit")
+    void testPrefixCache() {
+        SearchResponse first = search("ex", 10);
+        SearchResponse again = search("EX ", 10);
+        assertThat(again).isSameAs(first);
+        assertThat(queries).hasSize(3);
+
+        search("ex", 5);
+        assertThat(queries).hasSize(6);
+
+        // Longer terms go to the database every time
+        search("exa", 10);
+        search("exa", 10);
+        assertThat(queries).hasSize(12);
+    }
+
+    @Test
+    @DisplayName("Should match terms too short for trigrams as a prefix")
+    void testShortTermPrefix() {
+        search("e_", 10);
+        search("exa", 10);
+
+        assertThat(queries.subList(0, 3)).allSatisfy(query -> assertThat(query.sql()).contains("lower("));
+        assertThat(queries.get(0).args()).containsExactly("e\\_%", 10);
+        assertThat(queries.get(2).args()).containsExactly("e\\_%", "e\\_%", 10);
+        assertThat(queries.get(3).sql()).contains("ILIKE");
+        assertThat(queries.get(3).pattern()).isEqualTo("%exa%");
+    }
+
+    @Test
+    @DisplayName("Should not query the database for a blank term")
+    void testBlankTerm() {
+        SearchResponse response = search("   ", 10);
+
+        assertThat(response.getUsers()).isEmpty();
+        assertThat(response.getDomains()).isEmpty();
+        assertThat(response.getAliases()).isEmpty();
+        assertThat(queries).isEmpty();
+    }
+}
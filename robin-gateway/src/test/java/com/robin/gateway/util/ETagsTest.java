@@ -0,0 +1,46 @@
+package com.robin.gateway.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ETags.
+ */
+@DisplayName("ETags Tests")
+class ETagsTest {
+
+    private final String etag = ETags.of("{\"port\":25}".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    @DisplayName("Should produce a stable quoted content hash")
+    void testTagFormat() {
+        assertThat(etag).startsWith("\"").endsWith("\"").hasSize(45);
+        assertThat(ETags.of("{\"port\":25}".getBytes(StandardCharsets.UTF_8))).isEqualTo(etag);
+        assertThat(ETags.of("{\"port\":26}".getBytes(StandardCharsets.UTF_8))).isNotEqualTo(etag);
+    }
+
+    @Test
+    @DisplayName("Should compare If-None-Match weakly against a list of tags")
+    void testIfNoneMatch() {
+        assertThat(ETags.noneMatchFails(null, etag)).isFalse();
+        assertThat(ETags.noneMatchFails("\"other\", " + etag, etag)).isTrue();
+        assertThat(ETags.noneMatchFails("W/" + etag, etag)).isTrue();
+        assertThat(ETags.noneMatchFails("*", etag)).isTrue();
+        assertThat(ETags.noneMatchFails("*", null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should compare If-Match strongly and require an existing resource")
+    void testIfMatch() {
+        assertThat(ETags.matchSucceeds(null, null)).isTrue();
+        assertThat(ETags.matchSucceeds(etag, etag)).isTrue();
+        assertThat(ETags.matchSucceeds("W/" + etag, etag)).isFalse();
+        assertThat(ETags.matchSucceeds("*", etag)).isTrue();
+        assertThat(ETags.matchSucceeds("*", null)).isFalse();
+        assertThat(ETags.matchSucceeds("\"stale\"", etag)).isFalse();
+    }
+}
@@ -0,0 +1,109 @@
+package com.robin.gateway.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robin.gateway.exception.InvalidRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for JsonPatches.
+ */
+@DisplayName("JsonPatches Tests")
+class JsonPatchesTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode json(String json) throws Exception {
+        return mapper.readTree(json.replace('\'', '"'));
+    }
+
+    @Test
+    @DisplayName("Should apply the RFC 7396 merge patch example")
+    void testMergePatchRfcExample() throws Exception {
+        JsonNode target = json("{'title':'Goodbye!','author':{'givenName':'John','familyName':'Doe'},"
+                + "'tags':['example','sample'],'content':'This will be unchanged'}");
+        JsonNode patch = json("{'title':'Hello!','phoneNumber':'+01-555-1234','author':{'familyName':null},"
+                + "'tags':['example']}");
+
+        JsonNode result = JsonPatches.mergePatch(target, patch);
+
+        assertThat(result).isEqualTo(json("{'title':'Hello!','author':{'givenName':'John'},"
+                + "'tags':['example'],'content':'This will be unchanged','phoneNumber':'+01-555-1234'}"));
+        assertThat(target.get("title").asText()).isEqualTo("Goodbye!");
+    }
+
+    @Test
+    @DisplayName("Should share untouched subtrees and return the input for no-op patches")
+    void testMergePatchCopyOnWrite() throws Exception {
+        JsonNode target = json("{'a':{'x':1},'b':{'y':2}}");
+
+        JsonNode result = JsonPatches.mergePatch(target, json("{'a':{'x':3}}"));
+        assertThat(result.get("b")).isSameAs(target.get("b"));
+        assertThat(target.at("/a/x").asInt()).isEqualTo(1);
+
+        assertThat(JsonPatches.mergePatch(target, json("{'a':{'x':1},'missing':null}"))).isSameAs(target);
+    }
+
+    @Test
+    @DisplayName("Should apply RFC 6902 operations without touching the input")
+    void testJsonPatchOperations() throws Exception {
+        JsonNode target = json("{'foo':['bar','baz'],'qux':{'a':1}}");
+        JsonNode patch = json("["
+                + "{'op':'test','path':'/qux/a','value':1},"
+                + "{'op':'add','path':'/foo/1','value':'qux'},"
+                + "{'op':'add','path':'/foo/-','value':'end'},"
+                + "{'op':'remove','path':'/foo/0'},"
+                + "{'op':'replace','path':'/qux/a','value':2},"
+                + "{'op':'copy','from':'/qux','path':'/copy'},"
+                + "{'op':'move','from':'/copy/a','path':'/moved'}"
+                + "]");
+
+        JsonNode result = JsonPatches.jsonPatch(target, patch);
+
+        assertThat(result).isEqualTo(json("{'foo':['qux','baz','end'],'qux':{'a':2},'copy':{},'moved':2}"));
+        assertThat(target).isEqualTo(json("{'foo':['bar','baz'],'qux':{'a':1}}"));
+    }
+
+    @Test
+    @DisplayName("Should reject failed tests and missing paths atomically")
+    void testJsonPatchErrors() throws Exception {
+        JsonNode target = json("{'a':1}");
+
+        assertThatThrownBy(() -> JsonPatches.jsonPatch(target, json("[{'op':'test','path':'/a','value':2}]")))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> JsonPatches.jsonPatch(target, json("[{'op':'remove','path':'/b'}]")))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> JsonPatches.jsonPatch(target, json("[{'op':'add','path':'/x/y','value':1}]")))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThat(JsonPatches.jsonPatch(target, json("[{'op':'replace','path':'/a','value':1}]"))).isSameAs(target);
+    }
+
+    @Test
+    @DisplayName("Should resolve JSON pointers with escaping")
+    void testPointer() throws Exception {
+        JsonNode document = json("{'a/b':{'m~n':[10,20]}}");
+
+        assertThat(JsonPatches.at(document, "/a~1b/m~0n/1").asInt()).isEqualTo(20);
+        assertThat(JsonPatches.at(document, "/missing")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should diff documents into a patch that reproduces the target")
+    void testDiff() throws Exception {
+        JsonNode source = json("{'relay':{'enabled':false,'hosts':['a']},'old':1,'a/b':true}");
+        JsonNode target = json("{'relay':{'enabled':true,'hosts':['a','b']},'new':2,'a/b':true}");
+
+        JsonNode diff = JsonPatches.diff(source, target);
+
+        assertThat(diff).isEqualTo(json("[{'op':'remove','path':'/old'},"
+                + "{'op':'replace','path':'/relay/enabled','value':true},"
+                + "{'op':'replace','path':'/relay/hosts','value':['a','b']},"
+                + "{'op':'add','path':'/new','value':2}]"));
+        assertThat(JsonPatches.jsonPatch(source, diff)).isEqualTo(target);
+        assertThat(JsonPatches.diff(source, source)).isEmpty();
+    }
+}
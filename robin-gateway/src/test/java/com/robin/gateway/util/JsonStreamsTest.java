@@ -0,0 +1,86 @@
+package com.robin.gateway.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for JsonStreams.
+ */
+@DisplayName("JsonStreams Tests")
+class JsonStreamsTest {
+
+    private static final String JSON5 = """
+            {
+              // Routing table
+              routes: [
+                { domain: 'a.example', host: 'mx1', },
+                { domain: 'b.example', host: 'mx2', weights: [1, 2] },
+              ],
+              'relay/limits': { rate: 12.50000000000000000001, burst: 100 },
+            }
+            """;
+
+    private final ObjectMapper json5 = JsonMapper.builder()
+            .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+            .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+            .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .build();
+
+    private JsonParser parser() throws Exception {
+        return json5.createParser(JSON5);
+    }
+
+    @Test
+    @DisplayName("Should read only the subtree at a pointer")
+    void testReadAt() throws Exception {
+        assertThat(JsonStreams.readAt(parser(), JsonPointer.compile("/routes/1/host")).asText()).isEqualTo("mx2");
+        assertThat(JsonStreams.readAt(parser(), JsonPointer.compile("/routes/1/weights")).toString()).isEqualTo("[1,2]");
+        assertThat(JsonStreams.readAt(parser(), JsonPointer.compile("/relay~1limits/burst")).asInt()).isEqualTo(100);
+        assertThat(JsonStreams.readAt(parser(), JsonPointer.compile("")).get("routes").size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should return null for pointers that do not resolve")
+    void testReadAtMissing() throws Exception {
+        assertThat(JsonStreams.readAt(parser(), JsonPointer.compile("/routes/2"))).isNull();
+        assertThat(JsonStreams.readAt(parser(), JsonPointer.compile("/routes/x"))).isNull();
+        assertThat(JsonStreams.readAt(parser(), JsonPointer.compile("/missing/child"))).isNull();
+        assertThat(JsonStreams.readAt(parser(), JsonPointer.compile("/routes/0/domain/deeper"))).isNull();
+    }
+
+    @Test
+    @DisplayName("Should re-encode JSON5 as strict JSON in small chunks")
+    void testCopy() throws Exception {
+        List<DataBuffer> chunks = JsonStreams.copy(this::parser, DefaultDataBufferFactory.sharedInstance, 16)
+                .collectList()
+                .block();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (DataBuffer chunk : chunks) {
+            byte[] bytes = new byte[chunk.readableByteCount()];
+            chunk.read(bytes);
+            out.writeBytes(bytes);
+            DataBufferUtils.release(chunk);
+        }
+        String json = out.toString(StandardCharsets.UTF_8);
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(new ObjectMapper().readTree(json)).isEqualTo(json5.readTree(JSON5));
+        assertThat(json).contains("12.50000000000000000001");
+    }
+}
@@ -0,0 +1,104 @@
+package com.robin.gateway.util;
+
+import com.robin.gateway.util.LogLineParser.LogLine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for LogLineParser.
+ */
+@DisplayName("LogLineParser Tests")
+class LogLineParserTest {
+
+    private final LogLineParser parser = new LogLineParser(ZoneOffset.UTC);
+
+    @Test
+    @DisplayName("Should parse timestamp, thread, level, logger and message")
+    void testParse() {
+        LogLine line = parser.parse("2024-01-15 10:30:00.123 INFO  [smtp-1] SmtpListener - Connection from 10.0.0.1");
+
+        assertThat(line.instant()).isEqualTo(Instant.parse("2024-01-15T10:30:00.123Z"));
+        assertThat(line.level()).isEqualTo(LogLineParser.Level.INFO);
+        assertThat(line.thread()).isEqualTo("smtp-1");
+        assertThat(line.logger()).isEqualTo("SmtpListener");
+        assertThat(line.message()).isEqualTo("Connection from 10.0.0.1");
+        assertThat(line.stackTrace()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should accept the alternative layouts")
+    void testLayouts() {
+        LogLine compact = parser.parse("20240115 10:30:00.5 [queue-2] WARNING QueueWorker: Retry scheduled");
+        assertThat(compact.instant()).isEqualTo(Instant.parse("2024-01-15T10:30:00.500Z"));
+        assertThat(compact.level()).isEqualTo(LogLineParser.Level.WARN);
+        assertThat(compact.thread()).isEqualTo("queue-2");
+        assertThat(compact.logger()).isEqualTo("QueueWorker");
+        assertThat(compact.message()).isEqualTo("Retry scheduled");
+
+        LogLine iso = parser.parse("2024-01-15T10:30:00,123+02:00 FATAL Out of memory");
+        assertThat(iso.instant()).isEqualTo(Instant.parse("2024-01-15T08:30:00.123Z"));
+        assertThat(iso.level()).isEqualTo(LogLineParser.Level.ERROR);
+        assertThat(iso.thread()).isNull();
+        assertThat(iso.logger()).isNull();
+        assertThat(iso.message()).isEqualTo("Out of memory");
+    }
+
+    @Test
+    @DisplayName("Should read local timestamps in the configured zone across DST")
+    void testZone() {
+        LogLineParser london = new LogLineParser(ZoneId.of("Europe/London"));
+
+        assertThat(london.parse("2024-01-15 10:00:00 INFO x").instant())
+                .isEqualTo(Instant.parse("2024-01-15T10:00:00Z"));
+        assertThat(london.parse("2024-07-15 10:00:00 INFO x").instant())
+                .isEqualTo(Instant.parse("2024-07-15T09:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Should reject continuation and foreign lines and count them")
+    void testUnrecognized() {
+        assertThat(parser.parse("\tat com.mimecast.robin.Session.relay(Session.java:42)")).isNull();
+        assertThat(parser.parse("java.io.IOException: Connection reset")).isNull();
+        assertThat(parser.parse("2024-01-15 10:30:00 Starting Robin")).isNull();
+        assertThat(parser.parse("2024-13-15 10:30:00 INFO bad month")).isNull();
+        assertThat(parser.parse("2024-01-15 10:30:00 INFO ok")).isNotNull();
+
+        assertThat(parser.unrecognizedCount()).isEqualTo(4);
+        assertThat(parser.parsedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should parse syslog, ctime and level-less lines of other programs loosely")
+    void testParseLoose() {
+        LogLine clamav = parser.parseLoose("Mon Jan  5 10:30:00 2024 -> LibClamAV Warning: old database");
+        assertThat(clamav.instant()).isEqualTo(Instant.parse("2024-01-05T10:30:00Z"));
+        assertThat(clamav.level()).isEqualTo(LogLineParser.Level.WARN);
+        assertThat(clamav.message()).isEqualTo("LibClamAV Warning: old database");
+        assertThat(clamav.logger()).isNull();
+
+        LogLine dovecot = parser.parseLoose("Jan 15 10:30:00 mail dovecot: imap(joe): Error: Quota exceeded");
+        assertThat(dovecot.level()).isEqualTo(LogLineParser.Level.ERROR);
+        assertThat(dovecot.instant().toString()).endsWith("-01-15T10:30:00Z");
+
+        assertThat(parser.parseLoose("2024-01-15 10:30:00 Starting Robin").level()).isEqualTo(LogLineParser.Level.INFO);
+        assertThat(parser.parseLoose("2024-01-15 10:30:00 INFO [main] Server - ok").logger()).isEqualTo("Server");
+        assertThat(parser.parseLoose("\tat com.mimecast.robin.Session.relay(Session.java:42)")).isNull();
+        assertThat(parser.parseLoose("Foo 15 10:30:00 not a month")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should compute epoch days like java.time")
+    void testDaysFromCivil() {
+        for (LocalDate date = LocalDate.of(1899, 12, 25); date.getYear() < 2101; date = date.plusDays(13)) {
+            assertThat(LogLineParser.daysFromCivil(date.getYear(), date.getMonthValue(), date.getDayOfMonth()))
+                    .isEqualTo(date.toEpochDay());
+        }
+    }
+}
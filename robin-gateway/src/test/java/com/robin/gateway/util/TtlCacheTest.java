@@ -0,0 +1,60 @@
+package com.robin.gateway.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for TtlCache.
+ */
+@DisplayName("TtlCache Tests")
+class TtlCacheTest {
+
+    @Test
+    @DisplayName("should return stored value before expiry")
+    void shouldReturnStoredValue() {
+        TtlCache<String, String> cache = new TtlCache<>(10, Duration.ofMinutes(1));
+
+        cache.put("a", "1");
+
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("b")).isNull();
+    }
+
+    @Test
+    @DisplayName("should treat expired entries as absent")
+    void shouldExpireEntries() {
+        TtlCache<String, String> cache = new TtlCache<>(10, Duration.ZERO);
+
+        cache.put("a", "1");
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("should evict least recently used entry when full")
+    void shouldEvictLeastRecentlyUsed() {
+        TtlCache<String, String> cache = new TtlCache<>(2, Duration.ofMinutes(1));
+
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo("3");
+    }
+
+    @Test
+    @DisplayName("should reject non-positive capacity")
+    void shouldRejectInvalidCapacity() {
+        assertThatThrownBy(() -> new TtlCache<String, String>(0, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}